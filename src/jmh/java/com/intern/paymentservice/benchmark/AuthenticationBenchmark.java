@@ -0,0 +1,83 @@
+package com.intern.paymentservice.benchmark;
+
+import com.intern.paymentservice.security.PaymentJwtAuthenticationConverter;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import com.intern.paymentservice.service.impl.AuthenticationServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request security work: the realm-role converter that SecurityConfig installs, and role and claim
+ * extraction in {@link AuthenticationServiceImpl} for tokens built by that converter as well as for
+ * plain JWT authentications, which take the slower per-call path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthenticationBenchmark {
+
+    private final PaymentJwtAuthenticationConverter converter = new PaymentJwtAuthenticationConverter();
+    private final AuthenticationServiceImpl authenticationService = new AuthenticationServiceImpl();
+    private Jwt jwt;
+    private AbstractAuthenticationToken paymentToken;
+    private JwtAuthenticationToken plainToken;
+
+    @Setup
+    public void setUp() {
+        jwt = PaymentFixtures.jwt("default-roles-payments", "offline_access", "user");
+        paymentToken = converter.convert(jwt);
+        plainToken = new JwtAuthenticationToken(jwt, paymentToken.getAuthorities());
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertRealmRoles() {
+        return converter.convert(jwt);
+    }
+
+    @Benchmark
+    public PaymentPrincipal principalFromConvertedToken() {
+        SecurityContextHolder.getContext().setAuthentication(paymentToken);
+        return authenticationService.getPrincipal();
+    }
+
+    @Benchmark
+    public PaymentPrincipal principalFromPlainJwtToken() {
+        SecurityContextHolder.getContext().setAuthentication(plainToken);
+        return authenticationService.getPrincipal();
+    }
+
+    @Benchmark
+    public long internalIdFromConvertedToken() {
+        SecurityContextHolder.getContext().setAuthentication(paymentToken);
+        return authenticationService.getInternalId();
+    }
+
+    @Benchmark
+    public boolean isAdminFromPlainJwtToken() {
+        SecurityContextHolder.getContext().setAuthentication(plainToken);
+        return authenticationService.isAdmin();
+    }
+}
@@ -0,0 +1,103 @@
+package com.intern.paymentservice.benchmark;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.dto.PaymentTotalResponse;
+import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.security.PaymentJwtAuthenticationConverter;
+import com.intern.paymentservice.service.PaymentService;
+import com.intern.paymentservice.service.impl.AuthenticationServiceImpl;
+import com.intern.paymentservice.service.impl.PaymentAuthorizationDecorator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Role-based dispatch of {@link PaymentAuthorizationDecorator} to delegates that return immediately,
+ * so the result is the cost the decorator adds to every service call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentAuthorizationDecoratorBenchmark {
+
+    @Param({"admin", "user"})
+    String role;
+
+    private final List<PaymentResponse> byUser = PaymentFixtures.responses(10);
+    private PaymentService decorator;
+
+    @Setup
+    public void setUp() {
+        PaymentService delegate = new ConstantPaymentService(byUser);
+        decorator = new PaymentAuthorizationDecorator(new AuthenticationServiceImpl(), delegate, delegate);
+        SecurityContextHolder.getContext().setAuthentication(
+                new PaymentJwtAuthenticationConverter().convert(PaymentFixtures.jwt(role)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public List<PaymentResponse> findPaymentsByUserId() {
+        return decorator.findPaymentsByUserId(1_042L);
+    }
+
+    private record ConstantPaymentService(List<PaymentResponse> responses) implements PaymentService {
+
+        @Override
+        public PaymentResponse createPayment(CreatePaymentRequest request) {
+            return responses.getFirst();
+        }
+
+        @Override
+        public PaymentResponse updatePaymentStatus(String id, UpdatePaymentStatusRequest request) {
+            return responses.getFirst();
+        }
+
+        @Override
+        public void deletePayment(String id) {
+            // nothing to delete
+        }
+
+        @Override
+        public List<PaymentResponse> findPaymentsByOrderId(Long orderId) {
+            return responses;
+        }
+
+        @Override
+        public List<PaymentResponse> findPaymentsByUserId(Long userId) {
+            return responses;
+        }
+
+        @Override
+        public List<PaymentResponse> findPaymentsByStatuses(List<PaymentStatus> statuses) {
+            return responses;
+        }
+
+        @Override
+        public PaymentTotalResponse findPaymentTotalForPeriod(Instant start, Instant end) {
+            return null;
+        }
+    }
+}
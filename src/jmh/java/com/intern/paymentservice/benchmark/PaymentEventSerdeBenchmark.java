@@ -0,0 +1,74 @@
+package com.intern.paymentservice.benchmark;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.service.broker.codec.PaymentBinaryCodec;
+import com.intern.paymentservice.service.broker.codec.PaymentEventDeserializer;
+import com.intern.paymentservice.service.broker.codec.PaymentEventSerializer;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka serde of CREATE_ORDER payloads with the serializer and deserializer configured as in application.yaml,
+ * for both the JSON and the binary codec.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentEventSerdeBenchmark {
+
+    private static final String TOPIC = "CREATE_ORDER";
+
+    @Param({"json", PaymentBinaryCodec.BINARY})
+    String codec;
+
+    private final PaymentEventSerializer serializer = new PaymentEventSerializer();
+    private final PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+    private CreatePaymentRequest request;
+    private byte[] encoded;
+    private Headers encodedHeaders;
+
+    @Setup
+    public void setUp() {
+        serializer.configure(Map.of(PaymentEventSerializer.CODEC_CONFIG, codec), false);
+        deserializer.configure(Map.of(
+                "spring.json.use.type.headers", false,
+                "spring.json.value.default.type", CreatePaymentRequest.class.getName()), false);
+        request = PaymentFixtures.createRequest(42L);
+        encodedHeaders = new RecordHeaders();
+        encoded = serializer.serialize(TOPIC, encodedHeaders, request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), request);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize(TOPIC, encodedHeaders, encoded);
+    }
+}
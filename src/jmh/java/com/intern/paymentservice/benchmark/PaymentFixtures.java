@@ -0,0 +1,60 @@
+package com.intern.paymentservice.benchmark;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic inputs shared by the benchmarks, shaped like production data.
+ */
+final class PaymentFixtures {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+    private PaymentFixtures() {
+    }
+
+    static CreatePaymentRequest createRequest(long orderId) {
+        return new CreatePaymentRequest(orderId, 1_000L + orderId % 977, new BigDecimal("129.99"));
+    }
+
+    static Payment payment(long orderId) {
+        return new Payment("665f1c2ab4e8a91d2c3b4a" + String.format("%02x", orderId % 256), orderId,
+                1_000L + orderId % 977, STATUSES[(int) (orderId % STATUSES.length)],
+                NOW.minusSeconds(orderId * 37), new BigDecimal("129.99"));
+    }
+
+    static List<PaymentResponse> responses(int count) {
+        List<PaymentResponse> responses = new ArrayList<>(count);
+        for (long orderId = 1; orderId <= count; orderId++) {
+            Payment payment = payment(orderId);
+            responses.add(new PaymentResponse(payment.getId(), payment.getOrderId(), payment.getUserId(),
+                    payment.getStatus(), payment.getTimestamp(), payment.getPaymentAmount()));
+        }
+        return responses;
+    }
+
+    /**
+     * Access token with the claims Keycloak issues for the payment API.
+     */
+    static Jwt jwt(String... realmRoles) {
+        return Jwt.withTokenValue("benchmark")
+                .header("alg", "RS256")
+                .subject("3f8e2a4c-5b1d-4e7f-9a0b-1c2d3e4f5a6b")
+                .issuedAt(NOW)
+                .expiresAt(NOW.plusSeconds(300))
+                .claim("scope", "openid profile email")
+                .claim("internal_id", 4242L)
+                .claim("realm_access", Map.of("roles", List.of(realmRoles)))
+                .build();
+    }
+}
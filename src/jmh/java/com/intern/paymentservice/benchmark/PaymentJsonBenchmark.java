@@ -0,0 +1,46 @@
+package com.intern.paymentservice.benchmark;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the list responses returned by the read endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentJsonBenchmark {
+
+    @Param({"1", "100", "1000"})
+    int payments;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private List<PaymentResponse> responses;
+
+    @Setup
+    public void setUp() {
+        responses = PaymentFixtures.responses(payments);
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() {
+        return jsonMapper.writeValueAsBytes(responses);
+    }
+}
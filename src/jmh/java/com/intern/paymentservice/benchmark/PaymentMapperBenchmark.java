@@ -0,0 +1,57 @@
+package com.intern.paymentservice.benchmark;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.mapper.PaymentMapper;
+import com.intern.paymentservice.mapper.PaymentMapperImpl;
+import com.intern.paymentservice.model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * MapStruct conversions on the create path and on list reads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentMapperBenchmark {
+
+    @Param({"1", "100"})
+    int payments;
+
+    private final PaymentMapper mapper = new PaymentMapperImpl();
+    private CreatePaymentRequest request;
+    private List<Payment> entities;
+
+    @Setup
+    public void setUp() {
+        request = PaymentFixtures.createRequest(42L);
+        entities = LongStream.rangeClosed(1, payments).mapToObj(PaymentFixtures::payment).toList();
+    }
+
+    @Benchmark
+    public Payment toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public List<PaymentResponse> toResponses() {
+        return entities.stream().map(mapper::toResponse).toList();
+    }
+}
@@ -0,0 +1,71 @@
+package com.intern.paymentservice.actuator;
+
+import com.intern.paymentservice.model.DltReplayJob;
+import com.intern.paymentservice.model.DltReplayTarget;
+import com.intern.paymentservice.service.replay.DltReplayRequest;
+import com.intern.paymentservice.service.replay.DltReplayService;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@code /actuator/dltreplay}: GET lists replay jobs, GET {@code /{id}} shows one, POST starts a replay and
+ * DELETE {@code /{id}} cancels one. Write and delete access is limited to admins by the security configuration.
+ */
+@Component
+@Endpoint(id = "dltreplay")
+@RequiredArgsConstructor
+public class DltReplayEndpoint {
+
+    private final DltReplayService replayService;
+
+    @ReadOperation
+    public List<DltReplayJob> jobs() {
+        return replayService.findAll();
+    }
+
+    @ReadOperation
+    public DltReplayJob job(@Selector String id) {
+        return replayService.find(id).orElse(null);
+    }
+
+    /**
+     * @param partitions comma-separated DLT partitions, all when omitted
+     * @param from       ISO-8601 instant
+     * @param to         ISO-8601 instant
+     * @param target     REPUBLISH or FACADE
+     */
+    @WriteOperation
+    public DltReplayJob start(@Nullable String partitions,
+                              @Nullable Long startOffset,
+                              @Nullable Long endOffset,
+                              @Nullable String exceptionFqcn,
+                              @Nullable String from,
+                              @Nullable String to,
+                              @Nullable Integer ratePerSecond,
+                              @Nullable String target) {
+        return replayService.start(new DltReplayRequest(
+                partitions != null ? Arrays.stream(partitions.split(",")).map(String::trim).map(Integer::valueOf).toList() : List.of(),
+                startOffset,
+                endOffset,
+                exceptionFqcn,
+                from != null ? Instant.parse(from) : null,
+                to != null ? Instant.parse(to) : null,
+                ratePerSecond,
+                target != null ? DltReplayTarget.valueOf(target.toUpperCase()) : null));
+    }
+
+    @DeleteOperation
+    public DltReplayJob cancel(@Selector String id) {
+        return replayService.cancel(id).orElse(null);
+    }
+}
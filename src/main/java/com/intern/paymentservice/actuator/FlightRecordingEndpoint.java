@@ -0,0 +1,191 @@
+package com.intern.paymentservice.actuator;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/jfr}: POST starts a JDK Flight Recording for {@code duration} (default
+ * {@code payment.jfr.default-duration}, at most {@code payment.jfr.max-duration}) and returns its status right away,
+ * GET reports the status of the latest recording and GET {@code /actuator/jfr/{id}} returns its {@code .jfr} file,
+ * including the payment lifecycle events of {@code observability.jfr}, once it has finished. One recording runs at a
+ * time; the file of the latest one is kept until the next one starts. Access is limited to admins by the security
+ * configuration.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecordingEndpoint implements DisposableBean {
+
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final String defaultSettings;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("payment-jfr").daemon().factory());
+    // Guarded by this
+    private Status status = Status.idle();
+    private @Nullable Recording active;
+    private @Nullable Path file;
+
+    /**
+     * State of the latest recording: {@code IDLE}, {@code RECORDING}, {@code FINISHED} or {@code FAILED}.
+     */
+    public record Status(String state, long id, Instant startedAt, Instant finishedAt, Duration duration,
+                         String settings, long bytes, String error) {
+
+        static Status idle() {
+            return new Status("IDLE", 0, null, null, null, null, 0, null);
+        }
+
+        Status finished(String state, long bytes, String error) {
+            return new Status(state, id, startedAt, Instant.now(), duration, settings, bytes, error);
+        }
+    }
+
+    public FlightRecordingEndpoint(
+            @Value("${payment.jfr.default-duration:30s}") Duration defaultDuration,
+            @Value("${payment.jfr.max-duration:5m}") Duration maxDuration,
+            @Value("${payment.jfr.settings:profile}") String defaultSettings) {
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.defaultSettings = defaultSettings;
+    }
+
+    @ReadOperation
+    public synchronized Status status() {
+        return status;
+    }
+
+    /**
+     * Starts a recording and schedules its stop; the file is fetched from {@code /actuator/jfr/{id}} afterwards.
+     * @param duration e.g. {@code 30s}
+     * @param settings JFR configuration name, {@code default} or {@code profile}
+     */
+    @WriteOperation
+    public WebEndpointResponse<Status> record(@Nullable Duration duration, @Nullable String settings) {
+        Duration length = duration != null ? duration : defaultDuration;
+        if (length.isNegative() || length.isZero() || length.compareTo(maxDuration) > 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : defaultSettings);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        synchronized (this) {
+            if ("RECORDING".equals(status.state())) {
+                return new WebEndpointResponse<>(status, WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+            }
+            deleteFile();
+            Recording flightRecording = new Recording(configuration);
+            flightRecording.setName("payment-service-on-demand");
+            flightRecording.start();
+            active = flightRecording;
+            status = new Status("RECORDING", flightRecording.getId(), Instant.now(), null, length,
+                    configuration.getName(), 0, null);
+            scheduler.schedule(() -> finish(flightRecording), length.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Started {} flight recording {} with {} settings",
+                    length, flightRecording.getId(), configuration.getName());
+            return new WebEndpointResponse<>(status, HttpStatus.ACCEPTED.value());
+        }
+    }
+
+    /**
+     * @param id of the recording as reported by its status
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+        if (status.id() != id) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if ("RECORDING".equals(status.state())) {
+            return new WebEndpointResponse<>(HttpStatus.CONFLICT.value());
+        }
+        if (file == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        // An open stream keeps reading even if the next recording deletes the file meanwhile
+        return new WebEndpointResponse<>(new InputStreamResource(Files.newInputStream(file)),
+                WebEndpointResponse.STATUS_OK);
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        scheduler.shutdownNow();
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+        deleteFile();
+    }
+
+    private void finish(Recording flightRecording) {
+        synchronized (this) {
+            if (active != flightRecording) {
+                return;
+            }
+            active = null;
+        }
+        // Stopping and dumping touches the disk, so the status stays readable meanwhile
+        Path dump = null;
+        try (flightRecording) {
+            flightRecording.stop();
+            dump = Files.createTempFile("payment-service-", ".jfr");
+            flightRecording.dump(dump);
+            long bytes = Files.size(dump);
+            synchronized (this) {
+                file = dump;
+                status = status.finished("FINISHED", bytes, null);
+            }
+            log.info("Flight recording {} finished with {} bytes", flightRecording.getId(), bytes);
+        } catch (IOException | RuntimeException e) {
+            log.error("Flight recording {} failed", flightRecording.getId(), e);
+            if (dump != null) {
+                try {
+                    Files.deleteIfExists(dump);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            synchronized (this) {
+                status = status.finished("FAILED", 0, e.getMessage());
+            }
+        }
+    }
+
+    private void deleteFile() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete flight recording {}", file, e);
+        }
+        file = null;
+    }
+}
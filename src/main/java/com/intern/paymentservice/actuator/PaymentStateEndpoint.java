@@ -0,0 +1,32 @@
+package com.intern.paymentservice.actuator;
+
+import com.intern.paymentservice.service.broker.PaymentStateSeeder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/paymentstate}: GET reports the latest seeding run of the PAYMENT_STATE topic,
+ * POST starts a new one. Write access is limited to admins by the security configuration.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.kafka.state-topic.enabled", havingValue = "true")
+@Endpoint(id = "paymentstate")
+@RequiredArgsConstructor
+public class PaymentStateEndpoint {
+
+    private final PaymentStateSeeder seeder;
+
+    @ReadOperation
+    public PaymentStateSeeder.Progress progress() {
+        return seeder.getProgress();
+    }
+
+    @WriteOperation
+    public PaymentStateSeeder.Progress seed() {
+        return seeder.seed();
+    }
+}
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
@@ -19,14 +20,24 @@ public class BrokerAuthenticationAspect {
 
     @Around("@annotation(com.intern.paymentservice.aspect.annotation.BrokerAuthentication)")
     public Object authenticateBroker(ProceedingJoinPoint joinPoint) throws Throwable {
+        // The broker identity lives in its own context for the duration of the call; whatever the thread
+        // carried before (nothing on a fresh virtual thread, an outer context on a reused one) comes back after.
+        SecurityContext previous = SecurityContextHolder.getContext();
         try {
+            // getContext() stores the empty context it creates, so the call gets its own instead of mutating that one
+            SecurityContextHolder.setContext(SecurityContextHolder.createEmptyContext());
             log.trace("Setting broker authentication context for method: {}", joinPoint.getSignature());
             authenticationService.setBrokerAuthenticationInContext();
-            
+
             return joinPoint.proceed();
         } finally {
-            SecurityContextHolder.clearContext();
-            log.trace("Cleared security context");
+            if (previous.getAuthentication() == null) {
+                SecurityContextHolder.clearContext();
+                log.trace("Cleared security context");
+            } else {
+                SecurityContextHolder.setContext(previous);
+                log.trace("Restored previous security context");
+            }
         }
     }
-}
\ No newline at end of file
+}
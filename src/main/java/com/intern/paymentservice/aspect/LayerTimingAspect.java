@@ -0,0 +1,126 @@
+package com.intern.paymentservice.aspect;
+
+import com.intern.paymentservice.observability.RepositoryMethodContext;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import com.intern.paymentservice.service.AuthenticationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call across the layer boundaries of a payment request into {@code payment.layer.duration},
+ * tagged with layer, component, operation, caller role and outcome.
+ * <p>
+ * Timers are resolved once per method, role and outcome and cached, so a timed call costs two
+ * {@link System#nanoTime()} reads, one array lookup and the histogram update. For methods returning a
+ * {@link Mono} the time from subscription to completion is recorded instead of the assembly time.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LayerTimingAspect {
+
+    public static final String METRIC = "payment.layer.duration";
+
+    private static final String[] ROLES = {"anonymous", "user", "admin"};
+    private static final String[] OUTCOMES = {"success", "error"};
+
+    private final MeterRegistry meterRegistry;
+    private final AuthenticationService authenticationService;
+    private final Map<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    @Around("execution(public * *(..)) && within(com.intern.paymentservice.controller.PaymentController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "controller");
+    }
+
+    @Around("execution(public * *(..)) && within(com.intern.paymentservice.service.impl.PaymentFacadeImpl)")
+    public Object timeFacade(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "facade");
+    }
+
+    @Around("execution(public * *(..)) && (within(com.intern.paymentservice.service.impl.PaymentServiceImpl)"
+            + " || within(com.intern.paymentservice.service.impl.UserPaymentServiceImpl))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    @Around("target(com.intern.paymentservice.repository.PaymentRepository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = RepositoryMethodContext.enter(joinPoint.getSignature().getName());
+        try {
+            return time(joinPoint, "repository");
+        } finally {
+            RepositoryMethodContext.restore(previous);
+        }
+    }
+
+    @Around("execution(public * *(..)) && within(com.intern.paymentservice.client.PaymentResultClient)")
+    public Object timeDecisionClient(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "client");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        int role = role();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            timer(method, layer, joinPoint, role, 1).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                long subscribed = System.nanoTime();
+                return mono.doOnSuccess(value -> timer(method, layer, joinPoint, role, 0)
+                                .record(System.nanoTime() - subscribed, TimeUnit.NANOSECONDS))
+                        .doOnError(error -> timer(method, layer, joinPoint, role, 1)
+                                .record(System.nanoTime() - subscribed, TimeUnit.NANOSECONDS));
+            });
+        }
+        timer(method, layer, joinPoint, role, 0).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private int role() {
+        PaymentPrincipal principal = authenticationService.getPrincipal();
+        return principal.isAdmin() ? 2 : principal.isUser() ? 1 : 0;
+    }
+
+    private Timer timer(Method method, String layer, ProceedingJoinPoint joinPoint, int role, int outcome) {
+        Timer[] byRoleAndOutcome = timers.computeIfAbsent(method, key -> new Timer[ROLES.length * OUTCOMES.length]);
+        int index = role * OUTCOMES.length + outcome;
+        Timer timer = byRoleAndOutcome[index];
+        if (timer == null) {
+            // Racing threads register the same meter; the registry hands both the same instance
+            timer = Timer.builder(METRIC)
+                    .description("Time spent in a payment request layer")
+                    .tag("layer", layer)
+                    .tag("component", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("operation", method.getName())
+                    .tag("role", ROLES[role])
+                    .tag("outcome", OUTCOMES[outcome])
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.of(100, ChronoUnit.MICROS))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(meterRegistry);
+            byRoleAndOutcome[index] = timer;
+        }
+        return timer;
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 @Service
 public class PaymentResultClient {
@@ -17,11 +18,14 @@ public class PaymentResultClient {
     }
 
     public Integer getPaymentResult() {
+        return getPaymentResultAsync().block();
+    }
+
+    public Mono<Integer> getPaymentResultAsync() {
         return webClient.get()
                 .uri("/totallyLegitDecisionApi")
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(Integer.class)
-                .block();
+                .bodyToMono(Integer.class);
     }
 }
@@ -1,21 +1,32 @@
 package com.intern.paymentservice.config;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.intern.paymentservice.service.broker.PaymentProducer;
 import jakarta.validation.ValidationException;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.TopicConfig;
 import org.jspecify.annotations.NullMarked;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.kafka.autoconfigure.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.kafka.autoconfigure.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @NullMarked
 public class KafkaConfig {
@@ -23,6 +34,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.dead-letter-topic}")
     private String dltTopic;
 
+    @Value("${payment.kafka.exactly-once.enabled:false}")
+    private boolean exactlyOnce;
+
     @Bean
     public ConcurrentKafkaListenerContainerFactory<?, ?> kafkaListenerContainerFactory(
             ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
@@ -30,6 +44,7 @@ public class KafkaConfig {
             KafkaTemplate<Object, Object> kafkaTemplate) {
 
         ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        // With spring.threads.virtual.enabled the configurer also installs a virtual-thread listener task executor
         configurer.configure(factory, kafkaConsumerFactory);
 
         DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
@@ -37,6 +52,20 @@ public class KafkaConfig {
                 (cr, e) -> new TopicPartition(dltTopic, cr.partition())
         );
 
+        if (exactlyOnce) {
+            // With container transactions, failed records are handled after the rollback instead of by an error
+            // handler; the DLT publication and the skipped offset are committed in a transaction of their own
+            DefaultAfterRollbackProcessor<Object, Object> afterRollbackProcessor = new DefaultAfterRollbackProcessor<>(
+                    recoverer, new FixedBackOff(1000L, 3L), kafkaTemplate, true);
+            afterRollbackProcessor.addNotRetryableExceptions(
+                    ValidationException.class,
+                    DataIntegrityViolationException.class,
+                    JsonProcessingException.class
+            );
+            factory.setAfterRollbackProcessor(afterRollbackProcessor);
+            return factory;
+        }
+
         DefaultErrorHandler errorHandler = new DefaultErrorHandler(
                 recoverer,
                 new FixedBackOff(1000L, 3L)
@@ -51,4 +80,35 @@ public class KafkaConfig {
         factory.setCommonErrorHandler(errorHandler);
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * With the spool, a send to an unreachable broker has to fail fast rather than hold the request thread for
+     * the default 60 s of {@code max.block.ms}; its timeout is what switches events over to the spool.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.kafka.spool.enabled", havingValue = "true")
+    public DefaultKafkaProducerFactoryCustomizer spoolMaxBlockCustomizer(
+            @Value("${payment.kafka.spool.max-block:500ms}") Duration maxBlock) {
+        return producerFactory -> producerFactory.updateConfigs(
+                Map.of(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis()));
+    }
+
+    /**
+     * Latest state per payment id. Compaction keeps one record per key, and tombstones of deleted payments
+     * stay readable for a day, so a consumer bootstrapping from the beginning sees deletes as well.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.kafka.state-topic.enabled", havingValue = "true")
+    public NewTopic paymentStateTopic(
+            @Value("${payment.kafka.state-topic.partitions:6}") int partitions,
+            @Value("${payment.kafka.state-topic.replicas:1}") int replicas) {
+        return TopicBuilder.name(PaymentProducer.PAYMENT_STATE_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .config(TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG, "0.1")
+                .config(TopicConfig.SEGMENT_MS_CONFIG, String.valueOf(Duration.ofHours(1).toMillis()))
+                .config(TopicConfig.DELETE_RETENTION_MS_CONFIG, String.valueOf(Duration.ofDays(1).toMillis()))
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.intern.paymentservice.config;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+/**
+ * Keeps the reactive Mongo client, template and repositories out of the context unless the reactive
+ * pipeline is used ({@code payment.reactive.enabled=true} or {@code payment.kafka.consumer.mode=reactive}).
+ * The reactive starter is always on the classpath, and without this filter every instance would open a
+ * second connection pool to Mongo that nothing reads from.
+ */
+public class ReactiveMongoAutoConfigurationFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+
+    private static final Set<String> REACTIVE_AUTO_CONFIGURATIONS = Set.of(
+            "org.springframework.boot.mongodb.autoconfigure.MongoReactiveAutoConfiguration",
+            "org.springframework.boot.mongodb.autoconfigure.health.MongoReactiveHealthContributorAutoConfiguration",
+            "org.springframework.boot.data.mongodb.autoconfigure.DataMongoReactiveAutoConfiguration",
+            "org.springframework.boot.data.mongodb.autoconfigure.DataMongoReactiveRepositoriesAutoConfiguration");
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+        boolean reactive = isReactivePipelineEnabled(environment);
+        boolean[] matches = new boolean[autoConfigurationClasses.length];
+        for (int i = 0; i < autoConfigurationClasses.length; i++) {
+            matches[i] = reactive || !REACTIVE_AUTO_CONFIGURATIONS.contains(autoConfigurationClasses[i]);
+        }
+        return matches;
+    }
+
+    static boolean isReactivePipelineEnabled(Environment environment) {
+        return environment.getProperty("payment.reactive.enabled", Boolean.class, false)
+                || "reactive".equals(environment.getProperty("payment.kafka.consumer.mode"));
+    }
+}
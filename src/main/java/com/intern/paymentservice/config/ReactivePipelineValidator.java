@@ -0,0 +1,56 @@
+package com.intern.paymentservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.IncompatibleConfigurationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails startup when the reactive pipeline is combined with a feature it does not implement: it only reads and
+ * writes the base payments collection and publishes outside Kafka transactions. Boot reports the conflicting
+ * properties instead of a bean creation stack trace.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${payment.reactive.enabled:false} or '${payment.kafka.consumer.mode:record}' == 'reactive'")
+public class ReactivePipelineValidator implements InitializingBean {
+
+    @Value("${payment.reactive.enabled:false}")
+    private boolean reactiveApi;
+
+    @Value("${payment.partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+
+    @Value("${payment.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${payment.kafka.exactly-once.enabled:false}")
+    private boolean exactlyOnce;
+
+    @Override
+    public void afterPropertiesSet() {
+        List<String> conflicts = new ArrayList<>();
+        if (partitioningEnabled) {
+            conflicts.add("payment.partitioning.enabled");
+        }
+        if (archiveEnabled) {
+            conflicts.add("payment.archive.enabled");
+        }
+        if (exactlyOnce) {
+            conflicts.add("payment.kafka.exactly-once.enabled");
+        }
+        if (conflicts.isEmpty()) {
+            return;
+        }
+
+        conflicts.addFirst(reactiveApi ? "payment.reactive.enabled" : "payment.kafka.consumer.mode");
+        log.error("The reactive payment pipeline serves only the base payments collection without Kafka transactions; "
+                + "disable {} or switch the reactive pipeline off", conflicts.subList(1, conflicts.size()));
+        throw new IncompatibleConfigurationException(conflicts.toArray(String[]::new));
+    }
+}
@@ -1,29 +1,31 @@
 package com.intern.paymentservice.config;
 
 
+import com.intern.paymentservice.security.CachingJwtDecoder;
+import com.intern.paymentservice.security.PaymentJwtAuthenticationConverter;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-import static org.springframework.security.oauth2.jwt.NimbusJwtDecoder.withJwkSetUri;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -41,8 +43,11 @@ public class SecurityConfig {
                         .requestMatchers("/totallyLegitDecisionApi").permitAll()
                         .requestMatchers("/swagger-ui/**").permitAll()
                         .requestMatchers("/v3/api-docs*/**").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        // Probes stay open; everything else under actuator exposes internals and is admin-only
+                        .requestMatchers(HttpMethod.GET, "/actuator/health/**", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("admin")
                         .requestMatchers("/api/payments/**").hasAnyRole("user", "admin")
+                        .requestMatchers("/api/reactive/payments/**").hasAnyRole("user", "admin")
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
@@ -53,38 +58,35 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-
-        JwtGrantedAuthoritiesConverter scopeConverter = new JwtGrantedAuthoritiesConverter();
-        scopeConverter.setAuthorityPrefix("SCOPE_");
+    public PaymentJwtAuthenticationConverter jwtAuthenticationConverter() {
+        return new PaymentJwtAuthenticationConverter();
+    }
 
-        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
-            Collection<GrantedAuthority> authorities = new ArrayList<>(scopeConverter.convert(jwt));
-            authorities.addAll(extractRealmRoles(jwt));
+    @Bean
+    public CachingJwtDecoder jwtDecoder(
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String oauthIssuerUri,
+            @Value("${payment.security.jwk.cache-ttl:15m}") Duration jwkCacheTtl,
+            @Value("${payment.security.jwk.refresh-ahead:1m}") Duration jwkRefreshAhead,
+            @Value("${payment.security.jwk.refresh-timeout:15s}") Duration jwkRefreshTimeout,
+            @Value("${payment.security.jwt-cache.max-entries:10000}") int jwtCacheMaxEntries,
+            @Value("${payment.security.jwt-cache.max-ttl:5m}") Duration jwtCacheMaxTtl) throws MalformedURLException {
+        // Keys are refreshed in the background before they expire, so rotations don't stall requests
+        JWKSource<SecurityContext> jwkSource = JWKSourceBuilder
+                .create(URI.create(oauthIssuerUri + "/protocol/openid-connect/certs").toURL())
+                .cache(jwkCacheTtl.toMillis(), jwkRefreshTimeout.toMillis())
+                .refreshAheadCache(jwkRefreshAhead.toMillis(), true)
+                .retrying(true)
+                .build();
 
-            return authorities;
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Claims are validated by Spring's OAuth2TokenValidator, as with NimbusJwtDecoder.withJwkSetUri
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
         });
-        return converter;
-    }
 
-    private Collection<SimpleGrantedAuthority> extractRealmRoles(Jwt jwt) {
-        Object realmAccess = jwt.getClaim("realm_access");
-        if (!(realmAccess instanceof Map)) return Collections.emptyList();
-        Map<String, Object> realm = (Map<String, Object>) realmAccess;
-        Object roles = realm.get("roles");
-        if (!(roles instanceof Collection)) return Collections.emptySet();
-        return ((Collection<?>) roles).stream()
-                .map(Object::toString)
-                .map(r -> new SimpleGrantedAuthority("ROLE_" + r))
-                .collect(Collectors.toSet());
-    }
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(JwtValidators.createDefault());
 
-    @Bean
-    public JwtDecoder jwtDecoder(
-            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String oauthIssuerUri) {
-        return withJwkSetUri(
-                oauthIssuerUri + "/protocol/openid-connect/certs"
-        ).build();
+        return new CachingJwtDecoder(decoder, jwkSource, jwtCacheMaxEntries, jwtCacheMaxTtl, Clock.systemUTC());
     }
 }
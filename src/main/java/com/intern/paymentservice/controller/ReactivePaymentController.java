@@ -0,0 +1,90 @@
+package com.intern.paymentservice.controller;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.dto.PaymentTotalResponse;
+import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.service.AuthenticationService;
+import com.intern.paymentservice.service.ReactivePaymentFacade;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Non-blocking variant of {@link PaymentController}. Handlers return {@link Mono}/{@link Flux}, so the
+ * request thread is released while Mongo, Kafka and the decision API are awaited. The caller is
+ * resolved on the request thread and handed to the pipeline explicitly.
+ */
+@NullMarked
+@Tag(name = "Payments (reactive)", description = "Non-blocking payment management API")
+@RestController
+@RequestMapping("/api/reactive/payments")
+@Validated
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "payment.reactive.enabled", havingValue = "true")
+public class ReactivePaymentController {
+
+    private final ReactivePaymentFacade paymentFacade;
+    private final AuthenticationService authenticationService;
+
+    @Operation(summary = "Create a new payment", description = "Non-blocking variant of POST /api/payments.")
+    @PostMapping
+    public Mono<ResponseEntity<PaymentResponse>> createPayment(@Valid @RequestBody CreatePaymentRequest request) {
+        return paymentFacade.createPayment(authenticationService.getPrincipal(), request)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    @Operation(summary = "Update payment status", description = "Non-blocking variant of PATCH /api/payments/{id}/status.")
+    @PatchMapping("/{id}/status")
+    public Mono<PaymentResponse> updatePaymentStatus(
+            @PathVariable String id,
+            @Valid @RequestBody UpdatePaymentStatusRequest request) {
+        return paymentFacade.updatePaymentStatus(authenticationService.getPrincipal(), id, request);
+    }
+
+    @Operation(summary = "Delete a payment", description = "Non-blocking variant of DELETE /api/payments/{id}.")
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deletePayment(@PathVariable String id) {
+        return paymentFacade.deletePayment(authenticationService.getPrincipal(), id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @Operation(summary = "Find payments by order ID", description = "Non-blocking variant of GET /api/payments/by-order.")
+    @GetMapping("/by-order")
+    public Flux<PaymentResponse> findPaymentsByOrderId(@RequestParam Long orderId) {
+        return paymentFacade.findPaymentsByOrderId(authenticationService.getPrincipal(), orderId);
+    }
+
+    @Operation(summary = "Find payments by user ID", description = "Non-blocking variant of GET /api/payments/by-user.")
+    @GetMapping("/by-user")
+    public Flux<PaymentResponse> findPaymentsByUserId(@RequestParam Long userId) {
+        return paymentFacade.findPaymentsByUserId(authenticationService.getPrincipal(), userId);
+    }
+
+    @Operation(summary = "Find payments by status", description = "Non-blocking variant of GET /api/payments/by-status.")
+    @GetMapping("/by-status")
+    public Flux<PaymentResponse> findPaymentsByStatuses(@RequestParam List<PaymentStatus> statuses) {
+        return paymentFacade.findPaymentsByStatuses(authenticationService.getPrincipal(), statuses);
+    }
+
+    @Operation(summary = "Calculate payment total", description = "Non-blocking variant of GET /api/payments/total.")
+    @GetMapping("/total")
+    public Mono<PaymentTotalResponse> findPaymentTotalForPeriod(
+            @RequestParam Instant start,
+            @RequestParam Instant end) {
+        return paymentFacade.findPaymentTotalForPeriod(authenticationService.getPrincipal(), start, end);
+    }
+}
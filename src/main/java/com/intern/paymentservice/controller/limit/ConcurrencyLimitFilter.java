@@ -0,0 +1,147 @@
+package com.intern.paymentservice.controller.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sheds load on {@code /api/payments} before requests queue up behind a slow Mongo.
+ * <p>
+ * Writes (create, status update, delete) and reads each get a {@link GradientLimiter}, so a flood of
+ * listings cannot starve payment creation or the other way round. A request over the limit is answered at
+ * once with 503 and {@code Retry-After}, before authentication, so shedding stays cheap even when the
+ * service is saturated. Only requests that completed without a server error feed the limit's latency.
+ */
+@Slf4j
+@Component
+@NullMarked
+@ConditionalOnProperty(name = "payment.api.concurrency-limit.enabled", havingValue = "true")
+// Ahead of Spring Security's filter chain (-100), behind the HTTP server observation filter, so shed
+// requests still show up in http.server.requests
+@Order(-110)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String PATH = "/api/payments";
+
+    private final Map<RequestClass, GradientLimiter> limiters;
+    private final Map<RequestClass, Counter> rejections;
+    private final String retryAfterSeconds;
+
+    enum RequestClass {
+        WRITE, READ;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    public ConcurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${payment.api.concurrency-limit.write.initial-limit:20}") int writeInitialLimit,
+            @Value("${payment.api.concurrency-limit.write.min-limit:4}") int writeMinLimit,
+            @Value("${payment.api.concurrency-limit.write.max-limit:200}") int writeMaxLimit,
+            @Value("${payment.api.concurrency-limit.read.initial-limit:50}") int readInitialLimit,
+            @Value("${payment.api.concurrency-limit.read.min-limit:8}") int readMinLimit,
+            @Value("${payment.api.concurrency-limit.read.max-limit:500}") int readMaxLimit,
+            @Value("${payment.api.concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${payment.api.concurrency-limit.smoothing:0.2}") double smoothing,
+            @Value("${payment.api.concurrency-limit.window-samples:50}") int windowSamples,
+            @Value("${payment.api.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+        this.limiters = Map.of(
+                RequestClass.WRITE, new GradientLimiter(writeInitialLimit, writeMinLimit, writeMaxLimit,
+                        rttTolerance, smoothing, windowSamples),
+                RequestClass.READ, new GradientLimiter(readInitialLimit, readMinLimit, readMaxLimit,
+                        rttTolerance, smoothing, windowSamples));
+        this.rejections = Map.of(
+                RequestClass.WRITE, rejectionCounter(meterRegistry, RequestClass.WRITE),
+                RequestClass.READ, rejectionCounter(meterRegistry, RequestClass.READ));
+        // Retry-After takes whole seconds
+        this.retryAfterSeconds = Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+        limiters.forEach((requestClass, limiter) -> {
+            Gauge.builder("payment.api.concurrency.limit", limiter, GradientLimiter::getLimit)
+                    .description("Current concurrency limit of the payment API")
+                    .tag("class", requestClass.tag())
+                    .register(meterRegistry);
+            Gauge.builder("payment.api.concurrency.in.flight", limiter, GradientLimiter::getInFlight)
+                    .description("Payment API requests currently being handled")
+                    .tag("class", requestClass.tag())
+                    .register(meterRegistry);
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals(PATH) || path.startsWith(PATH + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass requestClass = classify(request);
+        GradientLimiter limiter = limiters.get(requestClass);
+        if (!limiter.tryAcquire()) {
+            reject(response, requestClass, limiter);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean sampled = false;
+        try {
+            chain.doFilter(request, response);
+            sampled = response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (sampled) {
+                limiter.release(System.nanoTime() - start);
+            } else {
+                limiter.releaseWithoutSample();
+            }
+        }
+    }
+
+    static RequestClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                ? RequestClass.READ
+                : RequestClass.WRITE;
+    }
+
+    private void reject(HttpServletResponse response, RequestClass requestClass, GradientLimiter limiter)
+            throws IOException {
+        rejections.get(requestClass).increment();
+        log.debug("Shedding {} request at concurrency limit {}", requestClass.tag(), limiter.getLimit());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.getOutputStream().write(("{\"type\":\"about:blank\",\"title\":\"Service Unavailable\",\"status\":503,"
+                + "\"detail\":\"Too many concurrent " + requestClass.tag() + " requests, retry later\"}")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, RequestClass requestClass) {
+        return Counter.builder("payment.api.concurrency.rejected")
+                .description("Payment API requests shed at the concurrency limit")
+                .tag("class", requestClass.tag())
+                .register(meterRegistry);
+    }
+}
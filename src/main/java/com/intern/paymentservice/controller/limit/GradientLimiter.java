@@ -0,0 +1,119 @@
+package com.intern.paymentservice.controller.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit driven by the latency gradient, after Netflix's Gradient2 limiter.
+ * <p>
+ * Completed calls are averaged over windows of {@code windowSamples}. Each window compares its average
+ * latency with a slow-moving long-term average: while the two agree (within {@code rttTolerance}) the limit
+ * grows by about {@code sqrt(limit)}, and as the short-term latency rises above the long-term one the limit
+ * shrinks in proportion, down to half per window. Windows in which fewer than half of the permits were used
+ * leave the limit alone, so a quiet period does not inflate it.
+ * <p>
+ * Unlike {@link com.intern.paymentservice.service.broker.backpressure.AimdLimiter}, callers never wait:
+ * {@link #tryAcquire()} fails at once when the limit is reached, so excess requests can be shed.
+ */
+public class GradientLimiter {
+
+    // Windows the long-term latency average spans
+    private static final int LONG_WINDOW = 20;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final int windowSamples;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Guarded by this
+    private long windowRttNanos;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private double longRttNanos;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing,
+                           int windowSamples) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        if (rttTolerance < 1 || smoothing <= 0 || smoothing > 1 || windowSamples < 1) {
+            throw new IllegalArgumentException("Requires rttTolerance >= 1, 0 < smoothing <= 1 and windowSamples >= 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.windowSamples = windowSamples;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Takes a permit unless the limit is reached; a successful call must be followed by one of the
+     * {@code release} methods.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the permit of a call that completed normally after {@code rttNanos}.
+     */
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        synchronized (this) {
+            windowRttNanos += rttNanos;
+            windowCount++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+            if (windowCount >= windowSamples) {
+                update((double) windowRttNanos / windowCount, windowMaxInFlight);
+                windowRttNanos = 0;
+                windowCount = 0;
+                windowMaxInFlight = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the permit of a call whose latency says nothing about capacity, e.g. one that failed.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(double shortRttNanos, int maxInFlight) {
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+            return;
+        }
+        longRttNanos += (shortRttNanos - longRttNanos) / LONG_WINDOW;
+        // Once latency has dropped for good, let the baseline catch up faster so the limit can recover
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        double current = limit;
+        if (maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.clamp(rttTolerance * longRttNanos / shortRttNanos, 0.5, 1.0);
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.clamp(current * (1 - smoothing) + target * smoothing, minLimit, maxLimit);
+    }
+}
@@ -0,0 +1,118 @@
+package com.intern.paymentservice.controller.limit;
+
+import com.intern.paymentservice.exception.RateLimitExceededException;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import com.intern.paymentservice.service.AuthenticationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-caller request budget for the payment API, keyed by the token's {@code internal_id}.
+ * <p>
+ * Admins and users draw from token buckets of different size and refill rate. Every answered request carries
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset} (seconds until the bucket
+ * is full again); a request with an empty bucket fails with 429 and {@code Retry-After}. Callers without an
+ * {@code internal_id} are not limited, as there is nothing to key them by.
+ */
+@Slf4j
+@Component
+@NullMarked
+@ConditionalOnProperty(name = "payment.api.rate-limit.enabled", havingValue = "true")
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+
+    private final AuthenticationService authenticationService;
+    private final TokenBucketTable buckets;
+    private final TokenBucketTable.Budget userBudget;
+    private final TokenBucketTable.Budget adminBudget;
+    private final Counter userRejections;
+    private final Counter adminRejections;
+    // One per stripe, indexed like the stripes
+    private final Counter[] untracked;
+
+    public RateLimitInterceptor(
+            AuthenticationService authenticationService,
+            MeterRegistry meterRegistry,
+            @Value("${payment.api.rate-limit.user.capacity:20}") int userCapacity,
+            @Value("${payment.api.rate-limit.user.refill-per-second:5}") double userRefillPerSecond,
+            @Value("${payment.api.rate-limit.admin.capacity:200}") int adminCapacity,
+            @Value("${payment.api.rate-limit.admin.refill-per-second:50}") double adminRefillPerSecond,
+            @Value("${payment.api.rate-limit.stripes:64}") int stripes,
+            @Value("${payment.api.rate-limit.max-entries:1000000}") int maxEntries,
+            @Value("${payment.api.rate-limit.idle-timeout:5m}") Duration idleTimeout) {
+        this.authenticationService = authenticationService;
+        this.userBudget = new TokenBucketTable.Budget(userCapacity, userRefillPerSecond);
+        this.adminBudget = new TokenBucketTable.Budget(adminCapacity, adminRefillPerSecond);
+        this.buckets = new TokenBucketTable(stripes, maxEntries, idleTimeout.toNanos());
+        this.userRejections = rejectionCounter(meterRegistry, "user");
+        this.adminRejections = rejectionCounter(meterRegistry, "admin");
+        this.untracked = new Counter[buckets.stripeCount()];
+        for (int stripe = 0; stripe < untracked.length; stripe++) {
+            untracked[stripe] = Counter.builder("payment.api.rate-limit.untracked")
+                    .description("Payment API requests let through because the caller's bucket table stripe was full")
+                    .tag("stripe", Integer.toString(stripe))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("payment.api.rate-limit.buckets", buckets, TokenBucketTable::size)
+                .description("Callers currently holding a rate-limit bucket")
+                .register(meterRegistry);
+        log.info("Rate limiting the payment API: users {}, admins {}, {} stripes for up to {} callers",
+                userBudget, adminBudget, buckets.stripeCount(), maxEntries);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Reactive handlers are dispatched a second time to write their result; that is not another request
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        PaymentPrincipal principal = authenticationService.getPrincipal();
+        if (!principal.hasInternalId()) {
+            return true;
+        }
+        TokenBucketTable.Budget budget = principal.isAdmin() ? adminBudget : userBudget;
+        TokenBucketTable.Decision decision = buckets.tryConsume(principal.internalId(), budget, System.nanoTime());
+        if (!decision.tracked()) {
+            untracked[decision.stripe()].increment();
+        }
+
+        response.setHeader(LIMIT_HEADER, Integer.toString(budget.capacity()));
+        response.setHeader(REMAINING_HEADER, Integer.toString(decision.remaining()));
+        response.setHeader(RESET_HEADER, Long.toString(toSeconds(decision.resetNanos())));
+        if (!decision.allowed()) {
+            (principal.isAdmin() ? adminRejections : userRejections).increment();
+            log.debug("Rate limited caller {}", principal.internalId());
+            throw new RateLimitExceededException(Math.max(1, toSeconds(decision.retryAfterNanos())));
+        }
+        return true;
+    }
+
+    // Rounded up, so a client that waits this long finds the tokens there
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String role) {
+        return Counter.builder("payment.api.rate-limit.rejected")
+                .description("Payment API requests rejected by the per-caller rate limit")
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,228 @@
+package com.intern.paymentservice.controller.limit;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets keyed by a {@code long} id, for per-caller rate limits.
+ * <p>
+ * The table is split into lock stripes, each an open-addressing hash table over primitive arrays: 24 bytes per
+ * slot and no per-entry objects. Slots are sized to a power of two at a load factor of at most 3/4, so the
+ * default million callers over 64 stripes take 64 x 32768 slots, about 50 MB, allocated up front. Stripes never grow
+ * beyond {@code maxEntries / stripes}. A stripe that fills up first drops buckets unused for
+ * {@code idleTimeout}; as long as that is longer than a bucket takes to refill, a dropped bucket was full and
+ * recreating it later changes nothing. If a stripe is still full, the call is let through untracked rather
+ * than failing the request; {@link Decision#stripe()} tells which stripe ran out, as keys are not spread
+ * perfectly evenly and one stripe can fill up while others have room.
+ */
+public class TokenBucketTable {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long idleTimeoutNanos;
+
+    /**
+     * Burst size and sustained rate of one bucket.
+     */
+    public record Budget(int capacity, double refillPerSecond) {
+
+        public Budget {
+            if (capacity < 1 || refillPerSecond <= 0) {
+                throw new IllegalArgumentException("Requires capacity >= 1 and refillPerSecond > 0");
+            }
+        }
+
+        long nanosToRefill(double tokens) {
+            return (long) Math.ceil(tokens / refillPerSecond * NANOS_PER_SECOND);
+        }
+    }
+
+    /**
+     * Outcome of {@link #tryConsume}.
+     *
+     * @param tracked         {@code false} when the key's stripe was full and the call was let through without a bucket
+     * @param stripe          index of the stripe the key belongs to
+     * @param remaining       whole tokens left after this call
+     * @param retryAfterNanos time until the next token, {@code 0} when one is available
+     * @param resetNanos      time until the bucket is full again
+     */
+    public record Decision(boolean allowed, boolean tracked, int stripe, int remaining, long retryAfterNanos,
+                           long resetNanos) {
+    }
+
+    /**
+     * @param stripes number of lock stripes, rounded up to a power of two
+     */
+    public TokenBucketTable(int stripes, int maxEntries, long idleTimeoutNanos) {
+        if (stripes < 1 || maxEntries < stripes || idleTimeoutNanos <= 0) {
+            throw new IllegalArgumentException("Requires 1 <= stripes <= maxEntries and idleTimeout > 0");
+        }
+        int stripeCount = Math.min(Integer.highestOneBit(stripes * 2 - 1), Integer.highestOneBit(maxEntries));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(i, maxEntries / stripeCount);
+        }
+        this.stripeMask = stripeCount - 1;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+    }
+
+    /**
+     * Takes one token from {@code key}'s bucket, creating a full bucket for an unknown key.
+     *
+     * @param key      any id except {@link Long#MIN_VALUE}
+     * @param nowNanos {@link System#nanoTime()}
+     */
+    public Decision tryConsume(long key, Budget budget, long nowNanos) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        long hash = mix(key);
+        return stripes[(int) hash & stripeMask].tryConsume(key, (int) (hash >>> 32), budget, nowNanos,
+                idleTimeoutNanos);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    // Stafford variant 13 of the SplitMix64 finalizer: sequential ids spread over stripes and slots
+    private static long mix(long key) {
+        long z = key;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int index;
+        private final int maxEntries;
+        private final long[] keys;
+        private final double[] tokens;
+        private final long[] lastSeenNanos;
+        private int size;
+        // A full stripe is not swept again before its oldest bucket can have gone idle
+        private long nextSweepNanos;
+        private boolean swept;
+
+        Stripe(int index, int maxEntries) {
+            this.index = index;
+            this.maxEntries = maxEntries;
+            // Load factor of at most 3/4 keeps probe sequences short, and a full stripe always has an empty slot
+            int slots = Integer.highestOneBit(Math.max(maxEntries + 1, (maxEntries * 4 + 2) / 3) - 1) << 1;
+            this.keys = new long[slots];
+            this.tokens = new double[slots];
+            this.lastSeenNanos = new long[slots];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        Decision tryConsume(long key, int hash, Budget budget, long nowNanos, long idleTimeoutNanos) {
+            lock.lock();
+            try {
+                int slot = find(key, hash);
+                if (keys[slot] != key) {
+                    if (size >= maxEntries && (!swept || nowNanos - nextSweepNanos >= 0)) {
+                        evictIdle(nowNanos, idleTimeoutNanos);
+                    }
+                    if (size >= maxEntries) {
+                        return new Decision(true, false, index, budget.capacity() - 1, 0, 0);
+                    }
+                    slot = find(key, hash);
+                    keys[slot] = key;
+                    tokens[slot] = budget.capacity();
+                    lastSeenNanos[slot] = nowNanos;
+                    size++;
+                }
+
+                double available = Math.min(budget.capacity(),
+                        tokens[slot] + Math.max(0, nowNanos - lastSeenNanos[slot]) / NANOS_PER_SECOND
+                                * budget.refillPerSecond());
+                lastSeenNanos[slot] = nowNanos;
+                boolean allowed = available >= 1;
+                if (allowed) {
+                    available -= 1;
+                }
+                tokens[slot] = available;
+                long retryAfterNanos = available >= 1 ? 0 : budget.nanosToRefill(1 - available);
+                return new Decision(allowed, true, index, (int) available, retryAfterNanos,
+                        budget.nanosToRefill(budget.capacity() - available));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Slot holding {@code key}, or the empty slot it would be inserted into. Probing stops after one full
+         * round, so a table without empty slots cannot spin; it then returns an occupied slot that
+         * callers treat as "not found".
+         */
+        private int find(long key, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            for (int probes = 0; probes < keys.length; probes++) {
+                if (keys[slot] == EMPTY || keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Drops idle buckets and re-inserts the rest, which also clears the probe chains of removed keys.
+         */
+        private void evictIdle(long nowNanos, long idleTimeoutNanos) {
+            long[] liveKeys = new long[size];
+            double[] liveTokens = new double[size];
+            long[] liveSeen = new long[size];
+            int live = 0;
+            long oldestSeenNanos = nowNanos;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY && nowNanos - lastSeenNanos[slot] < idleTimeoutNanos) {
+                    liveKeys[live] = keys[slot];
+                    liveTokens[live] = tokens[slot];
+                    liveSeen[live] = lastSeenNanos[slot];
+                    if (lastSeenNanos[slot] - oldestSeenNanos < 0) {
+                        oldestSeenNanos = lastSeenNanos[slot];
+                    }
+                    live++;
+                }
+            }
+            nextSweepNanos = oldestSeenNanos + idleTimeoutNanos;
+            swept = true;
+            if (live == size) {
+                return;
+            }
+            Arrays.fill(keys, EMPTY);
+            for (int i = 0; i < live; i++) {
+                int slot = find(liveKeys[i], (int) (mix(liveKeys[i]) >>> 32));
+                keys[slot] = liveKeys[i];
+                tokens[slot] = liveTokens[i];
+                lastSeenNanos[slot] = liveSeen[i];
+            }
+            size = live;
+        }
+    }
+}
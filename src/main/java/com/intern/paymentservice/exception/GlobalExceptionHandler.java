@@ -2,6 +2,8 @@ package com.intern.paymentservice.exception;
 
 import jakarta.validation.ConstraintViolationException;
 import org.jspecify.annotations.NullMarked;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -47,6 +49,39 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(problemDetail);
     }
 
+    /**
+     * Handles DuplicateKeyException and returns 409 Conflict.
+     * Thrown when the order already has a payment for the user (payment_order_user_unique_idx).
+     * @param ex The DuplicateKeyException instance.
+     * @return ResponseEntity with 409 status and error details.
+     */
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<ProblemDetail> handleDuplicateKeyException(DuplicateKeyException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "A payment for this order and user already exists");
+        problemDetail.setTitle("Duplicate Payment");
+        problemDetail.setProperty("timestamp", Instant.now());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(problemDetail);
+    }
+
+    /**
+     * Handles RateLimitExceededException and returns 429 Too Many Requests.
+     * Thrown by the RateLimitInterceptor once the caller's token bucket is empty.
+     * @param ex The RateLimitExceededException instance.
+     * @return ResponseEntity with 429 status, Retry-After header and error details.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleRateLimitExceededException(RateLimitExceededException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+        problemDetail.setTitle("Too Many Requests");
+        problemDetail.setProperty("timestamp", Instant.now());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(problemDetail);
+    }
+
     /**
      * Handles ResponseStatusException, primarily used for the 403 "Insufficient authority"
      * thrown by the PaymentServiceAuthorizationDecorator.
@@ -0,0 +1,117 @@
+package com.intern.paymentservice.migration;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Rewrites paymentAmount values stored as strings or doubles into Decimal128, so {@code $sum} works natively.
+ * Documents are converted in small id-ordered batches with a pause in between to keep the primary responsive.
+ * The filter only matches unconverted documents, so an interrupted run simply resumes where it stopped.
+ * <p>
+ * Each converted document remembers its original BSON type in {@code paymentAmountMigratedFrom}. Rollback
+ * restores only those documents; amounts written as Decimal128 by the application, including converted
+ * payments it has saved since, stay Decimal128.
+ */
+@Slf4j
+@ChangeUnit(id = "002-payment-amount-decimal128", order = "002", author = "pon")
+public class PaymentAmountDecimal128ChangeUnit {
+
+    private static final String COLLECTION_NAME = "payments";
+    private static final String AMOUNT_FIELD = "paymentAmount";
+    private static final String MIGRATED_FROM_FIELD = "paymentAmountMigratedFrom";
+    private static final int BATCH_SIZE = 1_000;
+    private static final long PAUSE_BETWEEN_BATCHES_MILLIS = 50L;
+
+    @Execution
+    public void changeSet(MongoTemplate mongoTemplate) throws InterruptedException {
+        Document unconverted = new Document(AMOUNT_FIELD,
+                new Document("$type", List.of("string", "double", "int", "long")));
+        long converted = rewriteAmounts(mongoTemplate, unconverted, document -> {
+            Object value = document.get(AMOUNT_FIELD);
+            return Update.update(AMOUNT_FIELD, new Decimal128(new BigDecimal(value.toString())))
+                    .set(MIGRATED_FROM_FIELD, bsonType(value));
+        });
+        log.info("Converted {} payment amounts to Decimal128", converted);
+    }
+
+    @RollbackExecution
+    public void rollback(MongoTemplate mongoTemplate) throws InterruptedException {
+        Document migrated = new Document(MIGRATED_FROM_FIELD, new Document("$exists", true))
+                .append(AMOUNT_FIELD, new Document("$type", "decimal"));
+        long reverted = rewriteAmounts(mongoTemplate, migrated, document -> {
+            BigDecimal amount = ((Decimal128) document.get(AMOUNT_FIELD)).bigDecimalValue();
+            Object original = switch (document.getString(MIGRATED_FROM_FIELD)) {
+                case "double" -> amount.doubleValue();
+                case "int" -> amount.intValueExact();
+                case "long" -> amount.longValueExact();
+                default -> amount.toPlainString();
+            };
+            return Update.update(AMOUNT_FIELD, original).unset(MIGRATED_FROM_FIELD);
+        });
+        log.info("Reverted {} payment amounts to their original type", reverted);
+    }
+
+    private static String bsonType(Object value) {
+        return switch (value) {
+            case Double ignored -> "double";
+            case Integer ignored -> "int";
+            case Long ignored -> "long";
+            default -> "string";
+        };
+    }
+
+    private long rewriteAmounts(MongoTemplate mongoTemplate, Document pending,
+                                Function<Document, Update> conversion) throws InterruptedException {
+        Object lastId = null;
+        long rewritten = 0;
+
+        while (true) {
+            Document filter = new Document(pending);
+            if (lastId != null) {
+                filter.append("_id", new Document("$gt", lastId));
+            }
+            Query batchQuery = new BasicQuery(filter, new Document(AMOUNT_FIELD, 1).append(MIGRATED_FROM_FIELD, 1))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(BATCH_SIZE);
+
+            List<Document> batch = mongoTemplate.find(batchQuery, Document.class, COLLECTION_NAME);
+            if (batch.isEmpty()) {
+                return rewritten;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION_NAME);
+            int queued = 0;
+            for (Document document : batch) {
+                Object id = document.get("_id");
+                try {
+                    bulk.updateOne(Query.query(where("_id").is(id)), conversion.apply(document));
+                    queued++;
+                } catch (NumberFormatException | ArithmeticException e) {
+                    log.warn("Skipping payment {} with unconvertible amount '{}'", id, document.get(AMOUNT_FIELD));
+                }
+            }
+            if (queued > 0) {
+                rewritten += bulk.execute().getModifiedCount();
+            }
+
+            lastId = batch.getLast().get("_id");
+            Thread.sleep(PAUSE_BETWEEN_BATCHES_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.intern.paymentservice.migration;
+
+import com.intern.paymentservice.model.Payment;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+/**
+ * Makes a payment unique per order and user, so two deliveries of the same CREATE_ORDER record cannot both
+ * insert a payment. The compound index replaces the plain orderId index of 001, which despite its name was
+ * not unique, and still serves lookups by orderId through its prefix.
+ * <p>
+ * This also changes the REST API: creating a second payment for the same order and user through
+ * {@code POST /api/payments} now fails with 409 Conflict instead of storing a duplicate.
+ * <p>
+ * Building the index fails while duplicates exist; they have to be resolved before this change unit can run.
+ */
+@ChangeUnit(id = "003-payment-order-unique-index", order = "003", author = "pon")
+public class PaymentOrderUniqueIndexChangeUnit {
+
+    private static final String ORDER_USER_INDEX = "payment_order_user_unique_idx";
+    private static final String LEGACY_ORDER_INDEX = "payment_order_id_unique_idx";
+
+    @Execution
+    public void changeSet(MongoTemplate mongoTemplate) {
+        IndexOperations indexOps = mongoTemplate.indexOps(Payment.class);
+
+        indexOps.createIndex(new Index()
+                .on("orderId", Sort.Direction.ASC)
+                .on("userId", Sort.Direction.ASC)
+                .unique()
+                .named(ORDER_USER_INDEX));
+        indexOps.dropIndex(LEGACY_ORDER_INDEX);
+    }
+
+    @RollbackExecution
+    public void rollback(MongoTemplate mongoTemplate) {
+        IndexOperations indexOps = mongoTemplate.indexOps(Payment.class);
+
+        indexOps.createIndex(new Index()
+                .on("orderId", Sort.Direction.ASC)
+                .named(LEGACY_ORDER_INDEX));
+        indexOps.dropIndex(ORDER_USER_INDEX);
+    }
+}
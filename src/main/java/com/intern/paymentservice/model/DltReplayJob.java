@@ -0,0 +1,67 @@
+package com.intern.paymentservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A dead-letter replay and its checkpoint: {@link PartitionRange#nextOffset} is the first record of each
+ * partition that has not been replayed yet, so a job resumed after a restart continues from there.
+ */
+@Document(collection = "dlt_replay_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DltReplayJob {
+
+    @Id
+    private String id;
+
+    private String topic;
+    private List<PartitionRange> partitions;
+    private String exceptionFqcn;
+    private Instant from;
+    private Instant to;
+    private int ratePerSecond;
+    private DltReplayTarget target;
+
+    private DltReplayStatus status;
+    private long scanned;
+    private long replayed;
+    private long skipped;
+    private long failed;
+    private String lastError;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    /**
+     * Instance currently running the job and how long its claim lasts; another instance resumes the job
+     * once the claim has expired.
+     */
+    private String owner;
+    private Instant leaseUntil;
+
+    /**
+     * Offsets [startOffset, endOffset) of one dead-letter partition.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartitionRange {
+        private int partition;
+        private long startOffset;
+        private long endOffset;
+        private long nextOffset;
+
+        public boolean isDone() {
+            return nextOffset >= endOffset;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.intern.paymentservice.model;
+
+public enum DltReplayStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,18 @@
+package com.intern.paymentservice.model;
+
+/**
+ * Where replayed dead-letter records go.
+ */
+public enum DltReplayTarget {
+
+    /**
+     * Back to the topic they originally failed on, bytes and headers unchanged. CREATE_ORDER records whose
+     * payment already exists are skipped, as the consumer would dead-letter them again.
+     */
+    REPUBLISH,
+
+    /**
+     * Straight into {@code PaymentFacade.createPaymentIdempotently}, bypassing the broker.
+     */
+    FACADE
+}
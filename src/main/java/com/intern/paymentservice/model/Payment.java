@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -24,5 +26,7 @@ public class Payment {
     private Long userId;
     private PaymentStatus status;
     private Instant timestamp;
+
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal paymentAmount;
 }
\ No newline at end of file
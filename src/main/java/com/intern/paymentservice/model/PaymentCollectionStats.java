@@ -0,0 +1,9 @@
+package com.intern.paymentservice.model;
+
+public record PaymentCollectionStats(
+        String collection,
+        long documents,
+        long dataSizeBytes,
+        long storageSizeBytes,
+        long indexSizeBytes
+) {}
@@ -0,0 +1,274 @@
+package com.intern.paymentservice.observability;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency, returned documents and reply size of every Mongo command per query shape and
+ * {@link RepositoryMethodContext repository method}, and logs commands slower than
+ * {@code payment.mongo.slow-command.threshold} with their shape and plan summary.
+ * <p>
+ * Plans come from a {@code queryPlanner} explain that runs on a single background thread, at most once per
+ * shape and {@code payment.mongo.slow-command.explain-interval}, of a sample command of that shape copied at
+ * most once per interval as well; a slow command is logged with the last plan seen for its shape, so a plan
+ * change such as {@code IXSCAN} turning into {@code COLLSCAN} after an index was dropped shows up in the log
+ * within one interval and in the per-shape latency right away.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.mongo.command-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoCommandMetrics implements CommandListener, MongoClientSettingsBuilderCustomizer, DisposableBean {
+
+    static final String OTHER_SHAPE = "other";
+
+    private static final Set<String> IGNORED_COMMANDS = Set.of(
+            "explain", "hello", "isMaster", "ismaster", "saslStart", "saslContinue", "authenticate");
+    private static final Set<String> EXPLAINABLE_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+    private static final BsonDocumentCodec DOCUMENT_CODEC = new BsonDocumentCodec();
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final long slowThresholdNanos;
+    private final boolean explain;
+    private final long explainIntervalNanos;
+    private final int maxShapes;
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    private final Set<String> shapes = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> plans = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final Map<String, Sample> samples = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public MongoCommandMetrics(
+            MeterRegistry meterRegistry,
+            ObjectProvider<MongoTemplate> mongoTemplate,
+            @Value("${payment.mongo.slow-command.threshold:100ms}") Duration slowThreshold,
+            @Value("${payment.mongo.slow-command.explain:true}") boolean explain,
+            @Value("${payment.mongo.slow-command.explain-interval:1m}") Duration explainInterval,
+            @Value("${payment.mongo.command-metrics.max-shapes:500}") int maxShapes) {
+        this.meterRegistry = meterRegistry;
+        this.mongoTemplate = mongoTemplate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.explain = explain;
+        this.explainIntervalNanos = explainInterval.toNanos();
+        this.maxShapes = maxShapes;
+        // Explains beyond a short backlog are dropped; the next slow command of that shape asks again
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16),
+                Thread.ofPlatform().name("mongo-explain").daemon().factory(), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if (IGNORED_COMMANDS.contains(commandName)) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        String shape = boundedShape(MongoQueryShape.of(commandName, command));
+        boolean explainable = explain && EXPLAINABLE_COMMANDS.contains(commandName);
+        if (explainable) {
+            sample(shape, event.getDatabaseName(), command);
+        }
+        inFlight.put(event.getRequestId(), new Started(shape, RepositoryMethodContext.current(), explainable));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        BsonDocument response = event.getResponse();
+        Meters commandMeters = meters(started);
+        commandMeters.success().record(elapsedNanos, TimeUnit.NANOSECONDS);
+        commandMeters.documents().record(returnedDocuments(response));
+        commandMeters.size().record(sizeInBytes(response));
+        if (elapsedNanos >= slowThresholdNanos) {
+            reportSlow(started, elapsedNanos, null);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        meters(started).failure().record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos >= slowThresholdNanos) {
+            reportSlow(started, elapsedNanos, event.getThrowable());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+
+    private void reportSlow(Started started, long elapsedNanos, Throwable failure) {
+        meters(started).slow().increment();
+        log.warn("Slow Mongo command took {} ms: {} from repository method {}, plan {}{}",
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), started.shape(), started.repositoryMethod(),
+                plans.getOrDefault(started.shape(), started.explainable() ? "pending" : "n/a"),
+                failure != null ? ", failed: " + failure.getMessage() : "");
+        Sample sample = samples.get(started.shape());
+        if (started.explainable() && sample != null && claimExplain(started.shape())) {
+            explainExecutor.execute(() -> explain(started.shape(), sample));
+        }
+    }
+
+    private boolean claimExplain(String shape) {
+        long now = System.nanoTime();
+        Long previous = lastExplained.get(shape);
+        if (previous != null && now - previous < explainIntervalNanos) {
+            return false;
+        }
+        return previous == null
+                ? lastExplained.putIfAbsent(shape, now) == null
+                : lastExplained.replace(shape, previous, now);
+    }
+
+    /**
+     * Keeps a copy of one command per shape to explain, as the command document is only valid during
+     * {@link #commandStarted}; the copy is refreshed once per explain interval, so other commands are not cloned.
+     */
+    private void sample(String shape, String database, BsonDocument command) {
+        long now = System.nanoTime();
+        Sample previous = samples.get(shape);
+        if (previous == null || now - previous.takenAtNanos() >= explainIntervalNanos) {
+            samples.put(shape, new Sample(now, database, command.clone()));
+        }
+    }
+
+    private void explain(String shape, Sample sample) {
+        try {
+            Document result = mongoTemplate.getObject().getMongoDatabaseFactory()
+                    .getMongoDatabase(sample.database())
+                    .runCommand(MongoQueryShape.explainCommand(sample.command(), "queryPlanner"));
+            String plan = MongoQueryShape.planSummary(result);
+            String previous = plans.put(shape, plan);
+            if (!plan.equals(previous)) {
+                log.warn("Plan for Mongo command {} is now {} (was {})", shape, plan,
+                        previous != null ? previous : "unknown");
+            }
+        } catch (RuntimeException e) {
+            log.debug("Could not explain Mongo command {}", shape, e);
+        }
+    }
+
+    private String boundedShape(String shape) {
+        if (shapes.contains(shape)) {
+            return shape;
+        }
+        // Unexpected shapes (ad-hoc queries, a bug building filters) must not grow the metric cardinality unbounded
+        if (shapes.size() >= maxShapes) {
+            return OTHER_SHAPE;
+        }
+        shapes.add(shape);
+        return shape;
+    }
+
+    private Meters meters(Started started) {
+        return meters.computeIfAbsent(started.shape() + '\u0000' + started.repositoryMethod(), key -> {
+            String shape = started.shape();
+            String method = started.repositoryMethod();
+            return new Meters(
+                    timer(shape, method, "success"),
+                    timer(shape, method, "error"),
+                    DistributionSummary.builder("payment.mongo.command.documents")
+                            .description("Documents returned or affected by a Mongo command")
+                            .tag("shape", shape)
+                            .tag("repository.method", method)
+                            .register(meterRegistry),
+                    DistributionSummary.builder("payment.mongo.command.size")
+                            .description("Size of a Mongo command reply")
+                            .baseUnit("bytes")
+                            .tag("shape", shape)
+                            .tag("repository.method", method)
+                            .register(meterRegistry),
+                    Counter.builder("payment.mongo.command.slow")
+                            .description("Mongo commands slower than the slow-command threshold")
+                            .tag("shape", shape)
+                            .tag("repository.method", method)
+                            .register(meterRegistry));
+        });
+    }
+
+    private Timer timer(String shape, String method, String outcome) {
+        return Timer.builder("payment.mongo.command")
+                .description("Latency of a Mongo command")
+                .tag("shape", shape)
+                .tag("repository.method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static int returnedDocuments(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch")
+                    ? cursor.asDocument().get("firstBatch")
+                    : cursor.asDocument().get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        BsonValue value = response.get("value");
+        if (value != null) {
+            return value.isNull() ? 0 : 1;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().intValue() : 0;
+    }
+
+    private static int sizeInBytes(BsonDocument response) {
+        if (response instanceof RawBsonDocument raw) {
+            return raw.getByteBuffer().remaining();
+        }
+        return new RawBsonDocument(response, DOCUMENT_CODEC).getByteBuffer().remaining();
+    }
+
+    private record Started(String shape, String repositoryMethod, boolean explainable) {
+    }
+
+    private record Sample(long takenAtNanos, String database, BsonDocument command) {
+    }
+
+    private record Meters(Timer success, Timer failure, DistributionSummary documents, DistributionSummary size,
+                          Counter slow) {
+    }
+}
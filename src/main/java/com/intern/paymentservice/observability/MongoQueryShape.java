@@ -0,0 +1,194 @@
+package com.intern.paymentservice.observability;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes Mongo commands into value-free query shapes such as {@code find payments {userId, status}} and
+ * condenses explain output into a plan summary such as {@code FETCH <- IXSCAN(payment_user_id_idx)}.
+ * Shapes only keep command, collection, filtered and sorted field names and pipeline stages, so they are
+ * safe to log and bounded enough to use as metric tags.
+ */
+public final class MongoQueryShape {
+
+    static final int MAX_LENGTH = 200;
+
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("_\\d{6}$");
+    private static final Set<String> SESSION_FIELDS = Set.of("lsid", "txnNumber", "autocommit", "startTransaction",
+            "readConcern", "writeConcern", "maxTimeMS", "apiVersion", "apiStrict", "apiDeprecationErrors");
+
+    private MongoQueryShape() {
+    }
+
+    public static String of(String commandName, BsonDocument command) {
+        StringBuilder shape = new StringBuilder(commandName);
+        // getMore names its cursor first and the collection separately
+        BsonValue target = command.get("getMore".equals(commandName) ? "collection" : commandName);
+        if (target != null && target.isString()) {
+            shape.append(' ').append(MONTHLY_PARTITION.matcher(target.asString().getValue()).replaceFirst("_yyyyMM"));
+        }
+        switch (commandName) {
+            case "find" -> {
+                appendFields(shape, command.get("filter"));
+                appendSort(shape, command.get("sort"));
+            }
+            case "count", "findAndModify" -> appendFields(shape, command.get("query"));
+            case "distinct" -> {
+                BsonValue key = command.get("key");
+                if (key != null && key.isString()) {
+                    shape.append(' ').append(key.asString().getValue());
+                }
+                appendFields(shape, command.get("query"));
+            }
+            case "update" -> appendFirstStatement(shape, command.get("updates"));
+            case "delete" -> appendFirstStatement(shape, command.get("deletes"));
+            case "aggregate" -> appendPipeline(shape, command.get("pipeline"));
+            default -> {
+                // the command name and collection identify everything else well enough
+            }
+        }
+        return shape.length() > MAX_LENGTH ? shape.substring(0, MAX_LENGTH - 3) + "..." : shape.toString();
+    }
+
+    /**
+     * Wraps a captured command in an {@code explain} with the given verbosity, dropping the driver-added
+     * session, transaction and routing fields that explain rejects.
+     */
+    public static BsonDocument explainCommand(BsonDocument command, String verbosity) {
+        BsonDocument explained = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            if (!field.getKey().startsWith("$") && !SESSION_FIELDS.contains(field.getKey())) {
+                explained.put(field.getKey(), field.getValue());
+            }
+        }
+        return new BsonDocument("explain", explained).append("verbosity", new BsonString(verbosity));
+    }
+
+    /**
+     * Summarizes the winning plan of a {@code queryPlanner} explain of a find, count, distinct or aggregate.
+     */
+    public static String planSummary(Document explain) {
+        Document planner = explain.get("queryPlanner", Document.class);
+        if (planner == null) {
+            List<Document> stages = explain.getList("stages", Document.class);
+            Document cursor = stages == null || stages.isEmpty() ? null : stages.getFirst().get("$cursor", Document.class);
+            planner = cursor == null ? null : cursor.get("queryPlanner", Document.class);
+        }
+        Document winningPlan = planner == null ? null : planner.get("winningPlan", Document.class);
+        if (winningPlan == null) {
+            return "unknown";
+        }
+        // Slot-based execution nests the classic plan tree under queryPlan
+        Document queryPlan = winningPlan.get("queryPlan", Document.class);
+        StringBuilder summary = new StringBuilder();
+        describe(queryPlan != null ? queryPlan : winningPlan, summary);
+        return summary.toString();
+    }
+
+    private static void describe(Document stage, StringBuilder summary) {
+        String name = stage.getString("stage");
+        summary.append(name != null ? name : "?");
+        String indexName = stage.getString("indexName");
+        if (indexName != null) {
+            summary.append('(').append(indexName).append(')');
+        }
+        Document input = stage.get("inputStage", Document.class);
+        List<Document> inputs = stage.getList("inputStages", Document.class);
+        if (input != null) {
+            summary.append(" <- ");
+            describe(input, summary);
+        } else if (inputs != null && !inputs.isEmpty()) {
+            summary.append(" <- [");
+            for (int i = 0; i < inputs.size(); i++) {
+                if (i > 0) {
+                    summary.append(", ");
+                }
+                describe(inputs.get(i), summary);
+            }
+            summary.append(']');
+        }
+    }
+
+    private static void appendFirstStatement(StringBuilder shape, BsonValue statements) {
+        if (statements != null && statements.isArray() && !statements.asArray().isEmpty()) {
+            BsonValue first = statements.asArray().get(0);
+            if (first.isDocument()) {
+                appendFields(shape, first.asDocument().get("q"));
+            }
+        }
+    }
+
+    private static void appendPipeline(StringBuilder shape, BsonValue pipeline) {
+        if (pipeline == null || !pipeline.isArray()) {
+            return;
+        }
+        shape.append(" [");
+        BsonArray stages = pipeline.asArray();
+        for (int i = 0; i < stages.size(); i++) {
+            if (i > 0) {
+                shape.append(", ");
+            }
+            BsonValue stage = stages.get(i);
+            if (!stage.isDocument() || stage.asDocument().isEmpty()) {
+                shape.append('?');
+                continue;
+            }
+            String stageName = stage.asDocument().getFirstKey();
+            shape.append(stageName);
+            if ("$match".equals(stageName) || "$sort".equals(stageName)) {
+                appendFields(shape, stage.asDocument().get(stageName));
+            }
+        }
+        shape.append(']');
+    }
+
+    private static void appendSort(StringBuilder shape, BsonValue sort) {
+        if (sort != null && sort.isDocument() && !sort.asDocument().isEmpty()) {
+            shape.append(" sort");
+            appendFields(shape, sort);
+        }
+    }
+
+    private static void appendFields(StringBuilder shape, BsonValue filter) {
+        if (filter == null || !filter.isDocument()) {
+            return;
+        }
+        shape.append(' ');
+        appendDocument(shape, filter.asDocument());
+    }
+
+    private static void appendDocument(StringBuilder shape, BsonDocument document) {
+        shape.append('{');
+        boolean first = true;
+        for (var field : document.entrySet()) {
+            if (!first) {
+                shape.append(", ");
+            }
+            first = false;
+            shape.append(field.getKey());
+            // $and/$or/$nor hold nested filters whose fields matter as much as top-level ones
+            if (field.getKey().startsWith("$") && field.getValue().isArray()) {
+                shape.append(" [");
+                BsonArray clauses = field.getValue().asArray();
+                for (int i = 0; i < clauses.size(); i++) {
+                    if (i > 0) {
+                        shape.append(", ");
+                    }
+                    if (clauses.get(i).isDocument()) {
+                        appendDocument(shape, clauses.get(i).asDocument());
+                    }
+                }
+                shape.append(']');
+            }
+        }
+        shape.append('}');
+    }
+}
@@ -0,0 +1,57 @@
+package com.intern.paymentservice.observability;
+
+import java.util.function.Supplier;
+
+/**
+ * Name of the {@code PaymentRepository} method the current thread is executing, so that lower layers such as
+ * the Mongo command listener can attribute their work to it. Set by the repository layer timing advice.
+ */
+public final class RepositoryMethodContext {
+
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryMethodContext() {
+    }
+
+    public static String current() {
+        String method = CURRENT.get();
+        return method != null ? method : NONE;
+    }
+
+    /**
+     * Marks the thread as running {@code method}; returns the previous value to pass to {@link #restore(String)}.
+     */
+    public static String enter(String method) {
+        String previous = CURRENT.get();
+        CURRENT.set(method);
+        return previous;
+    }
+
+    public static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Carries the caller's repository method over to the thread that runs {@code task}, e.g. a fan-out pool.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        String method = CURRENT.get();
+        if (method == null) {
+            return task;
+        }
+        return () -> {
+            String previous = enter(method);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
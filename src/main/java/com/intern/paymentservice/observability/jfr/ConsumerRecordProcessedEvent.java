@@ -0,0 +1,53 @@
+package com.intern.paymentservice.observability.jfr;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One CREATE_ORDER record handled by a listener. The duration covers the whole handling, the record age how long
+ * the record had waited since it was produced, as seen by this host's clock.
+ */
+@Name("com.intern.payment.ConsumerRecordProcessed")
+@Label("Consumer Record Processed")
+@Description("A CREATE_ORDER record was turned into a payment, or failed to be")
+@Category({"Payment Service", "Kafka"})
+@StackTrace(false)
+public class ConsumerRecordProcessedEvent extends Event {
+
+    @Label("Topic")
+    String topic;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Payment Id")
+    String paymentId;
+
+    @Label("Record Age")
+    @Timespan(Timespan.MILLISECONDS)
+    long recordAge;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Ends the event and commits it; {@code payment} is null when the record failed.
+     */
+    public void finish(String topic, Long orderId, long producedAt, PaymentResponse payment) {
+        end();
+        if (shouldCommit()) {
+            this.topic = topic;
+            this.orderId = orderId != null ? orderId : 0;
+            this.paymentId = payment != null ? payment.id() : null;
+            this.recordAge = Math.max(0, System.currentTimeMillis() - producedAt);
+            this.succeeded = payment != null;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.intern.paymentservice.observability.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.intern.payment.PaymentCreated")
+@Label("Payment Created")
+@Description("A PENDING payment was validated and persisted")
+public class PaymentCreatedEvent extends PaymentLifecycleEvent {
+}
@@ -0,0 +1,26 @@
+package com.intern.paymentservice.observability.jfr;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.PaymentStatus;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Begins with the decision request, so its duration is the time spent waiting for the decision.
+ */
+@Name("com.intern.payment.PaymentDecisionReceived")
+@Label("Payment Decision Received")
+@Description("The decision API answered; status is the status decided for the payment")
+public class PaymentDecisionReceivedEvent extends PaymentLifecycleEvent {
+
+    public void finish(PaymentResponse pending, PaymentStatus decided) {
+        end();
+        if (shouldCommit()) {
+            paymentId = pending.id();
+            orderId = pending.orderId() != null ? pending.orderId() : 0;
+            status = decided.name();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.intern.paymentservice.observability.jfr;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.intern.payment.PaymentDecisionRequested")
+@Label("Payment Decision Requested")
+@Description("The decision for a PENDING payment was requested from the decision API")
+public class PaymentDecisionRequestedEvent extends PaymentLifecycleEvent {
+
+    /**
+     * Commits an instant event for {@code payment}.
+     */
+    public static void emit(PaymentResponse payment) {
+        new PaymentDecisionRequestedEvent().finish(payment);
+    }
+}
@@ -0,0 +1,15 @@
+package com.intern.paymentservice.observability.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Covers handing the event to the Kafka producer, which blocks while metadata is missing or the send buffer
+ * is full; the broker acknowledgement is timed by {@code spring.kafka.template}.
+ */
+@Name("com.intern.payment.PaymentEventPublished")
+@Label("Payment Event Published")
+@Description("An UPDATE_PAYMENT event was handed to the Kafka producer or the spool")
+public class PaymentEventPublishedEvent extends PaymentLifecycleEvent {
+}
@@ -0,0 +1,44 @@
+package com.intern.paymentservice.observability.jfr;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Common fields of the payment lifecycle events. The events cost next to nothing while no recording is running:
+ * {@link #shouldCommit()} is then false and the fields are never filled in.
+ * <p>
+ * Typical use is {@code begin()} before the step and one of the {@code finish} methods after it, which ends the
+ * event, so its duration is the step's duration.
+ */
+@Category({"Payment Service", "Payment Lifecycle"})
+@StackTrace(false)
+public abstract class PaymentLifecycleEvent extends Event {
+
+    @Label("Payment Id")
+    String paymentId;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Status")
+    String status;
+
+    /**
+     * Ends the event and commits it with the payment's id, order and status; {@code payment} may be null when
+     * the step failed.
+     */
+    public void finish(PaymentResponse payment) {
+        end();
+        if (shouldCommit()) {
+            if (payment != null) {
+                paymentId = payment.id();
+                orderId = payment.orderId() != null ? payment.orderId() : 0;
+                status = payment.status() != null ? payment.status().name() : null;
+            }
+            commit();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.intern.paymentservice.observability.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.intern.payment.PaymentStatusPersisted")
+@Label("Payment Status Persisted")
+@Description("A payment's new status was written to Mongo")
+public class PaymentStatusPersistedEvent extends PaymentLifecycleEvent {
+}
@@ -0,0 +1,16 @@
+package com.intern.paymentservice.repository;
+
+import com.intern.paymentservice.model.DltReplayJob;
+import com.intern.paymentservice.model.DltReplayStatus;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@NullMarked
+public interface DltReplayJobRepository extends MongoRepository<DltReplayJob, String> {
+
+    List<DltReplayJob> findByStatus(DltReplayStatus status);
+}
@@ -0,0 +1,23 @@
+package com.intern.paymentservice.repository;
+
+import com.intern.paymentservice.model.PaymentCollectionStats;
+import org.jspecify.annotations.NullMarked;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Cold-tier operations: moving settled payments out of the hot collections and measuring the effect.
+ */
+@NullMarked
+public interface PaymentArchiveRepository {
+
+    /**
+     * Moves at most {@code batchSize} SUCCESS, FAILED or REFUNDED payments older than {@code settledBefore}
+     * from the hot collections to the archive.
+     * @return the number of payments removed from the hot tier; 0 once nothing is left to move.
+     */
+    int archiveSettledPayments(Instant settledBefore, int batchSize);
+
+    List<PaymentCollectionStats> findCollectionStats();
+}
@@ -0,0 +1,20 @@
+package com.intern.paymentservice.repository;
+
+import com.intern.paymentservice.model.Payment;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.function.Consumer;
+
+/**
+ * Full scans for exporting payments to other systems.
+ */
+@NullMarked
+public interface PaymentExportRepository {
+
+    /**
+     * Streams every payment of the hot collections and the archive through {@code action}, fetching
+     * {@code batchSize} documents per cursor round trip instead of loading them into memory.
+     * @return the number of payments passed to {@code action}.
+     */
+    long forEachPayment(int batchSize, Consumer<Payment> action);
+}
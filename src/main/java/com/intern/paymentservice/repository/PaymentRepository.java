@@ -1,29 +1,97 @@
 package com.intern.paymentservice.repository;
 
 import com.intern.paymentservice.model.Payment;
-import com.intern.paymentservice.model.PaymentStatus;
 import org.jspecify.annotations.NullMarked;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Repository
 @NullMarked
 public interface PaymentRepository
         extends MongoRepository<Payment, String>,
-        PaymentAggregationRepository {
+        PaymentRoutingRepository,
+        PaymentAggregationRepository,
+        PaymentArchiveRepository,
+        PaymentExportRepository {
 
-    Optional<Payment> findByIdAndUserId(String id, Long userId);
+    // Redeclared so calls resolve to the routed implementations of PaymentRoutingRepository
+    // instead of being ambiguous with the MongoRepository methods.
 
-    List<Payment> findByOrderId(Long orderId);
+    @Override
+    <S extends Payment> S save(S payment);
 
-    List<Payment> findByOrderIdAndUserId(Long orderId, Long userId);
+    @Override
+    <S extends Payment> List<S> saveAll(Iterable<S> payments);
 
-    List<Payment> findByUserId(Long userId);
+    @Override
+    <S extends Payment> S insert(S payment);
 
-    List<Payment> findByStatusIn(List<PaymentStatus> statuses);
+    @Override
+    <S extends Payment> List<S> insert(Iterable<S> payments);
 
-    List<Payment> findByStatusInAndUserId(List<PaymentStatus> statuses, Long userId);
+    @Override
+    Optional<Payment> findById(String id);
+
+    @Override
+    boolean existsById(String id);
+
+    @Override
+    List<Payment> findAll();
+
+    @Override
+    List<Payment> findAllById(Iterable<String> ids);
+
+    @Override
+    long count();
+
+    @Override
+    void deleteById(String id);
+
+    @Override
+    void delete(Payment payment);
+
+    @Override
+    void deleteAllById(Iterable<? extends String> ids);
+
+    @Override
+    void deleteAll(Iterable<? extends Payment> payments);
+
+    @Override
+    void deleteAll();
+
+    @Override
+    List<Payment> findAll(Sort sort);
+
+    @Override
+    Page<Payment> findAll(Pageable pageable);
+
+    @Override
+    <S extends Payment> Optional<S> findOne(Example<S> example);
+
+    @Override
+    <S extends Payment> List<S> findAll(Example<S> example);
+
+    @Override
+    <S extends Payment> List<S> findAll(Example<S> example, Sort sort);
+
+    @Override
+    <S extends Payment> Page<S> findAll(Example<S> example, Pageable pageable);
+
+    @Override
+    <S extends Payment> long count(Example<S> example);
+
+    @Override
+    <S extends Payment> boolean exists(Example<S> example);
+
+    @Override
+    <S extends Payment, R> R findBy(Example<S> example, Function<FetchableFluentQuery<S>, R> queryFunction);
 }
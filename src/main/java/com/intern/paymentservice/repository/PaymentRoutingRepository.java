@@ -0,0 +1,88 @@
+package com.intern.paymentservice.repository;
+
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Payment operations that are routed to the right collection when monthly partitioning is enabled.
+ * These override the corresponding CRUD and derived-query methods of {@link PaymentRepository}.
+ * {@link #findAll()}, {@link #count()} and {@link #deleteAll()} cover the hot tier only, not the archive.
+ * The sorted, paged and query-by-example variants run against the unpartitioned {@code payments} collection
+ * and throw {@link UnsupportedOperationException} when partitioning is enabled.
+ */
+@NullMarked
+public interface PaymentRoutingRepository {
+
+    <S extends Payment> S save(S payment);
+
+    <S extends Payment> List<S> saveAll(Iterable<S> payments);
+
+    <S extends Payment> S insert(S payment);
+
+    <S extends Payment> List<S> insert(Iterable<S> payments);
+
+    Optional<Payment> findById(String id);
+
+    boolean existsById(String id);
+
+    List<Payment> findAll();
+
+    List<Payment> findAllById(Iterable<String> ids);
+
+    long count();
+
+    void deleteById(String id);
+
+    void delete(Payment payment);
+
+    void deleteAllById(Iterable<? extends String> ids);
+
+    void deleteAll(Iterable<? extends Payment> payments);
+
+    void deleteAll();
+
+    List<Payment> findAll(Sort sort);
+
+    Page<Payment> findAll(Pageable pageable);
+
+    <S extends Payment> Optional<S> findOne(Example<S> example);
+
+    <S extends Payment> List<S> findAll(Example<S> example);
+
+    <S extends Payment> List<S> findAll(Example<S> example, Sort sort);
+
+    <S extends Payment> Page<S> findAll(Example<S> example, Pageable pageable);
+
+    <S extends Payment> long count(Example<S> example);
+
+    <S extends Payment> boolean exists(Example<S> example);
+
+    <S extends Payment, R> R findBy(Example<S> example, Function<FetchableFluentQuery<S>, R> queryFunction);
+
+    Optional<Payment> findByIdAndUserId(String id, Long userId);
+
+    List<Payment> findByOrderId(Long orderId);
+
+    List<Payment> findByOrderIdAndUserId(Long orderId, Long userId);
+
+    List<Payment> findByUserId(Long userId);
+
+    List<Payment> findByStatusIn(List<PaymentStatus> statuses);
+
+    List<Payment> findByStatusInAndUserId(List<PaymentStatus> statuses, Long userId);
+
+    List<String> findPartitionNames();
+
+    void dropPartition(YearMonth month);
+}
@@ -0,0 +1,12 @@
+package com.intern.paymentservice.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public interface ReactivePaymentAggregationRepository {
+    Mono<BigDecimal> findPaymentTotalForPeriod(Instant start, Instant end);
+
+    Mono<BigDecimal> findPaymentTotalForPeriodAndUserId(Instant start, Instant end, Long userId);
+}
@@ -0,0 +1,34 @@
+package com.intern.paymentservice.repository;
+
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterpart of {@link PaymentRepository}. It reads and writes the base {@code payments}
+ * collection only; monthly partitions and the archive tier are served by the blocking repository.
+ */
+@Repository
+@NullMarked
+public interface ReactivePaymentRepository
+        extends ReactiveMongoRepository<Payment, String>,
+        ReactivePaymentAggregationRepository {
+
+    Mono<Payment> findByIdAndUserId(String id, Long userId);
+
+    Flux<Payment> findByOrderId(Long orderId);
+
+    Flux<Payment> findByOrderIdAndUserId(Long orderId, Long userId);
+
+    Flux<Payment> findByUserId(Long userId);
+
+    Flux<Payment> findByStatusIn(Collection<PaymentStatus> statuses);
+
+    Flux<Payment> findByStatusInAndUserId(Collection<PaymentStatus> statuses, Long userId);
+}
@@ -0,0 +1,43 @@
+package com.intern.paymentservice.repository.impl;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the sub-range length used by the range-split aggregation close to a target latency.
+ * Every finished chunk reports how long it took, and the next plan uses the adjusted length.
+ */
+class AdaptiveChunkSizer {
+
+    private static final long MIN_CHUNK_MILLIS = Duration.ofHours(1).toMillis();
+    private static final long MAX_CHUNK_MILLIS = Duration.ofDays(366).toMillis();
+
+    private final long targetLatencyNanos;
+    private final AtomicLong chunkMillis;
+
+    AdaptiveChunkSizer(Duration initialChunk, Duration targetLatency) {
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.chunkMillis = new AtomicLong(clamp(initialChunk.toMillis()));
+    }
+
+    Duration currentChunk() {
+        return Duration.ofMillis(chunkMillis.get());
+    }
+
+    /**
+     * Scales the chunk length by target/observed latency. The step is bounded to halving or doubling,
+     * and the result is averaged with the previous value so a single outlier cannot swing the plan.
+     */
+    void record(Duration chunk, long elapsedNanos) {
+        if (elapsedNanos <= 0) {
+            return;
+        }
+        double ratio = Math.clamp((double) targetLatencyNanos / elapsedNanos, 0.5, 2.0);
+        long proposed = (long) (chunk.toMillis() * ratio);
+        chunkMillis.updateAndGet(current -> clamp((current + proposed) / 2));
+    }
+
+    private static long clamp(long millis) {
+        return Math.clamp(millis, MIN_CHUNK_MILLIS, MAX_CHUNK_MILLIS);
+    }
+}
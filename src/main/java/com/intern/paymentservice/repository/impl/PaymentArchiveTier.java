@@ -0,0 +1,178 @@
+package com.intern.paymentservice.repository.impl;
+
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentCollectionStats;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.CreateCollectionOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Cold tier for settled payments: a zstd-compressed {@code payments_archive} collection.
+ * <p>
+ * Moving a batch is idempotent: documents are upserted into the archive by id before they are deleted
+ * from the hot collection, so a job interrupted at any point can simply run again. A document updated
+ * after it was copied is left in the hot collection and its archived copy is dropped.
+ */
+@Slf4j
+class PaymentArchiveTier {
+
+    static final String ARCHIVE_COLLECTION = "payments_archive";
+
+    private static final List<String> SETTLED_STATUSES = List.of(
+            PaymentStatus.SUCCESS.name(), PaymentStatus.FAILED.name(), PaymentStatus.REFUNDED.name());
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final Duration settledAfter;
+    private volatile boolean prepared;
+
+    PaymentArchiveTier(MongoTemplate mongoTemplate, boolean enabled, Duration settledAfter) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.settledAfter = settledAfter;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether a period starting at {@code start} may reach data that has already been archived.
+     */
+    boolean covers(Instant start) {
+        return enabled && start.isBefore(Instant.now().minus(settledAfter));
+    }
+
+    /**
+     * Whether a status filter can match archived payments, which are all settled.
+     */
+    boolean holdsAny(List<PaymentStatus> statuses) {
+        return enabled && statuses.stream().anyMatch(status -> SETTLED_STATUSES.contains(status.name()));
+    }
+
+    Optional<Payment> findOne(Query query) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(mongoTemplate.findOne(query, Payment.class, ARCHIVE_COLLECTION));
+    }
+
+    List<Payment> find(Query query) {
+        if (!enabled) {
+            return List.of();
+        }
+        return mongoTemplate.find(query, Payment.class, ARCHIVE_COLLECTION);
+    }
+
+    /**
+     * Drops the archived copy of a payment that was deleted or restored to the hot tier.
+     */
+    void remove(String id) {
+        if (enabled) {
+            mongoTemplate.remove(query(where("_id").is(id)), ARCHIVE_COLLECTION);
+        }
+    }
+
+    int archiveBatch(String source, Instant settledBefore, int batchSize) {
+        prepare();
+
+        Query settled = query(where("status").in(SETTLED_STATUSES).and("timestamp").lt(settledBefore))
+                .limit(batchSize);
+        List<Document> batch = mongoTemplate.find(settled, Document.class, source);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> ids = batch.stream().map(document -> document.get("_id")).toList();
+        BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ARCHIVE_COLLECTION);
+        batch.forEach(document -> copy.replaceOne(
+                query(where("_id").is(document.get("_id"))), document, FindAndReplaceOptions.options().upsert()));
+        copy.execute();
+
+        // A hot document is only deleted while it still equals the copy, so an update made meanwhile is not lost
+        BulkOperations delete = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, source);
+        batch.forEach(document -> delete.remove(new BasicQuery(document)));
+        long removed = delete.execute().getDeletedCount();
+
+        if (removed < ids.size()) {
+            // Some payments changed while being copied; they stay hot, so their archive copy must go.
+            List<Object> stillHot = mongoTemplate.find(query(where("_id").in(ids)), Document.class, source).stream()
+                    .map(document -> document.get("_id"))
+                    .toList();
+            mongoTemplate.remove(query(where("_id").in(stillHot)), ARCHIVE_COLLECTION);
+        }
+        return (int) removed;
+    }
+
+    PaymentCollectionStats stats(String collection) {
+        if (!mongoTemplate.collectionExists(collection)) {
+            return new PaymentCollectionStats(collection, 0, 0, 0, 0);
+        }
+        Document result = mongoTemplate.getCollection(collection)
+                .aggregate(List.of(new Document("$collStats", new Document("storageStats", new Document()))))
+                .first();
+        Document storage = result != null ? result.get("storageStats", Document.class) : new Document();
+        return new PaymentCollectionStats(
+                collection,
+                asLong(storage.get("count")),
+                asLong(storage.get("size")),
+                asLong(storage.get("storageSize")),
+                asLong(storage.get("totalIndexSize")));
+    }
+
+    private void prepare() {
+        if (prepared) {
+            return;
+        }
+        if (!mongoTemplate.collectionExists(ARCHIVE_COLLECTION)) {
+            try {
+                mongoTemplate.getDb().createCollection(ARCHIVE_COLLECTION, new CreateCollectionOptions()
+                        .storageEngineOptions(new Document("wiredTiger",
+                                new Document("configString", "block_compressor=zstd"))));
+                log.info("Created compressed archive collection {}", ARCHIVE_COLLECTION);
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                    throw e;
+                }
+            }
+        }
+
+        IndexOperations indexOps = mongoTemplate.indexOps(ARCHIVE_COLLECTION);
+        indexOps.createIndex(new Index().on("orderId", Sort.Direction.ASC).named("payment_archive_order_id_idx"));
+        indexOps.createIndex(new Index().on("userId", Sort.Direction.ASC).named("payment_archive_user_id_idx"));
+        // The status listings merge archived matches, so their filters need an index here as on the hot tier
+        indexOps.createIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .named("payment_archive_user_status_idx"));
+        indexOps.createIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .named("payment_archive_status_timestamp_idx"));
+        indexOps.createIndex(new Index().on("timestamp", Sort.Direction.ASC).named("payment_archive_timestamp_idx"));
+        prepared = true;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
@@ -0,0 +1,214 @@
+package com.intern.paymentservice.repository.impl;
+
+import com.intern.paymentservice.observability.RepositoryMethodContext;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which collection(s) a payment operation touches.
+ * <p>
+ * Without partitioning everything lives in {@code payments}. With partitioning every payment is written to
+ * {@code payments_yyyyMM} for the UTC month of its timestamp, and its ObjectId is generated from that timestamp,
+ * so an id alone is enough to find the partition again. Queries without a time bound fan out to all partitions.
+ * Documents already sitting in {@code payments} are not read in partitioned mode and have to be moved first.
+ */
+@Slf4j
+class PaymentCollectionRouter {
+
+    static final String BASE_COLLECTION = "payments";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile(BASE_COLLECTION + "_\\d{6}");
+    private static final long PARTITION_LIST_TTL_MILLIS = 30_000L;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean partitioned;
+    private final ExecutorService fanOutExecutor;
+    private final Set<String> preparedPartitions = ConcurrentHashMap.newKeySet();
+
+    private volatile List<String> knownPartitions = List.of();
+    private volatile long knownPartitionsLoadedAt;
+
+    PaymentCollectionRouter(MongoTemplate mongoTemplate, boolean partitioned, int fanOutThreads) {
+        this.mongoTemplate = mongoTemplate;
+        this.partitioned = partitioned;
+        this.fanOutExecutor = partitioned
+                ? new ThreadPoolExecutor(fanOutThreads, fanOutThreads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(1_024),
+                        Thread.ofPlatform().name("payment-partition-", 0).daemon(true).factory(),
+                        new ThreadPoolExecutor.CallerRunsPolicy())
+                : null;
+    }
+
+    boolean isPartitioned() {
+        return partitioned;
+    }
+
+    static String partitionName(YearMonth month) {
+        return BASE_COLLECTION + "_" + month.format(PARTITION_SUFFIX);
+    }
+
+    static YearMonth monthOf(Instant instant) {
+        return YearMonth.from(instant.atZone(ZoneOffset.UTC));
+    }
+
+    /**
+     * Collection a new payment with the given timestamp is written to. Creates the partition indexes on first use.
+     */
+    String collectionForWrite(Instant timestamp) {
+        if (!partitioned) {
+            return BASE_COLLECTION;
+        }
+        String partition = partitionName(monthOf(timestamp));
+        if (preparedPartitions.add(partition)) {
+            createIndexes(mongoTemplate.indexOps(partition));
+            log.debug("Prepared payment partition {}", partition);
+        }
+        if (!knownPartitions.contains(partition)) {
+            knownPartitionsLoadedAt = 0L;
+        }
+        return partition;
+    }
+
+    /**
+     * Collections that may hold the payment with the given id: exactly one when the id is an ObjectId.
+     */
+    List<String> collectionsForId(String id) {
+        if (!partitioned) {
+            return List.of(BASE_COLLECTION);
+        }
+        if (ObjectId.isValid(id)) {
+            return List.of(partitionName(monthOf(new ObjectId(id).getDate().toInstant())));
+        }
+        return allCollections();
+    }
+
+    /**
+     * Collection an existing or caller-identified payment is saved to. An ObjectId names its partition; any other id
+     * carries no month, so the partitions are checked for it first and its timestamp only decides for a new one.
+     */
+    String collectionForSave(String id, Instant timestamp) {
+        if (!partitioned) {
+            return BASE_COLLECTION;
+        }
+        if (ObjectId.isValid(id)) {
+            return collectionForWrite(new ObjectId(id).getDate().toInstant());
+        }
+        Query byId = Query.query(Criteria.where("_id").is(id));
+        return fanOut(allCollections(),
+                        collection -> mongoTemplate.exists(byId, collection) ? List.of(collection) : List.<String>of())
+                .stream()
+                .findFirst()
+                .orElseGet(() -> collectionForWrite(timestamp));
+    }
+
+    /**
+     * Existing collections whose month overlaps [start, end].
+     */
+    List<String> collectionsForPeriod(Instant start, Instant end) {
+        if (!partitioned) {
+            return List.of(BASE_COLLECTION);
+        }
+        String first = partitionName(monthOf(start));
+        String last = partitionName(monthOf(end));
+        return allCollections().stream()
+                .filter(name -> name.compareTo(first) >= 0 && name.compareTo(last) <= 0)
+                .toList();
+    }
+
+    List<String> allCollections() {
+        if (!partitioned) {
+            return List.of(BASE_COLLECTION);
+        }
+        if (System.currentTimeMillis() - knownPartitionsLoadedAt > PARTITION_LIST_TTL_MILLIS) {
+            knownPartitions = mongoTemplate.getCollectionNames().stream()
+                    .filter(name -> PARTITION_NAME.matcher(name).matches())
+                    .sorted()
+                    .toList();
+            knownPartitionsLoadedAt = System.currentTimeMillis();
+        }
+        return knownPartitions;
+    }
+
+    /**
+     * Runs the query against every collection, in parallel when there is more than one, and concatenates the results.
+     */
+    <T> List<T> fanOut(List<String> collections, Function<String, List<T>> query) {
+        if (collections.size() == 1) {
+            return query.apply(collections.getFirst());
+        }
+        List<CompletableFuture<List<T>>> partials = collections.stream()
+                .map(collection -> CompletableFuture.supplyAsync(
+                        RepositoryMethodContext.propagate(() -> query.apply(collection)), fanOutExecutor))
+                .toList();
+        try {
+            List<T> merged = new ArrayList<>();
+            partials.forEach(partial -> merged.addAll(partial.join()));
+            return merged;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops a whole month at once instead of deleting its documents one by one.
+     */
+    void dropPartition(YearMonth month) {
+        String partition = partitionName(month);
+        mongoTemplate.dropCollection(partition);
+        preparedPartitions.remove(partition);
+        knownPartitionsLoadedAt = 0L;
+        log.info("Dropped payment partition {}", partition);
+    }
+
+    void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+
+    // Mirrors 001-add-payment-indexes and 003-payment-order-unique-index for collections created after they ran.
+    // Uniqueness is per collection: only the lookup in createPaymentIdempotently spans monthly partitions.
+    private static void createIndexes(IndexOperations indexOps) {
+        indexOps.createIndex(new Index()
+                .on("orderId", Sort.Direction.ASC)
+                .on("userId", Sort.Direction.ASC)
+                .unique()
+                .named("payment_order_user_unique_idx"));
+
+        indexOps.createIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .named("payment_user_id_idx"));
+
+        indexOps.createIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .named("payment_status_timestamp_idx"));
+    }
+}
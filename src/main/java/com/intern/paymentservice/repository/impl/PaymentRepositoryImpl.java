@@ -1,28 +1,362 @@
 package com.intern.paymentservice.repository.impl;
 
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentCollectionStats;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.observability.RepositoryMethodContext;
 import com.intern.paymentservice.repository.PaymentAggregationRepository;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import com.intern.paymentservice.repository.PaymentArchiveRepository;
+import com.intern.paymentservice.repository.PaymentExportRepository;
+import com.intern.paymentservice.repository.PaymentRoutingRepository;
+import com.mongodb.MongoInterruptedException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
+@Slf4j
 @Repository
-@RequiredArgsConstructor
-public class PaymentRepositoryImpl implements PaymentAggregationRepository {
+public class PaymentRepositoryImpl
+        implements PaymentRoutingRepository, PaymentAggregationRepository, PaymentArchiveRepository,
+        PaymentExportRepository, DisposableBean {
+
+    private static final int MAX_CHUNKS_PER_QUERY = 256;
 
     private final MongoTemplate mongoTemplate;
+    private final PaymentCollectionRouter router;
+    private final PaymentArchiveTier archive;
+    private final boolean parallelEnabled;
+    private final Duration chunkMaxTime;
+    private final AdaptiveChunkSizer chunkSizer;
+    private final ExecutorService aggregationExecutor;
+    private final SimpleMongoRepository<Payment, String> unpartitioned;
+
+    public PaymentRepositoryImpl(
+            MongoTemplate mongoTemplate,
+            @Value("${payment.partitioning.enabled:false}") boolean partitioningEnabled,
+            @Value("${payment.partitioning.fan-out-threads:4}") int fanOutThreads,
+            @Value("${payment.archive.enabled:false}") boolean archiveEnabled,
+            @Value("${payment.archive.settled-after:90d}") Duration archiveSettledAfter,
+            @Value("${payment.aggregation.parallel.enabled:false}") boolean parallelEnabled,
+            @Value("${payment.aggregation.parallel.threads:4}") int threads,
+            @Value("${payment.aggregation.parallel.initial-chunk:30d}") Duration initialChunk,
+            @Value("${payment.aggregation.parallel.target-chunk-latency:2s}") Duration targetChunkLatency,
+            @Value("${payment.aggregation.parallel.chunk-max-time:10s}") Duration chunkMaxTime) {
+        this.mongoTemplate = mongoTemplate;
+        this.router = new PaymentCollectionRouter(mongoTemplate, partitioningEnabled, fanOutThreads);
+        this.archive = new PaymentArchiveTier(mongoTemplate, archiveEnabled, archiveSettledAfter);
+        this.parallelEnabled = parallelEnabled;
+        this.chunkMaxTime = chunkMaxTime;
+        this.chunkSizer = new AdaptiveChunkSizer(initialChunk, targetChunkLatency);
+        this.aggregationExecutor = parallelEnabled ? newAggregationExecutor(threads) : null;
+        this.unpartitioned = new SimpleMongoRepository<>(
+                new MongoRepositoryFactory(mongoTemplate).getEntityInformation(Payment.class), mongoTemplate);
+    }
+
+    @Override
+    public <S extends Payment> S save(S payment) {
+        if (payment.getId() == null) {
+            return mongoTemplate.insert(payment, prepareInsert(payment));
+        }
+
+        String collection = collectionForSave(payment);
+        if (!archive.isEnabled()) {
+            return mongoTemplate.save(payment, collection);
+        }
+        Query byId = query(where("_id").is(payment.getId()));
+        byId.fields().include("_id");
+        Document previous = mongoTemplate.findAndReplace(byId, payment, FindAndReplaceOptions.options().upsert(),
+                Payment.class, collection, Document.class);
+        if (previous == null) {
+            // Not in the hot tier yet: a payment read from the archive and modified is hot again.
+            archive.remove(payment.getId());
+        }
+        return payment;
+    }
+
+    @Override
+    public <S extends Payment> List<S> saveAll(Iterable<S> payments) {
+        List<S> saved = new ArrayList<>();
+        Map<String, List<S>> inserts = new LinkedHashMap<>();
+        for (S payment : payments) {
+            if (payment.getId() == null) {
+                inserts.computeIfAbsent(prepareInsert(payment), collection -> new ArrayList<>()).add(payment);
+            } else {
+                save(payment);
+            }
+            saved.add(payment);
+        }
+        // New payments go out as one batch insert per collection; insert sets the generated ids in place
+        inserts.forEach((collection, batch) -> mongoTemplate.insert(batch, collection));
+        return saved;
+    }
+
+    @Override
+    public <S extends Payment> S insert(S payment) {
+        return mongoTemplate.insert(payment,
+                payment.getId() == null ? prepareInsert(payment) : collectionForSave(payment));
+    }
+
+    @Override
+    public <S extends Payment> List<S> insert(Iterable<S> payments) {
+        List<S> inserted = new ArrayList<>();
+        payments.forEach(payment -> inserted.add(insert(payment)));
+        return inserted;
+    }
+
+    @Override
+    public Optional<Payment> findById(String id) {
+        return findOne(id, where("_id").is(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<Payment> findAll() {
+        return findAll(new Criteria());
+    }
+
+    @Override
+    public List<Payment> findAllById(Iterable<String> ids) {
+        List<Payment> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return router.fanOut(router.allCollections(),
+                        collection -> List.of(mongoTemplate.count(new Query(), Payment.class, collection)))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public Optional<Payment> findByIdAndUserId(String id, Long userId) {
+        return findOne(id, where("_id").is(id).and("userId").is(userId));
+    }
+
+    @Override
+    public void deleteById(String id) {
+        Query byId = query(where("_id").is(id));
+        router.collectionsForId(id).forEach(collection -> mongoTemplate.remove(byId, Payment.class, collection));
+        archive.remove(id);
+    }
+
+    @Override
+    public void delete(Payment payment) {
+        deleteById(payment.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Payment> payments) {
+        payments.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        router.allCollections().forEach(collection -> mongoTemplate.remove(new Query(), Payment.class, collection));
+    }
+
+    @Override
+    public List<Payment> findByOrderId(Long orderId) {
+        return findAllWithArchived(where("orderId").is(orderId));
+    }
+
+    @Override
+    public List<Payment> findByOrderIdAndUserId(Long orderId, Long userId) {
+        return findAllWithArchived(where("orderId").is(orderId).and("userId").is(userId));
+    }
+
+    @Override
+    public List<Payment> findByUserId(Long userId) {
+        return findAllWithArchived(where("userId").is(userId));
+    }
+
+    @Override
+    public List<Payment> findByStatusIn(List<PaymentStatus> statuses) {
+        Criteria criteria = where("status").in(statuses);
+        return archive.holdsAny(statuses) ? findAllWithArchived(criteria) : findAll(criteria);
+    }
+
+    @Override
+    public List<Payment> findByStatusInAndUserId(List<PaymentStatus> statuses, Long userId) {
+        Criteria criteria = where("status").in(statuses).and("userId").is(userId);
+        return archive.holdsAny(statuses) ? findAllWithArchived(criteria) : findAll(criteria);
+    }
+
+    @Override
+    public List<Payment> findAll(Sort sort) {
+        return unpartitioned("findAll(Sort)").findAll(sort);
+    }
+
+    @Override
+    public Page<Payment> findAll(Pageable pageable) {
+        return unpartitioned("findAll(Pageable)").findAll(pageable);
+    }
+
+    @Override
+    public <S extends Payment> Optional<S> findOne(Example<S> example) {
+        return unpartitioned("findOne(Example)").findOne(example);
+    }
+
+    @Override
+    public <S extends Payment> List<S> findAll(Example<S> example) {
+        return unpartitioned("findAll(Example)").findAll(example);
+    }
+
+    @Override
+    public <S extends Payment> List<S> findAll(Example<S> example, Sort sort) {
+        return unpartitioned("findAll(Example, Sort)").findAll(example, sort);
+    }
+
+    @Override
+    public <S extends Payment> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return unpartitioned("findAll(Example, Pageable)").findAll(example, pageable);
+    }
+
+    @Override
+    public <S extends Payment> long count(Example<S> example) {
+        return unpartitioned("count(Example)").count(example);
+    }
+
+    @Override
+    public <S extends Payment> boolean exists(Example<S> example) {
+        return unpartitioned("exists(Example)").exists(example);
+    }
+
+    @Override
+    public <S extends Payment, R> R findBy(Example<S> example, Function<FetchableFluentQuery<S>, R> queryFunction) {
+        return unpartitioned("findBy(Example, Function)").findBy(example, queryFunction);
+    }
+
+    @Override
+    public List<String> findPartitionNames() {
+        return router.allCollections();
+    }
+
+    @Override
+    public void dropPartition(YearMonth month) {
+        if (!router.isPartitioned()) {
+            throw new IllegalStateException("Payment partitioning is disabled");
+        }
+        router.dropPartition(month);
+    }
+
+    @Override
+    public int archiveSettledPayments(Instant settledBefore, int batchSize) {
+        if (!archive.isEnabled()) {
+            throw new IllegalStateException("Payment archive is disabled");
+        }
+        int moved = 0;
+        for (String collection : router.allCollections()) {
+            moved += archive.archiveBatch(collection, settledBefore, batchSize - moved);
+            if (moved >= batchSize) {
+                break;
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    public List<PaymentCollectionStats> findCollectionStats() {
+        List<PaymentCollectionStats> stats = new ArrayList<>();
+        router.allCollections().forEach(collection -> stats.add(archive.stats(collection)));
+        stats.add(archive.stats(PaymentArchiveTier.ARCHIVE_COLLECTION));
+        return stats;
+    }
+
+    @Override
+    public long forEachPayment(int batchSize, Consumer<Payment> action) {
+        List<String> collections = new ArrayList<>(router.allCollections());
+        if (archive.isEnabled()) {
+            collections.add(PaymentArchiveTier.ARCHIVE_COLLECTION);
+        }
+        long count = 0;
+        for (String collection : collections) {
+            Query all = new Query().cursorBatchSize(batchSize).noCursorTimeout();
+            try (Stream<Payment> payments = mongoTemplate.stream(all, Payment.class, collection)) {
+                for (Payment payment : (Iterable<Payment>) payments::iterator) {
+                    action.accept(payment);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
 
     @Override
     public BigDecimal findPaymentTotalForPeriod(Instant start, Instant end) {
+        BigDecimal hot = findHotPaymentTotalForPeriod(start, end);
+        if (archive.covers(start)) {
+            return hot.add(sumPerCollection(
+                    List.of(PaymentArchiveTier.ARCHIVE_COLLECTION), where("timestamp").gte(start).lte(end)));
+        }
+        return hot;
+    }
+
+    private BigDecimal findHotPaymentTotalForPeriod(Instant start, Instant end) {
+        if (router.isPartitioned()) {
+            return sumPerCollection(router.collectionsForPeriod(start, end), where("timestamp").gte(start).lte(end));
+        }
+        if (parallelEnabled && Duration.between(start, end).compareTo(chunkSizer.currentChunk()) > 0) {
+            return findPaymentTotalForPeriodInChunks(start, end);
+        }
+
         Aggregation aggregation = newAggregation(
                 match(
                     where("timestamp")
@@ -31,33 +365,200 @@ public class PaymentRepositoryImpl implements PaymentAggregationRepository {
                 group().sum("paymentAmount").as("totalAmount")
         );
 
-        AggregationResults<@NonNull TotalResult> results = mongoTemplate.aggregate(
-                aggregation, "payments", TotalResult.class);
-
-        TotalResult total = results.getUniqueMappedResult();
-        return total != null ? total.getTotalAmount() : BigDecimal.ZERO;
+        return aggregateTotal(aggregation, PaymentCollectionRouter.BASE_COLLECTION);
     }
 
     @Override
     public BigDecimal findPaymentTotalForPeriodAndUserId(Instant start, Instant end, Long userId) {
+        Criteria criteria = where("timestamp")
+                .gte(start).lte(end)
+                .and("userId").is(userId);
+
+        List<String> collections = new ArrayList<>(router.collectionsForPeriod(start, end));
+        if (archive.covers(start)) {
+            collections.add(PaymentArchiveTier.ARCHIVE_COLLECTION);
+        }
+        return sumPerCollection(collections, criteria);
+    }
+
+    /**
+     * Assigns the id of a new payment and returns the collection it is inserted into.
+     */
+    private String prepareInsert(Payment payment) {
+        Instant timestamp = payment.getTimestamp() != null ? payment.getTimestamp() : Instant.now();
+        if (router.isPartitioned()) {
+            // The id carries the partition month, so later lookups by id need no fan-out.
+            payment.setId(new ObjectId(Date.from(timestamp)).toHexString());
+        }
+        return router.collectionForWrite(timestamp);
+    }
+
+    private String collectionForSave(Payment payment) {
+        return router.collectionForSave(payment.getId(),
+                payment.getTimestamp() != null ? payment.getTimestamp() : Instant.now());
+    }
+
+    /**
+     * The plain repository behind the sorted, paged and query-by-example methods. A sort or page spans partitions,
+     * so these are refused in partitioned mode rather than answered from the unpartitioned collection.
+     */
+    private SimpleMongoRepository<Payment, String> unpartitioned(String method) {
+        if (router.isPartitioned()) {
+            throw new UnsupportedOperationException(
+                    "PaymentRepository." + method + " is not supported with payment partitioning enabled");
+        }
+        return unpartitioned;
+    }
+
+    private Optional<Payment> findOne(String id, Criteria criteria) {
+        Query query = query(criteria);
+        Optional<Payment> hot = router.fanOut(router.collectionsForId(id),
+                        collection -> {
+                            Payment payment = mongoTemplate.findOne(query, Payment.class, collection);
+                            return payment != null ? List.of(payment) : List.<Payment>of();
+                        })
+                .stream()
+                .findFirst();
+        return hot.isPresent() ? hot : archive.findOne(query);
+    }
+
+    private List<Payment> findAll(Criteria criteria) {
+        Query query = query(criteria);
+        return router.fanOut(router.allCollections(),
+                collection -> mongoTemplate.find(query, Payment.class, collection));
+    }
+
+    /**
+     * Hot and archived matches together. A payment caught mid-move can sit in both tiers for a moment;
+     * the hot copy wins.
+     */
+    private List<Payment> findAllWithArchived(Criteria criteria) {
+        List<Payment> hot = findAll(criteria);
+        if (!archive.isEnabled()) {
+            return hot;
+        }
+        List<Payment> archived = archive.find(query(criteria));
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<String> hotIds = new HashSet<>();
+        hot.forEach(payment -> hotIds.add(payment.getId()));
+        List<Payment> merged = new ArrayList<>(hot);
+        archived.stream()
+                .filter(payment -> !hotIds.contains(payment.getId()))
+                .forEach(merged::add);
+        return merged;
+    }
+
+    private BigDecimal sumPerCollection(List<String> collections, Criteria criteria) {
         Aggregation aggregation = newAggregation(
-                match(
-                        where("timestamp")
-                                .gte(start).lte(end)
-                                .and("userId").is(userId)
-                ),
+                match(criteria),
                 group().sum("paymentAmount").as("totalAmount")
         );
 
+        return router.fanOut(collections, collection -> List.of(aggregateTotal(aggregation, collection)))
+                .stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Splits [start, end] into half-open sub-ranges, sums them concurrently and merges the partial totals.
+     * Each chunk carries its own maxTimeMS, so one slow slice fails fast instead of holding the whole request.
+     * Once a chunk fails the sum is lost anyway: the remaining chunks are cancelled through their executor
+     * futures, which interrupts the threads still waiting on Mongo and closes their connections.
+     */
+    private BigDecimal findPaymentTotalForPeriodInChunks(Instant start, Instant end) {
+        List<Instant> bounds = planChunkBounds(start, end, chunkSizer.currentChunk());
+        log.debug("Splitting payment total for [{}, {}] into {} chunks", start, end, bounds.size() - 1);
+
+        List<Future<BigDecimal>> partials = new ArrayList<>(bounds.size() - 1);
+        try {
+            for (int i = 0; i < bounds.size() - 1; i++) {
+                Instant chunkStart = bounds.get(i);
+                Instant chunkEnd = bounds.get(i + 1);
+                boolean last = i == bounds.size() - 2;
+                Supplier<BigDecimal> chunk = RepositoryMethodContext.propagate(
+                        () -> aggregateChunk(chunkStart, chunkEnd, last));
+                partials.add(aggregationExecutor.submit(chunk::get));
+            }
+
+            BigDecimal total = BigDecimal.ZERO;
+            for (Future<BigDecimal> partial : partials) {
+                total = total.add(partial.get());
+            }
+            return total;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MongoInterruptedException("Interrupted while summing payment chunks", e);
+        } finally {
+            // A no-op for finished chunks
+            partials.forEach(partial -> partial.cancel(true));
+        }
+    }
+
+    private BigDecimal aggregateChunk(Instant chunkStart, Instant chunkEnd, boolean inclusiveEnd) {
+        Criteria range = where("timestamp").gte(chunkStart);
+        range = inclusiveEnd ? range.lte(chunkEnd) : range.lt(chunkEnd);
+
+        Aggregation aggregation = newAggregation(
+                match(range),
+                group().sum("paymentAmount").as("totalAmount")
+        ).withOptions(AggregationOptions.builder().maxTime(chunkMaxTime).build());
+
+        long startedAt = System.nanoTime();
+        BigDecimal total = aggregateTotal(aggregation, PaymentCollectionRouter.BASE_COLLECTION);
+        chunkSizer.record(Duration.between(chunkStart, chunkEnd), System.nanoTime() - startedAt);
+        return total;
+    }
+
+    private BigDecimal aggregateTotal(Aggregation aggregation, String collection) {
         AggregationResults<@NonNull TotalResult> results = mongoTemplate.aggregate(
-                aggregation, "payments", TotalResult.class);
+                aggregation, collection, TotalResult.class);
 
         TotalResult total = results.getUniqueMappedResult();
-        return total != null ? total.getTotalAmount() : BigDecimal.ZERO;
+        return total != null && total.totalAmount() != null ? total.totalAmount() : BigDecimal.ZERO;
+    }
+
+    static List<Instant> planChunkBounds(Instant start, Instant end, Duration chunk) {
+        Duration step = chunk;
+        Duration range = Duration.between(start, end);
+        if (range.dividedBy(step) >= MAX_CHUNKS_PER_QUERY) {
+            step = range.dividedBy(MAX_CHUNKS_PER_QUERY).plusMillis(1);
+        }
+
+        List<Instant> bounds = new ArrayList<>();
+        for (Instant cursor = start; cursor.isBefore(end); cursor = cursor.plus(step)) {
+            bounds.add(cursor);
+        }
+        bounds.add(end);
+        return bounds;
+    }
+
+    private static ExecutorService newAggregationExecutor(int threads) {
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_CHUNKS_PER_QUERY * 4),
+                Thread.ofPlatform().name("payment-aggregation-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void destroy() {
+        router.shutdown();
+        if (aggregationExecutor != null) {
+            aggregationExecutor.shutdownNow();
+        }
     }
 
-    @Getter
-    public static class TotalResult {
-        private BigDecimal totalAmount;
+    /**
+     * {@code $sum} over Decimal128 amounts yields a Decimal128, so the total maps straight onto BigDecimal.
+     */
+    public record TotalResult(BigDecimal totalAmount) {
     }
 }
@@ -0,0 +1,45 @@
+package com.intern.paymentservice.repository.impl;
+
+import com.intern.paymentservice.repository.ReactivePaymentAggregationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class ReactivePaymentAggregationRepositoryImpl implements ReactivePaymentAggregationRepository {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<BigDecimal> findPaymentTotalForPeriod(Instant start, Instant end) {
+        return aggregateTotal(where("timestamp").gte(start).lte(end));
+    }
+
+    @Override
+    public Mono<BigDecimal> findPaymentTotalForPeriodAndUserId(Instant start, Instant end, Long userId) {
+        return aggregateTotal(where("timestamp")
+                .gte(start).lte(end)
+                .and("userId").is(userId));
+    }
+
+    private Mono<BigDecimal> aggregateTotal(Criteria criteria) {
+        Aggregation aggregation = newAggregation(
+                match(criteria),
+                group().sum("paymentAmount").as("totalAmount")
+        );
+
+        return reactiveMongoTemplate.aggregate(
+                        aggregation, PaymentCollectionRouter.BASE_COLLECTION, PaymentRepositoryImpl.TotalResult.class)
+                .next()
+                .mapNotNull(PaymentRepositoryImpl.TotalResult::totalAmount)
+                .defaultIfEmpty(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,26 @@
+package com.intern.paymentservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * JWT authentication that also carries the already resolved {@link PaymentPrincipal}, so authorization
+ * checks on the request path don't have to scan authorities or claims again.
+ */
+public class PaymentAuthenticationToken extends JwtAuthenticationToken {
+
+    private final PaymentPrincipal paymentPrincipal;
+
+    public PaymentAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities,
+                                      String name, PaymentPrincipal paymentPrincipal) {
+        super(jwt, authorities, name);
+        this.paymentPrincipal = paymentPrincipal;
+    }
+
+    public PaymentPrincipal getPaymentPrincipal() {
+        return paymentPrincipal;
+    }
+}
@@ -0,0 +1,69 @@
+package com.intern.paymentservice.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts a validated JWT into a {@link PaymentAuthenticationToken}: {@code SCOPE_} authorities,
+ * {@code ROLE_} authorities from the Keycloak {@code realm_access.roles} claim, and the
+ * {@link PaymentPrincipal} built in the same pass over the claims.
+ */
+public class PaymentJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    static final String INTERNAL_ID_CLAIM = "internal_id";
+
+    private final JwtGrantedAuthoritiesConverter scopeConverter = new JwtGrantedAuthoritiesConverter();
+
+    public PaymentJwtAuthenticationConverter() {
+        scopeConverter.setAuthorityPrefix("SCOPE_");
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = new ArrayList<>(scopeConverter.convert(jwt));
+
+        int roles = 0;
+        for (String role : realmRoles(jwt)) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+            roles |= PaymentPrincipal.roleBit(role);
+        }
+
+        PaymentPrincipal principal = new PaymentPrincipal(internalId(jwt), roles);
+        return new PaymentAuthenticationToken(jwt, authorities, jwt.getClaimAsString(JwtClaimNames.SUB), principal);
+    }
+
+    private static List<String> realmRoles(Jwt jwt) {
+        if (!(jwt.getClaim("realm_access") instanceof Map<?, ?> realm)) {
+            return List.of();
+        }
+        if (!(realm.get("roles") instanceof Collection<?> roles)) {
+            return List.of();
+        }
+        return roles.stream().map(Object::toString).distinct().toList();
+    }
+
+    private static long internalId(Jwt jwt) {
+        Object claim = jwt.getClaims().get(INTERNAL_ID_CLAIM);
+        if (claim instanceof Number number) {
+            return number.longValue();
+        }
+        if (claim instanceof String value) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException ignored) {
+                return PaymentPrincipal.NO_INTERNAL_ID;
+            }
+        }
+        return PaymentPrincipal.NO_INTERNAL_ID;
+    }
+}
@@ -0,0 +1,40 @@
+package com.intern.paymentservice.security;
+
+/**
+ * Caller of the payment API, resolved once per request from the access token.
+ *
+ * @param internalId internal user id, or {@link #NO_INTERNAL_ID} when the token does not carry one
+ * @param roles      bitmask of {@link #USER} and {@link #ADMIN}
+ */
+public record PaymentPrincipal(long internalId, int roles) {
+
+    public static final int USER = 1;
+    public static final int ADMIN = 1 << 1;
+    public static final long NO_INTERNAL_ID = Long.MIN_VALUE;
+
+    public static final PaymentPrincipal ANONYMOUS = new PaymentPrincipal(NO_INTERNAL_ID, 0);
+
+    public boolean isAdmin() {
+        return (roles & ADMIN) != 0;
+    }
+
+    public boolean isUser() {
+        return (roles & USER) != 0;
+    }
+
+    public boolean hasInternalId() {
+        return internalId != NO_INTERNAL_ID;
+    }
+
+    /**
+     * Maps a realm role name ({@code user}, {@code admin}) or granted authority ({@code ROLE_user},
+     * {@code ROLE_admin}) to its role bit; unknown roles map to {@code 0}.
+     */
+    public static int roleBit(String role) {
+        return switch (role) {
+            case "user", "ROLE_user" -> USER;
+            case "admin", "ROLE_admin" -> ADMIN;
+            default -> 0;
+        };
+    }
+}
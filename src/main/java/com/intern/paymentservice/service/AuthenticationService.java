@@ -1,9 +1,16 @@
 package com.intern.paymentservice.service;
 
+import com.intern.paymentservice.security.PaymentPrincipal;
+
 public interface AuthenticationService {
     String USER = "ROLE_user";
     String ADMIN = "ROLE_admin";
 
+    /**
+     * Caller of the current request; {@link PaymentPrincipal#ANONYMOUS} when nobody is authenticated.
+     */
+    PaymentPrincipal getPrincipal();
+
     long getInternalId();
 
     boolean isAdmin();
@@ -12,6 +12,17 @@ import java.util.List;
 public interface PaymentFacade {
     PaymentResponse createPayment(CreatePaymentRequest request);
 
+    /**
+     * Creates the payment of an order unless one already exists, in which case its processing is
+     * completed and its current state is published again. Used where a request may be redelivered.
+     * <p>
+     * Payments are unique per order and user ({@code payment_order_user_unique_idx}), so a delivery racing
+     * this lookup fails its insert and returns the payment the other one created. The Mongo writes are not
+     * part of a Kafka transaction: when the transaction aborts, the payment stays, and the redelivery
+     * publishes its state again instead of creating a second one.
+     */
+    PaymentResponse createPaymentIdempotently(CreatePaymentRequest request);
+
     PaymentResponse updatePaymentStatus(String id, UpdatePaymentStatusRequest request);
 
     void deletePayment(String id);
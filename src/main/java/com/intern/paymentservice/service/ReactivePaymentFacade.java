@@ -0,0 +1,33 @@
+package com.intern.paymentservice.service;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.dto.PaymentTotalResponse;
+import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link PaymentFacade}. The caller is passed in explicitly because the
+ * thread-bound security context is not available once a pipeline hops threads.
+ */
+public interface ReactivePaymentFacade {
+    Mono<PaymentResponse> createPayment(PaymentPrincipal principal, CreatePaymentRequest request);
+
+    Mono<PaymentResponse> updatePaymentStatus(PaymentPrincipal principal, String id, UpdatePaymentStatusRequest request);
+
+    Mono<Void> deletePayment(PaymentPrincipal principal, String id);
+
+    Flux<PaymentResponse> findPaymentsByOrderId(PaymentPrincipal principal, Long orderId);
+
+    Flux<PaymentResponse> findPaymentsByUserId(PaymentPrincipal principal, Long userId);
+
+    Flux<PaymentResponse> findPaymentsByStatuses(PaymentPrincipal principal, List<PaymentStatus> statuses);
+
+    Mono<PaymentTotalResponse> findPaymentTotalForPeriod(PaymentPrincipal principal, Instant start, Instant end);
+}
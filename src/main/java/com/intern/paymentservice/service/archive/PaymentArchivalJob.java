@@ -0,0 +1,126 @@
+package com.intern.paymentservice.service.archive;
+
+import com.intern.paymentservice.model.PaymentCollectionStats;
+import com.intern.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically moves settled payments older than {@code payment.archive.settled-after} to the archive tier.
+ * A run is throttled (batch size, pause between batches, batch budget per run) and can stop at any point:
+ * the next run continues with whatever is still left in the hot collections.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "payment.archive.enabled", havingValue = "true")
+public class PaymentArchivalJob {
+
+    private final PaymentRepository paymentRepository;
+    private final MeterRegistry meterRegistry;
+    private final Counter archivedCounter;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, PaymentCollectionStats> latestStats = new ConcurrentHashMap<>();
+
+    @Value("${payment.archive.settled-after:90d}")
+    private Duration settledAfter;
+
+    @Value("${payment.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.archive.pause-between-batches:200ms}")
+    private Duration pauseBetweenBatches;
+
+    @Value("${payment.archive.max-batches-per-run:1000}")
+    private int maxBatchesPerRun;
+
+    public PaymentArchivalJob(PaymentRepository paymentRepository, MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.meterRegistry = meterRegistry;
+        this.archivedCounter = Counter.builder("payment.archive.moved")
+                .description("Settled payments moved from the hot collections to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${payment.archive.initial-delay:PT5M}",
+            fixedDelayString = "${payment.archive.interval:PT1H}")
+    public void archiveSettledPayments() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Previous archival run still in progress, skipping");
+            return;
+        }
+        try {
+            Instant settledBefore = Instant.now().minus(settledAfter);
+            List<PaymentCollectionStats> before = paymentRepository.findCollectionStats();
+
+            long moved = 0;
+            int batches = 0;
+            while (batches < maxBatchesPerRun) {
+                int batch = paymentRepository.archiveSettledPayments(settledBefore, batchSize);
+                if (batch == 0) {
+                    break;
+                }
+                moved += batch;
+                batches++;
+                archivedCounter.increment(batch);
+                Thread.sleep(pauseBetweenBatches.toMillis());
+            }
+
+            report(before, paymentRepository.findCollectionStats(), moved, batches);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Archival run interrupted; it will resume on the next schedule");
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void report(List<PaymentCollectionStats> before, List<PaymentCollectionStats> after, long moved, int batches) {
+        Map<String, PaymentCollectionStats> beforeByName = before.stream()
+                .collect(Collectors.toMap(PaymentCollectionStats::collection, Function.identity(), (a, b) -> a));
+
+        log.info("Archived {} settled payments in {} batches", moved, batches);
+        for (PaymentCollectionStats current : after) {
+            PaymentCollectionStats previous = beforeByName.getOrDefault(current.collection(),
+                    new PaymentCollectionStats(current.collection(), 0, 0, 0, 0));
+            log.info("{}: documents {} -> {}, data {} -> {} bytes, storage {} -> {} bytes, indexes {} -> {} bytes",
+                    current.collection(),
+                    previous.documents(), current.documents(),
+                    previous.dataSizeBytes(), current.dataSizeBytes(),
+                    previous.storageSizeBytes(), current.storageSizeBytes(),
+                    previous.indexSizeBytes(), current.indexSizeBytes());
+
+            if (latestStats.put(current.collection(), current) == null) {
+                registerGauges(current.collection());
+            }
+        }
+    }
+
+    private void registerGauges(String collection) {
+        gauge("payment.collection.documents", collection, PaymentCollectionStats::documents);
+        gauge("payment.collection.data.size", collection, PaymentCollectionStats::dataSizeBytes);
+        gauge("payment.collection.storage.size", collection, PaymentCollectionStats::storageSizeBytes);
+        gauge("payment.collection.index.size", collection, PaymentCollectionStats::indexSizeBytes);
+    }
+
+    private void gauge(String name, String collection, ToDoubleFunction<PaymentCollectionStats> value) {
+        Gauge.builder(name, latestStats, stats -> value.applyAsDouble(stats.get(collection)))
+                .tag("collection", collection)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.intern.paymentservice.service.broker;
+
+/**
+ * Which payment state transitions are published to UPDATE_PAYMENT, set by {@code payment.events.emission-policy}.
+ */
+public enum EventEmissionPolicy {
+
+    /**
+     * PENDING on creation and every status change after it.
+     */
+    EVERY_TRANSITION,
+
+    /**
+     * Only the settled state when the decision arrives within {@code payment.events.final-only-deadline};
+     * PENDING is published first when it does not.
+     */
+    FINAL_ONLY,
+
+    /**
+     * Events of the same payment within {@code payment.events.coalesce-window} collapse into the latest one.
+     */
+    COALESCE
+}
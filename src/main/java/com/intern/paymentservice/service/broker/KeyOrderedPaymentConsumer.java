@@ -0,0 +1,205 @@
+package com.intern.paymentservice.service.broker;
+
+import com.intern.paymentservice.aspect.annotation.BrokerAuthentication;
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.observability.jfr.ConsumerRecordProcessedEvent;
+import com.intern.paymentservice.service.PaymentFacade;
+import com.intern.paymentservice.service.broker.backpressure.ConsumerBackpressureController;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CREATE_ORDER consumer for {@code payment.kafka.consumer.mode=key-ordered}.
+ * <p>
+ * Each polled batch is split into {@code payment.kafka.key-ordered.lanes} lanes by order id, and the lanes
+ * run in parallel while every lane keeps the partition order of its records. Payments of the same order
+ * are therefore created in order, while unrelated orders no longer wait for each other.
+ * <p>
+ * Once all lanes are done, the batch is committed up to the lowest failed record: a
+ * {@link BatchListenerFailedException} at that index lets the container's error handler commit the records
+ * before it and retry or dead-letter from there. Later records of other lanes that already completed
+ * are delivered again; their offsets are remembered per partition and skipped on redelivery, so a failure in
+ * one lane does not create the payments of the other lanes twice. The offsets are kept in memory only: if
+ * the partition moves to another instance before the redelivery, those records are processed again there.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "payment.kafka.consumer.mode", havingValue = "key-ordered")
+public class KeyOrderedPaymentConsumer implements DisposableBean {
+
+    private final PaymentFacade paymentFacade;
+    private final ConsumerBackpressureController backpressure;
+    private final Validator validator;
+    private final int lanes;
+    private final ExecutorService workers;
+    private final ExecutorService securedWorkers;
+    // Offsets past a failed record that already completed, skipped when the batch is redelivered
+    private final Map<TopicPartition, Set<Long>> completedAhead = new ConcurrentHashMap<>();
+
+    public KeyOrderedPaymentConsumer(
+            PaymentFacade paymentFacade,
+            ConsumerBackpressureController backpressure,
+            Validator validator,
+            @Value("${payment.kafka.key-ordered.lanes:8}") int lanes,
+            @Value("${payment.kafka.exactly-once.enabled:false}") boolean exactlyOnce) {
+        if (exactlyOnce) {
+            // Kafka transactions are bound to the listener thread; sends from lane workers would escape them
+            throw new IllegalStateException("payment.kafka.consumer.mode=key-ordered does not support exactly-once processing");
+        }
+        this.paymentFacade = paymentFacade;
+        this.backpressure = backpressure;
+        this.validator = validator;
+        this.lanes = lanes;
+        this.workers = Executors.newFixedThreadPool(lanes, Thread.ofPlatform().name("payment-lane-", 0).factory());
+        // Lanes run with the broker authentication of the listener thread that submitted them
+        this.securedWorkers = new DelegatingSecurityContextExecutorService(workers);
+    }
+
+    @BrokerAuthentication
+    @KafkaListener(id = ConsumerBackpressureController.LISTENER_ID, idIsGroup = false,
+            topics = "CREATE_ORDER", groupId = "payment-service", batch = "true")
+    public void consumeCreatePayments(List<ConsumerRecord<String, CreatePaymentRequest>> records) {
+        log.debug("Payment Service received {} CREATE_PAYMENT events", records.size());
+
+        List<List<Integer>> laneIndexes = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            laneIndexes.add(new ArrayList<>());
+        }
+        List<Integer> completed = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (completedBefore(records.get(i))) {
+                log.debug("CREATE_PAYMENT event at offset {} already completed, skipping", records.get(i).offset());
+                completed.add(i);
+                continue;
+            }
+            laneIndexes.get(laneOf(records.get(i))).add(i);
+        }
+
+        List<List<Integer>> dispatched = new ArrayList<>();
+        List<CompletableFuture<LaneFailure>> futures = new ArrayList<>();
+        for (List<Integer> indexes : laneIndexes) {
+            if (!indexes.isEmpty()) {
+                dispatched.add(indexes);
+                futures.add(CompletableFuture.supplyAsync(() -> processLane(records, indexes), securedWorkers));
+            }
+        }
+
+        LaneFailure lowest = null;
+        for (int lane = 0; lane < futures.size(); lane++) {
+            LaneFailure failure = futures.get(lane).join();
+            List<Integer> indexes = dispatched.get(lane);
+            completed.addAll(failure == null ? indexes : indexes.subList(0, indexes.indexOf(failure.index())));
+            if (failure != null && (lowest == null || failure.index() < lowest.index())) {
+                lowest = failure;
+            }
+        }
+        forgetCompleted(records);
+        if (lowest != null) {
+            for (int index : completed) {
+                if (index > lowest.index()) {
+                    ConsumerRecord<String, CreatePaymentRequest> record = records.get(index);
+                    completedAhead.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                            partition -> ConcurrentHashMap.newKeySet()).add(record.offset());
+                }
+            }
+            throw new BatchListenerFailedException(
+                    "CREATE_PAYMENT event at index " + lowest.index() + " failed", lowest.cause(), lowest.index());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Processes the lane in order and stops at its first failure; the remaining records of the lane
+     * come back with the redelivery.
+     */
+    private LaneFailure processLane(List<ConsumerRecord<String, CreatePaymentRequest>> records, List<Integer> indexes) {
+        for (int index : indexes) {
+            ConsumerRecord<String, CreatePaymentRequest> record = records.get(index);
+            ConsumerRecordProcessedEvent processed = new ConsumerRecordProcessedEvent();
+            processed.begin();
+            PaymentResponse payment = null;
+            try {
+                CreatePaymentRequest request = validated(record);
+                payment = backpressure.call(() -> paymentFacade.createPayment(request));
+            } catch (RuntimeException e) {
+                log.warn("CREATE_PAYMENT event at index {} failed: {}", index, e.getMessage());
+                return new LaneFailure(index, e);
+            } finally {
+                processed.finish(record.topic(),
+                        record.value() != null ? record.value().orderId() : null, record.timestamp(), payment);
+            }
+        }
+        return null;
+    }
+
+    private boolean completedBefore(ConsumerRecord<String, CreatePaymentRequest> record) {
+        Set<Long> offsets = completedAhead.get(new TopicPartition(record.topic(), record.partition()));
+        return offsets != null && offsets.contains(record.offset());
+    }
+
+    /**
+     * Drops remembered offsets up to the end of this batch: they have been skipped now, or belong to a
+     * redelivery that will not come because the container moved past them.
+     */
+    private void forgetCompleted(List<ConsumerRecord<String, CreatePaymentRequest>> records) {
+        Map<TopicPartition, Long> lastOffsets = new HashMap<>();
+        for (ConsumerRecord<String, CreatePaymentRequest> record : records) {
+            lastOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::max);
+        }
+        lastOffsets.forEach((partition, lastOffset) -> completedAhead.computeIfPresent(partition, (key, offsets) -> {
+            offsets.removeIf(offset -> offset <= lastOffset);
+            return offsets.isEmpty() ? null : offsets;
+        }));
+    }
+
+    private CreatePaymentRequest validated(ConsumerRecord<String, CreatePaymentRequest> record) {
+        CreatePaymentRequest request = record.value();
+        if (request == null) {
+            throw new ValidationException("CREATE_PAYMENT event at offset " + record.offset() + " could not be deserialized");
+        }
+        Set<ConstraintViolation<CreatePaymentRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return request;
+    }
+
+    private int laneOf(ConsumerRecord<String, CreatePaymentRequest> record) {
+        Object key = record.value() != null && record.value().orderId() != null
+                ? record.value().orderId()
+                : record.key();
+        return key == null ? 0 : Math.floorMod(key.hashCode(), lanes);
+    }
+
+    private record LaneFailure(int index, RuntimeException cause) {
+    }
+}
@@ -2,26 +2,78 @@ package com.intern.paymentservice.service.broker;
 
 import com.intern.paymentservice.aspect.annotation.BrokerAuthentication;
 import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.observability.jfr.ConsumerRecordProcessedEvent;
 import com.intern.paymentservice.service.PaymentFacade;
+import com.intern.paymentservice.service.broker.backpressure.ConsumerBackpressureController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @Service
 @Slf4j
 @Validated
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "payment.kafka.consumer.mode", havingValue = "record", matchIfMissing = true)
 public class PaymentConsumer {
 
     private final PaymentFacade paymentFacade;
+    private final ConsumerBackpressureController backpressure;
+    private final Timer endToEndSuccess;
+    private final Timer endToEndError;
+
+    @Value("${payment.kafka.exactly-once.enabled:false}")
+    private boolean exactlyOnce;
+
+    public PaymentConsumer(PaymentFacade paymentFacade, ConsumerBackpressureController backpressure,
+                           MeterRegistry meterRegistry) {
+        this.paymentFacade = paymentFacade;
+        this.backpressure = backpressure;
+        this.endToEndSuccess = endToEndTimer(meterRegistry, "success");
+        this.endToEndError = endToEndTimer(meterRegistry, "error");
+    }
 
     @BrokerAuthentication
-    @KafkaListener(topics = "CREATE_ORDER", groupId = "payment-service")
-    public void consumeCreatePayment(@Valid CreatePaymentRequest request) {
+    @KafkaListener(id = ConsumerBackpressureController.LISTENER_ID, idIsGroup = false,
+            topics = "CREATE_ORDER", groupId = "payment-service")
+    public void consumeCreatePayment(@Valid CreatePaymentRequest request,
+                                     @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long producedAt) {
         log.debug("Payment Service received CREATE_PAYMENT event: {}", request);
-        paymentFacade.createPayment(request);
+        ConsumerRecordProcessedEvent processed = new ConsumerRecordProcessedEvent();
+        processed.begin();
+        PaymentResponse payment = null;
+        Timer endToEnd = endToEndError;
+        try {
+            payment = backpressure.call(() -> exactlyOnce
+                    ? paymentFacade.createPaymentIdempotently(request)
+                    : paymentFacade.createPayment(request));
+            endToEnd = endToEndSuccess;
+        } finally {
+            processed.finish("CREATE_ORDER", request.orderId(), producedAt, payment);
+            // Failed attempts count once each, also when the record is retried; record timestamps come from the
+            // producer's clock, so skew between hosts can show up as negative lag
+            endToEnd.record(Math.max(0, System.currentTimeMillis() - producedAt), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Timer endToEndTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("payment.kafka.consumer.end-to-end")
+                .description("Time from a CREATE_ORDER record being produced until its payment is created or the attempt failed")
+                .tag("topic", "CREATE_ORDER")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(meterRegistry);
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.intern.paymentservice.service.broker;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds UPDATE_PAYMENT events per payment id for a short window and publishes only the latest one.
+ * <p>
+ * The first event of a payment opens the window; events of the same payment arriving before it closes replace
+ * the held one. Events of different payments of one order are all published, since each carries its own state.
+ * Pending events are flushed on shutdown, so an orderly stop loses nothing.
+ */
+@Slf4j
+@Component
+public class PaymentEventCoalescer implements DisposableBean {
+
+    private final PaymentProducer paymentProducer;
+    private final Duration window;
+    private final Counter coalescedCounter;
+    private final Map<String, PaymentResponse> held = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("payment-event-coalescer").daemon().factory());
+
+    public PaymentEventCoalescer(PaymentProducer paymentProducer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payment.events.coalesce-window:200ms}") Duration window) {
+        this.paymentProducer = paymentProducer;
+        this.window = window;
+        this.coalescedCounter = Counter.builder("payment.events.coalesced")
+                .description("UPDATE_PAYMENT events replaced by a later event of the same payment before publishing")
+                .register(meterRegistry);
+    }
+
+    public void submit(PaymentResponse response) {
+        String paymentId = response.id();
+        if (held.put(paymentId, response) == null) {
+            scheduler.schedule(() -> flush(paymentId), window.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            coalescedCounter.increment();
+        }
+    }
+
+    private void flush(String paymentId) {
+        PaymentResponse latest = held.remove(paymentId);
+        if (latest == null) {
+            return;
+        }
+        try {
+            paymentProducer.sendPaymentUpdate(latest);
+        } catch (RuntimeException e) {
+            log.error("Failed to publish coalesced UPDATE_PAYMENT event for payment {}", paymentId, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        held.keySet().forEach(this::flush);
+    }
+}
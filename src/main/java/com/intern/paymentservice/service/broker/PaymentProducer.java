@@ -1,22 +1,166 @@
 package com.intern.paymentservice.service.broker;
 
 import com.intern.paymentservice.dto.PaymentResponse;
-import lombok.RequiredArgsConstructor;
+import com.intern.paymentservice.observability.jfr.PaymentEventPublishedEvent;
+import com.intern.paymentservice.service.broker.spool.PaymentEventSpool;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
 @NullMarked
-@RequiredArgsConstructor
 public class PaymentProducer {
 
+    public static final String UPDATE_PAYMENT_TOPIC = "UPDATE_PAYMENT";
+
+    /**
+     * Log-compacted topic holding the latest state of every payment, keyed by payment id.
+     */
+    public static final String PAYMENT_STATE_TOPIC = "PAYMENT_STATE";
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final @Nullable PaymentEventSpool spool;
+    private final @Nullable PaymentStateSeeder seeder;
+    private final boolean stateTopicEnabled;
+
+    public PaymentProducer(KafkaTemplate<String, Object> kafkaTemplate,
+                           ObjectProvider<PaymentEventSpool> spool,
+                           ObjectProvider<PaymentStateSeeder> seeder,
+                           @Value("${payment.kafka.state-topic.enabled:false}") boolean stateTopicEnabled) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.spool = spool.getIfAvailable();
+        this.seeder = seeder.getIfAvailable();
+        this.stateTopicEnabled = stateTopicEnabled;
+    }
 
     public void sendPaymentUpdate(PaymentResponse response) {
-        kafkaTemplate.send("UPDATE_PAYMENT", response.orderId().toString(), response);
+        PaymentEventPublishedEvent published = new PaymentEventPublishedEvent();
+        published.begin();
+        send(response);
+        published.finish(response);
         log.debug("Sent UPDATE_PAYMENT event: {}", response);
     }
+
+    /**
+     * Writes a tombstone for a deleted payment, so compaction eventually drops it from the state topic.
+     */
+    public void sendPaymentDeleted(String id) {
+        if (!stateTopicEnabled) {
+            return;
+        }
+        send(tombstone(id));
+        log.debug("Sent PAYMENT_STATE tombstone for payment {}", id);
+    }
+
+    /**
+     * Sends the event to every topic it belongs on; the future completes once all of them acknowledged it.
+     * A {@link #tombstone} only goes to the state topic, with a {@code null} value.
+     */
+    public static CompletableFuture<?> publish(KafkaOperations<String, Object> template, PaymentResponse response,
+                                               boolean stateTopicEnabled) {
+        if (isTombstone(response)) {
+            return template.send(PAYMENT_STATE_TOPIC, response.id(), null);
+        }
+        CompletableFuture<?> sent = template.send(UPDATE_PAYMENT_TOPIC, response.orderId().toString(), response);
+        if (!stateTopicEnabled) {
+            return sent;
+        }
+        return CompletableFuture.allOf(sent, template.send(PAYMENT_STATE_TOPIC, response.id(), response));
+    }
+
+    /**
+     * Stands for the deletion of a payment where events are queued or spooled: a response carrying only the id.
+     */
+    public static PaymentResponse tombstone(String id) {
+        return new PaymentResponse(id, null, null, null, null, null);
+    }
+
+    public static boolean isTombstone(PaymentResponse response) {
+        return response.orderId() == null;
+    }
+
+    private void send(PaymentResponse response) {
+        onLiveSend(response);
+        if (kafkaTemplate.isTransactional() && !kafkaTemplate.inTransaction()) {
+            // Outside a listener transaction (REST calls) the event gets a transaction of its own
+            kafkaTemplate.executeInTransaction(template -> publish(template, response, stateTopicEnabled));
+        } else if (spool != null) {
+            sendOrSpool(response, spool);
+        } else {
+            publish(kafkaTemplate, response, stateTopicEnabled).whenComplete((result, failure) -> {
+                if (failure != null) {
+                    log.error("Failed to send payment event: {}", response, failure);
+                }
+            });
+        }
+    }
+
+    private void onLiveSend(PaymentResponse response) {
+        if (seeder != null) {
+            // Before the send, so a seeding run cannot overwrite it with the state it read earlier
+            seeder.onLiveSend(response);
+        }
+    }
+
+    private void sendOrSpool(PaymentResponse response, PaymentEventSpool spool) {
+        if (spool.offer(response)) {
+            return;
+        }
+        CompletableFuture<?> sent;
+        try {
+            sent = publish(kafkaTemplate, response, stateTopicEnabled);
+        } catch (RuntimeException e) {
+            if (!spool.onSendComplete(response, e)) {
+                throw e;
+            }
+            return;
+        }
+        // Settled only once every topic has the event, as for a drained one; a failure on either spools it whole
+        sent.whenComplete((result, failure) -> {
+            if (!spool.onSendComplete(response, failure) && failure != null) {
+                log.error("Failed to send payment event: {}", response, failure);
+            }
+        });
+    }
+
+    /**
+     * Completes once the broker acknowledged the event, without holding a thread while waiting.
+     */
+    public Mono<Void> sendPaymentUpdateAsync(PaymentResponse response) {
+        Mono<Void> update = Mono.fromFuture(() -> {
+                    PaymentEventPublishedEvent published = new PaymentEventPublishedEvent();
+                    published.begin();
+                    onLiveSend(response);
+                    var sent = kafkaTemplate.send(UPDATE_PAYMENT_TOPIC, response.orderId().toString(), response);
+                    published.finish(response);
+                    return sent;
+                })
+                .doOnSuccess(result -> log.debug("Sent UPDATE_PAYMENT event: {}", response))
+                .then();
+        if (!stateTopicEnabled) {
+            return update;
+        }
+        return update.then(Mono.fromFuture(() -> kafkaTemplate.send(PAYMENT_STATE_TOPIC, response.id(), response)).then());
+    }
+
+    public Mono<Void> sendPaymentDeletedAsync(String id) {
+        if (!stateTopicEnabled) {
+            return Mono.empty();
+        }
+        return Mono.fromFuture(() -> {
+                    onLiveSend(tombstone(id));
+                    return kafkaTemplate.send(PAYMENT_STATE_TOPIC, id, null);
+                })
+                .doOnSuccess(result -> log.debug("Sent PAYMENT_STATE tombstone for payment {}", id))
+                .then();
+    }
 }
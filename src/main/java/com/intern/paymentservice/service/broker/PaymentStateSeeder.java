@@ -0,0 +1,221 @@
+package com.intern.paymentservice.service.broker;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.mapper.PaymentMapper;
+import com.intern.paymentservice.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk-loads the current state of every stored payment into the compacted {@code PAYMENT_STATE} topic.
+ * <p>
+ * Payments are read with a batched cursor and sent through a producer tuned for throughput (longer linger,
+ * large batches, compression) with a bounded number of unacknowledged records. Live updates keep flowing
+ * while a run is in progress, so {@link PaymentProducer} reports every update and deletion it sends during a
+ * run. Payments that had one are not seeded, since the state read may be older. Payments whose live send came
+ * while their seed record was still unacknowledged may have the seed record land last, as the two go through
+ * different producers; once the pass is over the latest live state of those is sent again, until no live send
+ * races it anymore.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "payment.kafka.state-topic.enabled", havingValue = "true")
+public class PaymentStateSeeder implements DisposableBean {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentMapper paymentMapper;
+    private final KafkaTemplate<String, Object> seedTemplate;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("payment-state-seeder").factory());
+    private final AtomicReference<Progress> progress = new AtomicReference<>(Progress.idle());
+    // Latest live send per payment id while a run is in progress, and the seeded ids a live send may have overtaken
+    private final Map<String, PaymentResponse> liveSends = new ConcurrentHashMap<>();
+    private final Set<String> raced = ConcurrentHashMap.newKeySet();
+    private volatile boolean tracking;
+
+    /**
+     * Outcome of the latest seeding run.
+     */
+    public record Progress(String state, Instant startedAt, Instant finishedAt, long read, long sent, long failed,
+                           String error) {
+
+        static Progress idle() {
+            return new Progress("IDLE", null, null, 0, 0, 0, null);
+        }
+    }
+
+    public PaymentStateSeeder(PaymentRepository paymentRepository,
+                              PaymentMapper paymentMapper,
+                              ProducerFactory<String, Object> producerFactory,
+                              @Value("${payment.kafka.state-topic.seed.batch-size:1000}") int batchSize,
+                              @Value("${payment.kafka.state-topic.seed.max-in-flight:20000}") int maxInFlight,
+                              @Value("${payment.kafka.state-topic.seed.linger:50ms}") Duration linger) {
+        this.paymentRepository = paymentRepository;
+        this.paymentMapper = paymentMapper;
+        this.seedTemplate = new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.LINGER_MS_CONFIG, (int) linger.toMillis(),
+                ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd"));
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Starts a run in the background unless one is already in progress.
+     * @return the progress of the started or the already running run.
+     */
+    public synchronized Progress seed() {
+        Progress current = progress.get();
+        if ("RUNNING".equals(current.state())) {
+            return current;
+        }
+        Progress started = new Progress("RUNNING", Instant.now(), null, 0, 0, 0, null);
+        progress.set(started);
+        tracking = true;
+        executor.execute(() -> run(started.startedAt()));
+        return started;
+    }
+
+    public Progress getProgress() {
+        return progress.get();
+    }
+
+    /**
+     * Records an update or {@link PaymentProducer#tombstone tombstone} the live path is about to send.
+     */
+    public void onLiveSend(PaymentResponse response) {
+        if (tracking) {
+            liveSends.put(response.id(), response);
+        }
+    }
+
+    private void run(Instant startedAt) {
+        AtomicLong read = new AtomicLong();
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        String error = null;
+        log.info("Seeding {} from the payments collections", PaymentProducer.PAYMENT_STATE_TOPIC);
+        try {
+            List<PaymentResponse> batch = new ArrayList<>(batchSize);
+            paymentRepository.forEachPayment(batchSize, payment -> {
+                batch.add(paymentMapper.toResponse(payment));
+                read.incrementAndGet();
+                if (batch.size() == batchSize) {
+                    publish(batch, sent, failed);
+                    batch.clear();
+                    progress.set(new Progress("RUNNING", startedAt, null, read.get(), sent.get(), failed.get(), null));
+                }
+            });
+            publish(batch, sent, failed);
+            awaitSends();
+            resendRaced(sent, failed);
+        } catch (RuntimeException e) {
+            log.error("Seeding {} failed", PaymentProducer.PAYMENT_STATE_TOPIC, e);
+            error = e.getMessage();
+        } finally {
+            tracking = false;
+            liveSends.clear();
+            raced.clear();
+        }
+        String state = error == null && failed.get() == 0 ? "COMPLETED" : "FAILED";
+        progress.set(new Progress(state, startedAt, Instant.now(), read.get(), sent.get(), failed.get(), error));
+        log.info("Seeding {} {}: {} read, {} sent, {} failed",
+                PaymentProducer.PAYMENT_STATE_TOPIC, state.toLowerCase(), read.get(), sent.get(), failed.get());
+    }
+
+    private void awaitSends() {
+        seedTemplate.flush();
+        // Wait for the callbacks of the last sends before going on
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    /**
+     * Sends the latest live state of every payment whose seed record a live send may have overtaken, again for
+     * payments that got another live send meanwhile, until none did.
+     */
+    private void resendRaced(AtomicLong sent, AtomicLong failed) {
+        while (!raced.isEmpty()) {
+            List<PaymentResponse> latest = new ArrayList<>(raced.size());
+            for (String id : List.copyOf(raced)) {
+                raced.remove(id);
+                latest.add(liveSends.get(id));
+            }
+            log.debug("Sending the live state of {} payments again after it raced their seed", latest.size());
+            for (int from = 0; from < latest.size(); from += batchSize) {
+                publish(latest.subList(from, Math.min(from + batchSize, latest.size())), sent, failed);
+            }
+            awaitSends();
+        }
+    }
+
+    private void publish(List<PaymentResponse> batch, AtomicLong sent, AtomicLong failed) {
+        // Live sends made before the send are already in the topic and newer than what was read
+        batch.removeIf(response -> liveSends.get(response.id()) != null && !isLatestLive(response));
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (seedTemplate.isTransactional()) {
+            seedTemplate.executeInTransaction(template -> {
+                batch.forEach(response -> send(template, response, sent, failed));
+                return null;
+            });
+        } else {
+            batch.forEach(response -> send(seedTemplate, response, sent, failed));
+        }
+    }
+
+    private void send(KafkaOperations<String, Object> template, PaymentResponse response,
+                      AtomicLong sent, AtomicLong failed) {
+        inFlight.acquireUninterruptibly();
+        Object value = PaymentProducer.isTombstone(response) ? null : response;
+        template.send(PaymentProducer.PAYMENT_STATE_TOPIC, response.id(), value)
+                .whenComplete((result, failure) -> {
+                    if (!isLatestLive(response) && liveSends.containsKey(response.id())) {
+                        // A live send came while this one was unacknowledged and may have reached the topic first
+                        raced.add(response.id());
+                    }
+                    inFlight.release();
+                    if (failure == null) {
+                        sent.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                        log.debug("Failed to seed payment {}: {}", response.id(), failure.getMessage());
+                    }
+                });
+    }
+
+    private boolean isLatestLive(PaymentResponse response) {
+        return liveSends.get(response.id()) == response;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        seedTemplate.destroy();
+    }
+}
@@ -0,0 +1,54 @@
+package com.intern.paymentservice.service.broker;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import com.intern.paymentservice.service.ReactivePaymentFacade;
+import com.intern.paymentservice.service.broker.backpressure.ConsumerBackpressureController;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+/**
+ * Kafka consumer for the reactive pipeline ({@code payment.kafka.consumer.mode=reactive}).
+ * <p>
+ * The listener returns a {@link Mono}, so the container commits a record only once its create has
+ * completed, and the poll thread is free while Mongo and the decision API are awaited. Backpressure never
+ * blocks the poll thread: {@link ConsumerBackpressureController#callAsync} pauses the listener container while
+ * {@code payment.reactive.consumer.max-in-flight} creates, or the adaptive limit if lower, are pending.
+ */
+@Service
+@Slf4j
+@Validated
+@ConditionalOnProperty(name = "payment.kafka.consumer.mode", havingValue = "reactive")
+public class ReactivePaymentConsumer {
+
+    private static final PaymentPrincipal BROKER = new PaymentPrincipal(PaymentPrincipal.NO_INTERNAL_ID, PaymentPrincipal.ADMIN);
+
+    private final ReactivePaymentFacade paymentFacade;
+    private final ConsumerBackpressureController backpressure;
+    private final int maxInFlight;
+
+    public ReactivePaymentConsumer(
+            ReactivePaymentFacade paymentFacade,
+            ConsumerBackpressureController backpressure,
+            @Value("${payment.reactive.consumer.max-in-flight:256}") int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("payment.reactive.consumer.max-in-flight must be at least 1");
+        }
+        this.paymentFacade = paymentFacade;
+        this.backpressure = backpressure;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @KafkaListener(id = ConsumerBackpressureController.LISTENER_ID, idIsGroup = false,
+            topics = "CREATE_ORDER", groupId = "payment-service")
+    public Mono<Void> consumeCreatePayment(@Valid CreatePaymentRequest request) {
+        log.debug("Payment Service received CREATE_PAYMENT event: {}", request);
+        return backpressure.callAsync(() -> paymentFacade.createPayment(BROKER, request).then(), maxInFlight);
+    }
+}
@@ -0,0 +1,95 @@
+package com.intern.paymentservice.service.broker.backpressure;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit with additive-increase / multiplicative-decrease: a healthy window raises the limit
+ * by one, an overloaded one multiplies it by {@code decreaseFactor}. Callers hold a permit while they are
+ * in flight and wait when the limit is reached.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double decreaseFactor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private int limit;
+    private int inFlight;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double decreaseFactor) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.decreaseFactor = decreaseFactor;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= limit) {
+                permitReleased.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void increase() {
+        lock.lock();
+        try {
+            if (limit < maxLimit) {
+                limit++;
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void decrease() {
+        lock.lock();
+        try {
+            limit = Math.max(minLimit, (int) (limit * decreaseFactor));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isAtMinimum() {
+        return getLimit() <= minLimit;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
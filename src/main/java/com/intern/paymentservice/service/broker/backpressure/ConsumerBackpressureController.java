@@ -0,0 +1,289 @@
+package com.intern.paymentservice.service.broker.backpressure;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Adapts CREATE_ORDER consumption to how the downstream calls of {@code createPayment} (Mongo and the
+ * decision API) are coping.
+ * <p>
+ * Every consumer call goes through {@link #call(Supplier)} or, for the reactive consumer,
+ * {@link #callAsync(Supplier, int)}, which record latency and outcome. Each evaluation window then either grows
+ * the limit by one or, when the average latency or the error rate is above its threshold, shrinks it
+ * multiplicatively. How the limit is applied depends on the consumer mode:
+ * <ul>
+ *     <li>{@code record}: each listener thread handles one record at a time, so the limit is the number of
+ *     container threads left running; the others are paused, rotating every window so that no partition
+ *     waits for long.</li>
+ *     <li>{@code key-ordered}: lane workers hold an {@link AimdLimiter} permit per record.</li>
+ *     <li>{@code reactive}: the listener is paused while the limit (capped by the consumer's own window) of
+ *     creates is pending, and resumed once half of them have completed.</li>
+ * </ul>
+ * An overloaded window at the minimum limit pauses the whole listener for {@code pause-duration}, so no
+ * further records are polled into retries and the DLT while the downstream recovers.
+ * <p>
+ * With {@code payment.kafka.backpressure.enabled=false} (the default) calls pass straight through, and
+ * only the reactive consumer's fixed window applies.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConsumerBackpressureController {
+
+    public static final String LISTENER_ID = "payment-create-consumer";
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicInteger pausedPartitions = new AtomicInteger();
+    private final AtomicInteger asyncInFlight = new AtomicInteger();
+    private volatile AimdLimiter limiter;
+    private volatile long pausedUntilNanos;
+    private volatile boolean overloadPaused;
+    // Guarded by this
+    private boolean windowFull;
+    private boolean containerPaused;
+    private int rotation;
+
+    @Value("${payment.kafka.consumer.mode:record}")
+    private String consumerMode = "record";
+
+    @Value("${payment.kafka.backpressure.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payment.kafka.backpressure.initial-limit:16}")
+    private int initialLimit;
+
+    @Value("${payment.kafka.backpressure.min-limit:1}")
+    private int minLimit;
+
+    @Value("${payment.kafka.backpressure.max-limit:256}")
+    private int maxLimit;
+
+    @Value("${payment.kafka.backpressure.decrease-factor:0.5}")
+    private double decreaseFactor;
+
+    @Value("${payment.kafka.backpressure.latency-threshold:500ms}")
+    private Duration latencyThreshold;
+
+    @Value("${payment.kafka.backpressure.error-rate-threshold:0.1}")
+    private double errorRateThreshold;
+
+    @Value("${payment.kafka.backpressure.pause-duration:5s}")
+    private Duration pauseDuration;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        AimdLimiter aimd = new AimdLimiter(initialLimit, minLimit, maxLimit, decreaseFactor);
+        Gauge.builder("payment.consumer.backpressure.limit", aimd, AimdLimiter::getLimit)
+                .description("Current in-flight limit of CREATE_ORDER processing")
+                .register(meterRegistry);
+        Gauge.builder("payment.consumer.backpressure.in.flight", aimd, limit -> limit.getInFlight() + asyncInFlight.get())
+                .description("CREATE_ORDER records currently being processed")
+                .register(meterRegistry);
+        Gauge.builder("payment.consumer.backpressure.paused.partitions", pausedPartitions, AtomicInteger::get)
+                .description("CREATE_ORDER partitions paused by the backpressure controller, to apply the limit or on overload")
+                .register(meterRegistry);
+        limiter = aimd;
+    }
+
+    public <T> T call(Supplier<T> downstream) {
+        AimdLimiter aimd = limiter;
+        if (aimd == null) {
+            return downstream.get();
+        }
+
+        try {
+            aimd.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a downstream permit", e);
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            return downstream.get();
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        } finally {
+            aimd.release();
+            samples.increment();
+            latencyNanos.add(System.nanoTime() - start);
+            if (failed) {
+                errors.increment();
+            }
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #call(Supplier)} for listeners that return a {@link Mono}: the calling
+     * poll thread never waits. Instead the listener is paused once {@code min(limit, maxInFlight)} calls are
+     * pending, and resumed when half of them have completed. Records of a poll that is already being
+     * dispatched still go through, so the window can overshoot by at most {@code max.poll.records}.
+     */
+    public <T> Mono<T> callAsync(Supplier<Mono<T>> downstream, int maxInFlight) {
+        return Mono.defer(() -> {
+            AimdLimiter aimd = limiter;
+            int window = aimd == null ? maxInFlight : Math.min(maxInFlight, aimd.getLimit());
+            if (asyncInFlight.incrementAndGet() >= window) {
+                updateWindow(true, window);
+            }
+            long start = System.nanoTime();
+            return downstream.get()
+                    .doOnError(e -> {
+                        if (aimd != null) {
+                            errors.increment();
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (aimd != null) {
+                            samples.increment();
+                            latencyNanos.add(System.nanoTime() - start);
+                        }
+                        if (asyncInFlight.decrementAndGet() <= window / 2) {
+                            updateWindow(false, window);
+                        }
+                    });
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${payment.kafka.backpressure.evaluation-interval:PT1S}")
+    public void evaluate() {
+        AimdLimiter aimd = limiter;
+        if (aimd == null) {
+            return;
+        }
+
+        long count = samples.sumThenReset();
+        long failures = errors.sumThenReset();
+        long totalLatency = latencyNanos.sumThenReset();
+
+        if (overloadPaused) {
+            if (System.nanoTime() - pausedUntilNanos >= 0) {
+                resume();
+                limitConsumers(aimd.getLimit());
+            }
+            return;
+        }
+        if (count == 0) {
+            limitConsumers(aimd.getLimit());
+            return;
+        }
+
+        double errorRate = (double) failures / count;
+        Duration averageLatency = Duration.ofNanos(totalLatency / count);
+        boolean overloaded = errorRate > errorRateThreshold || averageLatency.compareTo(latencyThreshold) > 0;
+
+        if (!overloaded) {
+            aimd.increase();
+        } else if (aimd.isAtMinimum()) {
+            pause(averageLatency, errorRate);
+        } else {
+            aimd.decrease();
+            log.info("Downstream overloaded (avg latency {} ms, error rate {}), in-flight limit lowered to {}",
+                    averageLatency.toMillis(), errorRate, aimd.getLimit());
+        }
+        if (!overloadPaused) {
+            limitConsumers(aimd.getLimit());
+        }
+    }
+
+    /**
+     * In record mode, keeps {@code limit} of the container's threads polling and pauses the rest. The running
+     * window moves on every evaluation, so partitions of paused threads are not starved.
+     */
+    private synchronized void limitConsumers(int limit) {
+        if (!"record".equals(consumerMode)
+                || !(listenerRegistry.getListenerContainer(LISTENER_ID) instanceof ConcurrentMessageListenerContainer<?, ?> container)) {
+            return;
+        }
+        List<? extends MessageListenerContainer> consumers = container.getContainers();
+        if (consumers.isEmpty()) {
+            return;
+        }
+        int running = Math.min(limit, consumers.size());
+        rotation = (rotation + running) % consumers.size();
+        int paused = 0;
+        for (int i = 0; i < consumers.size(); i++) {
+            MessageListenerContainer consumer = consumers.get(i);
+            if (Math.floorMod(i - rotation, consumers.size()) < running) {
+                consumer.resume();
+            } else {
+                consumer.pause();
+                paused += consumer.getAssignedPartitions().size();
+            }
+        }
+        pausedPartitions.set(paused);
+    }
+
+    private synchronized void updateWindow(boolean full, int window) {
+        // Re-check under the lock: the poll thread fills the window while completions on other threads drain it
+        boolean holds = full ? asyncInFlight.get() >= window : asyncInFlight.get() <= window / 2;
+        if (windowFull == full || !holds) {
+            return;
+        }
+        windowFull = full;
+        applyPause();
+        log.debug("{} creates in flight, CREATE_ORDER consumption {}", asyncInFlight.get(), full ? "paused" : "resumed");
+    }
+
+    private synchronized void applyPause() {
+        boolean pause = overloadPaused || windowFull;
+        if (pause == containerPaused) {
+            return;
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        if (pause) {
+            container.pause();
+        } else {
+            container.resume();
+        }
+        containerPaused = pause;
+    }
+
+    private synchronized void pause(Duration averageLatency, double errorRate) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        overloadPaused = true;
+        pausedUntilNanos = System.nanoTime() + pauseDuration.toNanos();
+        applyPause();
+        pausedPartitions.set(container.getAssignedPartitions().size());
+        log.warn("Downstream overloaded at minimum limit (avg latency {} ms, error rate {}), pausing {} partitions for {}",
+                averageLatency.toMillis(), errorRate, pausedPartitions.get(), pauseDuration);
+    }
+
+    private synchronized void resume() {
+        overloadPaused = false;
+        applyPause();
+        pausedPartitions.set(0);
+        log.info("Resumed CREATE_ORDER consumption");
+    }
+}
@@ -0,0 +1,293 @@
+package com.intern.paymentservice.service.broker.codec;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.PaymentStatus;
+import org.apache.kafka.common.errors.SerializationException;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Compact binary form of the payment events.
+ * <p>
+ * Layout: {@code version, type, presence bits}, followed by the present fields in declaration order.
+ * Ids and timestamps are zig-zag varints (timestamps as epoch millis), statuses are enum ordinals, amounts
+ * are a varint scale plus the unscaled value as a varint when it fits in a long. Mongo ObjectId strings are
+ * written as their 12 raw bytes. A reader rejects versions it does not know, so the format can evolve
+ * by bumping {@link #VERSION} while older consumers keep using JSON.
+ */
+public final class PaymentBinaryCodec {
+
+    /**
+     * Record header that marks a binary payload; records without it are JSON.
+     */
+    public static final String CODEC_HEADER = "payment-codec";
+    public static final String BINARY = "binary";
+
+    static final byte VERSION = 1;
+    static final byte PAYMENT_RESPONSE = 1;
+    static final byte CREATE_PAYMENT_REQUEST = 2;
+
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final int OBJECT_ID = 0;
+    private static final int STRING_ID = 1;
+    private static final int LONG_UNSCALED = 0;
+    private static final int BIG_UNSCALED = 1;
+
+    private PaymentBinaryCodec() {
+    }
+
+    public static boolean supports(Object value) {
+        return value instanceof PaymentResponse || value instanceof CreatePaymentRequest;
+    }
+
+    public static byte[] encode(Object value) {
+        Output out = new Output(64);
+        out.writeByte(VERSION);
+        switch (value) {
+            case PaymentResponse response -> encodeResponse(response, out);
+            case CreatePaymentRequest request -> encodeRequest(request, out);
+            default -> throw new SerializationException("No binary form for " + value.getClass().getName());
+        }
+        return out.toByteArray();
+    }
+
+    public static Object decode(byte[] data) {
+        Input in = new Input(data);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported payment codec version " + version);
+        }
+        int type = in.readByte();
+        Object value = switch (type) {
+            case PAYMENT_RESPONSE -> decodeResponse(in);
+            case CREATE_PAYMENT_REQUEST -> decodeRequest(in);
+            default -> throw new SerializationException("Unknown payment event type " + type);
+        };
+        if (in.remaining() != 0) {
+            throw new SerializationException("Trailing bytes after payment event");
+        }
+        return value;
+    }
+
+    private static void encodeResponse(PaymentResponse response, Output out) {
+        out.writeByte(PAYMENT_RESPONSE);
+        out.writeByte(presence(response.id(), response.orderId(), response.userId(),
+                response.status(), response.timestamp(), response.paymentAmount()));
+        if (response.id() != null) {
+            writeId(response.id(), out);
+        }
+        if (response.orderId() != null) {
+            out.writeVarLong(response.orderId());
+        }
+        if (response.userId() != null) {
+            out.writeVarLong(response.userId());
+        }
+        if (response.status() != null) {
+            out.writeByte(response.status().ordinal());
+        }
+        if (response.timestamp() != null) {
+            out.writeVarLong(response.timestamp().toEpochMilli());
+        }
+        if (response.paymentAmount() != null) {
+            writeAmount(response.paymentAmount(), out);
+        }
+    }
+
+    private static PaymentResponse decodeResponse(Input in) {
+        int present = in.readByte();
+        String id = (present & 1) != 0 ? readId(in) : null;
+        Long orderId = (present & 1 << 1) != 0 ? in.readVarLong() : null;
+        Long userId = (present & 1 << 2) != 0 ? in.readVarLong() : null;
+        PaymentStatus status = (present & 1 << 3) != 0 ? readStatus(in) : null;
+        Instant timestamp = (present & 1 << 4) != 0 ? Instant.ofEpochMilli(in.readVarLong()) : null;
+        BigDecimal amount = (present & 1 << 5) != 0 ? readAmount(in) : null;
+        return new PaymentResponse(id, orderId, userId, status, timestamp, amount);
+    }
+
+    private static void encodeRequest(CreatePaymentRequest request, Output out) {
+        out.writeByte(CREATE_PAYMENT_REQUEST);
+        out.writeByte(presence(request.orderId(), request.userId(), request.paymentAmount()));
+        if (request.orderId() != null) {
+            out.writeVarLong(request.orderId());
+        }
+        if (request.userId() != null) {
+            out.writeVarLong(request.userId());
+        }
+        if (request.paymentAmount() != null) {
+            writeAmount(request.paymentAmount(), out);
+        }
+    }
+
+    private static CreatePaymentRequest decodeRequest(Input in) {
+        int present = in.readByte();
+        Long orderId = (present & 1) != 0 ? in.readVarLong() : null;
+        Long userId = (present & 1 << 1) != 0 ? in.readVarLong() : null;
+        BigDecimal amount = (present & 1 << 2) != 0 ? readAmount(in) : null;
+        return new CreatePaymentRequest(orderId, userId, amount);
+    }
+
+    private static int presence(Object... fields) {
+        int bits = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                bits |= 1 << i;
+            }
+        }
+        return bits;
+    }
+
+    private static void writeId(String id, Output out) {
+        if (ObjectId.isValid(id)) {
+            out.writeByte(OBJECT_ID);
+            out.writeBytes(new ObjectId(id).toByteArray());
+        } else {
+            byte[] utf8 = id.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(STRING_ID);
+            out.writeVarLong(utf8.length);
+            out.writeBytes(utf8);
+        }
+    }
+
+    private static String readId(Input in) {
+        int kind = in.readByte();
+        return switch (kind) {
+            case OBJECT_ID -> new ObjectId(in.readBytes(12)).toHexString();
+            case STRING_ID -> new String(in.readBytes(in.readLength()), StandardCharsets.UTF_8);
+            default -> throw new SerializationException("Unknown id encoding " + kind);
+        };
+    }
+
+    private static PaymentStatus readStatus(Input in) {
+        int ordinal = in.readByte();
+        if (ordinal >= STATUSES.length) {
+            throw new SerializationException("Unknown payment status ordinal " + ordinal);
+        }
+        return STATUSES[ordinal];
+    }
+
+    private static void writeAmount(BigDecimal amount, Output out) {
+        out.writeVarLong(amount.scale());
+        BigInteger unscaled = amount.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            out.writeByte(LONG_UNSCALED);
+            out.writeVarLong(unscaled.longValue());
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.writeByte(BIG_UNSCALED);
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes);
+        }
+    }
+
+    private static BigDecimal readAmount(Input in) {
+        int scale = Math.toIntExact(in.readVarLong());
+        int kind = in.readByte();
+        return switch (kind) {
+            case LONG_UNSCALED -> BigDecimal.valueOf(in.readVarLong(), scale);
+            case BIG_UNSCALED -> new BigDecimal(new BigInteger(in.readBytes(in.readLength())), scale);
+            default -> throw new SerializationException("Unknown amount encoding " + kind);
+        };
+    }
+
+    static final class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        /**
+         * Zig-zag encoded, so small negative values stay short too.
+         */
+        void writeVarLong(long value) {
+            long zigZag = (value << 1) ^ (value >> 63);
+            ensureCapacity(10);
+            while ((zigZag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+                zigZag >>>= 7;
+            }
+            buffer[position++] = (byte) zigZag;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    static final class Input {
+
+        private final byte[] data;
+        private int position;
+
+        Input(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            require(1);
+            return data[position++] & 0xFF;
+        }
+
+        byte[] readBytes(int length) {
+            require(length);
+            byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readVarLong() {
+            long zigZag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                zigZag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+            throw new SerializationException("Malformed varint");
+        }
+
+        int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > remaining()) {
+                throw new SerializationException("Invalid length " + length);
+            }
+            return (int) length;
+        }
+
+        int remaining() {
+            return data.length - position;
+        }
+
+        private void require(int length) {
+            if (length < 0 || position + length > data.length) {
+                throw new SerializationException("Truncated payment event");
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.intern.paymentservice.service.broker.codec;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Value deserializer for payment events: records tagged with {@link PaymentBinaryCodec#CODEC_HEADER}
+ * are decoded by {@link PaymentBinaryCodec}, all others by {@link JacksonJsonDeserializer} with the
+ * usual {@code spring.json.*} settings. Consumers therefore accept both encodings during a rollout.
+ * <p>
+ * The binary type tag names the event itself, so a payload of the wrong type on a known topic (including its
+ * retry and dead-letter topics) fails with a {@link SerializationException} here rather than with a
+ * {@link ClassCastException} in the listener.
+ */
+public class PaymentEventDeserializer implements Deserializer<Object> {
+
+    private static final String CREATE_ORDER_TOPIC = "CREATE_ORDER";
+
+    private final JacksonJsonDeserializer<Object> json = new JacksonJsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data != null && isBinary(headers)) {
+            Object value = PaymentBinaryCodec.decode(data);
+            Class<?> expected = expectedType(topic);
+            if (expected != null && !expected.isInstance(value)) {
+                throw new SerializationException("Binary " + value.getClass().getSimpleName() + " on topic " + topic
+                        + ", expected " + expected.getSimpleName());
+            }
+            return value;
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private static Class<?> expectedType(String topic) {
+        if (topic.startsWith(CREATE_ORDER_TOPIC)) {
+            return CreatePaymentRequest.class;
+        }
+        if (topic.startsWith(PaymentProducer.UPDATE_PAYMENT_TOPIC) || topic.startsWith(PaymentProducer.PAYMENT_STATE_TOPIC)) {
+            return PaymentResponse.class;
+        }
+        return null;
+    }
+
+    private static boolean isBinary(Headers headers) {
+        Header header = headers.lastHeader(PaymentBinaryCodec.CODEC_HEADER);
+        return header != null
+                && PaymentBinaryCodec.BINARY.equals(new String(header.value(), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,50 @@
+package com.intern.paymentservice.service.broker.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Value serializer for payment events. With {@code payment.codec=binary} in the producer properties,
+ * events known to {@link PaymentBinaryCodec} are written in binary and tagged with the
+ * {@link PaymentBinaryCodec#CODEC_HEADER} header; everything else (and every event in the default
+ * {@code json} mode) goes through {@link JacksonJsonSerializer}.
+ */
+public class PaymentEventSerializer implements Serializer<Object> {
+
+    public static final String CODEC_CONFIG = "payment.codec";
+
+    private static final byte[] BINARY_HEADER_VALUE = PaymentBinaryCodec.BINARY.getBytes(StandardCharsets.US_ASCII);
+
+    private final JacksonJsonSerializer<Object> json = new JacksonJsonSerializer<>();
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+        binary = PaymentBinaryCodec.BINARY.equals(String.valueOf(configs.get(CODEC_CONFIG)));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (binary && data != null && PaymentBinaryCodec.supports(data)) {
+            headers.remove(PaymentBinaryCodec.CODEC_HEADER);
+            headers.add(PaymentBinaryCodec.CODEC_HEADER, BINARY_HEADER_VALUE);
+            return PaymentBinaryCodec.encode(data);
+        }
+        return json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,367 @@
+package com.intern.paymentservice.service.broker.spool;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import com.intern.paymentservice.service.broker.codec.PaymentBinaryCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.errors.RetriableException;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps UPDATE_PAYMENT events on local disk while Kafka cannot take them and replays them in order afterwards.
+ * <p>
+ * A send that fails with a retriable error, including the first one that times out after the shortened
+ * {@code max.block.ms}, marks the broker unavailable. From then on, and while the producer buffer is nearly full,
+ * events are appended to a {@link SegmentSpool} in {@link PaymentBinaryCodec} form instead of reaching the
+ * producer. A drainer thread sends spooled events in batches, commits what the broker acknowledged and routes
+ * new events back to the producer once the spool is empty. Delivery is at least once: a batch that fails half
+ * way is sent again.
+ * <p>
+ * Events must reach the spool in the order they were produced, or an order's newer state could be replayed
+ * before an older one. Sends already handed to the producer can still fail after newer events were spooled, so
+ * the producer reports every send it makes to {@link #onSendComplete}, and newer events are held in memory
+ * until all of those sends are settled: failed ones are spooled first, the held ones behind them. At most
+ * {@code max-held} events are held; beyond that {@link #offer} rejects new events, as writing them to disk ahead
+ * of the unsettled sends would break the order.
+ * <p>
+ * A spooled event that cannot be decoded or that the broker rejects for good would stop the drain forever. It is
+ * moved to the {@code dead-letter} spool next to the segments instead, for inspection.
+ * <p>
+ * With the state topic enabled, the {@code PAYMENT_STATE} record goes the same way, and deletions are spooled as
+ * {@link PaymentProducer#tombstone tombstones} so they cannot overtake the updates spooled before them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.kafka.spool.enabled", havingValue = "true")
+public class PaymentEventSpool implements SmartLifecycle {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final SegmentSpool spool;
+    private final SegmentSpool deadLetters;
+    private final Counter deadLettered;
+    private final int drainBatch;
+    private final Duration retryInterval;
+    private final Duration sendTimeout;
+    private final double saturationThreshold;
+    private final boolean stateTopicEnabled;
+    private final int maxHeld;
+
+    private volatile boolean brokerAvailable = true;
+    private volatile boolean bufferSaturated;
+    private volatile boolean running;
+    private volatile Thread drainer;
+    // Producer sends not settled yet, and the events spooling has to hold back until they are
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentLinkedQueue<PaymentResponse> held = new ConcurrentLinkedQueue<>();
+    // Guarded by this, like every change to held
+    private int heldCount;
+
+    public PaymentEventSpool(KafkaTemplate<String, Object> kafkaTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${payment.kafka.spool.directory:${java.io.tmpdir}/payment-spool}") Path directory,
+                             @Value("${payment.kafka.spool.segment-size:16MB}") DataSize segmentSize,
+                             @Value("${payment.kafka.spool.max-size:1GB}") DataSize maxSize,
+                             @Value("${payment.kafka.spool.drain-batch:500}") int drainBatch,
+                             @Value("${payment.kafka.spool.retry-interval:1s}") Duration retryInterval,
+                             @Value("${payment.kafka.spool.send-timeout:10s}") Duration sendTimeout,
+                             @Value("${payment.kafka.spool.buffer-saturation:0.9}") double saturationThreshold,
+                             @Value("${payment.kafka.spool.max-held:10000}") int maxHeld,
+                             @Value("${payment.kafka.state-topic.enabled:false}") boolean stateTopicEnabled,
+                             @Value("${payment.kafka.exactly-once.enabled:false}") boolean exactlyOnce) throws IOException {
+        if (exactlyOnce) {
+            // Spooled events would be published outside the transaction that consumed their CREATE_ORDER record
+            throw new IllegalStateException(
+                    "payment.kafka.spool.enabled cannot be combined with payment.kafka.exactly-once.enabled");
+        }
+        this.kafkaTemplate = kafkaTemplate;
+        this.spool = new SegmentSpool(directory, Math.toIntExact(segmentSize.toBytes()), maxSize.toBytes());
+        this.deadLetters = new SegmentSpool(directory.resolve("dead-letter"),
+                Math.toIntExact(segmentSize.toBytes()), maxSize.toBytes());
+        this.drainBatch = drainBatch;
+        this.retryInterval = retryInterval;
+        this.sendTimeout = sendTimeout;
+        this.saturationThreshold = saturationThreshold;
+        this.stateTopicEnabled = stateTopicEnabled;
+        this.maxHeld = maxHeld;
+
+        Gauge.builder("payment.spool.depth", spool, SegmentSpool::depth)
+                .description("UPDATE_PAYMENT events waiting in the local spool")
+                .register(meterRegistry);
+        Gauge.builder("payment.spool.size", spool, SegmentSpool::sizeBytes)
+                .description("Bytes of UPDATE_PAYMENT events waiting in the local spool")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("payment.spool.oldest.age", spool, PaymentEventSpool::oldestAgeSeconds)
+                .description("Age of the oldest spooled UPDATE_PAYMENT event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("payment.spool.dead.letter.depth", deadLetters, SegmentSpool::depth)
+                .description("Spooled UPDATE_PAYMENT events that could not be sent and were set aside")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("payment.spool.dead.lettered")
+                .description("Spooled UPDATE_PAYMENT events moved to the dead-letter spool")
+                .register(meterRegistry);
+        Gauge.builder("payment.spool.held", this, eventSpool -> eventSpool.heldCount)
+                .description("Events held in memory until earlier sends are settled")
+                .register(meterRegistry);
+        Gauge.builder("payment.spool.broker.available", this, eventSpool -> eventSpool.brokerAvailable ? 1 : 0)
+                .description("Whether UPDATE_PAYMENT events go to the producer (1) or to the spool (0)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Spools the event when Kafka is unavailable, the producer buffer is saturated or older events are still
+     * spooled or held. Returns {@code false} when the caller should send it to the producer itself; the caller
+     * then has to report the outcome to {@link #onSendComplete}.
+     *
+     * @throws IllegalStateException when the event would have to be held and {@code max-held} events already are
+     */
+    public boolean offer(PaymentResponse response) {
+        // Counted before the check, so a concurrent trip of the breaker holds its events behind this send
+        inFlight.incrementAndGet();
+        if (!running || bypassesSpool()) {
+            return false;
+        }
+        synchronized (this) {
+            if (bypassesSpool()) {
+                return false;
+            }
+            inFlight.decrementAndGet();
+            if (inFlight.get() > 0) {
+                if (heldCount >= maxHeld) {
+                    throw new IllegalStateException("Spool holds " + heldCount + " events behind unsettled sends");
+                }
+                held.add(response);
+                heldCount++;
+                return true;
+            }
+            releaseHeld();
+            if (append(response)) {
+                return true;
+            }
+            inFlight.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Settles a send the producer made after {@link #offer} returned {@code false}. A send that failed because
+     * the broker could not be reached is spooled; returns {@code false} for failures that spooling cannot fix.
+     */
+    public boolean onSendComplete(PaymentResponse response, @Nullable Throwable failure) {
+        boolean spooled = false;
+        if (failure != null && running && isRetriable(failure)) {
+            if (brokerAvailable) {
+                log.warn("Kafka unavailable, spooling UPDATE_PAYMENT events: {}", failure.getMessage());
+            }
+            synchronized (this) {
+                brokerAvailable = false;
+                // Still ahead of every held event, which were all offered after this one was sent
+                spooled = append(response);
+            }
+        }
+        if (inFlight.decrementAndGet() == 0 && !held.isEmpty()) {
+            synchronized (this) {
+                if (inFlight.get() == 0) {
+                    releaseHeld();
+                }
+            }
+        }
+        return spooled;
+    }
+
+    private boolean bypassesSpool() {
+        return brokerAvailable && !bufferSaturated && spool.depth() == 0 && held.isEmpty();
+    }
+
+    private void releaseHeld() {
+        PaymentResponse response;
+        while ((response = held.poll()) != null) {
+            heldCount--;
+            append(response);
+        }
+    }
+
+    private boolean append(PaymentResponse response) {
+        try {
+            spool.append(PaymentBinaryCodec.encode(response), System.currentTimeMillis());
+            return true;
+        } catch (IllegalStateException e) {
+            log.error("Cannot spool UPDATE_PAYMENT event for order {}: {}", response.orderId(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        drainer = Thread.ofPlatform().name("payment-spool-drainer").daemon().start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = drainer;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(sendTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        spool.close();
+        deadLetters.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                bufferSaturated = isBufferSaturated();
+                if (spool.depth() == 0) {
+                    TimeUnit.MILLISECONDS.sleep(retryInterval.toMillis());
+                    continue;
+                }
+                if (!drainBatch()) {
+                    TimeUnit.MILLISECONDS.sleep(retryInterval.toMillis());
+                }
+                spool.force();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Spool drainer failed", e);
+            }
+        }
+    }
+
+    /**
+     * Sends one batch in spool order and commits the acknowledged prefix; returns whether all of it went through.
+     * Events that can never be sent count as acknowledged once they are in the dead-letter spool.
+     */
+    private boolean drainBatch() throws InterruptedException {
+        List<SegmentSpool.Entry> batch = spool.peek(drainBatch);
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (SegmentSpool.Entry entry : batch) {
+            sends.add(send(entry));
+        }
+        int acknowledged = 0;
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    sends.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (ExecutionException e) {
+                    if (isRetriable(e.getCause()) || !deadLetter(batch.get(i), e.getCause())) {
+                        throw e;
+                    }
+                }
+                acknowledged++;
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Spool drain stopped after {} of {} events: {}", acknowledged, batch.size(), e.getMessage());
+        } finally {
+            if (acknowledged > 0) {
+                spool.commit(batch.get(acknowledged - 1));
+            }
+        }
+
+        boolean complete = acknowledged == batch.size();
+        if (complete) {
+            synchronized (this) {
+                if (spool.depth() == 0 && !brokerAvailable) {
+                    brokerAvailable = true;
+                    log.info("Spool drained, UPDATE_PAYMENT events go to Kafka again");
+                }
+            }
+        }
+        return complete;
+    }
+
+    private CompletableFuture<?> send(SegmentSpool.Entry entry) {
+        try {
+            PaymentResponse response = (PaymentResponse) PaymentBinaryCodec.decode(entry.payload());
+            // The entry is committed only once every topic has it
+            return PaymentProducer.publish(kafkaTemplate, response, stateTopicEnabled);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean deadLetter(SegmentSpool.Entry entry, Throwable cause) {
+        try {
+            deadLetters.append(entry.payload(), entry.appendedAtMillis());
+            deadLetters.force();
+        } catch (RuntimeException e) {
+            log.error("Cannot move spooled UPDATE_PAYMENT event to the dead-letter spool: {}", e.getMessage());
+            return false;
+        }
+        deadLettered.increment();
+        log.error("Spooled UPDATE_PAYMENT event cannot be sent, moved to the dead-letter spool", cause);
+        return true;
+    }
+
+    private boolean isBufferSaturated() {
+        double available = Double.NaN;
+        double total = Double.NaN;
+        for (Map.Entry<MetricName, ? extends Metric> metric : kafkaTemplate.metrics().entrySet()) {
+            if (!"producer-metrics".equals(metric.getKey().group())) {
+                continue;
+            }
+            switch (metric.getKey().name()) {
+                case "buffer-available-bytes" -> available = asDouble(metric.getValue().metricValue());
+                case "buffer-total-bytes" -> total = asDouble(metric.getValue().metricValue());
+                default -> {
+                }
+            }
+        }
+        return total > 0 && (total - available) / total >= saturationThreshold;
+    }
+
+    private static double oldestAgeSeconds(SegmentSpool segments) {
+        OptionalLong appendedAt = segments.oldestAppendedAt();
+        return appendedAt.isPresent() ? (System.currentTimeMillis() - appendedAt.getAsLong()) / 1000.0 : 0.0;
+    }
+
+    private static double asDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+
+    private static boolean isRetriable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,306 @@
+package com.intern.paymentservice.service.broker.spool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only FIFO of byte records stored in fixed-size memory-mapped segment files.
+ * <p>
+ * A record is {@code length, crc32, appended-at millis, payload}; the length is written last, so a record
+ * interrupted by a crash reads as the end of the segment. The read position lives in a small
+ * {@code checkpoint} file and only moves on {@link #commit(Entry)}: records handed out by {@link #peek(int)}
+ * stay in the spool until they are committed. Segments behind the read position are deleted.
+ */
+@Slf4j
+public final class SegmentSpool implements Closeable {
+
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int CHECKPOINT_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final MappedByteBuffer checkpoint;
+
+    private long readSegment;
+    private int readOffset;
+    private long writeSegment;
+    private int writeOffset;
+    private volatile long depth;
+    private volatile long sizeBytes;
+    private boolean closed;
+
+    /**
+     * One spooled record together with the position right behind it.
+     */
+    public record Entry(byte[] payload, long appendedAtMillis, long segment, int nextOffset) {
+    }
+
+    public SegmentSpool(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size must exceed the record header");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.checkpoint = map(directory.resolve(CHECKPOINT_FILE), CHECKPOINT_BYTES);
+        recover();
+    }
+
+    /**
+     * Appends a record, rolling over to a new segment when the current one is full.
+     *
+     * @throws IllegalStateException when the spool reached its size limit or was closed
+     */
+    public synchronized void append(byte[] payload, long appendedAtMillis) {
+        if (closed) {
+            throw new IllegalStateException("Spool is closed");
+        }
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Empty records cannot be spooled");
+        }
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a segment");
+        }
+        if (sizeBytes + recordBytes > maxBytes) {
+            throw new IllegalStateException("Spool is full (" + sizeBytes + " bytes)");
+        }
+        if (writeOffset + recordBytes > segmentBytes) {
+            writeSegment++;
+            writeOffset = 0;
+            segment(writeSegment);
+        }
+
+        MappedByteBuffer buffer = segment(writeSegment);
+        buffer.putInt(writeOffset + Integer.BYTES, crc(payload, appendedAtMillis));
+        buffer.putLong(writeOffset + 2 * Integer.BYTES, appendedAtMillis);
+        buffer.put(writeOffset + HEADER_BYTES, payload);
+        buffer.putInt(writeOffset, payload.length);
+
+        writeOffset += recordBytes;
+        sizeBytes += recordBytes;
+        depth++;
+    }
+
+    /**
+     * Returns up to {@code max} of the oldest records without removing them.
+     */
+    public synchronized List<Entry> peek(int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, 256));
+        long segment = readSegment;
+        int offset = readOffset;
+        while (entries.size() < max && !closed) {
+            Entry entry = readAt(segment, offset);
+            if (entry == null) {
+                if (segment >= writeSegment) {
+                    break;
+                }
+                segment++;
+                offset = 0;
+                continue;
+            }
+            entries.add(entry);
+            segment = entry.segment();
+            offset = entry.nextOffset();
+        }
+        return entries;
+    }
+
+    /**
+     * Removes every record up to and including {@code last} and persists the new read position.
+     */
+    public synchronized void commit(Entry last) {
+        if (closed) {
+            return;
+        }
+        long segment = readSegment;
+        int offset = readOffset;
+        while (segment < last.segment() || (segment == last.segment() && offset < last.nextOffset())) {
+            Entry entry = readAt(segment, offset);
+            if (entry == null) {
+                segment++;
+                offset = 0;
+                continue;
+            }
+            depth--;
+            sizeBytes -= HEADER_BYTES + entry.payload().length;
+            offset = entry.nextOffset();
+        }
+        readSegment = segment;
+        readOffset = offset;
+        writeCheckpoint();
+        deleteSegmentsBefore(readSegment);
+    }
+
+    /**
+     * Append time of the oldest record, if any.
+     */
+    public synchronized OptionalLong oldestAppendedAt() {
+        List<Entry> head = peek(1);
+        return head.isEmpty() ? OptionalLong.empty() : OptionalLong.of(head.getFirst().appendedAtMillis());
+    }
+
+    public long depth() {
+        return depth;
+    }
+
+    public long sizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Flushes written records and the checkpoint from the page cache to disk.
+     */
+    public synchronized void force() {
+        if (!closed) {
+            segments.values().forEach(MappedByteBuffer::force);
+            checkpoint.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            force();
+            closed = true;
+            segments.clear();
+        }
+    }
+
+    private Entry readAt(long segment, int offset) {
+        if (segment > writeSegment || (segment == writeSegment && offset >= writeOffset)) {
+            return null;
+        }
+        if (offset + HEADER_BYTES > segmentBytes) {
+            return null;
+        }
+        MappedByteBuffer buffer = segment(segment);
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + length > segmentBytes) {
+            return null;
+        }
+        int crc = buffer.getInt(offset + Integer.BYTES);
+        long appendedAt = buffer.getLong(offset + 2 * Integer.BYTES);
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_BYTES, payload);
+        if (crc != crc(payload, appendedAt)) {
+            return null;
+        }
+        return new Entry(payload, appendedAt, segment, offset + HEADER_BYTES + length);
+    }
+
+    private void recover() throws IOException {
+        List<Long> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        readSegment = checkpoint.getLong(0);
+        readOffset = checkpoint.getInt(Long.BYTES);
+        if (existing.isEmpty() || readSegment < existing.getFirst()) {
+            readSegment = existing.isEmpty() ? readSegment : existing.getFirst();
+            readOffset = 0;
+        }
+        deleteSegmentsBefore(readSegment);
+        writeSegment = existing.isEmpty() ? readSegment : Math.max(readSegment, existing.getLast());
+
+        // Walk every record from the read position to find the write position and the spool depth
+        writeOffset = segmentBytes;
+        long segment = readSegment;
+        int offset = readOffset;
+        while (true) {
+            Entry entry = readAt(segment, offset);
+            if (entry != null) {
+                depth++;
+                sizeBytes += HEADER_BYTES + entry.payload().length;
+                offset = entry.nextOffset();
+            } else if (segment < writeSegment) {
+                segment++;
+                offset = 0;
+            } else {
+                break;
+            }
+        }
+        writeOffset = offset;
+
+        // Clear whatever a torn write left behind the last complete record
+        MappedByteBuffer tail = segment(writeSegment);
+        for (int i = writeOffset; i < Math.min(segmentBytes, writeOffset + HEADER_BYTES); i++) {
+            tail.put(i, (byte) 0);
+        }
+        writeCheckpoint();
+        if (depth > 0) {
+            log.info("Recovered {} spooled records ({} bytes) from {}", depth, sizeBytes, directory);
+        }
+    }
+
+    private MappedByteBuffer segment(long id) {
+        return segments.computeIfAbsent(id, key -> {
+            try {
+                return map(directory.resolve("%020d%s".formatted(key, SEGMENT_SUFFIX)), segmentBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void deleteSegmentsBefore(long id) {
+        Map<Long, MappedByteBuffer> drained = segments.headMap(id);
+        drained.clear();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                if (Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())) < id) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete drained spool segments in {}", directory, e);
+        }
+    }
+
+    private void writeCheckpoint() {
+        checkpoint.putLong(0, readSegment);
+        checkpoint.putInt(Long.BYTES, readOffset);
+    }
+
+    private static MappedByteBuffer map(Path file, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        }
+    }
+
+    private static int crc(byte[] payload, long appendedAtMillis) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (appendedAtMillis >>> shift));
+        }
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
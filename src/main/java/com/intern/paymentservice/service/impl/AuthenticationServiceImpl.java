@@ -1,11 +1,15 @@
 package com.intern.paymentservice.service.impl;
 
+import com.intern.paymentservice.security.PaymentAuthenticationToken;
+import com.intern.paymentservice.security.PaymentPrincipal;
 import com.intern.paymentservice.service.AuthenticationService;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
@@ -23,12 +27,41 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         return SecurityContextHolder.getContext().getAuthentication();
     }
 
+    @Override
+    public PaymentPrincipal getPrincipal() {
+        Authentication authentication = getAuthentication();
+        if (authentication == null) {
+            return PaymentPrincipal.ANONYMOUS;
+        }
+        if (authentication instanceof PaymentAuthenticationToken token) {
+            return token.getPaymentPrincipal();
+        }
+
+        // Authentications not built by the JWT converter (broker context, tests) are resolved on demand
+        int roles = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            roles |= PaymentPrincipal.roleBit(authority.getAuthority());
+        }
+        long internalId = authentication.getPrincipal() instanceof Jwt jwt
+                && jwt.getClaims().get("internal_id") instanceof Number number
+                ? number.longValue()
+                : PaymentPrincipal.NO_INTERNAL_ID;
+        return new PaymentPrincipal(internalId, roles);
+    }
+
     @Override
     public long getInternalId() {
         Authentication authentication = getAuthentication();
         if (authentication == null) {
             throw new IllegalStateException("Authentication is missing");
         }
+        if (authentication instanceof PaymentAuthenticationToken token) {
+            PaymentPrincipal principal = token.getPaymentPrincipal();
+            if (!principal.hasInternalId()) {
+                throw new IllegalStateException("Internal id is missing");
+            }
+            return principal.internalId();
+        }
 
         Jwt principal = (Jwt) authentication.getPrincipal();
         if (principal == null) {
@@ -49,6 +82,9 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         if (authentication == null) {
             return false;
         }
+        if (authentication instanceof PaymentAuthenticationToken token) {
+            return token.getPaymentPrincipal().isAdmin();
+        }
 
         return authentication.getAuthorities().stream()
                 .anyMatch(authority -> Objects.equals(authority.getAuthority(), ADMIN));
@@ -60,6 +96,9 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         if (authentication == null) {
             return false;
         }
+        if (authentication instanceof PaymentAuthenticationToken token) {
+            return token.getPaymentPrincipal().isUser();
+        }
 
         return authentication.getAuthorities().stream()
                 .anyMatch(authority -> Objects.equals(authority.getAuthority(), USER));
@@ -72,7 +111,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 null,
                 Collections.singletonList(new SimpleGrantedAuthority(ADMIN))
         );
-        SecurityContextHolder.getContext().setAuthentication(dummyAuth);
+        // A fresh context: mutating the current one would leak into any context it is shared with
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(dummyAuth);
+        SecurityContextHolder.setContext(context);
         log.debug("Set authentication in security context with admin role for broker operations.");
     }
 }
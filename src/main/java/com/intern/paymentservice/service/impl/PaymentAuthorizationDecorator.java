@@ -5,6 +5,7 @@ import com.intern.paymentservice.dto.PaymentResponse;
 import com.intern.paymentservice.dto.PaymentTotalResponse;
 import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
 import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.security.PaymentPrincipal;
 import com.intern.paymentservice.service.AuthenticationService;
 import com.intern.paymentservice.service.PaymentService;
 import lombok.RequiredArgsConstructor;
@@ -29,10 +30,11 @@ public class PaymentAuthorizationDecorator implements PaymentService {
     private final PaymentService userPaymentServiceImpl; // User implementation
 
     private PaymentService getDelegate() {
-        if (authenticationService.isAdmin()) {
+        PaymentPrincipal principal = authenticationService.getPrincipal();
+        if (principal.isAdmin()) {
             log.debug("User is an admin. Routing to PaymentServiceImpl.");
             return paymentServiceImpl;
-        } else if (authenticationService.isUser()) {
+        } else if (principal.isUser()) {
             log.debug("User is a standard user. Routing to UserPaymentServiceImpl.");
             return userPaymentServiceImpl;
         } else {
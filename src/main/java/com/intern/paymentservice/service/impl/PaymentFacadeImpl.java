@@ -6,15 +6,31 @@ import com.intern.paymentservice.dto.PaymentResponse;
 import com.intern.paymentservice.dto.PaymentTotalResponse;
 import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
 import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.observability.jfr.PaymentCreatedEvent;
+import com.intern.paymentservice.observability.jfr.PaymentDecisionReceivedEvent;
+import com.intern.paymentservice.observability.jfr.PaymentDecisionRequestedEvent;
+import com.intern.paymentservice.observability.jfr.PaymentStatusPersistedEvent;
 import com.intern.paymentservice.service.PaymentFacade;
 import com.intern.paymentservice.service.PaymentService;
+import com.intern.paymentservice.service.broker.EventEmissionPolicy;
+import com.intern.paymentservice.service.broker.PaymentEventCoalescer;
 import com.intern.paymentservice.service.broker.PaymentProducer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
@@ -24,31 +40,143 @@ public class PaymentFacadeImpl implements PaymentFacade {
     private final PaymentService paymentService;
     private final PaymentProducer paymentProducer;
     private final PaymentResultClient paymentResultClient;
+    private final PaymentEventCoalescer paymentEventCoalescer;
+
+    @Value("${payment.events.emission-policy:every-transition}")
+    private EventEmissionPolicy emissionPolicy = EventEmissionPolicy.EVERY_TRANSITION;
+
+    @Value("${payment.events.final-only-deadline:300ms}")
+    private Duration finalOnlyDeadline = Duration.ofMillis(300);
+
+    @Value("${payment.kafka.exactly-once.enabled:false}")
+    private boolean exactlyOnce;
+
+    @PostConstruct
+    void checkEmissionPolicy() {
+        if (exactlyOnce && emissionPolicy == EventEmissionPolicy.COALESCE) {
+            // Coalesced events are published after the listener transaction has committed
+            throw new IllegalStateException(
+                    "payment.events.emission-policy=coalesce cannot be combined with payment.kafka.exactly-once.enabled");
+        }
+    }
 
     @Override
     public PaymentResponse createPayment(CreatePaymentRequest request) {
+        PaymentCreatedEvent created = new PaymentCreatedEvent();
+        created.begin();
         PaymentResponse response = paymentService.createPayment(request);
-        paymentProducer.sendPaymentUpdate(response);
+        created.finish(response);
 
-        // Simulate payment
-        Integer paymentResult = paymentResultClient.getPaymentResult();
-        PaymentStatus newStatus = (paymentResult % 2 == 0) ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
-        updatePaymentStatus(response.id(), new UpdatePaymentStatusRequest(newStatus));
+        if (emissionPolicy == EventEmissionPolicy.FINAL_ONLY) {
+            settleWithinDeadline(response);
+        } else {
+            publish(response);
+            settle(response);
+        }
 
         return response;
     }
 
+    @Override
+    public PaymentResponse createPaymentIdempotently(CreatePaymentRequest request) {
+        Optional<PaymentResponse> existing = findExisting(request);
+        if (existing.isEmpty()) {
+            try {
+                return createPayment(request);
+            } catch (DuplicateKeyException e) {
+                // Another delivery of the request inserted it after our lookup and is still processing it
+                PaymentResponse concurrent = findExisting(request).orElseThrow(() -> e);
+                log.debug("Payment {} for order {} was created concurrently", concurrent.id(), request.orderId());
+                return concurrent;
+            }
+        }
+
+        PaymentResponse payment = existing.get();
+        log.debug("Payment {} already exists for order {}, replaying its state", payment.id(), request.orderId());
+        if (payment.status() == PaymentStatus.PENDING) {
+            // The previous attempt stopped before settlement
+            settle(payment);
+        } else {
+            // The previous attempt's events may have been rolled back with its transaction
+            paymentProducer.sendPaymentUpdate(payment);
+        }
+        return payment;
+    }
+
+    private Optional<PaymentResponse> findExisting(CreatePaymentRequest request) {
+        return paymentService.findPaymentsByOrderId(request.orderId()).stream()
+                .filter(payment -> Objects.equals(payment.userId(), request.userId()))
+                .findFirst();
+    }
+
     @Override
     public PaymentResponse updatePaymentStatus(String id, UpdatePaymentStatusRequest request) {
+        PaymentStatusPersistedEvent persisted = new PaymentStatusPersistedEvent();
+        persisted.begin();
         PaymentResponse response = paymentService.updatePaymentStatus(id, request);
-        paymentProducer.sendPaymentUpdate(response);
+        persisted.finish(response);
+        publish(response);
 
         return response;
     }
 
+    private void settle(PaymentResponse response) {
+        // Simulate payment
+        PaymentDecisionRequestedEvent.emit(response);
+        PaymentDecisionReceivedEvent received = new PaymentDecisionReceivedEvent();
+        received.begin();
+        PaymentStatus decided = decide(paymentResultClient.getPaymentResult());
+        received.finish(response, decided);
+        updatePaymentStatus(response.id(), new UpdatePaymentStatusRequest(decided));
+    }
+
+    /**
+     * Publishes only the settled state, unless the decision misses the deadline or fails:
+     * then PENDING goes out first so consumers are not left without any event for the order.
+     */
+    private void settleWithinDeadline(PaymentResponse pending) {
+        PaymentDecisionRequestedEvent.emit(pending);
+        PaymentDecisionReceivedEvent received = new PaymentDecisionReceivedEvent();
+        received.begin();
+        CompletableFuture<Integer> decision = paymentResultClient.getPaymentResultAsync().toFuture();
+        Integer paymentResult;
+        try {
+            try {
+                paymentResult = decision.get(finalOnlyDeadline.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.debug("Decision for payment {} exceeded {}, publishing PENDING", pending.id(), finalOnlyDeadline);
+                paymentProducer.sendPaymentUpdate(pending);
+                paymentResult = decision.get();
+            }
+        } catch (ExecutionException e) {
+            paymentProducer.sendPaymentUpdate(pending);
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            paymentProducer.sendPaymentUpdate(pending);
+            throw new IllegalStateException("Interrupted while waiting for the payment decision", e);
+        }
+        PaymentStatus decided = decide(paymentResult);
+        received.finish(pending, decided);
+        updatePaymentStatus(pending.id(), new UpdatePaymentStatusRequest(decided));
+    }
+
+    private static PaymentStatus decide(Integer paymentResult) {
+        return (paymentResult % 2 == 0) ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
+    }
+
+    private void publish(PaymentResponse response) {
+        if (emissionPolicy == EventEmissionPolicy.COALESCE) {
+            paymentEventCoalescer.submit(response);
+        } else {
+            paymentProducer.sendPaymentUpdate(response);
+        }
+    }
+
     @Override
     public void deletePayment(String id) {
         paymentService.deletePayment(id);
+        paymentProducer.sendPaymentDeleted(id);
     }
 
     @Override
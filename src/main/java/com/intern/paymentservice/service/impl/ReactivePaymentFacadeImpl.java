@@ -0,0 +1,178 @@
+package com.intern.paymentservice.service.impl;
+
+import com.intern.paymentservice.client.PaymentResultClient;
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.dto.PaymentTotalResponse;
+import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
+import com.intern.paymentservice.exception.PaymentNotFoundException;
+import com.intern.paymentservice.exception.UserAccessDeniedException;
+import com.intern.paymentservice.mapper.PaymentMapper;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.observability.jfr.PaymentCreatedEvent;
+import com.intern.paymentservice.observability.jfr.PaymentDecisionReceivedEvent;
+import com.intern.paymentservice.observability.jfr.PaymentDecisionRequestedEvent;
+import com.intern.paymentservice.observability.jfr.PaymentLifecycleEvent;
+import com.intern.paymentservice.observability.jfr.PaymentStatusPersistedEvent;
+import com.intern.paymentservice.repository.ReactivePaymentRepository;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import com.intern.paymentservice.service.ReactivePaymentFacade;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+
+/**
+ * Reactive payment pipeline: admin and user rules of {@link PaymentServiceImpl} and
+ * {@link UserPaymentServiceImpl}, the event publishing and decision call of {@link PaymentFacadeImpl},
+ * all without blocking a thread.
+ */
+@Slf4j
+@Service
+@ConditionalOnExpression("${payment.reactive.enabled:false} or '${payment.kafka.consumer.mode:record}' == 'reactive'")
+public class ReactivePaymentFacadeImpl implements ReactivePaymentFacade {
+
+    private final ReactivePaymentRepository paymentRepository;
+    private final PaymentMapper paymentMapper;
+    private final PaymentProducer paymentProducer;
+    private final PaymentResultClient paymentResultClient;
+
+    public ReactivePaymentFacadeImpl(
+            ReactivePaymentRepository paymentRepository,
+            PaymentMapper paymentMapper,
+            PaymentProducer paymentProducer,
+            PaymentResultClient paymentResultClient) {
+        this.paymentRepository = paymentRepository;
+        this.paymentMapper = paymentMapper;
+        this.paymentProducer = paymentProducer;
+        this.paymentResultClient = paymentResultClient;
+    }
+
+    @Override
+    public Mono<PaymentResponse> createPayment(PaymentPrincipal principal, CreatePaymentRequest request) {
+        return authorize(principal)
+                .then(timed(PaymentCreatedEvent::new, Mono.defer(() -> {
+                    if (!principal.isAdmin() && !request.userId().equals(principal.internalId())) {
+                        return Mono.error(new UserAccessDeniedException(principal.internalId()));
+                    }
+
+                    Payment payment = paymentMapper.toEntity(request);
+                    payment.setStatus(PaymentStatus.PENDING);
+                    payment.setTimestamp(Instant.now());
+                    return paymentRepository.save(payment);
+                }).map(paymentMapper::toResponse)))
+                .doOnNext(response -> log.debug("Persisted Payment object for Payment with id {}", response.id()))
+                .flatMap(response -> paymentProducer.sendPaymentUpdateAsync(response).thenReturn(response))
+                // Simulate payment
+                .flatMap(response -> {
+                    PaymentDecisionRequestedEvent.emit(response);
+                    PaymentDecisionReceivedEvent received = new PaymentDecisionReceivedEvent();
+                    received.begin();
+                    return paymentResultClient.getPaymentResultAsync()
+                            .map(result -> result % 2 == 0 ? PaymentStatus.SUCCESS : PaymentStatus.FAILED)
+                            .doOnNext(status -> received.finish(response, status))
+                            .flatMap(status -> updatePaymentStatus(principal, response.id(), new UpdatePaymentStatusRequest(status)))
+                            .thenReturn(response);
+                });
+    }
+
+    @Override
+    public Mono<PaymentResponse> updatePaymentStatus(PaymentPrincipal principal, String id, UpdatePaymentStatusRequest request) {
+        return authorize(principal)
+                .then(timed(PaymentStatusPersistedEvent::new, Mono.defer(() -> principal.isAdmin()
+                                ? paymentRepository.findById(id)
+                                : paymentRepository.findByIdAndUserId(id, principal.internalId()))
+                        .switchIfEmpty(Mono.error(() -> new PaymentNotFoundException(id)))
+                        .flatMap(payment -> {
+                            payment.setStatus(request.status());
+                            return paymentRepository.save(payment);
+                        })
+                        .map(paymentMapper::toResponse)))
+                .doOnNext(response -> log.debug("Updated Payment status for Payment with id {} to {}", id, request.status()))
+                .flatMap(response -> paymentProducer.sendPaymentUpdateAsync(response).thenReturn(response));
+    }
+
+    @Override
+    public Mono<Void> deletePayment(PaymentPrincipal principal, String id) {
+        return authorize(principal)
+                .then(Mono.defer(() -> principal.isAdmin()
+                        ? paymentRepository.deleteById(id).then(paymentProducer.sendPaymentDeletedAsync(id))
+                        : paymentRepository.findById(id)
+                                .filter(payment -> payment.getUserId().equals(principal.internalId()))
+                                .flatMap(payment -> paymentRepository.delete(payment)
+                                        .then(paymentProducer.sendPaymentDeletedAsync(id)))))
+                .doOnSuccess(ignored -> log.debug("Deleted Payment with id {}", id));
+    }
+
+    @Override
+    public Flux<PaymentResponse> findPaymentsByOrderId(PaymentPrincipal principal, Long orderId) {
+        return authorize(principal)
+                .thenMany(Flux.defer(() -> principal.isAdmin()
+                        ? paymentRepository.findByOrderId(orderId)
+                        : paymentRepository.findByOrderIdAndUserId(orderId, principal.internalId())))
+                .map(paymentMapper::toResponse);
+    }
+
+    @Override
+    public Flux<PaymentResponse> findPaymentsByUserId(PaymentPrincipal principal, Long userId) {
+        return authorize(principal)
+                .thenMany(Flux.defer(() -> {
+                    if (!principal.isAdmin() && !userId.equals(principal.internalId())) {
+                        return Flux.error(new UserAccessDeniedException(principal.internalId()));
+                    }
+                    return paymentRepository.findByUserId(userId);
+                }))
+                .map(paymentMapper::toResponse);
+    }
+
+    @Override
+    public Flux<PaymentResponse> findPaymentsByStatuses(PaymentPrincipal principal, List<PaymentStatus> statuses) {
+        return authorize(principal)
+                .thenMany(Flux.defer(() -> principal.isAdmin()
+                        ? paymentRepository.findByStatusIn(statuses)
+                        : paymentRepository.findByStatusInAndUserId(statuses, principal.internalId())))
+                .map(paymentMapper::toResponse);
+    }
+
+    @Override
+    public Mono<PaymentTotalResponse> findPaymentTotalForPeriod(PaymentPrincipal principal, Instant start, Instant end) {
+        return authorize(principal)
+                .then(Mono.defer(() -> principal.isAdmin()
+                        ? paymentRepository.findPaymentTotalForPeriod(start, end)
+                        : paymentRepository.findPaymentTotalForPeriodAndUserId(start, end, principal.internalId())))
+                .map(PaymentTotalResponse::new);
+    }
+
+    /**
+     * Times {@code step} with a lifecycle event that begins on subscription and ends with the step's result,
+     * or without a payment when it fails.
+     */
+    private static Mono<PaymentResponse> timed(Supplier<? extends PaymentLifecycleEvent> eventFactory,
+                                               Mono<PaymentResponse> step) {
+        return Mono.defer(() -> {
+            PaymentLifecycleEvent event = eventFactory.get();
+            event.begin();
+            return step
+                    .doOnNext(event::finish)
+                    .doOnError(failure -> event.finish(null));
+        });
+    }
+
+    private static Mono<Void> authorize(PaymentPrincipal principal) {
+        if (principal.isAdmin() || principal.isUser()) {
+            return Mono.empty();
+        }
+        log.warn("Unauthorized access attempt by a user lacking 'admin' or 'user' role.");
+        return Mono.error(new ResponseStatusException(FORBIDDEN, "Access Denied: Insufficient authority for payment service operations."));
+    }
+}
@@ -0,0 +1,66 @@
+package com.intern.paymentservice.service.replay;
+
+import com.intern.paymentservice.aspect.annotation.BrokerAuthentication;
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.repository.PaymentRepository;
+import com.intern.paymentservice.service.PaymentFacade;
+import com.intern.paymentservice.service.broker.codec.PaymentEventDeserializer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Feeds dead-letter CREATE_ORDER records to the facade as the broker would, through the idempotent path,
+ * so a replay never creates a second payment for an order that was processed in the meantime; republished
+ * records of such orders are skipped up front.
+ */
+@Component
+public class DltFacadeReplayer {
+
+    private final PaymentFacade paymentFacade;
+    private final PaymentRepository paymentRepository;
+    private final Validator validator;
+    private final PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+
+    public DltFacadeReplayer(PaymentFacade paymentFacade, PaymentRepository paymentRepository, Validator validator) {
+        this.paymentFacade = paymentFacade;
+        this.paymentRepository = paymentRepository;
+        this.validator = validator;
+        // Same settings as the CREATE_ORDER listener's value deserializer
+        deserializer.configure(Map.of(
+                "spring.json.use.type.headers", false,
+                "spring.json.value.default.type", CreatePaymentRequest.class.getName()), false);
+    }
+
+    /**
+     * Whether the payment of a dead-letter CREATE_ORDER record exists by now, e.g. because a later retry or replay
+     * succeeded. Records that cannot be decoded are left to the consumer to dead-letter.
+     */
+    public boolean isAlreadyCreated(String topic, Headers headers, byte[] value) {
+        try {
+            return deserializer.deserialize(topic, headers, value) instanceof CreatePaymentRequest request
+                    && request.orderId() != null && request.userId() != null
+                    && !paymentRepository.findByOrderIdAndUserId(request.orderId(), request.userId()).isEmpty();
+        } catch (SerializationException e) {
+            return false;
+        }
+    }
+
+    @BrokerAuthentication
+    public void replay(String topic, Headers headers, byte[] value) {
+        if (!(deserializer.deserialize(topic, headers, value) instanceof CreatePaymentRequest request)) {
+            throw new IllegalArgumentException("Record is not a CreatePaymentRequest");
+        }
+        Set<ConstraintViolation<CreatePaymentRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        paymentFacade.createPaymentIdempotently(request);
+    }
+}
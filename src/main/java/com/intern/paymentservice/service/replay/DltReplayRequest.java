@@ -0,0 +1,29 @@
+package com.intern.paymentservice.service.replay;
+
+import com.intern.paymentservice.model.DltReplayTarget;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Which dead-letter records to replay; every field is optional.
+ *
+ * @param partitions    DLT partitions to read, all of them when empty
+ * @param startOffset   first offset of each partition, otherwise the first record at or after {@code from}
+ * @param endOffset     offset to stop before, capped at the partition end when the job starts
+ * @param exceptionFqcn only records whose exception or cause has this class name
+ * @param from          only records dead-lettered at or after this time
+ * @param to            only records dead-lettered before this time
+ * @param ratePerSecond replayed records per second
+ * @param target        where replayed records go, {@link DltReplayTarget#REPUBLISH} by default
+ */
+public record DltReplayRequest(
+        List<Integer> partitions,
+        Long startOffset,
+        Long endOffset,
+        String exceptionFqcn,
+        Instant from,
+        Instant to,
+        Integer ratePerSecond,
+        DltReplayTarget target
+) {}
@@ -0,0 +1,621 @@
+package com.intern.paymentservice.service.replay;
+
+import com.intern.paymentservice.model.DltReplayJob;
+import com.intern.paymentservice.model.DltReplayStatus;
+import com.intern.paymentservice.model.DltReplayTarget;
+import com.intern.paymentservice.repository.DltReplayJobRepository;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Replays dead-letter records, paced to a fixed rate so a large replay leaves room for live traffic.
+ * <p>
+ * The range of a job is fixed when it starts (records dead-lettered later are not picked up, so a replay
+ * that fails again cannot loop). Progress is checkpointed to Mongo every
+ * {@code payment.kafka.dlt-replay.checkpoint-interval} after the republished records were acknowledged;
+ * running jobs are claimed with a lease and resumed from their checkpoint after a restart, by this or any
+ * other instance. Records between the last checkpoint and a crash are replayed again.
+ */
+@Slf4j
+@Service
+public class DltReplayService implements DisposableBean {
+
+    static final String REPLAY_HEADER = "payment-dlt-replay";
+    private static final String DEFAULT_TARGET_TOPIC = "CREATE_ORDER";
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final DltReplayJobRepository jobRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ConsumerFactory<byte[], byte[]> consumerFactory;
+    private final KafkaTemplate<byte[], byte[]> replayTemplate;
+    private final DltFacadeReplayer facadeReplayer;
+    private final String dltTopic;
+    private final int defaultRate;
+    private final Duration checkpointInterval;
+    private final Duration lease;
+    private final Set<String> cancelled = ConcurrentHashMap.newKeySet();
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+    private final Set<String> lost = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopping;
+    private final ExecutorService executor = Executors.newCachedThreadPool(
+            Thread.ofPlatform().name("dlt-replay-", 0).factory());
+
+    public DltReplayService(DltReplayJobRepository jobRepository,
+                            MongoTemplate mongoTemplate,
+                            ConsumerFactory<byte[], byte[]> consumerFactory,
+                            ProducerFactory<byte[], byte[]> producerFactory,
+                            DltFacadeReplayer facadeReplayer,
+                            @Value("${spring.kafka.dead-letter-topic}") String dltTopic,
+                            @Value("${payment.kafka.dlt-replay.default-rate:200}") int defaultRate,
+                            @Value("${payment.kafka.dlt-replay.checkpoint-interval:1s}") Duration checkpointInterval,
+                            @Value("${payment.kafka.dlt-replay.lease:1m}") Duration lease) {
+        this.jobRepository = jobRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.consumerFactory = consumerFactory;
+        this.replayTemplate = new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+        this.facadeReplayer = facadeReplayer;
+        this.dltTopic = dltTopic;
+        this.defaultRate = defaultRate;
+        this.checkpointInterval = checkpointInterval;
+        this.lease = lease;
+    }
+
+    public DltReplayJob start(DltReplayRequest request) {
+        int rate = request.ratePerSecond() != null ? request.ratePerSecond() : defaultRate;
+        if (rate <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive");
+        }
+
+        Instant now = Instant.now();
+        DltReplayJob job = DltReplayJob.builder()
+                .topic(dltTopic)
+                .partitions(resolveRanges(request))
+                .exceptionFqcn(request.exceptionFqcn())
+                .from(request.from())
+                .to(request.to())
+                .ratePerSecond(rate)
+                .target(request.target() != null ? request.target() : DltReplayTarget.REPUBLISH)
+                .status(DltReplayStatus.RUNNING)
+                .createdAt(now)
+                .updatedAt(now)
+                .owner(instanceId)
+                .leaseUntil(now.plus(lease))
+                .build();
+        job = jobRepository.save(job);
+        log.info("Starting DLT replay {} of {} records to {}", job.getId(),
+                job.getPartitions().stream().mapToLong(range -> range.getEndOffset() - range.getStartOffset()).sum(),
+                job.getTarget());
+        launch(job);
+        return job;
+    }
+
+    public List<DltReplayJob> findAll() {
+        return jobRepository.findAll();
+    }
+
+    public Optional<DltReplayJob> find(String id) {
+        return jobRepository.findById(id);
+    }
+
+    /**
+     * Stops a running job after the record in progress; the job keeps its checkpoint.
+     */
+    public Optional<DltReplayJob> cancel(String id) {
+        if (active.contains(id)) {
+            cancelled.add(id);
+            return jobRepository.findById(id);
+        }
+        return jobRepository.findById(id).map(job -> {
+            if (job.getStatus() == DltReplayStatus.RUNNING) {
+                job.setStatus(DltReplayStatus.CANCELLED);
+                job.setUpdatedAt(Instant.now());
+                return jobRepository.save(job);
+            }
+            return job;
+        });
+    }
+
+    /**
+     * Picks up running jobs whose owner went away, including this instance before a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        for (DltReplayJob job : jobRepository.findByStatus(DltReplayStatus.RUNNING)) {
+            claim(job.getId()).ifPresent(claimed -> {
+                log.info("Resuming DLT replay {} ({} records replayed so far)", claimed.getId(), claimed.getReplayed());
+                launch(claimed);
+            });
+        }
+    }
+
+    private Optional<DltReplayJob> claim(String id) {
+        Instant now = Instant.now();
+        DltReplayJob claimed = mongoTemplate.findAndModify(
+                query(where("_id").is(id).and("status").is(DltReplayStatus.RUNNING)
+                        .orOperator(where("owner").is(instanceId), where("leaseUntil").lt(now))),
+                new Update().set("owner", instanceId).set("leaseUntil", now.plus(lease)),
+                FindAndModifyOptions.options().returnNew(true),
+                DltReplayJob.class);
+        return Optional.ofNullable(claimed);
+    }
+
+    private void launch(DltReplayJob job) {
+        if (!active.add(job.getId())) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                run(job);
+            } catch (RuntimeException e) {
+                log.error("DLT replay {} failed", job.getId(), e);
+                job.setStatus(DltReplayStatus.FAILED);
+                job.setLastError(e.getMessage());
+                checkpoint(job);
+            } finally {
+                active.remove(job.getId());
+                cancelled.remove(job.getId());
+                lost.remove(job.getId());
+            }
+        });
+    }
+
+    private void run(DltReplayJob job) {
+        Map<TopicPartition, DltReplayJob.PartitionRange> pending = new HashMap<>();
+        job.getPartitions().stream()
+                .filter(range -> !range.isDone())
+                .forEach(range -> pending.put(new TopicPartition(job.getTopic(), range.getPartition()), range));
+
+        RejectedSends rejected = new RejectedSends();
+        RatePacer pacer = new RatePacer(job.getRatePerSecond());
+        long checkpointIntervalNanos = checkpointInterval.toNanos();
+        long lastCheckpoint = System.nanoTime();
+
+        try (Consumer<byte[], byte[]> consumer = createConsumer(job.getId(), job.getRatePerSecond())) {
+            consumer.assign(pending.keySet());
+            pending.forEach((partition, range) -> consumer.seek(partition, range.getNextOffset()));
+
+            while (!isStopped(job)) {
+                if (pending.isEmpty()) {
+                    // Records whose last sends are rejected are replayed again before the job completes
+                    settleSends(job, rejected, pending, consumer);
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                }
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+                boolean complete = replayTemplate.isTransactional() && job.getTarget() == DltReplayTarget.REPUBLISH
+                        ? replayInTransaction(job, records, pending, pacer, rejected, consumer)
+                        : replayBatch(job, records, pending, pacer, replayTemplate, rejected);
+                if (!complete) {
+                    // Stopped mid-batch: the ranges end after the last record handled, not at the consumer position
+                    continue;
+                }
+
+                // Offsets past the end can be missing (transaction markers, deleted segments)
+                for (Map.Entry<TopicPartition, DltReplayJob.PartitionRange> entry : new ArrayList<>(pending.entrySet())) {
+                    DltReplayJob.PartitionRange range = entry.getValue();
+                    range.setNextOffset(Math.max(range.getNextOffset(),
+                            Math.min(consumer.position(entry.getKey()), range.getEndOffset())));
+                    if (range.isDone()) {
+                        consumer.pause(List.of(entry.getKey()));
+                        pending.remove(entry.getKey());
+                    }
+                }
+
+                if (System.nanoTime() - lastCheckpoint >= checkpointIntervalNanos) {
+                    settleSends(job, rejected, pending, consumer);
+                    checkpoint(job);
+                    lastCheckpoint = System.nanoTime();
+                }
+            }
+            settleSends(job, rejected, pending, consumer);
+        }
+
+        if (lost.contains(job.getId())) {
+            log.warn("DLT replay {} was taken over by another instance after its lease ran out", job.getId());
+            return;
+        }
+        if (pending.isEmpty()) {
+            job.setStatus(DltReplayStatus.COMPLETED);
+        } else if (cancelled.contains(job.getId())) {
+            job.setStatus(DltReplayStatus.CANCELLED);
+        } else {
+            // Shutting down: the job stays RUNNING and its lease is released for whichever instance starts next
+            if (checkpoint(job)) {
+                mongoTemplate.updateFirst(query(where("_id").is(job.getId()).and("owner").is(instanceId)),
+                        new Update().set("leaseUntil", Instant.EPOCH), DltReplayJob.class);
+            }
+            log.info("DLT replay {} paused at shutdown after {} records", job.getId(), job.getReplayed());
+            return;
+        }
+        checkpoint(job);
+        log.info("DLT replay {} {}: {} scanned, {} replayed, {} skipped, {} failed", job.getId(),
+                job.getStatus().name().toLowerCase(), job.getScanned(), job.getReplayed(), job.getSkipped(), job.getFailed());
+    }
+
+    /**
+     * Replays a batch in one producer transaction; when it aborts, the batch's offsets are rewound so the
+     * failed job's checkpoint does not cover records that were never committed.
+     */
+    private boolean replayInTransaction(DltReplayJob job,
+                                     ConsumerRecords<byte[], byte[]> records,
+                                     Map<TopicPartition, DltReplayJob.PartitionRange> pending,
+                                     RatePacer pacer,
+                                     RejectedSends rejected,
+                                     Consumer<byte[], byte[]> consumer) {
+        Map<TopicPartition, Long> batchStart = new HashMap<>();
+        pending.forEach((partition, range) -> batchStart.put(partition, range.getNextOffset()));
+        try {
+            return replayTemplate.executeInTransaction(
+                    template -> replayBatch(job, records, pending, pacer, template, rejected));
+        } catch (RuntimeException e) {
+            batchStart.forEach((partition, offset) -> {
+                pending.get(partition).setNextOffset(offset);
+                consumer.seek(partition, offset);
+            });
+            throw e;
+        }
+    }
+
+    /**
+     * Returns {@code false} when the job was stopped before the end of the batch.
+     */
+    private boolean replayBatch(DltReplayJob job,
+                             ConsumerRecords<byte[], byte[]> records,
+                             Map<TopicPartition, DltReplayJob.PartitionRange> pending,
+                             RatePacer pacer,
+                             KafkaOperations<byte[], byte[]> template,
+                             RejectedSends rejected) {
+        for (TopicPartition partition : records.partitions()) {
+            DltReplayJob.PartitionRange range = pending.get(partition);
+            if (range == null) {
+                continue;
+            }
+            for (ConsumerRecord<byte[], byte[]> record : records.records(partition)) {
+                if (isStopped(job)) {
+                    return false;
+                }
+                if (record.offset() >= range.getEndOffset()) {
+                    break;
+                }
+                job.setScanned(job.getScanned() + 1);
+                if (matches(job, record)) {
+                    pacer.acquire();
+                    replay(job, record, template, rejected);
+                } else {
+                    job.setSkipped(job.getSkipped() + 1);
+                }
+                range.setNextOffset(record.offset() + 1);
+                // A slow batch (low rate, slow facade calls) must not let the claim run out under it
+                renewLeaseIfDue(job);
+            }
+        }
+        return true;
+    }
+
+    private void replay(DltReplayJob job, ConsumerRecord<byte[], byte[]> record,
+                        KafkaOperations<byte[], byte[]> template, RejectedSends rejected) {
+        String originalTopic = headerValue(record, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        String topic = originalTopic != null ? originalTopic : DEFAULT_TARGET_TOPIC;
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        headers.add(REPLAY_HEADER, job.getId().getBytes(StandardCharsets.UTF_8));
+
+        if (job.getTarget() == DltReplayTarget.FACADE) {
+            try {
+                facadeReplayer.replay(topic, headers, record.value());
+                job.setReplayed(job.getReplayed() + 1);
+            } catch (RuntimeException e) {
+                job.setFailed(job.getFailed() + 1);
+                job.setLastError(e.getMessage());
+                log.debug("Replay of {}-{}@{} failed: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+            }
+            return;
+        }
+
+        if (DEFAULT_TARGET_TOPIC.equals(topic) && facadeReplayer.isAlreadyCreated(topic, headers, record.value())) {
+            // The unique (orderId, userId) index would only dead-letter it again
+            job.setSkipped(job.getSkipped() + 1);
+            return;
+        }
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        template.send(new ProducerRecord<>(topic, null, record.key(), record.value(), headers))
+                .whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        rejected.add(partition, record.offset(), failure);
+                        log.debug("Republishing {}-{}@{} failed: {}",
+                                record.topic(), record.partition(), record.offset(), failure.getMessage());
+                    }
+                });
+        job.setReplayed(job.getReplayed() + 1);
+    }
+
+    private boolean isStopped(DltReplayJob job) {
+        return stopping || cancelled.contains(job.getId()) || lost.contains(job.getId());
+    }
+
+    private static boolean matches(DltReplayJob job, ConsumerRecord<byte[], byte[]> record) {
+        Instant deadLetteredAt = Instant.ofEpochMilli(record.timestamp());
+        if (job.getFrom() != null && deadLetteredAt.isBefore(job.getFrom())) {
+            return false;
+        }
+        if (job.getTo() != null && !deadLetteredAt.isBefore(job.getTo())) {
+            return false;
+        }
+        return job.getExceptionFqcn() == null
+                || job.getExceptionFqcn().equals(headerValue(record, KafkaHeaders.DLT_EXCEPTION_FQCN))
+                || job.getExceptionFqcn().equals(headerValue(record, KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN));
+    }
+
+    private static String headerValue(ConsumerRecord<?, ?> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Waits for the republished records to be acknowledged. Offsets only advance past acknowledged sends: a
+     * partition with a retriable rejection is rewound to its first rejected record and replays from there,
+     * records after it included; records the broker rejected for good are counted as failed.
+     */
+    private void settleSends(DltReplayJob job, RejectedSends rejected,
+                             Map<TopicPartition, DltReplayJob.PartitionRange> pending,
+                             Consumer<byte[], byte[]> consumer) {
+        replayTemplate.flush();
+        long failures = rejected.failures.getAndSet(0);
+        long retries = rejected.retries.getAndSet(0);
+        job.setFailed(job.getFailed() + failures);
+        job.setReplayed(job.getReplayed() - failures - retries);
+
+        for (TopicPartition partition : new ArrayList<>(rejected.retryFrom.keySet())) {
+            long offset = rejected.retryFrom.remove(partition);
+            job.getPartitions().stream()
+                    .filter(range -> range.getPartition() == partition.partition())
+                    .findFirst()
+                    .ifPresent(range -> {
+                        range.setNextOffset(Math.min(range.getNextOffset(), offset));
+                        pending.put(partition, range);
+                        consumer.seek(partition, range.getNextOffset());
+                        consumer.resume(List.of(partition));
+                    });
+        }
+    }
+
+    /**
+     * Stores the job's progress as long as this instance still owns it. Returns {@code false} when it does not:
+     * a job cancelled through another instance keeps its CANCELLED status (only the progress is stored), and a
+     * job whose lease was taken over by another instance is left to that instance.
+     */
+    private boolean checkpoint(DltReplayJob job) {
+        Instant now = Instant.now();
+        job.setUpdatedAt(now);
+        UpdateResult result = mongoTemplate.updateFirst(owned(job),
+                progress(job).set("status", job.getStatus()).set("leaseUntil", now.plus(lease)),
+                DltReplayJob.class);
+        if (result.getMatchedCount() > 0) {
+            job.setLeaseUntil(now.plus(lease));
+            return true;
+        }
+
+        if (mongoTemplate.updateFirst(query(where("_id").is(job.getId()).and("owner").is(instanceId)),
+                progress(job), DltReplayJob.class).getMatchedCount() > 0) {
+            // Cancelled through another instance
+            cancelled.add(job.getId());
+            job.setStatus(DltReplayStatus.CANCELLED);
+        } else {
+            lost.add(job.getId());
+        }
+        return false;
+    }
+
+    private static Update progress(DltReplayJob job) {
+        return new Update()
+                .set("partitions", job.getPartitions())
+                .set("scanned", job.getScanned())
+                .set("replayed", job.getReplayed())
+                .set("skipped", job.getSkipped())
+                .set("failed", job.getFailed())
+                .set("lastError", job.getLastError())
+                .set("updatedAt", job.getUpdatedAt());
+    }
+
+    private void renewLeaseIfDue(DltReplayJob job) {
+        Instant now = Instant.now();
+        if (job.getLeaseUntil() != null && now.isBefore(job.getLeaseUntil().minus(lease.dividedBy(2)))) {
+            return;
+        }
+        UpdateResult result = mongoTemplate.updateFirst(owned(job),
+                new Update().set("leaseUntil", now.plus(lease)), DltReplayJob.class);
+        if (result.getMatchedCount() > 0) {
+            job.setLeaseUntil(now.plus(lease));
+        } else {
+            // Cancelled or taken over; the checkpoint finds out which
+            checkpoint(job);
+        }
+    }
+
+    private Query owned(DltReplayJob job) {
+        return query(where("_id").is(job.getId())
+                .and("owner").is(instanceId)
+                .and("status").is(DltReplayStatus.RUNNING));
+    }
+
+    private List<DltReplayJob.PartitionRange> resolveRanges(DltReplayRequest request) {
+        try (Consumer<byte[], byte[]> consumer = createConsumer("resolve")) {
+            List<TopicPartition> partitions = consumer.partitionsFor(dltTopic).stream()
+                    .map(PartitionInfo::partition)
+                    .filter(partition -> request.partitions() == null || request.partitions().isEmpty()
+                            || request.partitions().contains(partition))
+                    .sorted()
+                    .map(partition -> new TopicPartition(dltTopic, partition))
+                    .toList();
+            if (partitions.isEmpty()) {
+                throw new IllegalArgumentException("No matching partitions in " + dltTopic);
+            }
+
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndTimestamp> fromTime = request.startOffset() == null && request.from() != null
+                    ? consumer.offsetsForTimes(timestamps(partitions, request.from()))
+                    : Map.of();
+
+            List<DltReplayJob.PartitionRange> ranges = new ArrayList<>();
+            for (TopicPartition partition : partitions) {
+                long first = beginning.get(partition);
+                long last = end.get(partition);
+                long start;
+                if (request.startOffset() != null) {
+                    start = request.startOffset();
+                } else if (request.from() != null) {
+                    OffsetAndTimestamp found = fromTime.get(partition);
+                    start = found != null ? found.offset() : last;
+                } else {
+                    start = first;
+                }
+                start = Math.clamp(start, first, last);
+                long stop = request.endOffset() != null ? Math.clamp(request.endOffset(), start, last) : last;
+                ranges.add(new DltReplayJob.PartitionRange(partition.partition(), start, stop, start));
+            }
+            return ranges;
+        }
+    }
+
+    private static Map<TopicPartition, Long> timestamps(List<TopicPartition> partitions, Instant from) {
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        partitions.forEach(partition -> timestamps.put(partition, from.toEpochMilli()));
+        return timestamps;
+    }
+
+    private Consumer<byte[], byte[]> createConsumer(String clientIdSuffix) {
+        return createConsumer(clientIdSuffix, ConsumerConfig.DEFAULT_MAX_POLL_RECORDS);
+    }
+
+    private Consumer<byte[], byte[]> createConsumer(String clientIdSuffix, int ratePerSecond) {
+        Properties overrides = new Properties();
+        // About a second of records per poll, so progress is checkpointed at the configured interval
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(ratePerSecond, ConsumerConfig.DEFAULT_MAX_POLL_RECORDS));
+        overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // Offsets removed by retention since the last checkpoint are skipped
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return consumerFactory.createConsumer(null, "dlt-replay-", "-" + clientIdSuffix, overrides);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // Jobs stop at the next record and are resumed from their checkpoint by the next instance
+        stopping = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("DLT replays did not stop in time; they resume from their last checkpoint");
+        }
+        replayTemplate.destroy();
+    }
+
+    /**
+     * Republished records the broker rejected since the job's last checkpoint, collected from producer callbacks.
+     */
+    private static final class RejectedSends {
+
+        private final Map<TopicPartition, Long> retryFrom = new ConcurrentHashMap<>();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        void add(TopicPartition partition, long offset, Throwable failure) {
+            if (isRetriable(failure)) {
+                retryFrom.merge(partition, offset, Math::min);
+                retries.incrementAndGet();
+            } else {
+                failures.incrementAndGet();
+            }
+        }
+
+        private static boolean isRetriable(Throwable failure) {
+            for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+                if (cause instanceof RetriableException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Spaces operations evenly at a fixed rate; time not used while the job was busy is not saved up.
+     */
+    static final class RatePacer {
+
+        private final long intervalNanos;
+        private long next = System.nanoTime();
+
+        RatePacer(int permitsPerSecond) {
+            this.intervalNanos = 1_000_000_000L / permitsPerSecond;
+        }
+
+        void acquire() {
+            long now = System.nanoTime();
+            while (next - now > 0) {
+                LockSupport.parkNanos(next - now);
+                now = System.nanoTime();
+            }
+            next = Math.max(next, now - intervalNanos) + intervalNanos;
+        }
+    }
+}
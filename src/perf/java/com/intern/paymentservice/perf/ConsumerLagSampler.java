@@ -0,0 +1,115 @@
+package com.intern.paymentservice.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Samples the committed lag of a consumer group on one topic once per second.
+ */
+@Slf4j
+public final class ConsumerLagSampler implements AutoCloseable {
+
+    private final Admin admin;
+    private final String groupId;
+    private final String topic;
+    private final long startNanos = System.nanoTime();
+    private final List<Sample> samples = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("lag-sampler").daemon().factory());
+    private long previousCommitted = -1;
+
+    public ConsumerLagSampler(String bootstrapServers, String groupId, String topic) {
+        this.admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+        this.groupId = groupId;
+        this.topic = topic;
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Current lag summed over the topic's partitions.
+     */
+    public long lag() throws InterruptedException {
+        try {
+            return measure()[0];
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not read the lag of " + groupId, e.getCause());
+        }
+    }
+
+    public synchronized List<Sample> samples() {
+        return List.copyOf(samples);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        admin.close();
+    }
+
+    private void sample() {
+        try {
+            long[] measured = measure();
+            long committed = measured[1];
+            long consumedPerSecond = previousCommitted < 0 ? 0 : committed - previousCommitted;
+            previousCommitted = committed;
+            synchronized (this) {
+                samples.add(new Sample(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                        measured[0], consumedPerSecond));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            log.debug("Lag sample failed", e);
+        }
+    }
+
+    /**
+     * Returns {lag, committed offsets} summed over the topic's partitions.
+     */
+    private long[] measure() throws InterruptedException, ExecutionException {
+        List<TopicPartition> partitions = admin.describeTopics(List.of(topic)).allTopicNames().get().get(topic)
+                .partitions().stream()
+                .map(partition -> new TopicPartition(topic, partition.partition()))
+                .toList();
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get();
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin.listOffsets(
+                partitions.stream().collect(Collectors.toMap(partition -> partition, partition -> OffsetSpec.latest())))
+                .all().get();
+        long lag = 0;
+        long committedTotal = 0;
+        for (TopicPartition partition : partitions) {
+            // The service reads from the earliest offset, so a partition without a commit lags by all it holds
+            OffsetAndMetadata offset = committed.get(partition);
+            long position = offset != null ? offset.offset() : 0;
+            lag += Math.max(0, ends.get(partition).offset() - position);
+            committedTotal += position;
+        }
+        return new long[]{lag, committedTotal};
+    }
+
+    /**
+     * @param elapsedMillis     time since the sampler was created
+     * @param lag               records produced but not yet committed by the group
+     * @param consumedPerSecond records committed since the previous sample
+     */
+    public record Sample(long elapsedMillis, long lag, long consumedPerSecond) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.intern.paymentservice.perf;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Publishes CREATE_ORDER records the way the order service does: JSON values keyed by order id.
+ */
+public final class CreateOrderPublisher implements AutoCloseable {
+
+    public static final String TOPIC = "CREATE_ORDER";
+    public static final String CONSUMER_GROUP = "payment-service";
+
+    private final KafkaProducer<String, String> producer;
+
+    public CreateOrderPublisher(String bootstrapServers) {
+        this.producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ProducerConfig.LINGER_MS_CONFIG, 5,
+                ProducerConfig.ACKS_CONFIG, "all"), new StringSerializer(), new StringSerializer());
+    }
+
+    /**
+     * Creates CREATE_ORDER with the given partition count unless it already exists.
+     */
+    public static void createTopic(String bootstrapServers, int partitions) throws InterruptedException {
+        createTopic(bootstrapServers, TOPIC, partitions);
+    }
+
+    /**
+     * Creates another topic of the pipeline, e.g. UPDATE_PAYMENT or the dead-letter topic, unless it already exists.
+     */
+    public static void createTopic(String bootstrapServers, String topic, int partitions) throws InterruptedException {
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            admin.createTopics(List.of(new NewTopic(topic, partitions, (short) 1))).all().get();
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof TopicExistsException)) {
+                throw new IllegalStateException("Could not create " + topic, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Sends one order; {@code acknowledged} receives {@code null} on success or the send failure.
+     */
+    public void publish(long orderId, long userId, Consumer<Exception> acknowledged) {
+        String amount = ThreadLocalRandom.current().nextInt(1, 100_000) / 100 + "."
+                + String.format("%02d", ThreadLocalRandom.current().nextInt(100));
+        String value = "{\"orderId\":" + orderId + ",\"userId\":" + userId + ",\"paymentAmount\":" + amount + "}";
+        producer.send(new ProducerRecord<>(TOPIC, Long.toString(orderId), value),
+                (metadata, exception) -> acknowledged.accept(exception));
+    }
+
+    /**
+     * Sends a record whose value is not a valid CREATE_ORDER event; it ends up in the dead-letter topic.
+     */
+    public void publishInvalid(long orderId, Consumer<Exception> acknowledged) {
+        producer.send(new ProducerRecord<>(TOPIC, Long.toString(orderId), "{\"orderId\":" + orderId + "}"),
+                (metadata, exception) -> acknowledged.accept(exception));
+    }
+
+    public void flush() {
+        producer.flush();
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
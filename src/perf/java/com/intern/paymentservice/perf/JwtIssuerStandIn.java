@@ -0,0 +1,99 @@
+package com.intern.paymentservice.perf;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Local stand-in for the Keycloak realm: serves the realm's JWK set at the path the service reads it from
+ * and mints RS256 access tokens with the {@code internal_id} and {@code realm_access.roles} claims.
+ */
+public final class JwtIssuerStandIn implements AutoCloseable {
+
+    private static final String REALM_PATH = "/realms/payments";
+    private static final Duration TOKEN_LIFETIME = Duration.ofHours(2);
+
+    private final RSAKey signingKey;
+    private final RSASSASigner signer;
+    private final HttpServer server;
+
+    private JwtIssuerStandIn(RSAKey signingKey, HttpServer server) throws JOSEException {
+        this.signingKey = signingKey;
+        this.signer = new RSASSASigner(signingKey);
+        this.server = server;
+    }
+
+    public static JwtIssuerStandIn start() {
+        try {
+            RSAKey key = new RSAKeyGenerator(2048).keyID("perf-" + UUID.randomUUID()).generate();
+            byte[] jwks = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext(REALM_PATH + "/protocol/openid-connect/certs", exchange -> {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, jwks.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(jwks);
+                }
+            });
+            server.start();
+            return new JwtIssuerStandIn(key, server);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not create the signing key", e);
+        }
+    }
+
+    public String issuerUri() {
+        return "http://localhost:" + server.getAddress().getPort() + REALM_PATH;
+    }
+
+    /**
+     * Signs an access token for a caller with the given internal id and realm role ({@code user} or {@code admin}).
+     */
+    public String mint(long internalId, String role) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuerUri())
+                .subject(UUID.randomUUID().toString())
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(TOKEN_LIFETIME)))
+                .claim("scope", "openid profile email")
+                .claim("internal_id", internalId)
+                .claim("realm_access", Map.of("roles", List.of(role)))
+                .build();
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign the access token", e);
+        }
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.intern.paymentservice.perf;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation HdrHistogram latencies. Callers record from the time an operation was <em>scheduled</em> to
+ * start rather than when it actually started, so time spent queued behind a slow system is counted
+ * (coordinated omission correction for open-model load).
+ */
+public final class LatencyRecorder {
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    public void record(String operation, long intendedStartNanos, boolean success) {
+        Operation recorded = operations.computeIfAbsent(operation, key -> new Operation());
+        recorded.latencies.recordValue(Math.max(0, System.nanoTime() - intendedStartNanos));
+        if (!success) {
+            recorded.errors.increment();
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, e.g. at the end of the warm-up.
+     */
+    public void reset() {
+        operations.values().forEach(operation -> {
+            synchronized (operation) {
+                operation.latencies.getIntervalHistogram();
+                operation.accumulated.reset();
+                operation.errors.reset();
+            }
+        });
+    }
+
+    /**
+     * Latency statistics per operation since the last {@link #reset()}, over a measurement of {@code seconds}.
+     */
+    public Map<String, LatencyStats> snapshot(double seconds) {
+        Map<String, LatencyStats> stats = new TreeMap<>();
+        operations.forEach((name, operation) -> {
+            synchronized (operation) {
+                operation.accumulated.add(operation.latencies.getIntervalHistogram());
+                stats.put(name, LatencyStats.of(operation.accumulated, operation.errors.sum(), seconds));
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * Statistics over all operations together as of the last {@link #snapshot}, over a measurement of
+     * {@code seconds}.
+     */
+    public LatencyStats combined(double seconds) {
+        Histogram all = new Histogram(3);
+        long errors = 0;
+        for (Operation operation : operations.values()) {
+            synchronized (operation) {
+                all.add(operation.accumulated);
+                errors += operation.errors.sum();
+            }
+        }
+        return LatencyStats.of(all, errors, seconds);
+    }
+
+    private static final class Operation {
+        private final Recorder latencies = new Recorder(3);
+        private final Histogram accumulated = new Histogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
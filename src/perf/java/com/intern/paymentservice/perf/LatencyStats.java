@@ -0,0 +1,24 @@
+package com.intern.paymentservice.perf;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary of one operation's latency histogram; latencies in milliseconds.
+ */
+public record LatencyStats(long count, long errors, double throughputPerSecond,
+                           double p50, double p90, double p99, double p999, double max) {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    public static LatencyStats of(Histogram histogram, long errors, double seconds) {
+        return new LatencyStats(
+                histogram.getTotalCount(),
+                errors,
+                seconds > 0 ? histogram.getTotalCount() / seconds : 0,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+}
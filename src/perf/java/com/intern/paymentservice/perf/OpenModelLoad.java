@@ -0,0 +1,84 @@
+package com.intern.paymentservice.perf;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-model load: operations start on a fixed schedule at the target rate, each on its own virtual thread,
+ * regardless of how many earlier operations are still running. A slow system therefore builds up a backlog
+ * instead of silently lowering the offered load, and every operation receives its scheduled start time so
+ * its latency can include the wait.
+ * <p>
+ * Beyond {@code maxInFlight} running operations the generator waits for one to finish instead of starting
+ * another thread, so its own memory stays bounded. Operations held back that way start late, but still with
+ * their scheduled start time, and the generator then catches up on the schedule: none is dropped from the
+ * latencies. They are counted as {@link #delayed()}.
+ */
+@Slf4j
+public final class OpenModelLoad {
+
+    private final String name;
+    private final double ratePerSecond;
+    private final Semaphore inFlight;
+    private final LongAdder delayed = new LongAdder();
+
+    public OpenModelLoad(String name, double ratePerSecond, int maxInFlight) {
+        this.name = name;
+        this.ratePerSecond = ratePerSecond;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Runs {@code operation(scheduledStartNanos)} at the target rate for {@code duration}, then waits for
+     * the operations still in flight.
+     */
+    public void run(Duration duration, LongConsumer operation) throws InterruptedException {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (!inFlight.tryAcquire()) {
+                    delayed.increment();
+                    inFlight.acquire();
+                }
+                long scheduledStart = scheduled;
+                executor.execute(() -> {
+                    try {
+                        operation.accept(scheduledStart);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        if (delayed.sum() > 0) {
+            log.warn("{}: {} operations started late because the in-flight cap was reached", name, delayed.sum());
+        }
+    }
+
+    /**
+     * Operations that waited for the in-flight cap; their latencies include the wait.
+     */
+    public long delayed() {
+        return delayed.sum();
+    }
+}
@@ -0,0 +1,49 @@
+package com.intern.paymentservice.perf;
+
+import com.intern.paymentservice.PaymentServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts the payment service in this JVM against the performance environment.
+ * <p>
+ * The service runs next to the load generator, so absolute numbers include the generator's CPU use;
+ * compare runs made on the same machine with each other rather than with production.
+ */
+public final class PaymentServiceLauncher {
+
+    private PaymentServiceLauncher() {
+    }
+
+    public static ConfigurableApplicationContext start(PerfEnvironment environment, JwtIssuerStandIn issuer,
+                                                       int port, Map<String, Object> overrides,
+                                                       ApplicationContextInitializer<?>... initializers) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", port);
+        properties.put("spring.mongodb.uri", environment.mongoUri("payments"));
+        properties.put("spring.kafka.bootstrap-servers", environment.kafkaBootstrapServers());
+        properties.put("OAUTH_ISSUER_URI", issuer.issuerUri());
+        // Request-level debug logging would measure the log appender rather than the service
+        properties.put("logging.level.com.intern.paymentservice", "INFO");
+        properties.putAll(overrides);
+        return new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .properties(properties)
+                .initializers(initializers)
+                .run();
+    }
+
+    public static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.intern.paymentservice.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.testcontainers.kafka.KafkaContainer;
+import org.testcontainers.mongodb.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Mongo and Kafka containers for a performance run, on the same images as the integration tests.
+ * Either can be skipped by runs that do not need it, and {@code -Dperf.mongo.uri} (including the database)
+ * replaces the Mongo container with an existing server, e.g. one holding a generated dataset.
+ */
+@Slf4j
+public final class PerfEnvironment implements AutoCloseable {
+
+    private final MongoDBContainer mongo;
+    private final KafkaContainer kafka;
+    private final String externalMongoUri;
+
+    private PerfEnvironment(MongoDBContainer mongo, KafkaContainer kafka, String externalMongoUri) {
+        this.mongo = mongo;
+        this.kafka = kafka;
+        this.externalMongoUri = externalMongoUri;
+    }
+
+    public static PerfEnvironment start(boolean withMongo, boolean withKafka) {
+        String externalMongoUri = System.getProperty("perf.mongo.uri");
+        MongoDBContainer mongo = withMongo && externalMongoUri == null
+                ? new MongoDBContainer(DockerImageName.parse("mongo:8.2.2"))
+                : null;
+        KafkaContainer kafka = withKafka ? new KafkaContainer(DockerImageName.parse("apache/kafka-native:4.1.1")) : null;
+        if (mongo != null) {
+            mongo.start();
+            log.info("Mongo listening on {}", mongo.getReplicaSetUrl());
+        }
+        if (kafka != null) {
+            kafka.start();
+            log.info("Kafka listening on {}", kafka.getBootstrapServers());
+        }
+        return new PerfEnvironment(mongo, kafka, externalMongoUri);
+    }
+
+    public String mongoUri(String database) {
+        return externalMongoUri != null ? externalMongoUri : mongo.getReplicaSetUrl(database);
+    }
+
+    public String kafkaBootstrapServers() {
+        return kafka.getBootstrapServers();
+    }
+
+    @Override
+    public void close() {
+        if (kafka != null) {
+            kafka.stop();
+        }
+        if (mongo != null) {
+            mongo.stop();
+        }
+    }
+}
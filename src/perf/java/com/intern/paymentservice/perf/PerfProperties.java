@@ -0,0 +1,48 @@
+package com.intern.paymentservice.perf;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads run settings from {@code -Dperf.*} system properties.
+ */
+public final class PerfProperties {
+
+    private static final String APP_PREFIX = "perf.app.";
+
+    private PerfProperties() {
+    }
+
+    public static String text(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+
+    public static Duration duration(String name, String defaultValue) {
+        return Duration.parse(System.getProperty(name, defaultValue));
+    }
+
+    public static double decimal(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty(name, Double.toString(defaultValue)));
+    }
+
+    public static long integer(String name, long defaultValue) {
+        return Long.parseLong(System.getProperty(name, Long.toString(defaultValue)));
+    }
+
+    public static boolean flag(String name, boolean defaultValue) {
+        return Boolean.parseBoolean(System.getProperty(name, Boolean.toString(defaultValue)));
+    }
+
+    /**
+     * Service properties passed as {@code -Dperf.app.<property>=<value>}, e.g.
+     * {@code -Dperf.app.spring.kafka.listener.concurrency=4}.
+     */
+    public static Map<String, Object> appOverrides() {
+        Map<String, Object> overrides = new HashMap<>();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(APP_PREFIX))
+                .forEach(name -> overrides.put(name.substring(APP_PREFIX.length()), System.getProperty(name)));
+        return overrides;
+    }
+}
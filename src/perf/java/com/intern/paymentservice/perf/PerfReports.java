@@ -0,0 +1,48 @@
+package com.intern.paymentservice.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Writes run reports as JSON under {@code perf.report-dir} (default {@code target/perf}), one file per run.
+ */
+@Slf4j
+public final class PerfReports {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final JsonMapper JSON = JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build();
+
+    private PerfReports() {
+    }
+
+    public static Path write(String name, Object report) {
+        Path directory = Path.of(System.getProperty("perf.report-dir", "target/perf"));
+        Path file = directory.resolve(name + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".json");
+        try {
+            Files.createDirectories(directory);
+            Files.write(file, JSON.writeValueAsBytes(report));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Report written to {}", file.toAbsolutePath());
+        return file;
+    }
+
+    public static void logLatencies(Map<String, LatencyStats> latencies) {
+        log.info(String.format("%-44s %9s %7s %9s %9s %9s %9s %9s %9s",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        latencies.forEach((operation, stats) -> log.info(String.format(
+                "%-44s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                operation, stats.count(), stats.errors(), stats.throughputPerSecond(),
+                stats.p50(), stats.p90(), stats.p99(), stats.p999(), stats.max())));
+    }
+}
@@ -0,0 +1,24 @@
+package com.intern.paymentservice.perf.dataset;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Loads a synthetic dataset into an existing Mongo, {@code -Dperf.mongo.uri} (default
+ * {@code mongodb://localhost:27017/payments}), for {@link QueryBenchmarkMain} or manual experiments.
+ * See {@link DatasetProfile} for the {@code -Dperf.dataset.*} settings.
+ */
+public final class DatasetGeneratorMain {
+
+    private DatasetGeneratorMain() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConnectionString uri = new ConnectionString(System.getProperty("perf.mongo.uri", "mongodb://localhost:27017/payments"));
+        try (MongoClient client = MongoClients.create(uri)) {
+            String database = uri.getDatabase() != null ? uri.getDatabase() : "payments";
+            PaymentDatasetGenerator.ensureLoaded(client.getDatabase(database), DatasetProfile.fromSystemProperties());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.intern.paymentservice.perf.dataset;
+
+import com.intern.paymentservice.perf.PerfProperties;
+
+/**
+ * Shape of a generated payment dataset.
+ *
+ * @param payments     payments to insert
+ * @param users        distinct user ids; user {@code 1} is the most active
+ * @param zipfExponent skew of payments per user; around 1 matches typical marketplaces
+ * @param days         payments spread over this many days up to now
+ * @param partitioned  write to monthly {@code payments_yyyyMM} collections, as with payment.partitioning.enabled
+ * @param writers      parallel insert threads
+ * @param batchSize    documents per insertMany
+ * @param reuse        skip generation when the target already holds at least {@code payments} documents
+ */
+public record DatasetProfile(long payments, int users, double zipfExponent, int days, boolean partitioned,
+                             int writers, int batchSize, boolean reuse) {
+
+    public static DatasetProfile fromSystemProperties() {
+        return new DatasetProfile(
+                PerfProperties.integer("perf.dataset.payments", 10_000_000),
+                (int) PerfProperties.integer("perf.dataset.users", 1_000_000),
+                PerfProperties.decimal("perf.dataset.zipf-exponent", 1.07),
+                (int) PerfProperties.integer("perf.dataset.days", 365),
+                PerfProperties.flag("perf.dataset.partitioned", false),
+                (int) PerfProperties.integer("perf.dataset.writers", Math.max(2, Runtime.getRuntime().availableProcessors() / 2)),
+                (int) PerfProperties.integer("perf.dataset.batch-size", 5_000),
+                PerfProperties.flag("perf.dataset.reuse", true));
+    }
+}
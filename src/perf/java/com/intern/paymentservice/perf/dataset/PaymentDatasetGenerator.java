@@ -0,0 +1,234 @@
+package com.intern.paymentservice.perf.dataset;
+
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Bulk-loads synthetic payments with production-like skew: Zipfian payments per user, timestamps following a
+ * diurnal curve over {@link DatasetProfile#days()}, log-normal amounts, and a status mix that depends on age
+ * (recent payments are still pending, old ones are settled).
+ * <p>
+ * Documents are written the way Spring Data writes {@link Payment}, with unordered {@code insertMany} from
+ * several threads and {@code w:1}; indexes are built once at the end, which is much faster than maintaining
+ * them during the load.
+ */
+@Slf4j
+public final class PaymentDatasetGenerator {
+
+    static final String BASE_COLLECTION = "payments";
+
+    // Relative activity per UTC hour, lowest at night and peaking in the evening
+    private static final double[] HOURLY_ACTIVITY = {
+            0.30, 0.20, 0.15, 0.12, 0.12, 0.18, 0.35, 0.60, 0.85, 1.00, 1.05, 1.10,
+            1.15, 1.10, 1.05, 1.00, 1.00, 1.05, 1.15, 1.25, 1.20, 1.00, 0.75, 0.50};
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM").withZone(ZoneOffset.UTC);
+    private static final Duration PENDING_WINDOW = Duration.ofMinutes(15);
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("0.50");
+
+    private final MongoDatabase database;
+    private final DatasetProfile profile;
+    private final ZipfSampler users;
+    private final double[] hourlyCumulative;
+    private final Instant now = Instant.now();
+    private final LongAdder inserted = new LongAdder();
+
+    PaymentDatasetGenerator(MongoDatabase database, DatasetProfile profile) {
+        this.database = database;
+        this.profile = profile;
+        this.users = new ZipfSampler(profile.users(), profile.zipfExponent());
+        this.hourlyCumulative = new double[HOURLY_ACTIVITY.length];
+        double sum = 0;
+        for (int hour = 0; hour < HOURLY_ACTIVITY.length; hour++) {
+            sum += HOURLY_ACTIVITY[hour];
+            hourlyCumulative[hour] = sum;
+        }
+        for (int hour = 0; hour < hourlyCumulative.length; hour++) {
+            hourlyCumulative[hour] /= sum;
+        }
+    }
+
+    /**
+     * Generates the profile's dataset unless the database already holds it (with {@link DatasetProfile#reuse()}).
+     * A partial or different dataset is left alone rather than dropped, since the target may be a shared server.
+     */
+    public static void ensureLoaded(MongoDatabase database, DatasetProfile profile) throws InterruptedException {
+        long existing = existingPayments(database);
+        if (existing == 0) {
+            new PaymentDatasetGenerator(database, profile).generate();
+        } else if (profile.reuse() && existing >= profile.payments()) {
+            log.info("Reusing {} existing payments in {}", existing, database.getName());
+        } else {
+            throw new IllegalStateException("Database " + database.getName() + " already holds " + existing
+                    + " payments; drop it or point perf.mongo.uri at an empty database to generate " + profile);
+        }
+    }
+
+    /**
+     * Payments already present in the base collection and its monthly partitions.
+     */
+    static long existingPayments(MongoDatabase database) {
+        long count = 0;
+        for (String name : paymentCollections(database)) {
+            count += database.getCollection(name).estimatedDocumentCount();
+        }
+        return count;
+    }
+
+    /**
+     * The base collection and its monthly partitions, without the archive.
+     */
+    static List<String> paymentCollections(MongoDatabase database) {
+        List<String> collections = new ArrayList<>();
+        for (String name : database.listCollectionNames()) {
+            if (name.equals(BASE_COLLECTION) || name.matches(BASE_COLLECTION + "_\\d{6}")) {
+                collections.add(name);
+            }
+        }
+        return collections;
+    }
+
+    void generate() throws InterruptedException {
+        log.info("Generating {}; user 1 gets {}% of payments, the top 1% of users {}%", profile,
+                String.format("%.2f", users.share(1) * 100),
+                String.format("%.1f", users.share(Math.max(1, profile.users() / 100)) * 100));
+        long startNanos = System.nanoTime();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        progress.scheduleAtFixedRate(() -> log.info("Inserted {} payments ({}/s)", inserted.sum(),
+                        inserted.sum() * 1_000_000_000L / Math.max(1, System.nanoTime() - startNanos)),
+                5, 5, TimeUnit.SECONDS);
+
+        List<Future<?>> writers = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(profile.writers())) {
+            long perWriter = (profile.payments() + profile.writers() - 1) / profile.writers();
+            for (int writer = 0; writer < profile.writers(); writer++) {
+                long firstOrderId = 1 + writer * perWriter;
+                long lastOrderId = Math.min(profile.payments(), firstOrderId + perWriter - 1);
+                long seed = writer;
+                writers.add(pool.submit(() -> write(firstOrderId, lastOrderId, new SplittableRandom(seed))));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Dataset generation failed", e.getCause());
+        } finally {
+            progress.shutdownNow();
+        }
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos));
+        log.info("Inserted {} payments in {} s ({}/s); building indexes", inserted.sum(), seconds, inserted.sum() / seconds);
+        createIndexes();
+        log.info("Indexes built after {} s", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos));
+    }
+
+    private void write(long firstOrderId, long lastOrderId, RandomGenerator random) {
+        Map<String, List<Document>> batches = new HashMap<>();
+        for (long orderId = firstOrderId; orderId <= lastOrderId; orderId++) {
+            Instant timestamp = timestamp(random);
+            String collection = profile.partitioned()
+                    ? BASE_COLLECTION + "_" + PARTITION_SUFFIX.format(timestamp)
+                    : BASE_COLLECTION;
+            List<Document> batch = batches.computeIfAbsent(collection, name -> new ArrayList<>(profile.batchSize()));
+            batch.add(payment(orderId, timestamp, random));
+            if (batch.size() == profile.batchSize()) {
+                insert(collection, batch);
+                batch.clear();
+            }
+        }
+        batches.forEach((collection, batch) -> {
+            if (!batch.isEmpty()) {
+                insert(collection, batch);
+            }
+        });
+    }
+
+    private void insert(String collection, List<Document> batch) {
+        database.getCollection(collection)
+                .withWriteConcern(WriteConcern.W1)
+                .insertMany(batch, new InsertManyOptions().ordered(false).bypassDocumentValidation(true));
+        inserted.add(batch.size());
+    }
+
+    private Document payment(long orderId, Instant timestamp, RandomGenerator random) {
+        BigDecimal amount = BigDecimal.valueOf(Math.exp(3.4 + 1.1 * random.nextGaussian()))
+                .setScale(2, RoundingMode.HALF_UP)
+                .max(MIN_AMOUNT);
+        // Ids carry the payment time, as the partition router generates them
+        return new Document("_id", new ObjectId(Date.from(timestamp)))
+                .append("orderId", orderId)
+                .append("userId", (long) users.sample(random))
+                .append("status", status(Duration.between(timestamp, now), random).name())
+                .append("timestamp", Date.from(timestamp))
+                .append("paymentAmount", new Decimal128(amount))
+                .append("_class", Payment.class.getName());
+    }
+
+    private Instant timestamp(RandomGenerator random) {
+        LocalDate day = LocalDate.ofInstant(now, ZoneOffset.UTC).minusDays(random.nextInt(profile.days()));
+        double draw = random.nextDouble();
+        int hour = 0;
+        while (hour < hourlyCumulative.length - 1 && hourlyCumulative[hour] < draw) {
+            hour++;
+        }
+        Instant timestamp = day.atStartOfDay(ZoneOffset.UTC).toInstant()
+                .plusSeconds(hour * 3600L + random.nextInt(3600));
+        // Today's not-yet-reached hours move to yesterday
+        return timestamp.isAfter(now) ? timestamp.minus(Duration.ofDays(1)) : timestamp;
+    }
+
+    private static PaymentStatus status(Duration age, RandomGenerator random) {
+        double draw = random.nextDouble();
+        if (age.compareTo(PENDING_WINDOW) < 0) {
+            return draw < 0.50 ? PaymentStatus.PENDING : draw < 0.92 ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
+        }
+        if (draw < 0.83) {
+            return PaymentStatus.SUCCESS;
+        }
+        if (draw < 0.94) {
+            return PaymentStatus.FAILED;
+        }
+        return draw < 0.99 ? PaymentStatus.REFUNDED : PaymentStatus.PENDING;
+    }
+
+    // Mirrors 001-add-payment-indexes, which also runs for the base collection when the service starts
+    private void createIndexes() {
+        for (String name : paymentCollections(database)) {
+            MongoCollection<Document> collection = database.getCollection(name);
+            collection.createIndex(Indexes.ascending("orderId"), new IndexOptions().name("payment_order_id_unique_idx"));
+            collection.createIndex(Indexes.ascending("userId"), new IndexOptions().name("payment_user_id_idx"));
+            collection.createIndex(Indexes.compoundIndex(Indexes.ascending("status"), Indexes.descending("timestamp")),
+                    new IndexOptions().name("payment_status_timestamp_idx"));
+        }
+    }
+}
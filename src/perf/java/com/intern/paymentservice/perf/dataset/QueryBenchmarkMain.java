@@ -0,0 +1,306 @@
+package com.intern.paymentservice.perf.dataset;
+
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.observability.MongoQueryShape;
+import com.intern.paymentservice.perf.JwtIssuerStandIn;
+import com.intern.paymentservice.perf.LatencyRecorder;
+import com.intern.paymentservice.perf.LatencyStats;
+import com.intern.paymentservice.perf.PaymentServiceLauncher;
+import com.intern.paymentservice.perf.PerfEnvironment;
+import com.intern.paymentservice.perf.PerfProperties;
+import com.intern.paymentservice.perf.PerfReports;
+import com.intern.paymentservice.repository.PaymentRepository;
+import com.intern.paymentservice.repository.impl.PaymentRepositoryImpl;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Benchmarks every read method of {@link PaymentRepository} against a generated dataset: latency through the
+ * service's repository bean, plus what the server did for it according to {@code explain("executionStats")}
+ * (documents examined per document returned, keys examined, winning plan) and {@code $indexStats}.
+ * <p>
+ * Runs against a fresh Mongo container unless {@code -Dperf.mongo.uri} points at a server that already holds
+ * the dataset (see {@link DatasetGeneratorMain}); {@code -Dperf.query.iterations} (default 20) calls are
+ * measured per query after one warm-up call, bounded by {@code -Dperf.query.time-budget} (default PT1M).
+ * <p>
+ * The multi-year admin total runs twice on an unpartitioned dataset, through repositories built next to the
+ * service's one: serially and split into concurrently aggregated sub-ranges
+ * ({@code -Dperf.query.range-split.threads}, default 4, and {@code -Dperf.query.range-split.initial-chunk},
+ * default P30D). Generate the dataset with {@code -Dperf.dataset.days=1095} or more to have data across the range.
+ */
+@Slf4j
+public final class QueryBenchmarkMain {
+
+    private static final Map<String, String> SKIPPED = new LinkedHashMap<>();
+    private static final Duration MULTI_YEAR = Duration.ofDays(3 * 365);
+
+    static {
+        SKIPPED.put("save, deleteById, delete", "mutate the dataset");
+        SKIPPED.put("archiveSettledPayments", "moves payments to the archive; see the archival job's metrics");
+        SKIPPED.put("dropPartition", "drops data");
+        SKIPPED.put("forEachPayment", "full export scan; see the export job's metrics");
+        SKIPPED.put("findAll, count", "inherited unbounded scans the service does not use");
+    }
+
+    private QueryBenchmarkMain() {
+    }
+
+    record Sample(ObjectId id, long orderId, long userId) {
+    }
+
+    record BenchmarkedQuery(String name, IntUnaryOperator call) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        DatasetProfile dataset = DatasetProfile.fromSystemProperties();
+        int iterations = (int) PerfProperties.integer("perf.query.iterations", 20);
+        Duration timeBudget = PerfProperties.duration("perf.query.time-budget", "PT1M");
+
+        Map<String, Object> appProperties = new HashMap<>();
+        appProperties.put("payment.partitioning.enabled", dataset.partitioned());
+        // The service's own slow-command explains would compete with the measured queries
+        appProperties.put("payment.mongo.slow-command.explain", false);
+        appProperties.putAll(PerfProperties.appOverrides());
+        QueryCapture capture = new QueryCapture();
+
+        try (PerfEnvironment environment = PerfEnvironment.start(true, true);
+             JwtIssuerStandIn issuer = JwtIssuerStandIn.start()) {
+            ConnectionString uri = new ConnectionString(environment.mongoUri("payments"));
+            try (MongoClient client = MongoClients.create(uri)) {
+                MongoDatabase database = client.getDatabase(uri.getDatabase() != null ? uri.getDatabase() : "payments");
+                PaymentDatasetGenerator.ensureLoaded(database, dataset);
+
+                try (ConfigurableApplicationContext context = PaymentServiceLauncher.start(environment, issuer,
+                        PaymentServiceLauncher.freePort(), appProperties,
+                        app -> app.getBeanFactory().registerSingleton("queryCapture", capture))) {
+                    PaymentRepository repository = context.getBean(PaymentRepository.class);
+                    List<Sample> samples = samples(database, iterations);
+                    MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+                    PaymentRepositoryImpl serial = rangeSplitRepository(mongoTemplate, false);
+                    PaymentRepositoryImpl rangeSplit = rangeSplitRepository(mongoTemplate, true);
+
+                    List<QueryReport.Query> results = new ArrayList<>();
+                    try {
+                        for (BenchmarkedQuery query : queries(repository, samples, dataset)) {
+                            results.add(run(query, client, database, capture, iterations, timeBudget));
+                        }
+                        for (BenchmarkedQuery query : rangeSplitQueries(serial, rangeSplit, dataset)) {
+                            results.add(run(query, client, database, capture, iterations, timeBudget));
+                        }
+                    } finally {
+                        serial.destroy();
+                        rangeSplit.destroy();
+                    }
+                    logSummary(results);
+                    PerfReports.write("queries", new QueryReport(dataset,
+                            PaymentDatasetGenerator.existingPayments(database), results, SKIPPED));
+                }
+            }
+        }
+    }
+
+    private static List<BenchmarkedQuery> queries(PaymentRepository repository, List<Sample> samples,
+                                                  DatasetProfile dataset) {
+        long hotUser = 1;
+        long tailUser = Math.max(1, dataset.users() / 2);
+        List<PaymentStatus> pending = List.of(PaymentStatus.PENDING);
+        List<PaymentStatus> unsettled = List.of(PaymentStatus.PENDING, PaymentStatus.FAILED);
+        Instant now = Instant.now();
+        return List.of(
+                new BenchmarkedQuery("findById", i -> count(repository.findById(sample(samples, i).id().toHexString()).isPresent())),
+                new BenchmarkedQuery("findByIdAndUserId", i -> count(repository.findByIdAndUserId(
+                        sample(samples, i).id().toHexString(), sample(samples, i).userId()).isPresent())),
+                new BenchmarkedQuery("findByOrderId", i -> repository.findByOrderId(sample(samples, i).orderId()).size()),
+                new BenchmarkedQuery("findByOrderIdAndUserId", i -> repository.findByOrderIdAndUserId(
+                        sample(samples, i).orderId(), sample(samples, i).userId()).size()),
+                new BenchmarkedQuery("findByUserId [sampled user]", i -> repository.findByUserId(sample(samples, i).userId()).size()),
+                new BenchmarkedQuery("findByUserId [hot user]", i -> repository.findByUserId(hotUser).size()),
+                new BenchmarkedQuery("findByUserId [tail user]", i -> repository.findByUserId(tailUser).size()),
+                new BenchmarkedQuery("findByStatusIn [PENDING]", i -> repository.findByStatusIn(pending).size()),
+                new BenchmarkedQuery("findByStatusInAndUserId [PENDING, FAILED; hot user]",
+                        i -> repository.findByStatusInAndUserId(unsettled, hotUser).size()),
+                new BenchmarkedQuery("findByStatusInAndUserId [PENDING, FAILED; sampled user]",
+                        i -> repository.findByStatusInAndUserId(unsettled, sample(samples, i).userId()).size()),
+                new BenchmarkedQuery("findPaymentTotalForPeriod [1 day]", i -> count(
+                        repository.findPaymentTotalForPeriod(now.minus(Duration.ofDays(1)), now) != null)),
+                new BenchmarkedQuery("findPaymentTotalForPeriod [30 days]", i -> count(
+                        repository.findPaymentTotalForPeriod(now.minus(Duration.ofDays(30)), now) != null)),
+                new BenchmarkedQuery("findPaymentTotalForPeriodAndUserId [30 days; hot user]", i -> count(
+                        repository.findPaymentTotalForPeriodAndUserId(now.minus(Duration.ofDays(30)), now, hotUser) != null)),
+                new BenchmarkedQuery("findCollectionStats", i -> repository.findCollectionStats().size()),
+                new BenchmarkedQuery("findPartitionNames", i -> repository.findPartitionNames().size()));
+    }
+
+    /**
+     * The same multi-year total, serial and range-split. Sub-ranges are only planned over the unpartitioned
+     * collection; partitioned datasets are already summed per month collection.
+     */
+    private static List<BenchmarkedQuery> rangeSplitQueries(PaymentRepositoryImpl serial,
+                                                            PaymentRepositoryImpl rangeSplit,
+                                                            DatasetProfile dataset) {
+        if (dataset.partitioned()) {
+            SKIPPED.put("findPaymentTotalForPeriod [3 years; serial vs range split]",
+                    "range splitting applies to the unpartitioned collection only");
+            return List.of();
+        }
+        Instant now = Instant.now();
+        Instant start = now.minus(MULTI_YEAR);
+        return List.of(
+                new BenchmarkedQuery("findPaymentTotalForPeriod [3 years; serial]",
+                        i -> count(serial.findPaymentTotalForPeriod(start, now) != null)),
+                new BenchmarkedQuery("findPaymentTotalForPeriod [3 years; range split]",
+                        i -> count(rangeSplit.findPaymentTotalForPeriod(start, now) != null)));
+    }
+
+    private static PaymentRepositoryImpl rangeSplitRepository(MongoTemplate mongoTemplate, boolean parallel) {
+        return new PaymentRepositoryImpl(mongoTemplate, false, 1, false, Duration.ofDays(90), parallel,
+                (int) PerfProperties.integer("perf.query.range-split.threads", 4),
+                PerfProperties.duration("perf.query.range-split.initial-chunk", "P30D"),
+                Duration.ofSeconds(2), Duration.ofSeconds(10));
+    }
+
+    private static QueryReport.Query run(BenchmarkedQuery query, MongoClient client, MongoDatabase database,
+                                         QueryCapture capture, int iterations, Duration timeBudget) {
+        log.info("Benchmarking {}", query.name());
+        capture.arm();
+        query.call().applyAsInt(0);
+        List<QueryCapture.Captured> commands = capture.disarm();
+
+        Map<String, Long> indexOpsBefore = indexOps(database);
+        LatencyRecorder recorder = new LatencyRecorder();
+        long returned = 0;
+        int calls = 0;
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + timeBudget.toNanos();
+        while (calls < iterations && (calls == 0 || System.nanoTime() < deadline)) {
+            long callStart = System.nanoTime();
+            boolean success = true;
+            try {
+                returned += query.call().applyAsInt(calls);
+            } catch (RuntimeException e) {
+                success = false;
+                log.warn("{} failed: {}", query.name(), e.toString());
+            }
+            recorder.record(query.name(), callStart, success);
+            calls++;
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        Map<String, Long> indexAccesses = delta(indexOpsBefore, indexOps(database));
+
+        long nReturned = 0;
+        long docsExamined = 0;
+        long keysExamined = 0;
+        Set<String> plans = new LinkedHashSet<>();
+        for (QueryCapture.Captured command : commands) {
+            Document explain = client.getDatabase(command.database())
+                    .runCommand(MongoQueryShape.explainCommand(command.command(), "executionStats"));
+            Document stats = executionStats(explain);
+            nReturned += number(stats, "nReturned");
+            docsExamined += number(stats, "totalDocsExamined");
+            keysExamined += number(stats, "totalKeysExamined");
+            plans.add(MongoQueryShape.planSummary(explain));
+        }
+
+        LatencyStats latency = recorder.snapshot(seconds).get(query.name());
+        return new QueryReport.Query(query.name(), latency, (double) returned / calls, commands.size(),
+                nReturned, docsExamined, keysExamined,
+                nReturned > 0 ? (double) docsExamined / nReturned : docsExamined,
+                List.copyOf(plans), indexAccesses);
+    }
+
+    /**
+     * Existing payments to look up, drawn from every collection so that partitioned datasets are covered.
+     */
+    private static List<Sample> samples(MongoDatabase database, int size) {
+        List<Sample> samples = new ArrayList<>();
+        for (String collection : PaymentDatasetGenerator.paymentCollections(database)) {
+            database.getCollection(collection)
+                    .aggregate(List.of(Aggregates.sample(size), Aggregates.project(Projections.include("orderId", "userId"))))
+                    .forEach(payment -> samples.add(new Sample(payment.getObjectId("_id"),
+                            payment.getLong("orderId"), payment.getLong("userId"))));
+        }
+        if (samples.isEmpty()) {
+            throw new IllegalStateException("No payments to sample in " + database.getName());
+        }
+        Collections.shuffle(samples);
+        return samples;
+    }
+
+    private static Sample sample(List<Sample> samples, int iteration) {
+        return samples.get(iteration % samples.size());
+    }
+
+    private static int count(boolean found) {
+        return found ? 1 : 0;
+    }
+
+    // Aggregations report the stats of the query layer under the first stage's $cursor unless SBE ran the pipeline
+    private static Document executionStats(Document explain) {
+        Document stats = explain.get("executionStats", Document.class);
+        if (stats == null) {
+            List<Document> stages = explain.getList("stages", Document.class);
+            Document cursor = stages == null || stages.isEmpty() ? null : stages.getFirst().get("$cursor", Document.class);
+            stats = cursor == null ? null : cursor.get("executionStats", Document.class);
+        }
+        return stats != null ? stats : new Document();
+    }
+
+    private static long number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static Map<String, Long> indexOps(MongoDatabase database) {
+        Map<String, Long> ops = new TreeMap<>();
+        for (String collection : PaymentDatasetGenerator.paymentCollections(database)) {
+            database.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))
+                    .forEach(index -> ops.put(collection + "." + index.getString("name"),
+                            number(index.get("accesses", Document.class), "ops")));
+        }
+        return ops;
+    }
+
+    private static Map<String, Long> delta(Map<String, Long> before, Map<String, Long> after) {
+        Map<String, Long> delta = new TreeMap<>();
+        after.forEach((index, ops) -> {
+            long used = ops - before.getOrDefault(index, 0L);
+            if (used > 0) {
+                delta.put(index, used);
+            }
+        });
+        return delta;
+    }
+
+    private static void logSummary(List<QueryReport.Query> queries) {
+        log.info(String.format("%-56s %9s %9s %11s %13s  %s",
+                "query", "p50 ms", "p99 ms", "returned", "examined/ret", "plan"));
+        for (QueryReport.Query query : queries) {
+            log.info(String.format("%-56s %9.2f %9.2f %11.1f %13.1f  %s",
+                    query.name(), query.latency().p50(), query.latency().p99(), query.returnedPerCall(),
+                    query.docsExaminedPerReturned(), String.join(" | ", query.plans())));
+        }
+    }
+}
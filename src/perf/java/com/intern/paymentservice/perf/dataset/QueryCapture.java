@@ -0,0 +1,56 @@
+package com.intern.paymentservice.perf.dataset;
+
+import com.intern.paymentservice.observability.RepositoryMethodContext;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the query commands the service's Mongo client sends on behalf of a repository method while armed,
+ * including those sent from fan-out and aggregation threads, so they can be explained afterwards.
+ */
+final class QueryCapture implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+
+    private final List<Captured> captured = new ArrayList<>();
+    private volatile boolean armed;
+
+    record Captured(String database, String commandName, BsonDocument command) {
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    void arm() {
+        synchronized (captured) {
+            captured.clear();
+        }
+        armed = true;
+    }
+
+    List<Captured> disarm() {
+        armed = false;
+        synchronized (captured) {
+            return List.copyOf(captured);
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (armed && QUERY_COMMANDS.contains(event.getCommandName())
+                && !RepositoryMethodContext.NONE.equals(RepositoryMethodContext.current())) {
+            synchronized (captured) {
+                captured.add(new Captured(event.getDatabaseName(), event.getCommandName(), event.getCommand().clone()));
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.intern.paymentservice.perf.dataset;
+
+import com.intern.paymentservice.perf.LatencyStats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a query benchmark run as written to {@code target/perf/queries-<timestamp>.json}.
+ *
+ * @param payments existing payments in the benchmarked database
+ * @param queries  one entry per benchmarked repository call
+ * @param skipped  repository methods that were not benchmarked, with the reason
+ */
+record QueryReport(DatasetProfile dataset, long payments, List<Query> queries, Map<String, String> skipped) {
+
+    /**
+     * @param latency                 latency of the repository call as seen by the service
+     * @param returnedPerCall         average payments (or results) returned per call
+     * @param commands                Mongo commands one call sent; more than one when partitions are fanned out
+     * @param returned                documents returned by those commands, from {@code executionStats}
+     * @param docsExamined            documents the server fetched
+     * @param keysExamined            index keys the server scanned
+     * @param docsExaminedPerReturned ideally 1; much higher means the filter is not covered by an index
+     * @param plans                   distinct winning plans, e.g. {@code FETCH <- IXSCAN(payment_user_id_idx)}
+     * @param indexAccesses           {@code $indexStats} operations per collection and index during the run
+     */
+    record Query(String name, LatencyStats latency, double returnedPerCall, int commands, long returned,
+                 long docsExamined, long keysExamined, double docsExaminedPerReturned, List<String> plans,
+                 Map<String, Long> indexAccesses) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.intern.paymentservice.perf.dataset;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws ranks {@code 1..n} with probability proportional to {@code 1 / rank^exponent} by binary search over
+ * a precomputed cumulative distribution ({@code 8 * n} bytes, shared by all threads).
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    int sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // A miss returns -(insertion point) - 1; the insertion point is the first rank whose share covers the draw
+        int rank = (index >= 0 ? index : -index - 1) + 1;
+        return Math.min(rank, cumulative.length);
+    }
+
+    /**
+     * Share of all draws that fall on ranks {@code 1..rank}.
+     */
+    double share(int rank) {
+        return cumulative[Math.clamp(rank, 1, cumulative.length) - 1];
+    }
+}
@@ -0,0 +1,134 @@
+package com.intern.paymentservice.perf.load;
+
+import com.intern.paymentservice.perf.ConsumerLagSampler;
+import com.intern.paymentservice.perf.CreateOrderPublisher;
+import com.intern.paymentservice.perf.JwtIssuerStandIn;
+import com.intern.paymentservice.perf.LatencyRecorder;
+import com.intern.paymentservice.perf.LatencyStats;
+import com.intern.paymentservice.perf.PaymentServiceLauncher;
+import com.intern.paymentservice.perf.PerfEnvironment;
+import com.intern.paymentservice.perf.PerfProperties;
+import com.intern.paymentservice.perf.PerfReports;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares platform and virtual request threads under a growing number of concurrent clients.
+ * <p>
+ * For each thread model the service is started once, seeded on the first start, and then driven by
+ * {@code -Dperf.sweep.clients} (default {@code 1000,2500,5000,10000}) closed-loop clients in turn: each client
+ * sends the {@link RestScenario} mix back to back for {@code -Dperf.sweep.warmup} (default PT10S, discarded) and
+ * {@code -Dperf.sweep.step} (default PT30S). Throughput and p99 per step are logged side by side and written to
+ * {@code target/perf/client-sweep-<timestamp>.json}.
+ * <p>
+ * Unlike {@link LoadTestMain} the offered load follows the service: latencies are measured from the actual
+ * send. Tomcat accepts 8192 connections by default; raise it with
+ * {@code -Dperf.app.server.tomcat.max-connections=20000} and the open file limit of the shell for the 10k step,
+ * or the step measures connection refusals. Run it with
+ * {@code mvn -Pperf test-compile exec:java -Dperf.main=com.intern.paymentservice.perf.load.ClientSweepMain}.
+ */
+@Slf4j
+public final class ClientSweepMain {
+
+    private static final String[] THREAD_MODELS = {"platform", "virtual"};
+
+    private ClientSweepMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        int[] clientCounts = Arrays.stream(PerfProperties.text("perf.sweep.clients", "1000,2500,5000,10000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration warmup = PerfProperties.duration("perf.sweep.warmup", "PT10S");
+        Duration step = PerfProperties.duration("perf.sweep.step", "PT30S");
+        log.info("Starting client sweep over {} clients", Arrays.toString(clientCounts));
+
+        List<ClientSweepReport.Step> steps = new ArrayList<>();
+        try (PerfEnvironment environment = PerfEnvironment.start(true, true);
+             JwtIssuerStandIn issuer = JwtIssuerStandIn.start()) {
+            String bootstrapServers = environment.kafkaBootstrapServers();
+            CreateOrderPublisher.createTopic(bootstrapServers, profile.partitions());
+            AtomicLong orderIds = new AtomicLong();
+
+            for (String threads : THREAD_MODELS) {
+                Map<String, Object> appProperties = new HashMap<>();
+                appProperties.put("spring.threads.virtual.enabled", "virtual".equals(threads));
+                appProperties.putAll(PerfProperties.appOverrides());
+                int port = PaymentServiceLauncher.freePort();
+
+                try (ConfigurableApplicationContext ignored =
+                             PaymentServiceLauncher.start(environment, issuer, port, appProperties);
+                     CreateOrderPublisher publisher = new CreateOrderPublisher(bootstrapServers);
+                     ConsumerLagSampler lag = new ConsumerLagSampler(
+                             bootstrapServers, CreateOrderPublisher.CONSUMER_GROUP, CreateOrderPublisher.TOPIC)) {
+                    if (orderIds.get() == 0) {
+                        LoadTestMain.seed(profile, publisher, lag, orderIds);
+                    }
+                    for (int clients : clientCounts) {
+                        steps.add(runStep(threads, clients, "http://localhost:" + port, issuer, profile, orderIds,
+                                warmup, step));
+                    }
+                }
+            }
+        }
+
+        logComparison(clientCounts, steps);
+        PerfReports.write("client-sweep", new ClientSweepReport(profile, warmup, step, steps));
+    }
+
+    private static ClientSweepReport.Step runStep(String threads, int clients, String baseUrl,
+                                                  JwtIssuerStandIn issuer, LoadProfile profile, AtomicLong orderIds,
+                                                  Duration warmup, Duration step) throws InterruptedException {
+        log.info("{} threads, {} clients", threads, clients);
+        LatencyRecorder recorder = new LatencyRecorder();
+        RestScenario rest = new RestScenario(baseUrl, issuer, profile, recorder, orderIds);
+        long end = System.nanoTime() + warmup.plus(step).toNanos();
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                clientThreads.execute(() -> {
+                    while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                        rest.execute(System.nanoTime());
+                    }
+                });
+            }
+            Thread.sleep(warmup.toMillis());
+            recorder.reset();
+        }
+
+        double seconds = step.toMillis() / 1000.0;
+        Map<String, LatencyStats> latencies = recorder.snapshot(seconds);
+        return new ClientSweepReport.Step(threads, clients, recorder.combined(seconds), latencies);
+    }
+
+    private static void logComparison(int[] clientCounts, List<ClientSweepReport.Step> steps) {
+        log.info(String.format("%9s %14s %14s %14s %14s %9s %9s",
+                "clients", "platform ops/s", "virtual ops/s", "platform p99", "virtual p99", "pf errors", "vt errors"));
+        for (int clients : clientCounts) {
+            LatencyStats platform = overall(steps, "platform", clients);
+            LatencyStats virtual = overall(steps, "virtual", clients);
+            log.info(String.format("%9d %14.1f %14.1f %11.2f ms %11.2f ms %9d %9d",
+                    clients, platform.throughputPerSecond(), virtual.throughputPerSecond(),
+                    platform.p99(), virtual.p99(), platform.errors(), virtual.errors()));
+        }
+    }
+
+    private static LatencyStats overall(List<ClientSweepReport.Step> steps, String threads, int clients) {
+        return steps.stream()
+                .filter(step -> step.threads().equals(threads) && step.clients() == clients)
+                .findFirst()
+                .orElseThrow()
+                .overall();
+    }
+}
@@ -0,0 +1,25 @@
+package com.intern.paymentservice.perf.load;
+
+import com.intern.paymentservice.perf.LatencyStats;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a client sweep as written to {@code target/perf/client-sweep-<timestamp>.json}.
+ *
+ * @param profile request mix, users and seed size of the run; its rates do not apply
+ * @param steps   one per thread model and client count, in the order they ran
+ */
+record ClientSweepReport(LoadProfile profile, Duration warmup, Duration step, List<Step> steps) {
+
+    /**
+     * @param threads    {@code platform} or {@code virtual}: how the service handled requests
+     * @param clients    concurrent clients, each sending its next request as soon as the previous one returned
+     * @param overall    all requests of the step together
+     * @param latencies  per operation and role
+     */
+    record Step(String threads, int clients, LatencyStats overall, Map<String, LatencyStats> latencies) {
+    }
+}
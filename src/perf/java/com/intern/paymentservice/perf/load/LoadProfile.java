@@ -0,0 +1,40 @@
+package com.intern.paymentservice.perf.load;
+
+import com.intern.paymentservice.perf.PerfProperties;
+
+import java.time.Duration;
+
+/**
+ * Shape of a load run.
+ *
+ * @param warmup            load applied before measuring; its latencies are discarded
+ * @param duration          measured load period
+ * @param httpRate          REST requests started per second
+ * @param kafkaRate         CREATE_ORDER records published per second
+ * @param adminShare        share of REST requests made with an admin token
+ * @param writeShare        share of REST requests that create or update payments
+ * @param users             distinct user ids, each with its own token
+ * @param seedPayments      CREATE_ORDER records consumed before the run so reads hit data
+ * @param partitions        partitions of CREATE_ORDER
+ * @param maxInFlight       operations the generator keeps in flight before it holds further ones back
+ * @param virtualThreads    whether the service handles requests and records on virtual threads
+ */
+record LoadProfile(Duration warmup, Duration duration, double httpRate, double kafkaRate, double adminShare,
+                   double writeShare, int users, int seedPayments, int partitions, int maxInFlight,
+                   boolean virtualThreads) {
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                PerfProperties.duration("perf.warmup", "PT30S"),
+                PerfProperties.duration("perf.duration", "PT2M"),
+                PerfProperties.decimal("perf.http.rate", 200),
+                PerfProperties.decimal("perf.kafka.rate", 200),
+                PerfProperties.decimal("perf.admin-share", 0.1),
+                PerfProperties.decimal("perf.write-share", 0.2),
+                (int) PerfProperties.integer("perf.users", 10_000),
+                (int) PerfProperties.integer("perf.seed-payments", 10_000),
+                (int) PerfProperties.integer("perf.kafka.partitions", 6),
+                (int) PerfProperties.integer("perf.max-in-flight", 5_000),
+                PerfProperties.flag("perf.virtual-threads", false));
+    }
+}
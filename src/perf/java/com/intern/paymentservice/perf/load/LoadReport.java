@@ -0,0 +1,20 @@
+package com.intern.paymentservice.perf.load;
+
+import com.intern.paymentservice.perf.ConsumerLagSampler;
+import com.intern.paymentservice.perf.LatencyStats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a load run as written to {@code target/perf/load-<timestamp>.json}.
+ *
+ * @param latencies      coordinated-omission-corrected latency per operation and role over the measured period
+ * @param consumerLag    CREATE_ORDER lag of the payment service, sampled every second from the start of the warm-up
+ * @param delayedHttp    REST requests started late because the generator's in-flight cap was reached; their
+ *                       latencies count from the scheduled start
+ * @param delayedKafka   records published late for the same reason
+ */
+record LoadReport(LoadProfile profile, Map<String, LatencyStats> latencies,
+                  List<ConsumerLagSampler.Sample> consumerLag, long delayedHttp, long delayedKafka) {
+}
@@ -0,0 +1,118 @@
+package com.intern.paymentservice.perf.load;
+
+import com.intern.paymentservice.perf.ConsumerLagSampler;
+import com.intern.paymentservice.perf.CreateOrderPublisher;
+import com.intern.paymentservice.perf.JwtIssuerStandIn;
+import com.intern.paymentservice.perf.LatencyRecorder;
+import com.intern.paymentservice.perf.LatencyStats;
+import com.intern.paymentservice.perf.OpenModelLoad;
+import com.intern.paymentservice.perf.PaymentServiceLauncher;
+import com.intern.paymentservice.perf.PerfEnvironment;
+import com.intern.paymentservice.perf.PerfProperties;
+import com.intern.paymentservice.perf.PerfReports;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * End-to-end load run: starts Mongo, Kafka, a JWT issuer stand-in and the service, seeds payments through
+ * CREATE_ORDER, then drives the REST API and CREATE_ORDER at the configured rates and reports latencies,
+ * throughput and consumer lag. See {@link LoadProfile} for the {@code -Dperf.*} settings.
+ */
+@Slf4j
+public final class LoadTestMain {
+
+    private static final Duration SEED_TIMEOUT = Duration.ofMinutes(10);
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        log.info("Starting load run {}", profile);
+
+        Map<String, Object> appProperties = new HashMap<>();
+        appProperties.put("spring.threads.virtual.enabled", profile.virtualThreads());
+        appProperties.putAll(PerfProperties.appOverrides());
+
+        try (PerfEnvironment environment = PerfEnvironment.start(true, true);
+             JwtIssuerStandIn issuer = JwtIssuerStandIn.start()) {
+            String bootstrapServers = environment.kafkaBootstrapServers();
+            CreateOrderPublisher.createTopic(bootstrapServers, profile.partitions());
+            int port = PaymentServiceLauncher.freePort();
+
+            try (ConfigurableApplicationContext ignored =
+                         PaymentServiceLauncher.start(environment, issuer, port, appProperties);
+                 CreateOrderPublisher publisher = new CreateOrderPublisher(bootstrapServers);
+                 ConsumerLagSampler lag = new ConsumerLagSampler(
+                         bootstrapServers, CreateOrderPublisher.CONSUMER_GROUP, CreateOrderPublisher.TOPIC)) {
+                AtomicLong orderIds = new AtomicLong();
+                seed(profile, publisher, lag, orderIds);
+
+                LatencyRecorder recorder = new LatencyRecorder();
+                RestScenario rest = new RestScenario("http://localhost:" + port, issuer, profile, recorder, orderIds);
+                OpenModelLoad httpLoad = new OpenModelLoad("http", profile.httpRate(), profile.maxInFlight());
+                OpenModelLoad kafkaLoad = new OpenModelLoad("kafka", profile.kafkaRate(), profile.maxInFlight());
+                Duration total = profile.warmup().plus(profile.duration());
+
+                lag.start();
+                ScheduledExecutorService warmupEnd = Executors.newSingleThreadScheduledExecutor();
+                warmupEnd.schedule(() -> {
+                    recorder.reset();
+                    log.info("Warm-up finished, measuring for {}", profile.duration());
+                }, profile.warmup().toMillis(), TimeUnit.MILLISECONDS);
+
+                CompletableFuture<Void> kafka = CompletableFuture.runAsync(() -> run(kafkaLoad, total, scheduled ->
+                        publisher.publish(orderIds.incrementAndGet(), 2 + ThreadLocalRandom.current().nextInt(profile.users()),
+                                failure -> recorder.record("kafka CREATE_ORDER ack", scheduled, failure == null))));
+                run(httpLoad, total, rest::execute);
+                kafka.join();
+                warmupEnd.shutdown();
+
+                Map<String, LatencyStats> latencies = recorder.snapshot(profile.duration().toMillis() / 1000.0);
+                PerfReports.logLatencies(latencies);
+                PerfReports.write("load", new LoadReport(profile, latencies, lag.samples(),
+                        httpLoad.delayed(), kafkaLoad.delayed()));
+            }
+        }
+    }
+
+    static void seed(LoadProfile profile, CreateOrderPublisher publisher, ConsumerLagSampler lag,
+                             AtomicLong orderIds) throws InterruptedException, TimeoutException {
+        log.info("Seeding {} payments through {}", profile.seedPayments(), CreateOrderPublisher.TOPIC);
+        for (int i = 0; i < profile.seedPayments(); i++) {
+            publisher.publish(orderIds.incrementAndGet(), 2 + ThreadLocalRandom.current().nextInt(profile.users()),
+                    failure -> {
+                    });
+        }
+        publisher.flush();
+
+        long deadline = System.nanoTime() + SEED_TIMEOUT.toNanos();
+        while (lag.lag() > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("Seed payments were not consumed within " + SEED_TIMEOUT);
+            }
+            Thread.sleep(500);
+        }
+        log.info("Seeding finished");
+    }
+
+    private static void run(OpenModelLoad load, Duration duration, LongConsumer operation) {
+        try {
+            load.run(duration, operation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
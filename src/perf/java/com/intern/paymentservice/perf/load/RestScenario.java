@@ -0,0 +1,130 @@
+package com.intern.paymentservice.perf.load;
+
+import com.intern.paymentservice.perf.JwtIssuerStandIn;
+import com.intern.paymentservice.perf.LatencyRecorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One REST request of the user/admin, read/write mix, recorded under {@code "<role> <method> <path>"}.
+ * <p>
+ * Users work on their own payments (create, list by user or order, personal total); admins additionally list
+ * by status, look at other users and settle payments created earlier in the run.
+ */
+final class RestScenario {
+
+    private static final long ADMIN_INTERNAL_ID = 1L;
+    private static final Pattern PAYMENT_ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final JwtIssuerStandIn issuer;
+    private final LoadProfile profile;
+    private final LatencyRecorder recorder;
+    private final AtomicLong orderIds;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<Long, String> userTokens = new ConcurrentHashMap<>();
+    private final String adminToken;
+    private final AtomicReferenceArray<String> recentPayments = new AtomicReferenceArray<>(4096);
+    private final AtomicLong recentCursor = new AtomicLong();
+
+    RestScenario(String baseUrl, JwtIssuerStandIn issuer, LoadProfile profile, LatencyRecorder recorder,
+                 AtomicLong orderIds) {
+        this.baseUrl = baseUrl;
+        this.issuer = issuer;
+        this.profile = profile;
+        this.recorder = recorder;
+        this.orderIds = orderIds;
+        this.adminToken = issuer.mint(ADMIN_INTERNAL_ID, "admin");
+    }
+
+    void execute(long scheduledStartNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean admin = random.nextDouble() < profile.adminShare();
+        boolean write = random.nextDouble() < profile.writeShare();
+        // User ids start above the admin's internal id
+        long userId = 2 + random.nextInt(profile.users());
+        String token = admin ? adminToken : userTokens.computeIfAbsent(userId, id -> issuer.mint(id, "user"));
+
+        Call call = write ? write(admin, userId, random) : read(admin, userId, random);
+        boolean success;
+        try {
+            HttpResponse<String> response = client.send(call.request()
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(REQUEST_TIMEOUT)
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            success = response.statusCode() / 100 == 2;
+            if (success && call.created()) {
+                remember(response.body());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
+        } catch (Exception e) {
+            success = false;
+        }
+        recorder.record((admin ? "admin " : "user ") + call.operation(), scheduledStartNanos, success);
+    }
+
+    private Call write(boolean admin, long userId, ThreadLocalRandom random) {
+        String settle = admin && random.nextInt(4) == 0 ? recentPayments.get(random.nextInt(recentPayments.length())) : null;
+        if (settle != null) {
+            String status = random.nextBoolean() ? "SUCCESS" : "FAILED";
+            return new Call("PATCH /api/payments/{id}/status", HttpRequest.newBuilder(uri("/api/payments/" + settle + "/status"))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"status\":\"" + status + "\"}")), false);
+        }
+        String body = "{\"orderId\":" + orderIds.incrementAndGet() + ",\"userId\":" + userId
+                + ",\"paymentAmount\":" + random.nextInt(1, 100_000) / 100.0 + "}";
+        return new Call("POST /api/payments", HttpRequest.newBuilder(uri("/api/payments"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)), true);
+    }
+
+    private Call read(boolean admin, long userId, ThreadLocalRandom random) {
+        int pick = random.nextInt(100);
+        if (admin && pick < 30) {
+            return get("GET /api/payments/by-status", "/api/payments/by-status?statuses=PENDING");
+        }
+        if (pick < 60) {
+            return get("GET /api/payments/by-user", "/api/payments/by-user?userId=" + userId);
+        }
+        if (pick < 85) {
+            long orderId = 1 + random.nextLong(Math.max(1, orderIds.get()));
+            return get("GET /api/payments/by-order", "/api/payments/by-order?orderId=" + orderId);
+        }
+        Instant end = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        return get("GET /api/payments/total", "/api/payments/total?start=" + end.minus(30, ChronoUnit.DAYS) + "&end=" + end);
+    }
+
+    private Call get(String operation, String pathAndQuery) {
+        return new Call(operation, HttpRequest.newBuilder(uri(pathAndQuery)).GET(), false);
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create(baseUrl + pathAndQuery);
+    }
+
+    private void remember(String body) {
+        Matcher matcher = PAYMENT_ID.matcher(body);
+        if (matcher.find()) {
+            recentPayments.set((int) (recentCursor.getAndIncrement() % recentPayments.length()), matcher.group(1));
+        }
+    }
+
+    private record Call(String operation, HttpRequest.Builder request, boolean created) {
+    }
+}
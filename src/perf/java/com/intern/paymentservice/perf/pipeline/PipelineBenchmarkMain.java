@@ -0,0 +1,167 @@
+package com.intern.paymentservice.perf.pipeline;
+
+import com.intern.paymentservice.perf.ConsumerLagSampler;
+import com.intern.paymentservice.perf.CreateOrderPublisher;
+import com.intern.paymentservice.perf.JwtIssuerStandIn;
+import com.intern.paymentservice.perf.LatencyStats;
+import com.intern.paymentservice.perf.PaymentServiceLauncher;
+import com.intern.paymentservice.perf.PerfEnvironment;
+import com.intern.paymentservice.perf.PerfReports;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kafka pipeline throughput run: publishes {@code perf.pipeline.records} CREATE_ORDER records (a share of them
+ * invalid) to an idle Kafka, then starts the service and measures how fast it drains them into Mongo and
+ * UPDATE_PAYMENT, with per-payment latencies and the dead-letter rate. See {@link PipelineProfile} for the
+ * {@code -Dperf.*} settings; listener concurrency, poll size, consumer mode and decision provider are the usual
+ * knobs to compare.
+ */
+@Slf4j
+public final class PipelineBenchmarkMain {
+
+    // spring.kafka.dead-letter-topic is ${spring.application.name}-DLT
+    private static final String DEAD_LETTER_TOPIC = "PaymentService-DLT";
+    private static final Duration QUIET_PERIOD = Duration.ofSeconds(15);
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+
+    private PipelineBenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        PipelineProfile profile = PipelineProfile.fromSystemProperties();
+        log.info("Starting pipeline run {}", profile);
+        ApplicationContextInitializer<ConfigurableApplicationContext> decisionProvider = context -> {
+            if (PipelineProfile.STUB_DECISION.equals(profile.decision())) {
+                context.getBeanFactory().addBeanPostProcessor(new StubDecisionProvider(profile.decisionLatency()));
+            }
+        };
+
+        try (PerfEnvironment environment = PerfEnvironment.start(true, true);
+             JwtIssuerStandIn issuer = JwtIssuerStandIn.start()) {
+            String bootstrapServers = environment.kafkaBootstrapServers();
+            // The dead-letter recoverer keeps the partition of the failed record, so all three need the same count
+            CreateOrderPublisher.createTopic(bootstrapServers, profile.partitions());
+            CreateOrderPublisher.createTopic(bootstrapServers, PaymentProducer.UPDATE_PAYMENT_TOPIC, profile.partitions());
+            CreateOrderPublisher.createTopic(bootstrapServers, DEAD_LETTER_TOPIC, profile.partitions());
+            int invalid = preload(bootstrapServers, profile);
+
+            try (PipelineCollector collector = new PipelineCollector(bootstrapServers, DEAD_LETTER_TOPIC);
+                 ConsumerLagSampler lag = new ConsumerLagSampler(
+                         bootstrapServers, CreateOrderPublisher.CONSUMER_GROUP, CreateOrderPublisher.TOPIC)) {
+                lag.start();
+                try (ConfigurableApplicationContext context = PaymentServiceLauncher.start(environment, issuer,
+                        PaymentServiceLauncher.freePort(), profile.appProperties(), decisionProvider)) {
+                    boolean complete = awaitDrain(profile, invalid, collector, lag);
+
+                    PipelineReport.Drain drain = collector.drain(profile.records(), invalid);
+                    Map<String, LatencyStats> latencies = new LinkedHashMap<>();
+                    latencies.put("settled after drain start", LatencyStats.of(
+                            collector.settledAfterDrainStart(), 0, drain.seconds()));
+                    latencies.put("pending to settled", LatencyStats.of(
+                            collector.pendingToSettled(), 0, drain.seconds()));
+                    PipelineReport.Listener listener = listener(context.getBean(MeterRegistry.class));
+
+                    log.info("Drained {} records in {} s: {} records/s, {} payments settled/s, dead-letter rate {}",
+                            drain.settled() + drain.deadLettered(), String.format("%.1f", drain.seconds()),
+                            String.format("%.0f", drain.recordsPerSecond()),
+                            String.format("%.0f", drain.settledPerSecond()),
+                            String.format("%.4f", drain.deadLetterRate()));
+                    log.info("Listener invocations {}, mean {} ms, max {} ms", listener.count(),
+                            String.format("%.2f", listener.meanMillis()), String.format("%.2f", listener.maxMillis()));
+                    PerfReports.logLatencies(latencies);
+                    PerfReports.write("pipeline", new PipelineReport(profile, complete, drain, latencies, listener,
+                            lag.samples()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the run's records before the service starts, so it finds a full backlog; returns how many are invalid.
+     */
+    private static int preload(String bootstrapServers, PipelineProfile profile) {
+        AtomicLong failures = new AtomicLong();
+        int invalid = 0;
+        long startNanos = System.nanoTime();
+        try (CreateOrderPublisher publisher = new CreateOrderPublisher(bootstrapServers)) {
+            for (long orderId = 1; orderId <= profile.records(); orderId++) {
+                if (ThreadLocalRandom.current().nextDouble() < profile.invalidShare()) {
+                    publisher.publishInvalid(orderId, failure -> countFailure(failure, failures));
+                    invalid++;
+                } else {
+                    publisher.publish(orderId, 1 + ThreadLocalRandom.current().nextInt(10_000),
+                            failure -> countFailure(failure, failures));
+                }
+            }
+            publisher.flush();
+        }
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " CREATE_ORDER records could not be published");
+        }
+        log.info("Published {} CREATE_ORDER records ({} invalid) in {} ms", profile.records(), invalid,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return invalid;
+    }
+
+    private static void countFailure(Exception failure, AtomicLong failures) {
+        if (failure != null) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private static boolean awaitDrain(PipelineProfile profile, int invalid, PipelineCollector collector,
+                                      ConsumerLagSampler lag) throws InterruptedException {
+        long valid = profile.records() - invalid;
+        long deadline = System.nanoTime() + profile.timeout().toNanos();
+        long nextProgress = System.nanoTime() + PROGRESS_INTERVAL.toNanos();
+        while (true) {
+            long settled = collector.settled();
+            long deadLettered = collector.deadLettered();
+            if (settled >= valid && deadLettered >= invalid) {
+                return true;
+            }
+            if (System.nanoTime() > deadline) {
+                log.warn("Timed out after {} with {}/{} settled and {}/{} dead-lettered",
+                        profile.timeout(), settled, valid, deadLettered, invalid);
+                return false;
+            }
+            // Records that failed for other reasons leave the counts short for good once the backlog is consumed
+            if (settled > 0 && lag.lag() == 0 && collector.idleFor().compareTo(QUIET_PERIOD) > 0) {
+                log.warn("Backlog consumed with {}/{} settled and {}/{} dead-lettered", settled, valid,
+                        deadLettered, invalid);
+                return false;
+            }
+            if (System.nanoTime() > nextProgress) {
+                log.info("{}/{} settled, {}/{} dead-lettered", settled, valid, deadLettered, invalid);
+                nextProgress = System.nanoTime() + PROGRESS_INTERVAL.toNanos();
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    private static PipelineReport.Listener listener(MeterRegistry registry) {
+        Collection<Timer> timers = registry.find("spring.kafka.listener").timers();
+        long count = 0;
+        double totalMillis = 0;
+        double maxMillis = 0;
+        for (Timer timer : timers) {
+            count += timer.count();
+            totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+            maxMillis = Math.max(maxMillis, timer.max(TimeUnit.MILLISECONDS));
+        }
+        return new PipelineReport.Listener(count, count > 0 ? totalMillis / count : 0, maxMillis);
+    }
+}
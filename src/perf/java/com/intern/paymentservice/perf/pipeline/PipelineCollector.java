@@ -0,0 +1,147 @@
+package com.intern.paymentservice.perf.pipeline;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import com.intern.paymentservice.service.broker.codec.PaymentEventDeserializer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows UPDATE_PAYMENT and the dead-letter topic from the beginning and tracks when each order settled.
+ * <p>
+ * All times are the broker timestamps the service's producer assigned, so they share one clock: the drain
+ * runs from the first UPDATE_PAYMENT record to the last settled one, which leaves the service's start-up out.
+ */
+@Slf4j
+final class PipelineCollector implements AutoCloseable {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+    private final String deadLetterTopic;
+    private final Thread thread;
+    private final Set<Long> settled = new HashSet<>();
+    private final Map<Long, Long> pendingAt = new HashMap<>();
+    private final Histogram settledAfterDrainStart = new Histogram(MAX_LATENCY_NANOS, 3);
+    private final Histogram pendingToSettled = new Histogram(MAX_LATENCY_NANOS, 3);
+    private long events;
+    private long deadLettered;
+    private long firstEventAt = -1;
+    private long lastSettledAt = -1;
+    private volatile long lastActivityNanos = System.nanoTime();
+    private volatile boolean running = true;
+
+    PipelineCollector(String bootstrapServers, String deadLetterTopic) {
+        this.consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.GROUP_ID_CONFIG, "pipeline-benchmark-" + UUID.randomUUID(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5_000),
+                new StringDeserializer(), new ByteArrayDeserializer());
+        this.deserializer.configure(Map.of(
+                "spring.json.use.type.headers", false,
+                "spring.json.value.default.type", PaymentResponse.class.getName()), false);
+        this.deadLetterTopic = deadLetterTopic;
+        this.consumer.subscribe(List.of(PaymentProducer.UPDATE_PAYMENT_TOPIC, deadLetterTopic));
+        this.thread = Thread.ofPlatform().name("pipeline-collector").daemon().start(this::run);
+    }
+
+    synchronized long settled() {
+        return settled.size();
+    }
+
+    synchronized long deadLettered() {
+        return deadLettered;
+    }
+
+    Duration idleFor() {
+        return Duration.ofNanos(System.nanoTime() - lastActivityNanos);
+    }
+
+    synchronized PipelineReport.Drain drain(int published, int invalid) {
+        double seconds = firstEventAt < 0 || lastSettledAt <= firstEventAt
+                ? 0 : (lastSettledAt - firstEventAt) / 1000.0;
+        return new PipelineReport.Drain(
+                published, invalid, settled.size(), deadLettered, events,
+                published > 0 ? (double) deadLettered / published : 0,
+                seconds,
+                seconds > 0 ? settled.size() / seconds : 0,
+                seconds > 0 ? (settled.size() + deadLettered) / seconds : 0);
+    }
+
+    synchronized Histogram settledAfterDrainStart() {
+        return settledAfterDrainStart.copy();
+    }
+
+    synchronized Histogram pendingToSettled() {
+        return pendingToSettled.copy();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        consumer.wakeup();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(200))) {
+                    lastActivityNanos = System.nanoTime();
+                    if (record.topic().equals(deadLetterTopic)) {
+                        synchronized (this) {
+                            deadLettered++;
+                        }
+                    } else {
+                        onEvent(record, (PaymentResponse) deserializer.deserialize(
+                                record.topic(), record.headers(), record.value()));
+                    }
+                }
+            }
+        } catch (WakeupException e) {
+            // close() was called
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private synchronized void onEvent(ConsumerRecord<String, byte[]> record, PaymentResponse event) {
+        events++;
+        long timestamp = record.timestamp();
+        if (firstEventAt < 0) {
+            firstEventAt = timestamp;
+        }
+        if (event.status() == PaymentStatus.PENDING) {
+            pendingAt.putIfAbsent(event.orderId(), timestamp);
+            return;
+        }
+        if (event.status() != PaymentStatus.SUCCESS && event.status() != PaymentStatus.FAILED
+                || !settled.add(event.orderId())) {
+            return;
+        }
+        lastSettledAt = Math.max(lastSettledAt, timestamp);
+        settledAfterDrainStart.recordValue(TimeUnit.MILLISECONDS.toNanos(Math.max(0, timestamp - firstEventAt)));
+        Long pending = pendingAt.remove(event.orderId());
+        if (pending != null) {
+            pendingToSettled.recordValue(TimeUnit.MILLISECONDS.toNanos(Math.max(0, timestamp - pending)));
+        }
+    }
+}
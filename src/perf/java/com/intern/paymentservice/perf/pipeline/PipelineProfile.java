@@ -0,0 +1,58 @@
+package com.intern.paymentservice.perf.pipeline;
+
+import com.intern.paymentservice.perf.PerfProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shape of a pipeline run.
+ *
+ * @param records          CREATE_ORDER records published before the service starts
+ * @param invalidShare     share of those records that fail validation and should end up in the dead-letter topic
+ * @param partitions       partitions of CREATE_ORDER, UPDATE_PAYMENT and the dead-letter topic
+ * @param consumerMode     payment.kafka.consumer.mode: {@code record}, {@code key-ordered} (batch listener) or
+ *                         {@code reactive}
+ * @param concurrency      listener containers (consumer threads) of the service
+ * @param maxPollRecords   records per poll, i.e. the batch size in {@code key-ordered} mode
+ * @param decision         {@code loopback} for the service's own HTTP decision endpoint, {@code stub} for an
+ *                         in-process answer after {@code decisionLatency}
+ * @param decisionLatency  delay of the stub decision, e.g. PT0.02S to stand in for a remote provider
+ * @param virtualThreads   whether listener containers run on virtual threads
+ * @param timeout          the run gives up and reports what drained so far after this long
+ */
+record PipelineProfile(int records, double invalidShare, int partitions, String consumerMode, int concurrency,
+                       int maxPollRecords, String decision, Duration decisionLatency, boolean virtualThreads,
+                       Duration timeout) {
+
+    static final String LOOPBACK_DECISION = "loopback";
+    static final String STUB_DECISION = "stub";
+
+    static PipelineProfile fromSystemProperties() {
+        return new PipelineProfile(
+                (int) PerfProperties.integer("perf.pipeline.records", 100_000),
+                PerfProperties.decimal("perf.pipeline.invalid-share", 0.01),
+                (int) PerfProperties.integer("perf.kafka.partitions", 6),
+                PerfProperties.text("perf.pipeline.consumer-mode", "record"),
+                (int) PerfProperties.integer("perf.pipeline.concurrency", 1),
+                (int) PerfProperties.integer("perf.pipeline.max-poll-records", 500),
+                PerfProperties.text("perf.pipeline.decision", LOOPBACK_DECISION),
+                PerfProperties.duration("perf.pipeline.decision-latency", "PT0S"),
+                PerfProperties.flag("perf.virtual-threads", false),
+                PerfProperties.duration("perf.pipeline.timeout", "PT15M"));
+    }
+
+    /**
+     * Service properties for this profile; {@code -Dperf.app.*} overrides are applied on top.
+     */
+    Map<String, Object> appProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("payment.kafka.consumer.mode", consumerMode);
+        properties.put("spring.kafka.listener.concurrency", concurrency);
+        properties.put("spring.kafka.consumer.max-poll-records", maxPollRecords);
+        properties.put("spring.threads.virtual.enabled", virtualThreads);
+        properties.putAll(PerfProperties.appOverrides());
+        return properties;
+    }
+}
@@ -0,0 +1,40 @@
+package com.intern.paymentservice.perf.pipeline;
+
+import com.intern.paymentservice.perf.ConsumerLagSampler;
+import com.intern.paymentservice.perf.LatencyStats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a pipeline run as written to {@code target/perf/pipeline-<timestamp>.json}.
+ *
+ * @param complete    whether every valid record settled and every invalid one was dead-lettered before the timeout
+ * @param latencies   {@code settled after drain start}: when each payment settled, counted from the first
+ *                    UPDATE_PAYMENT record, i.e. the shape of the drain; {@code pending to settled}: per payment,
+ *                    from its PENDING event to its settled event (empty when PENDING is not published)
+ * @param listener    the service's {@code spring.kafka.listener} timer: per record in {@code record} mode,
+ *                    per poll in {@code key-ordered} mode
+ * @param consumerLag CREATE_ORDER lag of the service, sampled every second from its start
+ */
+record PipelineReport(PipelineProfile profile, boolean complete, Drain drain, Map<String, LatencyStats> latencies,
+                      Listener listener, List<ConsumerLagSampler.Sample> consumerLag) {
+
+    /**
+     * @param published             CREATE_ORDER records published
+     * @param invalid               of those, records that should be dead-lettered
+     * @param settled               payments that reached SUCCESS or FAILED on UPDATE_PAYMENT
+     * @param deadLettered          records that reached the dead-letter topic
+     * @param events                UPDATE_PAYMENT records, including PENDING ones
+     * @param deadLetterRate        dead-lettered share of the published records
+     * @param seconds               from the first UPDATE_PAYMENT record to the last settled one
+     * @param settledPerSecond      payments settled per second over that period
+     * @param recordsPerSecond      CREATE_ORDER records settled or dead-lettered per second
+     */
+    record Drain(int published, int invalid, long settled, long deadLettered, long events, double deadLetterRate,
+                 double seconds, double settledPerSecond, double recordsPerSecond) {
+    }
+
+    record Listener(long count, double meanMillis, double maxMillis) {
+    }
+}
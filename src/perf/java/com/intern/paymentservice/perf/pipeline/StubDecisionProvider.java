@@ -0,0 +1,47 @@
+package com.intern.paymentservice.perf.pipeline;
+
+import com.intern.paymentservice.client.PaymentResultClient;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces the service's {@link PaymentResultClient} with one that answers in-process after a fixed delay,
+ * so a run measures the consumer pipeline rather than the HTTP round trip to the decision endpoint.
+ * It is registered before the service's own post-processors, so the layer timing advice still applies.
+ */
+final class StubDecisionProvider implements BeanPostProcessor {
+
+    private final Duration latency;
+
+    StubDecisionProvider(Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof PaymentResultClient) {
+            return new StubClient(latency);
+        }
+        return bean;
+    }
+
+    private static final class StubClient extends PaymentResultClient {
+
+        private final Duration latency;
+
+        StubClient(Duration latency) {
+            super("0", WebClient.builder());
+            this.latency = latency;
+        }
+
+        @Override
+        public Mono<Integer> getPaymentResultAsync() {
+            Mono<Integer> result = Mono.fromSupplier(() -> ThreadLocalRandom.current().nextInt());
+            return latency.isZero() ? result : result.delaySubscription(latency);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.intern.paymentservice.integration.migration;
+
+import com.intern.paymentservice.TestcontainersConfiguration;
+import com.intern.paymentservice.migration.PaymentAmountDecimal128ChangeUnit;
+import com.intern.paymentservice.repository.PaymentRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.mongodb.test.autoconfigure.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Testcontainers
+@TestPropertySource(properties = {"mongock.enabled=false"})
+@DataMongoTest
+@Import(TestcontainersConfiguration.class)
+@Tag("integration")
+class PaymentAmountDecimal128ChangeUnitDataMongoTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-10T12:00:00Z");
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private final PaymentAmountDecimal128ChangeUnit changeUnit = new PaymentAmountDecimal128ChangeUnit();
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    void givenLegacyStringAndDoubleAmounts_whenMigrated_thenTotalsAreExact() throws InterruptedException {
+        mongoTemplate.insert(List.of(
+                legacyPayment(1L, "0.10"),
+                legacyPayment(2L, "0.20"),
+                legacyPayment(3L, 0.1),
+                legacyPayment(4L, 1_000_000_000_000_000L)
+        ), "payments");
+
+        changeUnit.changeSet(mongoTemplate);
+
+        assertThat(mongoTemplate.find(new Query(), Document.class, "payments"))
+                .extracting(document -> document.get("paymentAmount"))
+                .allMatch(Decimal128.class::isInstance);
+        assertThat(paymentRepository.findPaymentTotalForPeriod(TIMESTAMP.minusSeconds(1), TIMESTAMP.plusSeconds(1)))
+                .isEqualByComparingTo("1000000000000000000.40");
+    }
+
+    @Test
+    void givenMigratedAndNewDecimalAmounts_whenRolledBack_thenOnlyMigratedOnesAreRestored()
+            throws InterruptedException {
+        mongoTemplate.insert(List.of(legacyPayment(5L, "12.50"), legacyPayment(6L, 7.25)), "payments");
+        changeUnit.changeSet(mongoTemplate);
+        mongoTemplate.insert(legacyPayment(7L, new Decimal128(new BigDecimal("3.00"))), "payments");
+
+        changeUnit.rollback(mongoTemplate);
+
+        assertThat(amountOf(5L)).isEqualTo("12.50");
+        assertThat(amountOf(6L)).isEqualTo(7.25);
+        assertThat(amountOf(7L)).isEqualTo(new Decimal128(new BigDecimal("3.00")));
+        assertThat(mongoTemplate.count(new Query(where("paymentAmountMigratedFrom").exists(true)), "payments"))
+                .isZero();
+    }
+
+    private Object amountOf(long orderId) {
+        Document document = mongoTemplate.findOne(new Query(where("orderId").is(orderId)), Document.class, "payments");
+        assertThat(document).isNotNull();
+        return document.get("paymentAmount");
+    }
+
+    private static Document legacyPayment(long orderId, Object amount) {
+        return new Document("orderId", orderId)
+                .append("userId", 1L)
+                .append("status", "SUCCESS")
+                .append("timestamp", Date.from(TIMESTAMP))
+                .append("paymentAmount", amount);
+    }
+}
@@ -0,0 +1,89 @@
+package com.intern.paymentservice.integration.migration;
+
+import com.intern.paymentservice.TestcontainersConfiguration;
+import com.intern.paymentservice.migration.PaymentIndexesChangeUnit;
+import com.intern.paymentservice.migration.PaymentOrderUniqueIndexChangeUnit;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.mongodb.test.autoconfigure.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers
+@TestPropertySource(properties = {"mongock.enabled=false"})
+@DataMongoTest
+@Import(TestcontainersConfiguration.class)
+@Tag("integration")
+class PaymentOrderUniqueIndexChangeUnitDataMongoTest {
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private final PaymentIndexesChangeUnit indexesChangeUnit = new PaymentIndexesChangeUnit();
+    private final PaymentOrderUniqueIndexChangeUnit changeUnit = new PaymentOrderUniqueIndexChangeUnit();
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        indexesChangeUnit.changeSet(mongoTemplate);
+        changeUnit.changeSet(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Other tests store several payments per order and user
+        paymentRepository.deleteAll();
+        changeUnit.rollback(mongoTemplate);
+        indexesChangeUnit.rollback(mongoTemplate);
+    }
+
+    @Test
+    void givenPaymentForOrderAndUser_whenSameOrderAndUserSavedAgain_thenInsertIsRejected() {
+        paymentRepository.save(payment(1L, 100L));
+
+        assertThatThrownBy(() -> paymentRepository.save(payment(1L, 100L)))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(paymentRepository.findByOrderId(1L)).hasSize(1);
+    }
+
+    @Test
+    void givenPaymentForOrder_whenOtherUserPaysSameOrder_thenBothAreStored() {
+        paymentRepository.save(payment(2L, 100L));
+        paymentRepository.save(payment(2L, 200L));
+
+        assertThat(paymentRepository.findByOrderId(2L)).hasSize(2);
+        assertThat(mongoTemplate.indexOps(Payment.class).getIndexInfo())
+                .extracting(IndexInfo::getName)
+                .contains("payment_order_user_unique_idx")
+                .doesNotContain("payment_order_id_unique_idx");
+    }
+
+    private static Payment payment(Long orderId, Long userId) {
+        return Payment.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .status(PaymentStatus.PENDING)
+                .timestamp(Instant.now())
+                .paymentAmount(BigDecimal.TEN)
+                .build();
+    }
+}
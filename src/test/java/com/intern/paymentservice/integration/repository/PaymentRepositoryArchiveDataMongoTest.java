@@ -0,0 +1,158 @@
+package com.intern.paymentservice.integration.repository;
+
+import com.intern.paymentservice.TestcontainersConfiguration;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.mongodb.test.autoconfigure.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@TestPropertySource(properties = {
+        "mongock.enabled=false",
+        "payment.archive.enabled=true",
+        "payment.archive.settled-after=30d"
+})
+@DataMongoTest
+@Import(TestcontainersConfiguration.class)
+@Tag("integration")
+class PaymentRepositoryArchiveDataMongoTest {
+
+    private static final Instant OLD = Instant.now().minus(60, ChronoUnit.DAYS);
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        mongoTemplate.remove(new Query(), "payments_archive");
+    }
+
+    @Test
+    void givenOldSettledAndPendingPayments_whenArchive_thenOnlySettledOnesAreMoved() {
+        paymentRepository.saveAll(List.of(
+                payment(1L, PaymentStatus.SUCCESS, OLD),
+                payment(2L, PaymentStatus.REFUNDED, OLD),
+                payment(3L, PaymentStatus.PENDING, OLD),
+                payment(4L, PaymentStatus.SUCCESS, Instant.now())
+        ));
+
+        int moved = paymentRepository.archiveSettledPayments(Instant.now().minus(30, ChronoUnit.DAYS), 100);
+
+        assertThat(moved).isEqualTo(2);
+        assertThat(paymentRepository.count()).isEqualTo(2);
+        assertThat(mongoTemplate.count(new Query(), "payments_archive")).isEqualTo(2);
+    }
+
+    @Test
+    void givenArchiveRun_whenArchiveIsPrepared_thenStatusListingsAreIndexed() {
+        paymentRepository.save(payment(5L, PaymentStatus.FAILED, OLD));
+
+        paymentRepository.archiveSettledPayments(Instant.now().minus(30, ChronoUnit.DAYS), 100);
+
+        assertThat(mongoTemplate.indexOps("payments_archive").getIndexInfo())
+                .extracting(IndexInfo::getName)
+                .contains("payment_archive_user_status_idx", "payment_archive_status_timestamp_idx");
+    }
+
+    @Test
+    void givenArchivedPayment_whenFindByIdOrOrderId_thenArchiveIsUsedAsFallback() {
+        Payment archived = paymentRepository.save(payment(10L, PaymentStatus.SUCCESS, OLD));
+        paymentRepository.archiveSettledPayments(Instant.now().minus(30, ChronoUnit.DAYS), 100);
+
+        assertThat(paymentRepository.findById(archived.getId())).isPresent();
+        assertThat(paymentRepository.findByOrderId(10L)).hasSize(1);
+    }
+
+    @Test
+    void givenArchivedPayment_whenStatusIsUpdated_thenItMovesBackToHotTier() {
+        Payment archived = paymentRepository.save(payment(20L, PaymentStatus.SUCCESS, OLD));
+        paymentRepository.archiveSettledPayments(Instant.now().minus(30, ChronoUnit.DAYS), 100);
+
+        Payment found = paymentRepository.findById(archived.getId()).orElseThrow();
+        found.setStatus(PaymentStatus.REFUNDED);
+        paymentRepository.save(found);
+
+        assertThat(paymentRepository.count()).isEqualTo(1);
+        assertThat(mongoTemplate.count(new Query(), "payments_archive")).isZero();
+    }
+
+    @Test
+    void givenArchivedAndHotPayments_whenFindPaymentTotalForOldPeriod_thenBothTiersAreSummed() {
+        paymentRepository.saveAll(List.of(
+                payment(30L, PaymentStatus.SUCCESS, OLD, "7.25"),
+                payment(31L, PaymentStatus.PENDING, OLD, "2.75")
+        ));
+        paymentRepository.archiveSettledPayments(Instant.now().minus(30, ChronoUnit.DAYS), 100);
+
+        BigDecimal total = paymentRepository.findPaymentTotalForPeriod(OLD.minusSeconds(60), Instant.now());
+
+        assertThat(total).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void givenHotAndArchivedPayments_whenFindByUserIdOrStatus_thenBothTiersAreMerged() {
+        paymentRepository.saveAll(List.of(
+                payment(40L, PaymentStatus.SUCCESS, OLD),
+                payment(41L, PaymentStatus.PENDING, Instant.now())
+        ));
+        paymentRepository.archiveSettledPayments(Instant.now().minus(30, ChronoUnit.DAYS), 100);
+
+        assertThat(paymentRepository.findByUserId(1L))
+                .extracting(Payment::getOrderId)
+                .containsExactlyInAnyOrder(40L, 41L);
+        assertThat(paymentRepository.findByStatusIn(List.of(PaymentStatus.SUCCESS, PaymentStatus.PENDING)))
+                .hasSize(2);
+        assertThat(paymentRepository.findByStatusInAndUserId(List.of(PaymentStatus.PENDING), 1L))
+                .extracting(Payment::getOrderId)
+                .containsExactly(41L);
+    }
+
+    @Test
+    void givenHotPayment_whenUpdated_thenArchivedCopyIsLeftAlone() {
+        Payment archived = paymentRepository.save(payment(50L, PaymentStatus.SUCCESS, OLD));
+        paymentRepository.archiveSettledPayments(Instant.now().minus(30, ChronoUnit.DAYS), 100);
+        Payment hot = paymentRepository.save(payment(51L, PaymentStatus.PENDING, Instant.now()));
+
+        hot.setStatus(PaymentStatus.SUCCESS);
+        paymentRepository.save(hot);
+
+        assertThat(paymentRepository.findById(archived.getId())).isPresent();
+        assertThat(mongoTemplate.count(new Query(), "payments_archive")).isEqualTo(1);
+        assertThat(paymentRepository.count()).isEqualTo(1);
+    }
+
+    private static Payment payment(Long orderId, PaymentStatus status, Instant timestamp) {
+        return payment(orderId, status, timestamp, "1");
+    }
+
+    private static Payment payment(Long orderId, PaymentStatus status, Instant timestamp, String amount) {
+        return Payment.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .status(status)
+                .timestamp(timestamp)
+                .paymentAmount(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.intern.paymentservice.integration.repository;
+
+import com.intern.paymentservice.TestcontainersConfiguration;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.mongodb.test.autoconfigure.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@TestPropertySource(properties = {
+        "mongock.enabled=false",
+        "payment.aggregation.parallel.enabled=true",
+        "payment.aggregation.parallel.initial-chunk=1h"
+})
+@DataMongoTest
+@Import(TestcontainersConfiguration.class)
+@Tag("integration")
+class PaymentRepositoryParallelAggregationDataMongoTest {
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    void givenPaymentsSpreadOverManyChunks_whenFindPaymentTotalForPeriod_thenPartialSumsAreMerged() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        Instant end = start.plus(3, ChronoUnit.DAYS);
+
+        paymentRepository.saveAll(List.of(
+                payment(start, "1.10"),                              // first chunk, inclusive start
+                payment(start.plus(1, ChronoUnit.HOURS), "2.20"),    // exactly on a chunk boundary
+                payment(start.plus(30, ChronoUnit.HOURS), "3.30"),
+                payment(end, "4.40"),                                // inclusive end
+                payment(end.plusMillis(1), "100"),                   // outside
+                payment(start.minusMillis(1), "100")                 // outside
+        ));
+
+        BigDecimal total = paymentRepository.findPaymentTotalForPeriod(start, end);
+
+        assertThat(total).isEqualByComparingTo("11.00");
+    }
+
+    @Test
+    void givenNoPaymentsInPeriod_whenFindPaymentTotalForPeriod_thenZeroIsReturned() {
+        Instant start = Instant.parse("2020-01-01T00:00:00Z");
+
+        BigDecimal total = paymentRepository.findPaymentTotalForPeriod(start, start.plus(2, ChronoUnit.DAYS));
+
+        assertThat(total).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    private static Payment payment(Instant timestamp, String amount) {
+        return Payment.builder()
+                .userId(1L)
+                .orderId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(timestamp)
+                .paymentAmount(new BigDecimal(amount))
+                .build();
+    }
+}
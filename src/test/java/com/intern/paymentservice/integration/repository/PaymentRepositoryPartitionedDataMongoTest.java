@@ -0,0 +1,175 @@
+package com.intern.paymentservice.integration.repository;
+
+import com.intern.paymentservice.TestcontainersConfiguration;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.mongodb.test.autoconfigure.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers
+@TestPropertySource(properties = {
+        "mongock.enabled=false",
+        "payment.partitioning.enabled=true"
+})
+@DataMongoTest
+@Import(TestcontainersConfiguration.class)
+@Tag("integration")
+class PaymentRepositoryPartitionedDataMongoTest {
+
+    private static final Instant JANUARY = Instant.parse("2024-01-15T10:00:00Z");
+    private static final Instant FEBRUARY = Instant.parse("2024-02-15T10:00:00Z");
+    private static final Instant MARCH = Instant.parse("2024-03-15T10:00:00Z");
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        // Left behind by the unpartitioned repository tests sharing the container
+        mongoTemplate.dropCollection("payments");
+    }
+
+    @Test
+    void givenPaymentsInDifferentMonths_whenSaved_thenEachMonthGetsItsOwnPartition() {
+        paymentRepository.save(payment(1L, JANUARY, "1"));
+        paymentRepository.save(payment(1L, FEBRUARY, "2"));
+
+        assertThat(mongoTemplate.collectionExists("payments_202401")).isTrue();
+        assertThat(mongoTemplate.collectionExists("payments_202402")).isTrue();
+        assertThat(mongoTemplate.collectionExists("payments")).isFalse();
+    }
+
+    @Test
+    void givenPartitionedPayment_whenFindByIdAndUpdate_thenSamePartitionIsUsed() {
+        Payment saved = paymentRepository.save(payment(2L, FEBRUARY, "5"));
+
+        Payment found = paymentRepository.findById(saved.getId()).orElseThrow();
+        found.setStatus(PaymentStatus.SUCCESS);
+        paymentRepository.save(found);
+
+        assertThat(paymentRepository.findByIdAndUserId(saved.getId(), 2L))
+                .get()
+                .extracting(Payment::getStatus)
+                .isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(mongoTemplate.count(new Query(), "payments_202402"))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void givenPaymentsAcrossPartitions_whenFindByUserId_thenResultsAreMerged() {
+        paymentRepository.save(payment(3L, JANUARY, "1"));
+        paymentRepository.save(payment(3L, MARCH, "1"));
+        paymentRepository.save(payment(4L, MARCH, "1"));
+
+        List<Payment> results = paymentRepository.findByUserId(3L);
+
+        assertThat(results).hasSize(2);
+        assertThat(results).extracting(Payment::getUserId).containsOnly(3L);
+    }
+
+    @Test
+    void givenPaymentsAcrossPartitions_whenFindPaymentTotalForPeriod_thenOnlyOverlappingPartitionsAreSummed() {
+        paymentRepository.save(payment(5L, JANUARY, "1.50"));
+        paymentRepository.save(payment(5L, FEBRUARY, "2.50"));
+        paymentRepository.save(payment(5L, MARCH, "100"));
+
+        BigDecimal total = paymentRepository.findPaymentTotalForPeriod(JANUARY, FEBRUARY);
+
+        assertThat(total).isEqualByComparingTo("4.00");
+    }
+
+    @Test
+    void givenOldPartition_whenDropPartition_thenItsPaymentsAreGone() {
+        Payment old = paymentRepository.save(payment(6L, JANUARY, "1"));
+        paymentRepository.save(payment(6L, FEBRUARY, "1"));
+
+        paymentRepository.dropPartition(YearMonth.of(2024, 1));
+
+        assertThat(paymentRepository.findById(old.getId())).isEmpty();
+        assertThat(paymentRepository.findByUserId(6L)).hasSize(1);
+    }
+
+    @Test
+    void givenPartitionedMode_whenUsingBulkCrudMethods_thenPartitionsAreUsed() {
+        List<Payment> saved = paymentRepository.saveAll(List.of(
+                payment(7L, JANUARY, "1"),
+                payment(7L, MARCH, "2")
+        ));
+
+        assertThat(mongoTemplate.collectionExists("payments")).isFalse();
+        assertThat(paymentRepository.count()).isEqualTo(2);
+        assertThat(paymentRepository.findAll()).hasSize(2);
+        assertThat(paymentRepository.existsById(saved.getFirst().getId())).isTrue();
+        assertThat(paymentRepository.findAllById(List.of(saved.get(0).getId(), saved.get(1).getId()))).hasSize(2);
+
+        paymentRepository.deleteAll();
+
+        assertThat(paymentRepository.count()).isZero();
+        assertThat(mongoTemplate.count(new Query(), "payments_202401")).isZero();
+        assertThat(mongoTemplate.count(new Query(), "payments_202403")).isZero();
+    }
+
+    @Test
+    void givenPaymentWithCustomIdInOnePartition_whenSavedWithTimestampOfAnotherMonth_thenItIsUpdatedInPlace() {
+        Payment payment = payment(8L, JANUARY, "1");
+        payment.setId("legacy-payment-8");
+        paymentRepository.save(payment);
+
+        payment.setTimestamp(MARCH);
+        payment.setStatus(PaymentStatus.SUCCESS);
+        paymentRepository.save(payment);
+
+        assertThat(mongoTemplate.count(new Query(), "payments_202401")).isEqualTo(1);
+        assertThat(mongoTemplate.collectionExists("payments_202403")).isFalse();
+        assertThat(paymentRepository.findById("legacy-payment-8"))
+                .get()
+                .extracting(Payment::getStatus)
+                .isEqualTo(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    void givenPartitionedMode_whenUsingPagedSortedOrExampleQueries_thenTheyAreRefused() {
+        paymentRepository.save(payment(9L, JANUARY, "1"));
+
+        assertThatThrownBy(() -> paymentRepository.findAll(PageRequest.of(0, 10)))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> paymentRepository.findAll(Sort.by("timestamp")))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> paymentRepository.findAll(Example.of(Payment.builder().userId(9L).build())))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static Payment payment(Long userId, Instant timestamp, String amount) {
+        return Payment.builder()
+                .userId(userId)
+                .orderId(userId * 10)
+                .status(PaymentStatus.PENDING)
+                .timestamp(timestamp)
+                .paymentAmount(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -22,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -37,6 +38,7 @@ import java.util.UUID;
 
 import static com.intern.paymentservice.service.AuthenticationService.ADMIN;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
 
 @Import({TestcontainersConfiguration.class, NoSecurityConfig.class})
@@ -139,6 +141,19 @@ class PaymentFacadeIntegrationTest {
         assertThat(sawSuccess).as("Should have seen SUCCESS status").isTrue();
     }
 
+    @Test
+    @WithMockUser(username = "admin", authorities = {ADMIN})
+    void givenPaymentForOrderAndUser_whenSecondPaymentIsCreated_thenItIsRejectedAsDuplicate() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(300L, 400L, BigDecimal.ONE);
+        given(paymentResultClient.getPaymentResult()).willReturn(200);
+        facade.createPayment(request);
+
+        // when / then
+        assertThatThrownBy(() -> facade.createPayment(request)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(paymentRepository.findByOrderIdAndUserId(300L, 400L)).hasSize(1);
+    }
+
     // --- Helpers ---
     private List<ConsumerRecord<String, String>> getRecordsForKey(String targetKey, int expectedCount) {
         List<ConsumerRecord<String, String>> relevantRecords = new ArrayList<>();
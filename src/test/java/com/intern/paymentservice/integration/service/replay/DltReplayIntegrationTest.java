@@ -0,0 +1,152 @@
+package com.intern.paymentservice.integration.service.replay;
+
+import com.intern.paymentservice.TestcontainersConfiguration;
+import com.intern.paymentservice.client.PaymentResultClient;
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.integration.NoSecurityConfig;
+import com.intern.paymentservice.model.DltReplayJob;
+import com.intern.paymentservice.model.DltReplayStatus;
+import com.intern.paymentservice.model.DltReplayTarget;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.repository.PaymentRepository;
+import com.intern.paymentservice.service.replay.DltReplayRequest;
+import com.intern.paymentservice.service.replay.DltReplayService;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Tag("integration")
+@Import({TestcontainersConfiguration.class, NoSecurityConfig.class})
+@ActiveProfiles("test")
+@SpringBootTest
+@NullMarked
+class DltReplayIntegrationTest {
+
+    @Autowired
+    KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    DltReplayService replayService;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Value("${spring.kafka.dead-letter-topic}")
+    String dltTopic;
+
+    @MockitoBean
+    PaymentResultClient paymentResultClient;
+
+    @Test
+    void givenDeadLetters_whenReplayedWithExceptionFilter_thenOnlyMatchingRecordsAreProcessedAgain() throws Exception {
+        // arrange
+        paymentRepository.deleteAll();
+        when(paymentResultClient.getPaymentResult()).thenReturn(2);
+        deadLetter(new CreatePaymentRequest(901L, 1L, BigDecimal.TEN), "org.springframework.dao.TransientDataAccessResourceException");
+        deadLetter(new CreatePaymentRequest(902L, 1L, BigDecimal.TEN), "jakarta.validation.ValidationException");
+
+        // act
+        DltReplayJob job = replayService.start(new DltReplayRequest(null, null, null,
+                "org.springframework.dao.TransientDataAccessResourceException", null, null, 100, DltReplayTarget.REPUBLISH));
+
+        // assert
+        await()
+                .atMost(20, TimeUnit.SECONDS)
+                .pollInterval(Duration.ofMillis(200))
+                .untilAsserted(() -> {
+                    DltReplayJob stored = replayService.find(job.getId()).orElseThrow();
+                    assertThat(stored.getStatus()).isEqualTo(DltReplayStatus.COMPLETED);
+                    assertThat(stored.getReplayed()).isEqualTo(1);
+                    assertThat(stored.getSkipped()).isGreaterThanOrEqualTo(1);
+                    assertThat(paymentRepository.findByOrderId(901L)).hasSize(1);
+                });
+        assertThat(paymentRepository.findByOrderId(902L)).isEmpty();
+    }
+
+    @Test
+    void givenJobCancelledThroughAnotherInstance_whenRunningInstanceCheckpoints_thenStatusStaysCancelled() throws Exception {
+        // arrange
+        when(paymentResultClient.getPaymentResult()).thenReturn(2);
+        for (long orderId = 911; orderId < 921; orderId++) {
+            deadLetter(new CreatePaymentRequest(orderId, 1L, BigDecimal.TEN), "org.springframework.dao.QueryTimeoutException");
+        }
+        DltReplayJob job = replayService.start(new DltReplayRequest(null, null, null,
+                "org.springframework.dao.QueryTimeoutException", null, null, 1, DltReplayTarget.REPUBLISH));
+
+        // act
+        mongoTemplate.updateFirst(query(where("_id").is(job.getId())),
+                new Update().set("status", DltReplayStatus.CANCELLED), DltReplayJob.class);
+
+        // assert
+        await()
+                .during(3, TimeUnit.SECONDS)
+                .atMost(10, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(replayService.find(job.getId()).orElseThrow().getStatus())
+                        .isEqualTo(DltReplayStatus.CANCELLED));
+        assertThat(replayService.find(job.getId()).orElseThrow().getReplayed()).isLessThan(10);
+    }
+
+    @Test
+    void givenDeadLetterWhosePaymentWasCreatedSince_whenRepublished_thenItIsSkipped() throws Exception {
+        // arrange
+        paymentRepository.save(Payment.builder()
+                .orderId(931L)
+                .userId(1L)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(Instant.now())
+                .paymentAmount(BigDecimal.TEN)
+                .build());
+        deadLetter(new CreatePaymentRequest(931L, 1L, BigDecimal.TEN), "org.springframework.dao.RecoverableDataAccessException");
+
+        // act
+        DltReplayJob job = replayService.start(new DltReplayRequest(null, null, null,
+                "org.springframework.dao.RecoverableDataAccessException", null, null, 100, DltReplayTarget.REPUBLISH));
+
+        // assert
+        await()
+                .atMost(20, TimeUnit.SECONDS)
+                .pollInterval(Duration.ofMillis(200))
+                .untilAsserted(() -> {
+                    DltReplayJob stored = replayService.find(job.getId()).orElseThrow();
+                    assertThat(stored.getStatus()).isEqualTo(DltReplayStatus.COMPLETED);
+                    assertThat(stored.getReplayed()).isZero();
+                    assertThat(stored.getSkipped()).isGreaterThanOrEqualTo(1);
+                });
+        assertThat(paymentRepository.findByOrderId(931L)).hasSize(1);
+    }
+
+    private void deadLetter(CreatePaymentRequest request, String exceptionFqcn) throws Exception {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(dltTopic, request.orderId().toString(), request);
+        record.headers()
+                .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "CREATE_ORDER".getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_FQCN, exceptionFqcn.getBytes(StandardCharsets.UTF_8));
+        kafkaTemplate.send(record).get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,130 @@
+package com.intern.paymentservice.unit.actuator;
+
+import com.intern.paymentservice.actuator.FlightRecordingEndpoint;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.observability.jfr.PaymentCreatedEvent;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class FlightRecordingEndpointTest {
+
+    private final FlightRecordingEndpoint endpoint =
+            new FlightRecordingEndpoint(Duration.ofSeconds(1), Duration.ofSeconds(2), "default");
+
+    @AfterEach
+    void tearDown() throws Exception {
+        endpoint.destroy();
+    }
+
+    @Test
+    void record_paymentCreatedDuringRecording_downloadReturnsRecordingWithLifecycleEvent() throws Exception {
+        // given
+        PaymentResponse payment = new PaymentResponse("p1", 10L, 100L, PaymentStatus.PENDING, Instant.now(), BigDecimal.TEN);
+        List<Thread> creations = new CopyOnWriteArrayList<>();
+        // The payment is created on a fresh thread as soon as the recording is running
+        FlightRecorderListener onStart = new FlightRecorderListener() {
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                if (recording.getState() == RecordingState.RUNNING) {
+                    creations.add(Thread.ofPlatform().start(() -> {
+                        PaymentCreatedEvent event = new PaymentCreatedEvent();
+                        event.begin();
+                        event.finish(payment);
+                    }));
+                }
+            }
+        };
+        FlightRecorder.addListener(onStart);
+
+        // action
+        WebEndpointResponse<FlightRecordingEndpoint.Status> started;
+        try {
+            started = endpoint.record(null, null);
+        } finally {
+            FlightRecorder.removeListener(onStart);
+        }
+        for (Thread creation : creations) {
+            creation.join();
+        }
+        long id = started.getBody().id();
+        WebEndpointResponse<Resource> early = endpoint.download(id);
+        awaitFinished();
+        WebEndpointResponse<Resource> response = endpoint.download(id);
+
+        // assertThat
+        assertThat(started.getStatus()).isEqualTo(202);
+        assertThat(started.getBody().state()).isEqualTo("RECORDING");
+        assertThat(early.getStatus()).isEqualTo(409);
+        assertThat(endpoint.status().state()).isEqualTo("FINISHED");
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        Path file = Files.createTempFile("recording-", ".jfr");
+        try (InputStream body = response.getBody().getInputStream()) {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        List<RecordedEvent> created = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.intern.payment.PaymentCreated"))
+                .toList();
+        Files.delete(file);
+        assertThat(created).singleElement().satisfies(event -> {
+            assertThat(event.getString("paymentId")).isEqualTo("p1");
+            assertThat(event.getLong("orderId")).isEqualTo(10L);
+            assertThat(event.getString("status")).isEqualTo("PENDING");
+        });
+    }
+
+    @Test
+    void record_durationAboveMaximumOrUnknownSettings_rejectsWithoutRecording() throws Exception {
+        // action
+        WebEndpointResponse<FlightRecordingEndpoint.Status> tooLong = endpoint.record(Duration.ofMinutes(1), null);
+        WebEndpointResponse<FlightRecordingEndpoint.Status> unknownSettings = endpoint.record(null, "does-not-exist");
+
+        // assertThat
+        assertThat(tooLong.getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(unknownSettings.getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(endpoint.status().state()).isEqualTo("IDLE");
+    }
+
+    @Test
+    void record_whileRecording_rejectsSecondRecording() throws Exception {
+        // given
+        WebEndpointResponse<FlightRecordingEndpoint.Status> first = endpoint.record(null, null);
+
+        // action
+        WebEndpointResponse<FlightRecordingEndpoint.Status> second = endpoint.record(null, null);
+
+        // assertThat
+        assertThat(second.getStatus()).isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        assertThat(second.getBody().id()).isEqualTo(first.getBody().id());
+        assertThat(endpoint.download(first.getBody().id() + 1).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        for (int i = 0; i < 100 && "RECORDING".equals(endpoint.status().state()); i++) {
+            Thread.sleep(50);
+        }
+    }
+}
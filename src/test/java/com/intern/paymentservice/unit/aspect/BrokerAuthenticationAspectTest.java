@@ -0,0 +1,84 @@
+package com.intern.paymentservice.unit.aspect;
+
+import com.intern.paymentservice.aspect.BrokerAuthenticationAspect;
+import com.intern.paymentservice.service.AuthenticationService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class BrokerAuthenticationAspectTest {
+
+    @Mock
+    AuthenticationService authenticationService;
+
+    @Mock
+    ProceedingJoinPoint joinPoint;
+
+    @InjectMocks
+    BrokerAuthenticationAspect aspect;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticateBroker_noPreviousContext_runsAsBrokerAndClears() throws Throwable {
+        // given
+        willAnswer(invocation -> {
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("kafka-system", null));
+            return null;
+        }).given(authenticationService).setBrokerAuthenticationInContext();
+        AtomicReference<String> nameDuringCall = new AtomicReference<>();
+        given(joinPoint.proceed()).willAnswer(invocation -> {
+            nameDuringCall.set(SecurityContextHolder.getContext().getAuthentication().getName());
+            return "result";
+        });
+
+        // action
+        Object result = aspect.authenticateBroker(joinPoint);
+
+        // assertThat
+        assertThat(result).isEqualTo("result");
+        assertThat(nameDuringCall.get()).isEqualTo("kafka-system");
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void authenticateBroker_previousContext_isRestoredAfterFailure() throws Throwable {
+        // given
+        SecurityContext outer = SecurityContextHolder.createEmptyContext();
+        outer.setAuthentication(new TestingAuthenticationToken("outer", null));
+        SecurityContextHolder.setContext(outer);
+
+        willAnswer(invocation -> {
+            SecurityContext broker = SecurityContextHolder.createEmptyContext();
+            broker.setAuthentication(new TestingAuthenticationToken("kafka-system", null));
+            SecurityContextHolder.setContext(broker);
+            return null;
+        }).given(authenticationService).setBrokerAuthenticationInContext();
+        given(joinPoint.proceed()).willThrow(new IllegalStateException("boom"));
+
+        // action & assertThat
+        assertThatThrownBy(() -> aspect.authenticateBroker(joinPoint)).isInstanceOf(IllegalStateException.class);
+        assertThat(SecurityContextHolder.getContext()).isSameAs(outer);
+        assertThat(outer.getAuthentication().getName()).isEqualTo("outer");
+    }
+}
@@ -0,0 +1,114 @@
+package com.intern.paymentservice.unit.aspect;
+
+import com.intern.paymentservice.aspect.LayerTimingAspect;
+import com.intern.paymentservice.client.PaymentResultClient;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import com.intern.paymentservice.service.AuthenticationService;
+import com.intern.paymentservice.service.PaymentService;
+import com.intern.paymentservice.service.impl.PaymentServiceImpl;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class LayerTimingAspectTest {
+
+    @Mock
+    AuthenticationService authenticationService;
+
+    @Mock
+    ProceedingJoinPoint joinPoint;
+
+    @Mock
+    MethodSignature signature;
+
+    SimpleMeterRegistry meterRegistry;
+    LayerTimingAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new LayerTimingAspect(meterRegistry, authenticationService);
+        given(joinPoint.getSignature()).willReturn(signature);
+    }
+
+    @Test
+    void timeService_success_recordsUnderLayerOperationAndRole() throws Throwable {
+        // given
+        given(signature.getMethod()).willReturn(PaymentService.class.getMethod("deletePayment", String.class));
+        given(signature.getDeclaringType()).willReturn(PaymentServiceImpl.class);
+        given(authenticationService.getPrincipal()).willReturn(new PaymentPrincipal(1L, PaymentPrincipal.ADMIN));
+        given(joinPoint.proceed()).willReturn(null);
+
+        // action
+        aspect.timeService(joinPoint);
+        aspect.timeService(joinPoint);
+
+        // assertThat
+        Timer timer = meterRegistry.get(LayerTimingAspect.METRIC)
+                .tag("layer", "service")
+                .tag("component", "PaymentServiceImpl")
+                .tag("operation", "deletePayment")
+                .tag("role", "admin")
+                .tag("outcome", "success")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void timeFacade_failure_recordsErrorOutcomeAndRethrows() throws Throwable {
+        // given
+        given(signature.getMethod()).willReturn(PaymentService.class.getMethod("deletePayment", String.class));
+        given(signature.getDeclaringType()).willReturn(PaymentServiceImpl.class);
+        given(authenticationService.getPrincipal()).willReturn(PaymentPrincipal.ANONYMOUS);
+        given(joinPoint.proceed()).willThrow(new IllegalStateException("boom"));
+
+        // action & assertThat
+        assertThatThrownBy(() -> aspect.timeFacade(joinPoint)).isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get(LayerTimingAspect.METRIC)
+                .tag("layer", "facade")
+                .tag("role", "anonymous")
+                .tag("outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void timeDecisionClient_mono_recordsFromSubscriptionToCompletion() throws Throwable {
+        // given
+        given(signature.getMethod()).willReturn(PaymentResultClient.class.getMethod("getPaymentResultAsync"));
+        given(signature.getDeclaringType()).willReturn(PaymentResultClient.class);
+        given(authenticationService.getPrincipal()).willReturn(new PaymentPrincipal(7L, PaymentPrincipal.USER));
+        given(joinPoint.proceed()).willReturn(Mono.just(1).delayElement(Duration.ofMillis(50)));
+
+        // action
+        Object result = aspect.timeDecisionClient(joinPoint);
+
+        // assertThat
+        assertThat(meterRegistry.find(LayerTimingAspect.METRIC).timer()).isNull();
+        assertThat(((Mono<?>) result).block()).isEqualTo(1);
+        Timer timer = meterRegistry.get(LayerTimingAspect.METRIC)
+                .tag("layer", "client")
+                .tag("operation", "getPaymentResultAsync")
+                .tag("role", "user")
+                .tag("outcome", "success")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(50);
+    }
+}
@@ -0,0 +1,39 @@
+package com.intern.paymentservice.unit.config;
+
+import com.intern.paymentservice.config.ReactivePipelineValidator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.IncompatibleConfigurationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("unit")
+class ReactivePipelineValidatorTest {
+
+    @Test
+    void afterPropertiesSet_baseCollectionOnly_passes() {
+        // given
+        ReactivePipelineValidator validator = new ReactivePipelineValidator();
+        ReflectionTestUtils.setField(validator, "reactiveApi", true);
+
+        // action & assertThat
+        assertThatNoException().isThrownBy(validator::afterPropertiesSet);
+    }
+
+    @Test
+    void afterPropertiesSet_partitioningWithReactiveConsumer_reportsConflictingProperties() {
+        // given
+        ReactivePipelineValidator validator = new ReactivePipelineValidator();
+        ReflectionTestUtils.setField(validator, "partitioningEnabled", true);
+        ReflectionTestUtils.setField(validator, "exactlyOnce", true);
+
+        // action & assertThat
+        assertThatThrownBy(validator::afterPropertiesSet)
+                .isInstanceOfSatisfying(IncompatibleConfigurationException.class, e -> assertThat(e.getIncompatibleKeys())
+                        .containsExactly("payment.kafka.consumer.mode", "payment.partitioning.enabled",
+                                "payment.kafka.exactly-once.enabled"));
+    }
+}
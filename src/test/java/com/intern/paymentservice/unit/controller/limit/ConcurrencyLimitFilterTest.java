@@ -0,0 +1,68 @@
+package com.intern.paymentservice.unit.controller.limit;
+
+import com.intern.paymentservice.controller.limit.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // One write and one read may be in flight at a time
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry,
+            1, 1, 1, 1, 1, 1, 1.5, 0.2, 50, Duration.ofMillis(1500));
+
+    @Test
+    void doFilter_writeLimitReached_shedsWritesWith503ButLetsReadsThrough() throws Exception {
+        // given
+        MockHttpServletResponse shedWrite = new MockHttpServletResponse();
+        MockHttpServletResponse read = new MockHttpServletResponse();
+
+        // action
+        filter.doFilter(request("POST", "/api/payments"), new MockHttpServletResponse(), (req, res) -> {
+            // Runs while the first write holds the only write permit
+            filter.doFilter(request("PATCH", "/api/payments/p1/status"), shedWrite, (nestedReq, nestedRes) -> {
+            });
+            filter.doFilter(request("GET", "/api/payments/by-user"), read, (nestedReq, nestedRes) -> {
+            });
+        });
+
+        // assertThat
+        assertThat(shedWrite.getStatus()).isEqualTo(503);
+        assertThat(shedWrite.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(shedWrite.getContentType()).isEqualTo("application/problem+json");
+        assertThat(read.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("payment.api.concurrency.rejected").tag("class", "write").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("payment.api.concurrency.in.flight").tag("class", "write").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void doFilter_otherPaths_areNotLimited() throws Exception {
+        // given
+        MockHttpServletResponse actuator = new MockHttpServletResponse();
+
+        // action
+        filter.doFilter(request("POST", "/api/payments"), new MockHttpServletResponse(), (req, res) ->
+                filter.doFilter(request("POST", "/actuator/jfr"), actuator, (nestedReq, nestedRes) -> {
+                }));
+
+        // assertThat
+        assertThat(actuator.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("payment.api.concurrency.rejected").tag("class", "write").counter().count())
+                .isZero();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
@@ -0,0 +1,86 @@
+package com.intern.paymentservice.unit.controller.limit;
+
+import com.intern.paymentservice.controller.limit.GradientLimiter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class GradientLimiterTest {
+
+    private static final long BASELINE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void tryAcquire_limitReached_rejectsUntilAPermitIsReleased() {
+        // given
+        GradientLimiter limiter = new GradientLimiter(2, 1, 10, 1.5, 0.2, 10);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        // action
+        boolean overLimit = limiter.tryAcquire();
+        limiter.releaseWithoutSample();
+        boolean afterRelease = limiter.tryAcquire();
+
+        // assertThat
+        assertThat(overLimit).isFalse();
+        assertThat(afterRelease).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_latencyRisesAboveBaseline_shrinksLimit() {
+        // given
+        GradientLimiter limiter = new GradientLimiter(20, 1, 100, 1.0, 1.0, 1);
+        acquire(limiter, 20);
+        limiter.release(BASELINE_NANOS);
+
+        // action
+        limiter.release(4 * BASELINE_NANOS);
+        limiter.release(4 * BASELINE_NANOS);
+
+        // assertThat
+        assertThat(limiter.getLimit()).isLessThan(20);
+    }
+
+    @Test
+    void release_steadyLatencyWithPermitsInUse_growsLimit() {
+        // given
+        GradientLimiter limiter = new GradientLimiter(10, 1, 100, 1.5, 1.0, 1);
+        acquire(limiter, 10);
+        limiter.release(BASELINE_NANOS);
+
+        // action
+        limiter.release(BASELINE_NANOS);
+        limiter.release(BASELINE_NANOS);
+
+        // assertThat
+        assertThat(limiter.getLimit()).isGreaterThan(10).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void release_fewPermitsInUse_keepsLimit() {
+        // given
+        GradientLimiter limiter = new GradientLimiter(10, 1, 100, 1.5, 1.0, 1);
+        limiter.tryAcquire();
+        limiter.release(BASELINE_NANOS);
+
+        // action
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.release(BASELINE_NANOS);
+        }
+
+        // assertThat
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    private static void acquire(GradientLimiter limiter, int permits) {
+        for (int i = 0; i < permits; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+    }
+}
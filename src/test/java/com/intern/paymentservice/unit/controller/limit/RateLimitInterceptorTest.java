@@ -0,0 +1,109 @@
+package com.intern.paymentservice.unit.controller.limit;
+
+import com.intern.paymentservice.controller.limit.RateLimitInterceptor;
+import com.intern.paymentservice.exception.RateLimitExceededException;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import com.intern.paymentservice.service.AuthenticationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class RateLimitInterceptorTest {
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        // Users get a burst of 2, admins of 5, both refilling far slower than the test runs
+        interceptor = new RateLimitInterceptor(authenticationService, meterRegistry,
+                2, 0.001, 5, 0.001, 4, 1000, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void preHandle_userBudgetSpent_throwsWithRetryAfterAndKeepsAdminsBudgetSeparate() {
+        // given
+        when(authenticationService.getPrincipal())
+                .thenReturn(new PaymentPrincipal(7, PaymentPrincipal.USER));
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/payments/by-user"), first, new Object());
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/payments/by-user"),
+                new MockHttpServletResponse(), new Object());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // action & assertThat
+        assertThatThrownBy(() -> interceptor.preHandle(
+                new MockHttpServletRequest("GET", "/api/payments/by-user"), rejected, new Object()))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting(ex -> ((RateLimitExceededException) ex).getRetryAfterSeconds())
+                .isEqualTo(1000L);
+        assertThat(first.getHeader("RateLimit-Limit")).isEqualTo("2");
+        assertThat(first.getHeader("RateLimit-Remaining")).isEqualTo("1");
+        assertThat(rejected.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(meterRegistry.get("payment.api.rate-limit.rejected").tag("role", "user").counter().count())
+                .isEqualTo(1);
+
+        when(authenticationService.getPrincipal())
+                .thenReturn(new PaymentPrincipal(8, PaymentPrincipal.ADMIN));
+        MockHttpServletResponse admin = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/payments/by-user"), admin,
+                new Object())).isTrue();
+        assertThat(admin.getHeader("RateLimit-Limit")).isEqualTo("5");
+        assertThat(admin.getHeader("RateLimit-Remaining")).isEqualTo("4");
+    }
+
+    @Test
+    void preHandle_principalWithoutInternalId_isNotLimited() {
+        // given
+        when(authenticationService.getPrincipal())
+                .thenReturn(new PaymentPrincipal(PaymentPrincipal.NO_INTERNAL_ID, PaymentPrincipal.ADMIN));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // action
+        boolean proceed = interceptor.preHandle(new MockHttpServletRequest("GET", "/api/payments/total"),
+                response, new Object());
+
+        // assertThat
+        assertThat(proceed).isTrue();
+        assertThat(response.getHeader("RateLimit-Limit")).isNull();
+        assertThat(meterRegistry.get("payment.api.rate-limit.buckets").gauge().value()).isZero();
+    }
+
+    @Test
+    void preHandle_stripeFull_letsCallerThroughAndCountsItForTheStripe() {
+        // given
+        interceptor = new RateLimitInterceptor(authenticationService, meterRegistry,
+                2, 0.001, 5, 0.001, 1, 1, Duration.ofMinutes(5));
+        when(authenticationService.getPrincipal())
+                .thenReturn(new PaymentPrincipal(7, PaymentPrincipal.USER))
+                .thenReturn(new PaymentPrincipal(8, PaymentPrincipal.USER));
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/payments/by-user"),
+                new MockHttpServletResponse(), new Object());
+
+        // action
+        boolean proceed = interceptor.preHandle(new MockHttpServletRequest("GET", "/api/payments/by-user"),
+                new MockHttpServletResponse(), new Object());
+
+        // assertThat
+        assertThat(proceed).isTrue();
+        assertThat(meterRegistry.get("payment.api.rate-limit.untracked").tag("stripe", "0").counter().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,73 @@
+package com.intern.paymentservice.unit.controller.limit;
+
+import com.intern.paymentservice.controller.limit.TokenBucketTable;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class TokenBucketTableTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final TokenBucketTable.Budget BUDGET = new TokenBucketTable.Budget(3, 1);
+
+    @Test
+    void tryConsume_burstSpent_rejectsUntilATokenIsRefilled() {
+        // given
+        TokenBucketTable table = new TokenBucketTable(4, 100, 60 * SECOND);
+        for (int i = 0; i < 3; i++) {
+            table.tryConsume(42, BUDGET, 0);
+        }
+
+        // action
+        TokenBucketTable.Decision rejected = table.tryConsume(42, BUDGET, 0);
+        TokenBucketTable.Decision refilled = table.tryConsume(42, BUDGET, SECOND);
+
+        // assertThat
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.remaining()).isZero();
+        assertThat(rejected.retryAfterNanos()).isEqualTo(SECOND);
+        assertThat(rejected.resetNanos()).isEqualTo(3 * SECOND);
+        assertThat(refilled.allowed()).isTrue();
+        assertThat(refilled.remaining()).isZero();
+    }
+
+    @Test
+    void tryConsume_differentKeys_haveSeparateBuckets() {
+        // given
+        TokenBucketTable table = new TokenBucketTable(4, 100, 60 * SECOND);
+        for (int i = 0; i < 3; i++) {
+            table.tryConsume(1, BUDGET, 0);
+        }
+
+        // action
+        TokenBucketTable.Decision other = table.tryConsume(2, BUDGET, 0);
+
+        // assertThat
+        assertThat(other.allowed()).isTrue();
+        assertThat(other.remaining()).isEqualTo(2);
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    void tryConsume_tableFull_dropsIdleBucketsOrLetsCallThroughUntracked() {
+        // given
+        TokenBucketTable table = new TokenBucketTable(1, 2, 10 * SECOND);
+        table.tryConsume(1, BUDGET, 0);
+        table.tryConsume(2, BUDGET, 0);
+
+        // action
+        TokenBucketTable.Decision whileActive = table.tryConsume(3, BUDGET, SECOND);
+        TokenBucketTable.Decision afterIdle = table.tryConsume(3, BUDGET, 20 * SECOND);
+
+        // assertThat
+        assertThat(whileActive.allowed()).isTrue();
+        assertThat(whileActive.tracked()).isFalse();
+        assertThat(whileActive.stripe()).isZero();
+        assertThat(afterIdle.tracked()).isTrue();
+        assertThat(table.size()).isEqualTo(1);
+    }
+}
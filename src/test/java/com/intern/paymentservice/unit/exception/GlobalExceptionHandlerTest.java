@@ -0,0 +1,31 @@
+package com.intern.paymentservice.unit.exception;
+
+import com.intern.paymentservice.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void handleDuplicateKeyException_secondPaymentForOrderAndUser_returnsConflict() {
+        // given
+        DuplicateKeyException duplicate = new DuplicateKeyException("E11000 duplicate key error payment_order_user_unique_idx");
+
+        // action
+        ResponseEntity<ProblemDetail> response = handler.handleDuplicateKeyException(duplicate);
+
+        // assertThat
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getTitle()).isEqualTo("Duplicate Payment");
+    }
+}
@@ -0,0 +1,76 @@
+package com.intern.paymentservice.unit.observability;
+
+import com.intern.paymentservice.observability.MongoQueryShape;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class MongoQueryShapeTest {
+
+    @Test
+    void of_find_keepsFieldNamesAndSortButNoValues() {
+        // given
+        BsonDocument command = BsonDocument.parse("""
+                {"find": "payments", "filter": {"userId": 42, "status": {"$in": ["PENDING", "SUCCESS"]}},
+                 "sort": {"timestamp": -1}, "lsid": {"id": 1}, "$db": "payments"}
+                """);
+
+        // action
+        String shape = MongoQueryShape.of("find", command);
+
+        // assertThat
+        assertThat(shape).isEqualTo("find payments {userId, status} sort {timestamp}");
+    }
+
+    @Test
+    void of_partitionedCollectionAndLogicalOperators_collapsesMonthAndNestsClauses() {
+        // given
+        BsonDocument command = BsonDocument.parse("""
+                {"find": "payments_202403", "filter": {"$or": [{"orderId": 1}, {"userId": 2, "status": "FAILED"}]}}
+                """);
+
+        // action
+        String shape = MongoQueryShape.of("find", command);
+
+        // assertThat
+        assertThat(shape).isEqualTo("find payments_yyyyMM {$or [{orderId}, {userId, status}]}");
+    }
+
+    @Test
+    void of_aggregate_listsStagesWithMatchFields() {
+        // given
+        BsonDocument command = BsonDocument.parse("""
+                {"aggregate": "payments", "pipeline": [
+                    {"$match": {"timestamp": {"$gte": {"$date": 0}, "$lt": {"$date": 1000}}}},
+                    {"$group": {"_id": null, "total": {"$sum": "$paymentAmount"}}}],
+                 "cursor": {}}
+                """);
+
+        // action
+        String shape = MongoQueryShape.of("aggregate", command);
+
+        // assertThat
+        assertThat(shape).isEqualTo("aggregate payments [$match {timestamp}, $group]");
+    }
+
+    @Test
+    void planSummary_classicAndSlotBasedPlans_describeStagesAndIndexes() {
+        // given
+        Document classic = Document.parse("""
+                {"queryPlanner": {"winningPlan": {"stage": "FETCH",
+                    "inputStage": {"stage": "IXSCAN", "indexName": "payment_user_id_idx"}}}}
+                """);
+        Document slotBased = Document.parse("""
+                {"queryPlanner": {"winningPlan": {"queryPlan": {"stage": "COLLSCAN"}, "slotBasedPlan": {}}}}
+                """);
+
+        // action & assertThat
+        assertThat(MongoQueryShape.planSummary(classic)).isEqualTo("FETCH <- IXSCAN(payment_user_id_idx)");
+        assertThat(MongoQueryShape.planSummary(slotBased)).isEqualTo("COLLSCAN");
+        assertThat(MongoQueryShape.planSummary(new Document())).isEqualTo("unknown");
+    }
+}
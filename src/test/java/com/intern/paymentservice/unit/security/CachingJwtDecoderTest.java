@@ -0,0 +1,133 @@
+package com.intern.paymentservice.unit.security;
+
+import com.intern.paymentservice.security.CachingJwtDecoder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Mock
+    JwtDecoder delegate;
+
+    @Test
+    void decode_sameTokenTwice_verifiesOnlyOnce() {
+        // given
+        CachingJwtDecoder decoder = decoder(NOW, 100);
+        Jwt jwt = jwt("a", NOW.plusSeconds(300));
+        given(delegate.decode("a")).willReturn(jwt);
+
+        // action
+        Jwt first = decoder.decode("a");
+        Jwt second = decoder.decode("a");
+
+        // assertThat
+        assertThat(first).isSameAs(jwt);
+        assertThat(second).isSameAs(jwt);
+        then(delegate).should(times(1)).decode("a");
+    }
+
+    @Test
+    void decode_afterTokenExpiry_verifiesAgain() {
+        // given
+        MutableClock clock = new MutableClock(NOW);
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, null, 100, Duration.ofMinutes(5), clock);
+        given(delegate.decode("a")).willReturn(jwt("a", NOW.plusSeconds(30)));
+        decoder.decode("a");
+
+        // action
+        clock.instant = NOW.plusSeconds(31);
+        decoder.decode("a");
+
+        // assertThat
+        then(delegate).should(times(2)).decode("a");
+    }
+
+    @Test
+    void decode_invalidToken_isNotCached() {
+        // given
+        CachingJwtDecoder decoder = decoder(NOW, 100);
+        given(delegate.decode("bad")).willThrow(new BadJwtException("invalid signature"));
+
+        // action & assertThat
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        then(delegate).should(times(2)).decode("bad");
+    }
+
+    @Test
+    void decode_moreTokensThanCapacity_staysBounded() {
+        // given
+        CachingJwtDecoder decoder = decoder(NOW, 10);
+        for (int i = 0; i < 50; i++) {
+            String token = "t" + i;
+            given(delegate.decode(token)).willReturn(jwt(token, NOW.plusSeconds(300)));
+        }
+
+        // action
+        for (int i = 0; i < 50; i++) {
+            decoder.decode("t" + i);
+        }
+
+        // assertThat
+        assertThat(decoder.size()).isLessThanOrEqualTo(10);
+    }
+
+    private CachingJwtDecoder decoder(Instant now, int maxEntries) {
+        return new CachingJwtDecoder(delegate, null, maxEntries, Duration.ofMinutes(5), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user")
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
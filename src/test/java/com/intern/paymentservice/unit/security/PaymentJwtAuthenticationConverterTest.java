@@ -0,0 +1,64 @@
+package com.intern.paymentservice.unit.security;
+
+import com.intern.paymentservice.security.PaymentAuthenticationToken;
+import com.intern.paymentservice.security.PaymentJwtAuthenticationConverter;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class PaymentJwtAuthenticationConverterTest {
+
+    private final PaymentJwtAuthenticationConverter converter = new PaymentJwtAuthenticationConverter();
+
+    @Test
+    void convert_realmRolesAndInternalId_resolvesPrincipalAndAuthorities() {
+        // given
+        Jwt jwt = jwt(Map.of(
+                "realm_access", Map.of("roles", List.of("user", "admin", "offline_access")),
+                "internal_id", 42,
+                "scope", "openid"));
+
+        // action
+        AbstractAuthenticationToken token = converter.convert(jwt);
+
+        // assertThat
+        assertThat(token).isInstanceOf(PaymentAuthenticationToken.class);
+        PaymentPrincipal principal = ((PaymentAuthenticationToken) token).getPaymentPrincipal();
+        assertThat(principal.internalId()).isEqualTo(42L);
+        assertThat(principal.isAdmin()).isTrue();
+        assertThat(principal.isUser()).isTrue();
+        assertThat(token.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("SCOPE_openid", "ROLE_user", "ROLE_admin", "ROLE_offline_access");
+        assertThat(token.getName()).isEqualTo("subject");
+    }
+
+    @Test
+    void convert_noRealmAccessNorInternalId_resolvesPrincipalWithoutRoles() {
+        // given
+        Jwt jwt = jwt(Map.of("scope", "openid"));
+
+        // action
+        PaymentPrincipal principal = ((PaymentAuthenticationToken) converter.convert(jwt)).getPaymentPrincipal();
+
+        // assertThat
+        assertThat(principal.roles()).isZero();
+        assertThat(principal.hasInternalId()).isFalse();
+    }
+
+    private static Jwt jwt(Map<String, Object> claims) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("subject")
+                .claims(c -> c.putAll(claims))
+                .build();
+    }
+}
@@ -0,0 +1,158 @@
+package com.intern.paymentservice.unit.service.broker;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.service.PaymentFacade;
+import com.intern.paymentservice.service.broker.KeyOrderedPaymentConsumer;
+import com.intern.paymentservice.service.broker.backpressure.ConsumerBackpressureController;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class KeyOrderedPaymentConsumerTest {
+
+    @Mock
+    PaymentFacade paymentFacade;
+
+    ValidatorFactory validatorFactory;
+
+    KeyOrderedPaymentConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        consumer = new KeyOrderedPaymentConsumer(paymentFacade,
+                new ConsumerBackpressureController(null, null), validatorFactory.getValidator(), 4, false);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        consumer.destroy();
+        validatorFactory.close();
+    }
+
+    @Test
+    void consumeCreatePayments_manyOrders_keepsPerOrderSequence() {
+        // given
+        Map<Long, List<BigDecimal>> seen = new ConcurrentHashMap<>();
+        willAnswer(invocation -> {
+            CreatePaymentRequest request = invocation.getArgument(0);
+            seen.computeIfAbsent(request.orderId(), id -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(request.paymentAmount());
+            return null;
+        }).given(paymentFacade).createPayment(any());
+
+        List<ConsumerRecord<String, CreatePaymentRequest>> records = new ArrayList<>();
+        for (int sequence = 0; sequence < 20; sequence++) {
+            for (long orderId = 1; orderId <= 10; orderId++) {
+                records.add(record(records.size(), orderId, BigDecimal.valueOf(sequence)));
+            }
+        }
+
+        // action
+        consumer.consumeCreatePayments(records);
+
+        // assertThat
+        assertThat(seen).hasSize(10);
+        seen.values().forEach(amounts -> assertThat(amounts).isSortedAccordingTo(BigDecimal::compareTo).hasSize(20));
+    }
+
+    @Test
+    void consumeCreatePayments_failureInLane_reportsLowestFailedIndexAndStopsThatLane() {
+        // given
+        List<ConsumerRecord<String, CreatePaymentRequest>> records = List.of(
+                record(0, 1L, BigDecimal.ONE),
+                record(1, 1L, BigDecimal.TWO),
+                record(2, 1L, BigDecimal.TEN));
+        willAnswer(invocation -> {
+            CreatePaymentRequest request = invocation.getArgument(0);
+            if (request.paymentAmount().equals(BigDecimal.TWO)) {
+                throw new IllegalStateException("mongo down");
+            }
+            return null;
+        }).given(paymentFacade).createPayment(any());
+
+        // action & assertThat
+        assertThatThrownBy(() -> consumer.consumeCreatePayments(records))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .extracting(e -> ((BatchListenerFailedException) e).getIndex())
+                .isEqualTo(1);
+        then(paymentFacade).should(times(2)).createPayment(any());
+        then(paymentFacade).should(never()).createPayment(argThat(request -> request != null
+                && request.paymentAmount().equals(BigDecimal.TEN)));
+    }
+
+    @Test
+    void consumeCreatePayments_redeliveryAfterOtherLaneFailed_doesNotCreateCompletedPaymentsAgain() {
+        // given
+        List<ConsumerRecord<String, CreatePaymentRequest>> records = List.of(
+                record(0, 1L, BigDecimal.ONE),
+                record(1, 2L, BigDecimal.TWO),
+                record(2, 1L, BigDecimal.TEN));
+        AtomicBoolean mongoDown = new AtomicBoolean(true);
+        willAnswer(invocation -> {
+            CreatePaymentRequest request = invocation.getArgument(0);
+            if (request.orderId() == 1L && mongoDown.get()) {
+                throw new IllegalStateException("mongo down");
+            }
+            return null;
+        }).given(paymentFacade).createPayment(any());
+        assertThatThrownBy(() -> consumer.consumeCreatePayments(records))
+                .isInstanceOf(BatchListenerFailedException.class);
+
+        // action
+        mongoDown.set(false);
+        consumer.consumeCreatePayments(records);
+
+        // assertThat
+        then(paymentFacade).should(times(1)).createPayment(argThat(request -> request != null && request.orderId() == 2L));
+        then(paymentFacade).should(times(1)).createPayment(argThat(request -> request != null
+                && request.paymentAmount().equals(BigDecimal.TEN)));
+    }
+
+    @Test
+    void consumeCreatePayments_invalidRecord_failsAtItsIndex() {
+        // given
+        List<ConsumerRecord<String, CreatePaymentRequest>> records = List.of(
+                record(0, 1L, BigDecimal.ONE),
+                new ConsumerRecord<>("CREATE_ORDER", 0, 1, "2", new CreatePaymentRequest(2L, 5L, null)));
+
+        // action & assertThat
+        assertThatThrownBy(() -> consumer.consumeCreatePayments(records))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .extracting(e -> ((BatchListenerFailedException) e).getIndex())
+                .isEqualTo(1);
+        then(paymentFacade).should(times(1)).createPayment(any());
+    }
+
+    private static ConsumerRecord<String, CreatePaymentRequest> record(long offset, Long orderId, BigDecimal amount) {
+        return new ConsumerRecord<>("CREATE_ORDER", 0, offset, orderId.toString(),
+                new CreatePaymentRequest(orderId, 5L, amount));
+    }
+}
@@ -0,0 +1,76 @@
+package com.intern.paymentservice.unit.service.broker;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.service.PaymentFacade;
+import com.intern.paymentservice.service.broker.PaymentConsumer;
+import com.intern.paymentservice.service.broker.backpressure.ConsumerBackpressureController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class PaymentConsumerTest {
+
+    @Mock
+    PaymentFacade paymentFacade;
+
+    @Mock
+    KafkaListenerEndpointRegistry listenerRegistry;
+
+    SimpleMeterRegistry meterRegistry;
+
+    PaymentConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new PaymentConsumer(paymentFacade,
+                new ConsumerBackpressureController(listenerRegistry, new SimpleMeterRegistry()), meterRegistry);
+    }
+
+    @Test
+    void consumeCreatePayment_success_recordsEndToEndLatencyWithSuccessOutcome() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 1L, BigDecimal.TEN);
+
+        // action
+        consumer.consumeCreatePayment(request, System.currentTimeMillis());
+
+        // assertThat
+        assertThat(endToEndCount("success")).isEqualTo(1);
+        assertThat(endToEndCount("error")).isZero();
+    }
+
+    @Test
+    void consumeCreatePayment_facadeFails_recordsEndToEndLatencyWithErrorOutcome() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 1L, BigDecimal.TEN);
+        given(paymentFacade.createPayment(any())).willThrow(new TransientDataAccessResourceException("down"));
+
+        // action
+        assertThatThrownBy(() -> consumer.consumeCreatePayment(request, System.currentTimeMillis()))
+                .isInstanceOf(TransientDataAccessResourceException.class);
+
+        // assertThat
+        assertThat(endToEndCount("error")).isEqualTo(1);
+        assertThat(endToEndCount("success")).isZero();
+    }
+
+    private long endToEndCount(String outcome) {
+        return meterRegistry.get("payment.kafka.consumer.end-to-end").tag("outcome", outcome).timer().count();
+    }
+}
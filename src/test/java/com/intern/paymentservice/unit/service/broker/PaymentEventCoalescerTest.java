@@ -0,0 +1,111 @@
+package com.intern.paymentservice.unit.service.broker;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.service.broker.PaymentEventCoalescer;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class PaymentEventCoalescerTest {
+
+    @Mock
+    PaymentProducer paymentProducer;
+
+    SimpleMeterRegistry meterRegistry;
+    PaymentEventCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new PaymentEventCoalescer(paymentProducer, meterRegistry, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.destroy();
+    }
+
+    @Test
+    void submit_sameOrderWithinWindow_publishesOnlyLatest() {
+        // given
+        PaymentResponse pending = response(1L, PaymentStatus.PENDING);
+        PaymentResponse success = response(1L, PaymentStatus.SUCCESS);
+
+        // action
+        coalescer.submit(pending);
+        coalescer.submit(success);
+
+        // assertThat
+        verify(paymentProducer, timeout(1000)).sendPaymentUpdate(success);
+        verify(paymentProducer, never()).sendPaymentUpdate(pending);
+        assertThat(meterRegistry.get("payment.events.coalesced").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void submit_differentOrders_publishesBoth() {
+        // given
+        PaymentResponse first = response(1L, PaymentStatus.SUCCESS);
+        PaymentResponse second = response(2L, PaymentStatus.FAILED);
+
+        // action
+        coalescer.submit(first);
+        coalescer.submit(second);
+
+        // assertThat
+        verify(paymentProducer, timeout(1000)).sendPaymentUpdate(first);
+        verify(paymentProducer, timeout(1000)).sendPaymentUpdate(second);
+    }
+
+    @Test
+    void submit_differentPaymentsOfOneOrder_publishesBoth() {
+        // given
+        PaymentResponse failed = new PaymentResponse("p1", 1L, 100L, PaymentStatus.FAILED, Instant.now(), BigDecimal.TEN);
+        PaymentResponse retried = new PaymentResponse("p2", 1L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+
+        // action
+        coalescer.submit(failed);
+        coalescer.submit(retried);
+
+        // assertThat
+        verify(paymentProducer, timeout(1000)).sendPaymentUpdate(failed);
+        verify(paymentProducer, timeout(1000)).sendPaymentUpdate(retried);
+        assertThat(meterRegistry.get("payment.events.coalesced").counter().count()).isZero();
+    }
+
+    @Test
+    void destroy_heldEvent_isFlushed() {
+        // given
+        coalescer.destroy();
+        coalescer = new PaymentEventCoalescer(paymentProducer, meterRegistry, Duration.ofMinutes(1));
+        PaymentResponse pending = response(1L, PaymentStatus.PENDING);
+        coalescer.submit(pending);
+
+        // action
+        coalescer.destroy();
+
+        // assertThat
+        verify(paymentProducer).sendPaymentUpdate(pending);
+    }
+
+    private static PaymentResponse response(Long orderId, PaymentStatus status) {
+        return new PaymentResponse("p" + orderId, orderId, 100L, status, Instant.now(), BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,218 @@
+package com.intern.paymentservice.unit.service.broker;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import com.intern.paymentservice.service.broker.PaymentStateSeeder;
+import com.intern.paymentservice.service.broker.spool.PaymentEventSpool;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class PaymentProducerTest {
+
+    @Mock
+    KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    ObjectProvider<PaymentEventSpool> spoolProvider;
+
+    @Mock
+    PaymentEventSpool spool;
+
+    @Mock
+    ObjectProvider<PaymentStateSeeder> seederProvider;
+
+    @Mock
+    PaymentStateSeeder seeder;
+
+    @Test
+    void sendPaymentUpdate_stateTopicEnabled_sendsUpdateAndStateKeyedByPaymentId() {
+        // given
+        PaymentProducer producer = producer(true);
+        PaymentResponse response = new PaymentResponse("p1", 10L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        given(kafkaTemplate.send(anyString(), anyString(), any())).willReturn(CompletableFuture.completedFuture(null));
+
+        // action
+        producer.sendPaymentUpdate(response);
+
+        // assertThat
+        verify(kafkaTemplate).send(PaymentProducer.UPDATE_PAYMENT_TOPIC, "10", response);
+        verify(kafkaTemplate).send(PaymentProducer.PAYMENT_STATE_TOPIC, "p1", response);
+    }
+
+    @Test
+    void sendPaymentUpdate_stateTopicDisabled_sendsOnlyUpdate() {
+        // given
+        PaymentProducer producer = producer(false);
+        PaymentResponse response = new PaymentResponse("p1", 10L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        given(kafkaTemplate.send(anyString(), anyString(), any())).willReturn(CompletableFuture.completedFuture(null));
+
+        // action
+        producer.sendPaymentUpdate(response);
+
+        // assertThat
+        verify(kafkaTemplate).send(PaymentProducer.UPDATE_PAYMENT_TOPIC, "10", response);
+        verify(kafkaTemplate, never()).send(PaymentProducer.PAYMENT_STATE_TOPIC, "p1", response);
+    }
+
+    @Test
+    void sendPaymentDeleted_stateTopicEnabled_sendsTombstone() {
+        // given
+        PaymentProducer producer = producer(true);
+        given(kafkaTemplate.send(anyString(), anyString(), any())).willReturn(CompletableFuture.completedFuture(null));
+
+        // action
+        producer.sendPaymentDeleted("p1");
+
+        // assertThat
+        verify(kafkaTemplate).send(PaymentProducer.PAYMENT_STATE_TOPIC, "p1", null);
+    }
+
+    @Test
+    void sendPaymentDeleted_stateTopicDisabled_sendsNothing() {
+        // given
+        PaymentProducer producer = producer(false);
+
+        // action
+        producer.sendPaymentDeleted("p1");
+
+        // assertThat
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+    }
+
+    @Test
+    void sendPaymentUpdate_spoolTakesEvent_doesNotReachProducer() {
+        // given
+        PaymentProducer producer = spooledProducer();
+        PaymentResponse response = new PaymentResponse("p1", 10L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        given(spool.offer(response)).willReturn(true);
+
+        // action
+        producer.sendPaymentUpdate(response);
+
+        // assertThat
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        verify(spool, never()).onSendComplete(any(), any());
+    }
+
+    @Test
+    void sendPaymentUpdate_spoolBypassed_reportsOutcomeOfTheSend() {
+        // given
+        PaymentProducer producer = spooledProducer();
+        PaymentResponse response = new PaymentResponse("p1", 10L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        TimeoutException failure = new TimeoutException("Topic UPDATE_PAYMENT not present in metadata after 500 ms");
+        given(spool.offer(response)).willReturn(false);
+        given(kafkaTemplate.send(PaymentProducer.UPDATE_PAYMENT_TOPIC, "10", response))
+                .willReturn(CompletableFuture.failedFuture(failure));
+        given(spool.onSendComplete(response, failure)).willReturn(true);
+
+        // action
+        producer.sendPaymentUpdate(response);
+
+        // assertThat
+        verify(spool).onSendComplete(response, failure);
+    }
+
+    @Test
+    void sendPaymentUpdate_sendThrowsUnspoolableError_rethrows() {
+        // given
+        PaymentProducer producer = spooledProducer();
+        PaymentResponse response = new PaymentResponse("p1", 10L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        IllegalStateException failure = new IllegalStateException("producer closed");
+        given(spool.offer(response)).willReturn(false);
+        given(kafkaTemplate.send(PaymentProducer.UPDATE_PAYMENT_TOPIC, "10", response)).willThrow(failure);
+        given(spool.onSendComplete(response, failure)).willReturn(false);
+
+        // action & assertThat
+        assertThatThrownBy(() -> producer.sendPaymentUpdate(response)).isSameAs(failure);
+    }
+
+    @Test
+    void sendPaymentUpdate_spoolBypassedAndStateSendFails_reportsTheFailure() {
+        // given
+        PaymentProducer producer = spooledProducer(true);
+        PaymentResponse response = new PaymentResponse("p1", 10L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        TimeoutException failure = new TimeoutException("Expiring 1 record(s)");
+        given(spool.offer(response)).willReturn(false);
+        given(kafkaTemplate.send(PaymentProducer.UPDATE_PAYMENT_TOPIC, "10", response))
+                .willReturn(CompletableFuture.completedFuture(null));
+        given(kafkaTemplate.send(PaymentProducer.PAYMENT_STATE_TOPIC, "p1", response))
+                .willReturn(CompletableFuture.failedFuture(failure));
+        given(spool.onSendComplete(eq(response), any())).willReturn(true);
+
+        // action
+        producer.sendPaymentUpdate(response);
+
+        // assertThat
+        verify(spool).onSendComplete(eq(response), argThat(reported -> reported != null && reported.getCause() == failure));
+    }
+
+    @Test
+    void sendPaymentDeleted_spoolTakesTombstone_doesNotReachProducer() {
+        // given
+        PaymentProducer producer = spooledProducer(true);
+        given(spool.offer(any())).willReturn(true);
+
+        // action
+        producer.sendPaymentDeleted("p1");
+
+        // assertThat
+        verify(spool).offer(argThat(tombstone -> PaymentProducer.isTombstone(tombstone) && "p1".equals(tombstone.id())));
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+    }
+
+    @Test
+    void sendPaymentUpdate_seederPresent_reportsTheSendBeforeMakingIt() {
+        // given
+        given(spoolProvider.getIfAvailable()).willReturn(null);
+        given(seederProvider.getIfAvailable()).willReturn(seeder);
+        PaymentProducer producer = new PaymentProducer(kafkaTemplate, spoolProvider, seederProvider, true);
+        PaymentResponse response = new PaymentResponse("p1", 10L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        given(kafkaTemplate.send(anyString(), anyString(), any())).willReturn(CompletableFuture.completedFuture(null));
+
+        // action
+        producer.sendPaymentUpdate(response);
+        producer.sendPaymentDeleted("p2");
+
+        // assertThat
+        verify(seeder).onLiveSend(response);
+        verify(seeder).onLiveSend(argThat(tombstone -> PaymentProducer.isTombstone(tombstone) && "p2".equals(tombstone.id())));
+        assertThat(PaymentProducer.isTombstone(response)).isFalse();
+    }
+
+    private PaymentProducer spooledProducer() {
+        return spooledProducer(false);
+    }
+
+    private PaymentProducer spooledProducer(boolean stateTopicEnabled) {
+        given(spoolProvider.getIfAvailable()).willReturn(spool);
+        return new PaymentProducer(kafkaTemplate, spoolProvider, seederProvider, stateTopicEnabled);
+    }
+
+    private PaymentProducer producer(boolean stateTopicEnabled) {
+        given(spoolProvider.getIfAvailable()).willReturn(null);
+        return new PaymentProducer(kafkaTemplate, spoolProvider, seederProvider, stateTopicEnabled);
+    }
+}
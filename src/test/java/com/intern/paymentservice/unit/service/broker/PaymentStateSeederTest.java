@@ -0,0 +1,155 @@
+package com.intern.paymentservice.unit.service.broker;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.mapper.PaymentMapper;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.repository.PaymentRepository;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import com.intern.paymentservice.service.broker.PaymentStateSeeder;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class PaymentStateSeederTest {
+
+    @Mock
+    PaymentRepository paymentRepository;
+
+    @Mock
+    PaymentMapper paymentMapper;
+
+    @Mock
+    DefaultKafkaProducerFactory<String, Object> producerFactory;
+
+    PaymentStateSeeder seeder;
+
+    @AfterEach
+    void tearDown() {
+        seeder.destroy();
+    }
+
+    @Test
+    void seed_liveSendBeforeTheRead_skipsThePayment() throws InterruptedException {
+        // given
+        PaymentResponse stale = response(PaymentStatus.PENDING);
+        PaymentResponse live = response(PaymentStatus.SUCCESS);
+        MockProducer<String, Object> producer = producer(record -> {
+        });
+        seeder = seeder(producer, stale, () -> seeder.onLiveSend(live));
+
+        // action
+        awaitRun(seeder.seed());
+
+        // assertThat
+        assertThat(producer.history()).isEmpty();
+        assertThat(seeder.getProgress().state()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void seed_liveSendWhileSeedUnacknowledged_sendsTheLiveStateAgain() throws InterruptedException {
+        // given
+        PaymentResponse stale = response(PaymentStatus.PENDING);
+        PaymentResponse live = response(PaymentStatus.SUCCESS);
+        MockProducer<String, Object> producer = producer(record -> {
+            if (record.value() == stale) {
+                seeder.onLiveSend(live);
+            }
+        });
+        seeder = seeder(producer, stale, () -> {
+        });
+
+        // action
+        awaitRun(seeder.seed());
+
+        // assertThat
+        assertThat(producer.history()).extracting(ProducerRecord::value).containsExactly(stale, live);
+    }
+
+    @Test
+    void seed_tombstoneWhileSeedUnacknowledged_sendsTheTombstoneAgain() throws InterruptedException {
+        // given
+        PaymentResponse stale = response(PaymentStatus.PENDING);
+        MockProducer<String, Object> producer = producer(record -> {
+            if (record.value() == stale) {
+                seeder.onLiveSend(PaymentProducer.tombstone("p1"));
+            }
+        });
+        seeder = seeder(producer, stale, () -> {
+        });
+
+        // action
+        awaitRun(seeder.seed());
+
+        // assertThat
+        List<ProducerRecord<String, Object>> history = producer.history();
+        assertThat(history).hasSize(2);
+        assertThat(history.get(1).key()).isEqualTo("p1");
+        assertThat(history.get(1).value()).isNull();
+    }
+
+    private PaymentStateSeeder seeder(MockProducer<String, Object> producer, PaymentResponse read, Runnable beforeRead) {
+        Payment payment = new Payment();
+        given(producerFactory.copyWithConfigurationOverride(anyMap())).willReturn(producerFactory);
+        given(producerFactory.createProducer()).willReturn(producer);
+        given(paymentMapper.toResponse(payment)).willReturn(read);
+        willAnswer(invocation -> {
+            beforeRead.run();
+            Consumer<Payment> action = invocation.getArgument(1);
+            action.accept(payment);
+            return 1L;
+        }).given(paymentRepository).forEachPayment(anyInt(), any());
+        return new PaymentStateSeeder(paymentRepository, paymentMapper, producerFactory, 10, 100, Duration.ZERO);
+    }
+
+    private static MockProducer<String, Object> producer(Consumer<ProducerRecord<String, Object>> beforeAck) {
+        return new MockProducer<>(true, null, new StringSerializer(), (topic, value) -> new byte[0]) {
+            @Override
+            public synchronized Future<RecordMetadata> send(ProducerRecord<String, Object> record, Callback callback) {
+                beforeAck.accept(record);
+                return super.send(record, callback);
+            }
+
+            @Override
+            public void close(Duration timeout) {
+                // The template closes its producer after every send; the test reads the history afterwards
+            }
+        };
+    }
+
+    private void awaitRun(PaymentStateSeeder.Progress started) throws InterruptedException {
+        assertThat(started.state()).isEqualTo("RUNNING");
+        for (int i = 0; i < 100 && "RUNNING".equals(seeder.getProgress().state()); i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static PaymentResponse response(PaymentStatus status) {
+        return new PaymentResponse("p1", 10L, 100L, status, Instant.now(), BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,96 @@
+package com.intern.paymentservice.unit.service.broker;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.service.ReactivePaymentFacade;
+import com.intern.paymentservice.service.broker.ReactivePaymentConsumer;
+import com.intern.paymentservice.service.broker.backpressure.ConsumerBackpressureController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class ReactivePaymentConsumerTest {
+
+    @Mock
+    ReactivePaymentFacade paymentFacade;
+
+    @Mock
+    KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    MessageListenerContainer container;
+
+    ReactivePaymentConsumer consumer;
+
+    List<Sinks.One<PaymentResponse>> pending = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        consumer = new ReactivePaymentConsumer(paymentFacade,
+                new ConsumerBackpressureController(listenerRegistry, new SimpleMeterRegistry()), 4);
+        given(paymentFacade.createPayment(any(), any())).willAnswer(invocation -> {
+            Sinks.One<PaymentResponse> sink = Sinks.one();
+            pending.add(sink);
+            return sink.asMono();
+        });
+    }
+
+    @Test
+    void consumeCreatePayment_windowFull_pausesWithoutBlockingAndResumesAtHalf() {
+        // given
+        given(listenerRegistry.getListenerContainer(ConsumerBackpressureController.LISTENER_ID)).willReturn(container);
+
+        // action
+        for (int i = 0; i < 5; i++) {
+            consumer.consumeCreatePayment(request(i)).subscribe();
+        }
+
+        // assertThat
+        then(container).should(times(1)).pause();
+        then(container).should(never()).resume();
+
+        // action
+        pending.get(0).tryEmitEmpty();
+        pending.get(1).tryEmitEmpty();
+        then(container).should(never()).resume();
+        pending.get(2).tryEmitEmpty();
+
+        // assertThat
+        then(container).should(times(1)).resume();
+    }
+
+    @Test
+    void consumeCreatePayment_belowWindow_neverPauses() {
+        // action
+        for (int i = 0; i < 3; i++) {
+            consumer.consumeCreatePayment(request(i)).subscribe();
+        }
+        pending.forEach(Sinks.One::tryEmitEmpty);
+
+        // assertThat
+        then(listenerRegistry).shouldHaveNoInteractions();
+    }
+
+    private static CreatePaymentRequest request(long orderId) {
+        return new CreatePaymentRequest(orderId, 100L, BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,203 @@
+package com.intern.paymentservice.unit.service.broker.backpressure;
+
+import com.intern.paymentservice.service.broker.backpressure.AimdLimiter;
+import com.intern.paymentservice.service.broker.backpressure.ConsumerBackpressureController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class ConsumerBackpressureControllerTest {
+
+    @Mock
+    KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    MessageListenerContainer container;
+
+    SimpleMeterRegistry meterRegistry;
+
+    ConsumerBackpressureController controller;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        controller = new ConsumerBackpressureController(listenerRegistry, meterRegistry);
+        ReflectionTestUtils.setField(controller, "enabled", true);
+        ReflectionTestUtils.setField(controller, "initialLimit", 4);
+        ReflectionTestUtils.setField(controller, "minLimit", 1);
+        ReflectionTestUtils.setField(controller, "maxLimit", 8);
+        ReflectionTestUtils.setField(controller, "decreaseFactor", 0.5);
+        ReflectionTestUtils.setField(controller, "latencyThreshold", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(controller, "errorRateThreshold", 0.1);
+        ReflectionTestUtils.setField(controller, "pauseDuration", Duration.ZERO);
+        ReflectionTestUtils.invokeMethod(controller, "init");
+    }
+
+    @Test
+    void evaluate_healthyWindow_growsLimitAdditively() {
+        // given
+        controller.call(() -> "ok");
+
+        // action
+        controller.evaluate();
+
+        // assertThat
+        assertThat(limit()).isEqualTo(5);
+    }
+
+    @Test
+    void evaluate_failingWindow_shrinksLimitMultiplicatively() {
+        // given
+        failOnce();
+
+        // action
+        controller.evaluate();
+
+        // assertThat
+        assertThat(limit()).isEqualTo(2);
+    }
+
+    @Test
+    void evaluate_failingAtMinimum_pausesAndLaterResumesListener() {
+        // given
+        given(listenerRegistry.getListenerContainer(ConsumerBackpressureController.LISTENER_ID)).willReturn(container);
+        given(container.getAssignedPartitions()).willReturn(List.of(
+                new TopicPartition("CREATE_ORDER", 0), new TopicPartition("CREATE_ORDER", 1)));
+        for (int i = 0; i < 3; i++) {
+            failOnce();
+            controller.evaluate();
+        }
+
+        // assertThat
+        then(container).should().pause();
+        assertThat(meterRegistry.get("payment.consumer.backpressure.paused.partitions").gauge().value()).isEqualTo(2);
+
+        // action
+        controller.evaluate();
+
+        // assertThat
+        then(container).should().resume();
+        assertThat(meterRegistry.get("payment.consumer.backpressure.paused.partitions").gauge().value()).isZero();
+    }
+
+    @Test
+    void evaluate_recordMode_keepsOnlyLimitConsumerThreadsRunning() {
+        // given
+        ConcurrentMessageListenerContainer<?, ?> concurrent = mock(ConcurrentMessageListenerContainer.class);
+        List<KafkaMessageListenerContainer<Object, Object>> consumers = List.of(
+                mock(KafkaMessageListenerContainer.class), mock(KafkaMessageListenerContainer.class),
+                mock(KafkaMessageListenerContainer.class));
+        // Only the paused consumers are asked for their partitions
+        consumers.forEach(consumer -> lenient().when(consumer.getAssignedPartitions())
+                .thenReturn(List.of(new TopicPartition("CREATE_ORDER", 0))));
+        willReturn(consumers).given(concurrent).getContainers();
+        given(listenerRegistry.getListenerContainer(ConsumerBackpressureController.LISTENER_ID)).willReturn(concurrent);
+        ReflectionTestUtils.setField(controller, "initialLimit", 2);
+        ReflectionTestUtils.invokeMethod(controller, "init");
+        failOnce();
+
+        // action
+        controller.evaluate();
+
+        // assertThat
+        long paused = consumers.stream().filter(consumer -> mockingDetails(consumer).getInvocations().stream()
+                .anyMatch(invocation -> invocation.getMethod().getName().equals("pause"))).count();
+        assertThat(paused).isEqualTo(2);
+        assertThat(meterRegistry.get("payment.consumer.backpressure.paused.partitions").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void callAsync_adaptiveLimitReached_pausesUntilHalfCompleted() {
+        // given
+        given(listenerRegistry.getListenerContainer(ConsumerBackpressureController.LISTENER_ID)).willReturn(container);
+        List<Sinks.Empty<Void>> pending = new ArrayList<>();
+
+        // action
+        for (int i = 0; i < 4; i++) {
+            Sinks.Empty<Void> sink = Sinks.empty();
+            pending.add(sink);
+            controller.callAsync(sink::asMono, 256).subscribe();
+        }
+
+        // assertThat
+        then(container).should().pause();
+        assertThat(meterRegistry.get("payment.consumer.backpressure.in.flight").gauge().value()).isEqualTo(4);
+
+        // action
+        pending.get(0).tryEmitEmpty();
+        pending.get(1).tryEmitEmpty();
+
+        // assertThat
+        then(container).should().resume();
+    }
+
+    @Test
+    void call_disabled_passesThrough() {
+        // given
+        ConsumerBackpressureController disabled = new ConsumerBackpressureController(listenerRegistry, meterRegistry);
+
+        // action & assertThat
+        assertThat(disabled.call(() -> 42)).isEqualTo(42);
+    }
+
+    @Test
+    void aimdLimiter_limitReached_blocksUntilReleased() throws InterruptedException {
+        // given
+        AimdLimiter limiter = new AimdLimiter(1, 1, 4, 0.5);
+        limiter.acquire();
+        Thread waiter = Thread.ofPlatform().start(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // action
+        waiter.join(200);
+        boolean blocked = waiter.isAlive();
+        limiter.release();
+        waiter.join(1000);
+
+        // assertThat
+        assertThat(blocked).isTrue();
+        assertThat(waiter.isAlive()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    private void failOnce() {
+        assertThatThrownBy(() -> controller.call(() -> {
+            throw new IllegalStateException("decision API timeout");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    private double limit() {
+        return meterRegistry.get("payment.consumer.backpressure.limit").gauge().value();
+    }
+}
@@ -0,0 +1,161 @@
+package com.intern.paymentservice.unit.service.broker.codec;
+
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.service.broker.codec.PaymentBinaryCodec;
+import com.intern.paymentservice.service.broker.codec.PaymentEventDeserializer;
+import com.intern.paymentservice.service.broker.codec.PaymentEventSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("unit")
+class PaymentBinaryCodecTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2025-03-01T10:15:30.123Z");
+
+    @Test
+    void encodeDecode_paymentResponse_roundTrips() {
+        // given
+        PaymentResponse response = new PaymentResponse(new ObjectId().toHexString(), 42L, 7L,
+                PaymentStatus.SUCCESS, TIMESTAMP, new BigDecimal("1234.50"));
+
+        // action
+        Object decoded = PaymentBinaryCodec.decode(PaymentBinaryCodec.encode(response));
+
+        // assertThat
+        assertThat(decoded).isEqualTo(response);
+    }
+
+    @Test
+    void encodeDecode_createPaymentRequestWithNullsAndLargeAmount_roundTrips() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(Long.MAX_VALUE, null,
+                new BigDecimal("123456789012345678901234567890.0001"));
+
+        // action
+        Object decoded = PaymentBinaryCodec.decode(PaymentBinaryCodec.encode(request));
+
+        // assertThat
+        assertThat(decoded).isEqualTo(request);
+    }
+
+    @Test
+    void encodeDecode_nonObjectIdAndNegativeScale_roundTrips() {
+        // given
+        PaymentResponse response = new PaymentResponse("legacy-id", -1L, 0L, null, null, new BigDecimal("1E+3"));
+
+        // action
+        Object decoded = PaymentBinaryCodec.decode(PaymentBinaryCodec.encode(response));
+
+        // assertThat
+        assertThat(decoded).isEqualTo(response);
+    }
+
+    @Test
+    void encode_typicalEvent_isMuchSmallerThanJson() {
+        // given
+        PaymentResponse response = new PaymentResponse(new ObjectId().toHexString(), 123456L, 98765L,
+                PaymentStatus.PENDING, TIMESTAMP, new BigDecimal("99.99"));
+        PaymentEventSerializer serializer = new PaymentEventSerializer();
+        serializer.configure(Map.of(), false);
+
+        // action
+        byte[] binary = PaymentBinaryCodec.encode(response);
+        byte[] json = serializer.serialize("UPDATE_PAYMENT", new RecordHeaders(), response);
+
+        // assertThat
+        assertThat(binary.length).isLessThan(json.length / 3);
+    }
+
+    @Test
+    void decode_unknownVersion_throwsSerializationException() {
+        // given
+        byte[] data = PaymentBinaryCodec.encode(new CreatePaymentRequest(1L, 2L, BigDecimal.ONE));
+        data[0] = 99;
+
+        // action & assertThat
+        assertThatThrownBy(() -> PaymentBinaryCodec.decode(data))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void decode_truncatedPayload_throwsSerializationException() {
+        // given
+        byte[] data = PaymentBinaryCodec.encode(new CreatePaymentRequest(1L, 2L, BigDecimal.ONE));
+        byte[] truncated = Arrays.copyOf(data, data.length - 1);
+
+        // action & assertThat
+        assertThatThrownBy(() -> PaymentBinaryCodec.decode(truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void serializerAndDeserializer_binaryMode_selectCodecByHeader() {
+        // given
+        PaymentEventSerializer serializer = new PaymentEventSerializer();
+        serializer.configure(Map.of(PaymentEventSerializer.CODEC_CONFIG, "binary"), false);
+        PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+        deserializer.configure(Map.of(
+                "spring.json.use.type.headers", false,
+                "spring.json.value.default.type", CreatePaymentRequest.class.getName()), false);
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 2L, new BigDecimal("10.00"));
+        RecordHeaders headers = new RecordHeaders();
+
+        // action
+        byte[] data = serializer.serialize("CREATE_ORDER", headers, request);
+        Object decoded = deserializer.deserialize("CREATE_ORDER", headers, data);
+
+        // assertThat
+        assertThat(headers.lastHeader(PaymentBinaryCodec.CODEC_HEADER)).isNotNull();
+        assertThat(decoded).isEqualTo(request);
+    }
+
+    @Test
+    void deserializer_binaryTypeNotMatchingTopic_throwsSerializationException() {
+        // given
+        PaymentEventSerializer serializer = new PaymentEventSerializer();
+        serializer.configure(Map.of(PaymentEventSerializer.CODEC_CONFIG, "binary"), false);
+        PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+        PaymentResponse update = new PaymentResponse(new ObjectId().toHexString(), 1L, 2L,
+                PaymentStatus.SUCCESS, TIMESTAMP, new BigDecimal("10.00"));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data = serializer.serialize("UPDATE_PAYMENT", headers, update);
+
+        // action & assertThat
+        assertThatThrownBy(() -> deserializer.deserialize("CREATE_ORDER", headers, data))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("CREATE_ORDER");
+        assertThatThrownBy(() -> deserializer.deserialize("CREATE_ORDER-dlt", headers, data))
+                .isInstanceOf(SerializationException.class);
+        assertThat(deserializer.deserialize("UPDATE_PAYMENT", headers, data)).isEqualTo(update);
+    }
+
+    @Test
+    void deserializer_recordWithoutHeader_fallsBackToJson() {
+        // given
+        PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+        deserializer.configure(Map.of(
+                "spring.json.use.type.headers", false,
+                "spring.json.value.default.type", CreatePaymentRequest.class.getName()), false);
+        byte[] json = "{\"orderId\":1,\"userId\":2,\"paymentAmount\":10.00}".getBytes();
+
+        // action
+        Object decoded = deserializer.deserialize("CREATE_ORDER", new RecordHeaders(), json);
+
+        // assertThat
+        assertThat(decoded).isEqualTo(new CreatePaymentRequest(1L, 2L, new BigDecimal("10.00")));
+    }
+}
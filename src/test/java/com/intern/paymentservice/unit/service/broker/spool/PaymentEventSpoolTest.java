@@ -0,0 +1,248 @@
+package com.intern.paymentservice.unit.service.broker.spool;
+
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import com.intern.paymentservice.service.broker.spool.PaymentEventSpool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class PaymentEventSpoolTest {
+
+    private static final TimeoutException BROKER_DOWN = new TimeoutException("Expiring 1 record(s)");
+
+    @Mock
+    KafkaTemplate<String, Object> kafkaTemplate;
+
+    @TempDir
+    Path directory;
+
+    SimpleMeterRegistry meterRegistry;
+
+    PaymentEventSpool spool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        spool = new PaymentEventSpool(kafkaTemplate, meterRegistry, directory, DataSize.ofKilobytes(64),
+                DataSize.ofMegabytes(1), 100, Duration.ofSeconds(1), Duration.ofSeconds(1), 0.9, 2, false, false);
+        // Running without the drainer thread; tests drain explicitly
+        ReflectionTestUtils.setField(spool, "running", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        spool.stop();
+    }
+
+    @Test
+    void offer_brokerAvailable_leavesEventToProducer() {
+        // action & assertThat
+        assertThat(spool.offer(response("p1", 1L))).isFalse();
+        assertThat(depth()).isZero();
+    }
+
+    @Test
+    void onSendComplete_retriableFailure_spoolsAndRoutesLaterEventsToSpool() {
+        // given
+        PaymentResponse first = response("p1", 1L);
+        spool.offer(first);
+
+        // action
+        boolean spooled = spool.onSendComplete(first, BROKER_DOWN);
+
+        // assertThat
+        assertThat(spooled).isTrue();
+        assertThat(spool.offer(response("p2", 2L))).isTrue();
+        assertThat(depth()).isEqualTo(2);
+    }
+
+    @Test
+    void onSendComplete_nonRetriableFailure_isLeftToCaller() {
+        // given
+        PaymentResponse first = response("p1", 1L);
+        spool.offer(first);
+
+        // action & assertThat
+        assertThat(spool.onSendComplete(first, new RecordTooLargeException("too large"))).isFalse();
+        assertThat(depth()).isZero();
+    }
+
+    @Test
+    void offer_whileEarlierSendsInFlight_spoolsFailedSendsBeforeNewerEvents() {
+        // given
+        PaymentResponse pending = response("p1", 1L);
+        PaymentResponse otherOrder = response("p2", 2L);
+        PaymentResponse settled = new PaymentResponse("p1", 1L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        spool.offer(pending);
+        spool.offer(otherOrder);
+        spool.onSendComplete(otherOrder, BROKER_DOWN);
+
+        // action
+        boolean held = spool.offer(settled);
+        spool.onSendComplete(pending, BROKER_DOWN);
+
+        // assertThat
+        assertThat(held).isTrue();
+        List<Object> replayed = captureSends();
+        drain();
+        assertThat(replayed).extracting(event -> ((PaymentResponse) event).id()).containsExactly("p2", "p1", "p1");
+        assertThat(replayed).extracting(event -> ((PaymentResponse) event).status())
+                .containsExactly(PaymentStatus.PENDING, PaymentStatus.PENDING, PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    void offer_heldEventsAtLimit_rejectsNewEventsAndKeepsTheHeldOnes() {
+        // given
+        PaymentResponse pending = response("p1", 1L);
+        PaymentResponse otherOrder = response("p2", 2L);
+        spool.offer(pending);
+        spool.offer(otherOrder);
+        spool.onSendComplete(otherOrder, BROKER_DOWN);
+        spool.offer(response("p3", 3L));
+        spool.offer(response("p4", 4L));
+
+        // action & assertThat
+        assertThatThrownBy(() -> spool.offer(response("p5", 5L))).isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get("payment.spool.held").gauge().value()).isEqualTo(2);
+        spool.onSendComplete(pending, null);
+        assertThat(meterRegistry.get("payment.spool.held").gauge().value()).isZero();
+        assertThat(depth()).isEqualTo(3);
+    }
+
+    @Test
+    void drainBatch_eventRejectedForGood_movesItToDeadLetterAndContinues() {
+        // given
+        spoolWhileBrokerDown(response("p1", 1L), response("p2", 2L));
+        given(kafkaTemplate.send(eq(PaymentProducer.UPDATE_PAYMENT_TOPIC), eq("1"), any()))
+                .willReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+        given(kafkaTemplate.send(eq(PaymentProducer.UPDATE_PAYMENT_TOPIC), eq("2"), any()))
+                .willReturn(CompletableFuture.completedFuture(null));
+
+        // action
+        boolean complete = drain();
+
+        // assertThat
+        assertThat(complete).isTrue();
+        assertThat(depth()).isZero();
+        assertThat(meterRegistry.get("payment.spool.dead.letter.depth").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.spool.dead.lettered").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void drainBatch_brokerStillDown_keepsEventsFromTheFailedOneOn() {
+        // given
+        spoolWhileBrokerDown(response("p1", 1L), response("p2", 2L));
+        given(kafkaTemplate.send(eq(PaymentProducer.UPDATE_PAYMENT_TOPIC), eq("1"), any()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        given(kafkaTemplate.send(eq(PaymentProducer.UPDATE_PAYMENT_TOPIC), eq("2"), any()))
+                .willReturn(CompletableFuture.failedFuture(BROKER_DOWN));
+
+        // action
+        boolean complete = drain();
+
+        // assertThat
+        assertThat(complete).isFalse();
+        assertThat(depth()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.spool.dead.lettered").counter().count()).isZero();
+    }
+
+    @Test
+    void drainBatch_stateTopicSendFails_keepsTheEntry() throws IOException {
+        // given
+        spool.stop();
+        spool = new PaymentEventSpool(kafkaTemplate, new SimpleMeterRegistry(), directory.resolve("state"),
+                DataSize.ofKilobytes(64), DataSize.ofMegabytes(1), 100, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                0.9, 2, true, false);
+        ReflectionTestUtils.setField(spool, "running", true);
+        spoolWhileBrokerDown(response("p1", 1L));
+        given(kafkaTemplate.send(eq(PaymentProducer.UPDATE_PAYMENT_TOPIC), eq("1"), any()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        given(kafkaTemplate.send(eq(PaymentProducer.PAYMENT_STATE_TOPIC), eq("p1"), any()))
+                .willReturn(CompletableFuture.failedFuture(BROKER_DOWN));
+
+        // action & assertThat
+        assertThat(drain()).isFalse();
+        assertThat(drain()).isFalse();
+    }
+
+    @Test
+    void drainBatch_spooledTombstone_sendsOnlyTheStateTombstone() throws IOException {
+        // given
+        spool.stop();
+        spool = new PaymentEventSpool(kafkaTemplate, new SimpleMeterRegistry(), directory.resolve("state"),
+                DataSize.ofKilobytes(64), DataSize.ofMegabytes(1), 100, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                0.9, 2, true, false);
+        ReflectionTestUtils.setField(spool, "running", true);
+        spoolWhileBrokerDown(PaymentProducer.tombstone("p1"));
+        given(kafkaTemplate.send(PaymentProducer.PAYMENT_STATE_TOPIC, "p1", null))
+                .willReturn(CompletableFuture.completedFuture(null));
+
+        // action & assertThat
+        assertThat(drain()).isTrue();
+        verify(kafkaTemplate, never()).send(eq(PaymentProducer.UPDATE_PAYMENT_TOPIC), anyString(), any());
+    }
+
+    private void spoolWhileBrokerDown(PaymentResponse first, PaymentResponse... rest) {
+        spool.offer(first);
+        spool.onSendComplete(first, BROKER_DOWN);
+        for (PaymentResponse response : rest) {
+            spool.offer(response);
+        }
+    }
+
+    private List<Object> captureSends() {
+        List<Object> sent = new ArrayList<>();
+        willAnswer(invocation -> {
+            sent.add(invocation.getArgument(2));
+            return CompletableFuture.completedFuture(null);
+        }).given(kafkaTemplate).send(eq(PaymentProducer.UPDATE_PAYMENT_TOPIC), anyString(), any());
+        return sent;
+    }
+
+    private boolean drain() {
+        Boolean complete = ReflectionTestUtils.invokeMethod(spool, "drainBatch");
+        return Boolean.TRUE.equals(complete);
+    }
+
+    private double depth() {
+        return meterRegistry.get("payment.spool.depth").gauge().value();
+    }
+
+    private static PaymentResponse response(String id, Long orderId) {
+        return new PaymentResponse(id, orderId, 100L, PaymentStatus.PENDING, Instant.now(), BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,129 @@
+package com.intern.paymentservice.unit.service.broker.spool;
+
+import com.intern.paymentservice.service.broker.spool.SegmentSpool;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("unit")
+class SegmentSpoolTest {
+
+    private static final int SEGMENT_BYTES = 128;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void peek_appendedRecords_returnsThemInOrderWithoutRemoving() throws IOException {
+        // given
+        try (SegmentSpool spool = new SegmentSpool(directory, SEGMENT_BYTES, 1024)) {
+            spool.append(bytes("first"), 1L);
+            spool.append(bytes("second"), 2L);
+
+            // action
+            List<SegmentSpool.Entry> entries = spool.peek(10);
+
+            // assertThat
+            assertThat(entries).extracting(entry -> text(entry.payload())).containsExactly("first", "second");
+            assertThat(entries).extracting(SegmentSpool.Entry::appendedAtMillis).containsExactly(1L, 2L);
+            assertThat(spool.depth()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void commit_removesRecordsUpToTheCommittedOne() throws IOException {
+        // given
+        try (SegmentSpool spool = new SegmentSpool(directory, SEGMENT_BYTES, 1024)) {
+            spool.append(bytes("a"), 1L);
+            spool.append(bytes("b"), 2L);
+            spool.append(bytes("c"), 3L);
+
+            // action
+            spool.commit(spool.peek(2).getLast());
+
+            // assertThat
+            assertThat(spool.peek(10)).extracting(entry -> text(entry.payload())).containsExactly("c");
+            assertThat(spool.depth()).isEqualTo(1);
+            assertThat(spool.oldestAppendedAt()).hasValue(3L);
+        }
+    }
+
+    @Test
+    void append_pastSegmentSize_rollsOverAndDeletesDrainedSegments() throws IOException {
+        // given
+        try (SegmentSpool spool = new SegmentSpool(directory, SEGMENT_BYTES, 4096)) {
+            for (int i = 0; i < 20; i++) {
+                spool.append(bytes("record-" + i), i);
+            }
+            assertThat(segmentFiles()).hasSizeGreaterThan(1);
+
+            // action
+            List<SegmentSpool.Entry> entries = spool.peek(100);
+            spool.commit(entries.getLast());
+
+            // assertThat
+            assertThat(entries).hasSize(20);
+            assertThat(entries.get(19).payload()).isEqualTo(bytes("record-19"));
+            assertThat(spool.depth()).isZero();
+            assertThat(segmentFiles()).hasSize(1);
+        }
+    }
+
+    @Test
+    void reopen_afterPartialCommit_resumesFromCheckpoint() throws IOException {
+        // given
+        try (SegmentSpool spool = new SegmentSpool(directory, SEGMENT_BYTES, 4096)) {
+            for (int i = 0; i < 10; i++) {
+                spool.append(bytes("record-" + i), i);
+            }
+            spool.commit(spool.peek(4).getLast());
+        }
+
+        // action
+        try (SegmentSpool reopened = new SegmentSpool(directory, SEGMENT_BYTES, 4096)) {
+            reopened.append(bytes("record-10"), 10L);
+
+            // assertThat
+            assertThat(reopened.depth()).isEqualTo(7);
+            assertThat(reopened.peek(100)).extracting(entry -> text(entry.payload()))
+                    .containsExactly("record-4", "record-5", "record-6", "record-7", "record-8", "record-9", "record-10");
+        }
+    }
+
+    @Test
+    void append_beyondMaxSize_isRejected() throws IOException {
+        // given
+        try (SegmentSpool spool = new SegmentSpool(directory, SEGMENT_BYTES, 40)) {
+            spool.append(bytes("0123456789"), 1L);
+
+            // action + assertThat
+            assertThatThrownBy(() -> spool.append(bytes("0123456789"), 2L))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(spool.depth()).isEqualTo(1);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).toList();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,12 +1,13 @@
 package com.intern.paymentservice.unit.service.impl;
 
+import com.intern.paymentservice.security.PaymentAuthenticationToken;
+import com.intern.paymentservice.security.PaymentPrincipal;
 import com.intern.paymentservice.service.impl.AuthenticationServiceImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,7 +25,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 @Tag("unit")
@@ -169,25 +170,64 @@ class AuthenticationServiceImplTest {
     }
 
     @Test
-    void setBrokerAuthenticationInContext_setsAdminToken() {
+    void getPrincipal_paymentAuthenticationToken_returnsResolvedPrincipal() {
         // given
-        // We need to ensure getContext() returns our mock, which calls setAuthentication
-        // This is already handled by @BeforeEach SecurityContextHolder.setContext(securityContext)
+        PaymentPrincipal resolved = new PaymentPrincipal(7L, PaymentPrincipal.USER);
+        Jwt tokenJwt = Jwt.withTokenValue("token").header("alg", "none").subject("u").build();
+        given(securityContext.getAuthentication())
+                .willReturn(new PaymentAuthenticationToken(tokenJwt, List.of(), "u", resolved));
 
         // action
-        service.setBrokerAuthenticationInContext();
+        PaymentPrincipal principal = service.getPrincipal();
+
+        // assertThat
+        assertThat(principal).isSameAs(resolved);
+        assertThat(service.getInternalId()).isEqualTo(7L);
+        assertThat(service.isUser()).isTrue();
+        assertThat(service.isAdmin()).isFalse();
+    }
+
+    @Test
+    void getPrincipal_otherAuthentication_resolvesFromAuthorities() {
+        // given
+        setupAuthority(ROLE_ADMIN);
+        given(authentication.getPrincipal()).willReturn("admin");
+
+        // action
+        PaymentPrincipal principal = service.getPrincipal();
 
         // assertThat
-        ArgumentCaptor<Authentication> captor = ArgumentCaptor.forClass(Authentication.class);
-        verify(securityContext).setAuthentication(captor.capture());
+        assertThat(principal.isAdmin()).isTrue();
+        assertThat(principal.isUser()).isFalse();
+        assertThat(principal.hasInternalId()).isFalse();
+    }
 
-        Authentication setAuth = captor.getValue();
+    @Test
+    void getPrincipal_noAuthentication_returnsAnonymous() {
+        // given
+        given(securityContext.getAuthentication()).willReturn(null);
+
+        // action & assertThat
+        assertThat(service.getPrincipal()).isEqualTo(PaymentPrincipal.ANONYMOUS);
+    }
+
+    @Test
+    void setBrokerAuthenticationInContext_setsAdminToken() {
+        // action
+        service.setBrokerAuthenticationInContext();
+
+        // assertThat
+        Authentication setAuth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(setAuth.getName()).isEqualTo("kafka-system");
-        
+
         // Verify it has the ADMIN authority
         boolean hasAdmin = setAuth.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals(ROLE_ADMIN));
         assertThat(hasAdmin).isTrue();
+
+        // The previous context is replaced, not mutated
+        assertThat(SecurityContextHolder.getContext()).isNotSameAs(securityContext);
+        verifyNoInteractions(securityContext);
     }
 
     // --- Helper ---
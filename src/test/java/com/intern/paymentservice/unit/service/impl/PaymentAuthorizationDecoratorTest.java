@@ -4,6 +4,7 @@ import com.intern.paymentservice.dto.CreatePaymentRequest;
 import com.intern.paymentservice.dto.PaymentResponse;
 import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
 import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.security.PaymentPrincipal;
 import com.intern.paymentservice.service.AuthenticationService;
 import com.intern.paymentservice.service.PaymentService;
 import com.intern.paymentservice.service.impl.PaymentAuthorizationDecorator;
@@ -30,6 +31,9 @@ import static org.springframework.http.HttpStatus.FORBIDDEN;
 @Tag("unit")
 class PaymentAuthorizationDecoratorTest {
 
+    private static final PaymentPrincipal ADMIN = new PaymentPrincipal(1L, PaymentPrincipal.ADMIN);
+    private static final PaymentPrincipal USER = new PaymentPrincipal(2L, PaymentPrincipal.USER);
+
     @Mock
     AuthenticationService authenticationService;
 
@@ -54,7 +58,7 @@ class PaymentAuthorizationDecoratorTest {
     @Test
     void createPayment_isAdmin_delegatesToAdminService() {
         // given
-        given(authenticationService.isAdmin()).willReturn(true);
+        given(authenticationService.getPrincipal()).willReturn(ADMIN);
 
         CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
         PaymentResponse expectedResponse = mock(PaymentResponse.class);
@@ -72,8 +76,7 @@ class PaymentAuthorizationDecoratorTest {
     @Test
     void createPayment_isUser_delegatesToUserService() {
         // given
-        given(authenticationService.isAdmin()).willReturn(false);
-        given(authenticationService.isUser()).willReturn(true);
+        given(authenticationService.getPrincipal()).willReturn(USER);
 
         CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
         PaymentResponse expectedResponse = mock(PaymentResponse.class);
@@ -91,8 +94,7 @@ class PaymentAuthorizationDecoratorTest {
     @Test
     void updatePaymentStatus_noRole_throwsForbiddenException() {
         // given
-        given(authenticationService.isAdmin()).willReturn(false);
-        given(authenticationService.isUser()).willReturn(false);
+        given(authenticationService.getPrincipal()).willReturn(PaymentPrincipal.ANONYMOUS);
 
         UpdatePaymentStatusRequest request = new UpdatePaymentStatusRequest(PaymentStatus.SUCCESS);
 
@@ -109,7 +111,7 @@ class PaymentAuthorizationDecoratorTest {
     @Test
     void deletePayment_isAdmin_delegatesToAdminService() {
         // given
-        given(authenticationService.isAdmin()).willReturn(true);
+        given(authenticationService.getPrincipal()).willReturn(ADMIN);
         String id = "del-1";
 
         // action
@@ -123,8 +125,7 @@ class PaymentAuthorizationDecoratorTest {
     @Test
     void findPaymentsByOrderId_isUser_delegatesToUserService() {
         // given
-        given(authenticationService.isAdmin()).willReturn(false);
-        given(authenticationService.isUser()).willReturn(true);
+        given(authenticationService.getPrincipal()).willReturn(USER);
         Long orderId = 55L;
 
         // action
@@ -138,7 +139,7 @@ class PaymentAuthorizationDecoratorTest {
     @Test
     void findPaymentsByUserId_isAdmin_delegatesToAdminService() {
         // given
-        given(authenticationService.isAdmin()).willReturn(true);
+        given(authenticationService.getPrincipal()).willReturn(ADMIN);
         Long userId = 77L;
 
         // action
@@ -152,8 +153,7 @@ class PaymentAuthorizationDecoratorTest {
     @Test
     void findPaymentsByStatuses_isUser_delegatesToUserService() {
         // given
-        given(authenticationService.isAdmin()).willReturn(false);
-        given(authenticationService.isUser()).willReturn(true);
+        given(authenticationService.getPrincipal()).willReturn(USER);
         List<PaymentStatus> statuses = List.of(PaymentStatus.PENDING);
 
         // action
@@ -167,8 +167,7 @@ class PaymentAuthorizationDecoratorTest {
     @Test
     void findPaymentTotalForPeriod_isUser_delegatesToUserService() {
         // given
-        given(authenticationService.isAdmin()).willReturn(false);
-        given(authenticationService.isUser()).willReturn(true);
+        given(authenticationService.getPrincipal()).willReturn(USER);
 
         Instant start = Instant.now();
         Instant end = Instant.now().plusSeconds(60);
@@ -7,6 +7,8 @@ import com.intern.paymentservice.dto.PaymentTotalResponse;
 import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
 import com.intern.paymentservice.model.PaymentStatus;
 import com.intern.paymentservice.service.PaymentService;
+import com.intern.paymentservice.service.broker.EventEmissionPolicy;
+import com.intern.paymentservice.service.broker.PaymentEventCoalescer;
 import com.intern.paymentservice.service.broker.PaymentProducer;
 import com.intern.paymentservice.service.impl.PaymentFacadeImpl;
 import org.junit.jupiter.api.Tag;
@@ -16,8 +18,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
@@ -25,6 +31,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -41,6 +48,9 @@ class PaymentFacadeImplTest {
     @Mock
     PaymentResultClient paymentResultClient;
 
+    @Mock
+    PaymentEventCoalescer paymentEventCoalescer;
+
     @InjectMocks
     PaymentFacadeImpl facade;
 
@@ -133,7 +143,7 @@ class PaymentFacadeImplTest {
     }
 
     @Test
-    void deletePayment_delegatesToService() {
+    void deletePayment_delegatesToServiceAndSendsTombstone() {
         // given
         String id = "del-1";
 
@@ -142,6 +152,7 @@ class PaymentFacadeImplTest {
 
         // assertThat
         verify(paymentService).deletePayment(id);
+        verify(paymentProducer).sendPaymentDeleted(id);
     }
 
     @Test
@@ -204,4 +215,139 @@ class PaymentFacadeImplTest {
         assertThat(actual).isEqualTo(total);
         verify(paymentService).findPaymentTotalForPeriod(start, end);
     }
-}
\ No newline at end of file
+
+    @Test
+    void createPaymentIdempotently_newOrder_createsPayment() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
+        PaymentResponse pendingResponse = new PaymentResponse("p1", 1L, 100L, PaymentStatus.PENDING, Instant.now(), BigDecimal.TEN);
+        given(paymentService.findPaymentsByOrderId(1L)).willReturn(List.of());
+        given(paymentService.createPayment(request)).willReturn(pendingResponse);
+        given(paymentResultClient.getPaymentResult()).willReturn(2);
+
+        // action
+        PaymentResponse actual = facade.createPaymentIdempotently(request);
+
+        // assertThat
+        assertThat(actual).isEqualTo(pendingResponse);
+        verify(paymentService).createPayment(request);
+    }
+
+    @Test
+    void createPaymentIdempotently_settledPaymentExists_republishesItWithoutCreating() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
+        PaymentResponse settled = new PaymentResponse("p1", 1L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        given(paymentService.findPaymentsByOrderId(1L)).willReturn(List.of(settled));
+
+        // action
+        PaymentResponse actual = facade.createPaymentIdempotently(request);
+
+        // assertThat
+        assertThat(actual).isEqualTo(settled);
+        verify(paymentProducer).sendPaymentUpdate(settled);
+        verify(paymentService, never()).createPayment(any());
+        verify(paymentResultClient, never()).getPaymentResult();
+    }
+
+    @Test
+    void createPaymentIdempotently_pendingPaymentExists_completesSettlement() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
+        PaymentResponse pending = new PaymentResponse("p1", 1L, 100L, PaymentStatus.PENDING, Instant.now(), BigDecimal.TEN);
+        PaymentResponse failed = new PaymentResponse("p1", 1L, 100L, PaymentStatus.FAILED, Instant.now(), BigDecimal.TEN);
+        given(paymentService.findPaymentsByOrderId(1L)).willReturn(List.of(pending));
+        given(paymentResultClient.getPaymentResult()).willReturn(3);
+        given(paymentService.updatePaymentStatus(eq("p1"), any(UpdatePaymentStatusRequest.class))).willReturn(failed);
+
+        // action
+        facade.createPaymentIdempotently(request);
+
+        // assertThat
+        verify(paymentService, never()).createPayment(any());
+        verify(paymentProducer).sendPaymentUpdate(failed);
+    }
+
+    @Test
+    void createPaymentIdempotently_concurrentDeliveryInsertedFirst_returnsItsPaymentWithoutSettling() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
+        PaymentResponse concurrent = new PaymentResponse("p1", 1L, 100L, PaymentStatus.PENDING, Instant.now(), BigDecimal.TEN);
+        given(paymentService.findPaymentsByOrderId(1L)).willReturn(List.of(), List.of(concurrent));
+        given(paymentService.createPayment(request)).willThrow(new DuplicateKeyException("payment_order_user_unique_idx"));
+
+        // action
+        PaymentResponse actual = facade.createPaymentIdempotently(request);
+
+        // assertThat
+        assertThat(actual).isEqualTo(concurrent);
+        verify(paymentResultClient, never()).getPaymentResult();
+        verify(paymentProducer, never()).sendPaymentUpdate(any());
+    }
+
+    @Test
+    void createPayment_finalOnlyDecisionWithinDeadline_sendsOnlyFinalEvent() {
+        // given
+        ReflectionTestUtils.setField(facade, "emissionPolicy", EventEmissionPolicy.FINAL_ONLY);
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
+        PaymentResponse pendingResponse = new PaymentResponse("p1", 1L, 100L, PaymentStatus.PENDING, Instant.now(), BigDecimal.TEN);
+        PaymentResponse successResponse = new PaymentResponse("p1", 1L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        given(paymentService.createPayment(request)).willReturn(pendingResponse);
+        given(paymentResultClient.getPaymentResultAsync()).willReturn(Mono.just(2));
+        given(paymentService.updatePaymentStatus(eq("p1"), any(UpdatePaymentStatusRequest.class)))
+                .willReturn(successResponse);
+
+        // action
+        facade.createPayment(request);
+
+        // assertThat
+        verify(paymentProducer).sendPaymentUpdate(successResponse);
+        verify(paymentProducer, never()).sendPaymentUpdate(pendingResponse);
+    }
+
+    @Test
+    void createPayment_finalOnlyDecisionPastDeadline_sendsPendingThenFinalEvent() {
+        // given
+        ReflectionTestUtils.setField(facade, "emissionPolicy", EventEmissionPolicy.FINAL_ONLY);
+        ReflectionTestUtils.setField(facade, "finalOnlyDeadline", Duration.ofMillis(10));
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
+        PaymentResponse pendingResponse = new PaymentResponse("p1", 1L, 100L, PaymentStatus.PENDING, Instant.now(), BigDecimal.TEN);
+        PaymentResponse failedResponse = new PaymentResponse("p1", 1L, 100L, PaymentStatus.FAILED, Instant.now(), BigDecimal.TEN);
+        given(paymentService.createPayment(request)).willReturn(pendingResponse);
+        given(paymentResultClient.getPaymentResultAsync())
+                .willReturn(Mono.just(3).delayElement(Duration.ofMillis(200)));
+        given(paymentService.updatePaymentStatus(eq("p1"), any(UpdatePaymentStatusRequest.class)))
+                .willReturn(failedResponse);
+
+        // action
+        facade.createPayment(request);
+
+        // assertThat
+        ArgumentCaptor<PaymentResponse> producerCaptor = ArgumentCaptor.forClass(PaymentResponse.class);
+        verify(paymentProducer, times(2)).sendPaymentUpdate(producerCaptor.capture());
+        assertThat(producerCaptor.getAllValues())
+                .extracting(PaymentResponse::status)
+                .containsExactly(PaymentStatus.PENDING, PaymentStatus.FAILED);
+    }
+
+    @Test
+    void createPayment_coalesce_submitsEveryTransitionToCoalescer() {
+        // given
+        ReflectionTestUtils.setField(facade, "emissionPolicy", EventEmissionPolicy.COALESCE);
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
+        PaymentResponse pendingResponse = new PaymentResponse("p1", 1L, 100L, PaymentStatus.PENDING, Instant.now(), BigDecimal.TEN);
+        PaymentResponse successResponse = new PaymentResponse("p1", 1L, 100L, PaymentStatus.SUCCESS, Instant.now(), BigDecimal.TEN);
+        given(paymentService.createPayment(request)).willReturn(pendingResponse);
+        given(paymentResultClient.getPaymentResult()).willReturn(2);
+        given(paymentService.updatePaymentStatus(eq("p1"), any(UpdatePaymentStatusRequest.class)))
+                .willReturn(successResponse);
+
+        // action
+        facade.createPayment(request);
+
+        // assertThat
+        verify(paymentEventCoalescer).submit(pendingResponse);
+        verify(paymentEventCoalescer).submit(successResponse);
+        verify(paymentProducer, never()).sendPaymentUpdate(any());
+    }
+}
@@ -0,0 +1,121 @@
+package com.intern.paymentservice.unit.service.impl;
+
+import com.intern.paymentservice.client.PaymentResultClient;
+import com.intern.paymentservice.dto.CreatePaymentRequest;
+import com.intern.paymentservice.dto.PaymentResponse;
+import com.intern.paymentservice.dto.UpdatePaymentStatusRequest;
+import com.intern.paymentservice.exception.PaymentNotFoundException;
+import com.intern.paymentservice.exception.UserAccessDeniedException;
+import com.intern.paymentservice.mapper.PaymentMapper;
+import com.intern.paymentservice.model.Payment;
+import com.intern.paymentservice.model.PaymentStatus;
+import com.intern.paymentservice.repository.ReactivePaymentRepository;
+import com.intern.paymentservice.security.PaymentPrincipal;
+import com.intern.paymentservice.service.broker.PaymentProducer;
+import com.intern.paymentservice.service.impl.ReactivePaymentFacadeImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("unit")
+class ReactivePaymentFacadeImplTest {
+
+    private static final PaymentPrincipal ADMIN = new PaymentPrincipal(1L, PaymentPrincipal.ADMIN);
+    private static final PaymentPrincipal USER = new PaymentPrincipal(100L, PaymentPrincipal.USER);
+
+    @Mock
+    ReactivePaymentRepository paymentRepository;
+
+    @Mock
+    PaymentMapper paymentMapper;
+
+    @Mock
+    PaymentProducer paymentProducer;
+
+    @Mock
+    PaymentResultClient paymentResultClient;
+
+    ReactivePaymentFacadeImpl facade;
+
+    @BeforeEach
+    void setUp() {
+        facade = new ReactivePaymentFacadeImpl(
+                paymentRepository, paymentMapper, paymentProducer, paymentResultClient);
+    }
+
+    @Test
+    void createPayment_admin_savesSimulatesAndSendsBothEvents() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 100L, BigDecimal.TEN);
+        Payment payment = Payment.builder().id("p1").orderId(1L).userId(100L).paymentAmount(BigDecimal.TEN).build();
+        PaymentResponse pending = response(PaymentStatus.PENDING);
+        PaymentResponse success = response(PaymentStatus.SUCCESS);
+
+        given(paymentMapper.toEntity(request)).willReturn(payment);
+        given(paymentRepository.save(any(Payment.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        given(paymentRepository.findById("p1")).willReturn(Mono.just(payment));
+        given(paymentMapper.toResponse(any(Payment.class))).willReturn(pending, success);
+        given(paymentProducer.sendPaymentUpdateAsync(any())).willReturn(Mono.empty());
+        given(paymentResultClient.getPaymentResultAsync()).willReturn(Mono.just(200));
+
+        // action
+        PaymentResponse actual = facade.createPayment(ADMIN, request).block();
+
+        // assertThat
+        assertThat(actual).isEqualTo(pending);
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        then(paymentProducer).should(times(2)).sendPaymentUpdateAsync(any());
+    }
+
+    @Test
+    void createPayment_userForAnotherUser_failsWithAccessDenied() {
+        // given
+        CreatePaymentRequest request = new CreatePaymentRequest(1L, 999L, BigDecimal.TEN);
+
+        // action & assertThat
+        assertThatThrownBy(() -> facade.createPayment(USER, request).block())
+                .isInstanceOf(UserAccessDeniedException.class);
+        then(paymentRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void updatePaymentStatus_userNotOwner_failsWithNotFound() {
+        // given
+        given(paymentRepository.findByIdAndUserId("p1", 100L)).willReturn(Mono.empty());
+
+        // action & assertThat
+        assertThatThrownBy(() -> facade.updatePaymentStatus(USER, "p1",
+                new UpdatePaymentStatusRequest(PaymentStatus.SUCCESS)).block())
+                .isInstanceOf(PaymentNotFoundException.class);
+        then(paymentProducer).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void findPaymentTotalForPeriod_noRole_failsWithForbidden() {
+        // action & assertThat
+        assertThatThrownBy(() -> facade.findPaymentTotalForPeriod(
+                PaymentPrincipal.ANONYMOUS, Instant.EPOCH, Instant.now()).block())
+                .isInstanceOf(ResponseStatusException.class);
+        then(paymentRepository).shouldHaveNoInteractions();
+    }
+
+    private static PaymentResponse response(PaymentStatus status) {
+        return new PaymentResponse("p1", 1L, 100L, status, Instant.now(), BigDecimal.TEN);
+    }
+}